@@ -0,0 +1,191 @@
+/*
+ * HtmlParser adversarial input benchmark
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+import java.util.concurrent.TimeUnit;
+import jp.osdn.jindolf.parser.HtmlParseException;
+import jp.osdn.jindolf.parser.HtmlParser;
+import jp.osdn.jindolf.parser.ParseLimitException;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 不正な文書に対する{@link HtmlParser#parseAutomatic(DecodedContent)}の
+ * 性能計測。
+ *
+ * <p>正規表現のバックトラックにより、
+ * 文書長の2乗に比例する時間を要する文書をパースする。
+ * 文字の参照回数に上限を課した場合と課さない場合とを比較する。
+ *
+ * <p>パースは必ず失敗するため、1回あたりの所要時間を計測する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class AdversarialBenchmark{
+
+    /** 文書の形。 */
+    @Param
+    public Shape shape;
+
+    /** 文書の規模。連続する空白の長さ。 */
+    @Param({"2000", "8000"})
+    public int size;
+
+    /** 文字の参照回数の上限を課すならtrue。 */
+    @Param({"false", "true"})
+    public boolean scanLimit;
+
+    private DecodedContent content;
+    private HtmlParser parser;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public AdversarialBenchmark(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 文書とパーサを用意する。
+     */
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.content = new DecodedContent(this.shape.build(this.size));
+
+        NopHandler handler = new NopHandler();
+        this.parser = new HtmlParser();
+        this.parser.setBasicHandler(handler);
+        this.parser.setTalkHandler(handler);
+        this.parser.setSysEventHandler(handler);
+        if(this.scanLimit){
+            this.parser.setScanLimit(4L * this.content.length());
+        }
+
+        return;
+    }
+
+    /**
+     * 不正な文書をパースする。
+     *
+     * @return パース例外
+     */
+    @Benchmark
+    public HtmlParseException parseHostile(){
+        try{
+            this.parser.parseAutomatic(this.content);
+        }catch(ParseLimitException e){
+            return e;
+        }catch(HtmlParseException e){
+            return e;
+        }
+        throw new IllegalStateException("hostile page accepted");
+    }
+
+
+    /**
+     * バックトラックを誘発する文書の形。
+     */
+    public enum Shape{
+
+        /** 村名の後に空白が続き、更新日時が現れない。 */
+        VILLAGE_SPACES,
+
+        /** メッセージ種別の判定中に空白が続き、閉じタグが現れない。 */
+        MESSAGE_SPACES,
+
+        ;
+
+
+        /**
+         * 文書先頭から村情報の直前までを出力する。
+         *
+         * @param buf 出力先
+         */
+        private static void appendHead(StringBuilder buf){
+            buf.append("<?xml version=\"1.0\" encoding=\"Shift_JIS\"?>\n");
+            buf.append("<html xmlns=\"http://www.w3.org/1999/xhtml\">\n");
+            buf.append("<head><title>人狼BBS:F F1 テスト村</title></head>\n");
+            buf.append("<body>\n");
+            buf.append("<div class=\"main\">\n");
+            buf.append("<form action=\"index.rb\" method=\"post\" ");
+            buf.append("class=\"login_form\">");
+            buf.append("<input type=\"hidden\" name=\"user_id\" ");
+            buf.append("value=\"\" />");
+            buf.append("</form>\n");
+            return;
+        }
+
+        /**
+         * 空白を出力する。
+         *
+         * @param buf 出力先
+         * @param count 空白の数
+         */
+        private static void appendSpaces(StringBuilder buf, int count){
+            for(int ct = 0; ct < count; ct++){
+                buf.append(' ');
+            }
+            return;
+        }
+
+        /**
+         * 文書を生成する。
+         *
+         * @param size 連続する空白の長さ
+         * @return XHTML文書
+         */
+        String build(int size){
+            StringBuilder buf = new StringBuilder();
+
+            appendHead(buf);
+            buf.append("F1 テスト村");
+
+            switch(this){
+            case VILLAGE_SPACES:
+                appendSpaces(buf, size);
+                break;
+            case MESSAGE_SPACES:
+                buf.append(" <strong>（7/12 午前 2時 0分 に更新）</strong>\n");
+                buf.append("<p><span class=\"time\">1日目</span></p>\n");
+                buf.append("<div class=\"message ch1\">\n");
+                buf.append("<a name=\"x\"><span class=\"mes_no\">1.</span>");
+                appendSpaces(buf, size);
+                buf.append("</a>");
+                appendSpaces(buf, size);
+                break;
+            default:
+                assert false;
+                break;
+            }
+
+            buf.append('z');
+
+            return buf.toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * benchmark launcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ベンチマーク起動クラス。
+ *
+ * <p>JMH標準のコマンドラインオプションを受け付ける。
+ * メモリ割り当て量を報告するため、GCプロファイラが常に有効となる。
+ */
+public final class BenchMain{
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private BenchMain(){
+        super();
+        return;
+    }
+
+
+    /**
+     * ベンチマークを実行する。
+     *
+     * @param args JMHコマンドラインオプション
+     * @throws CommandLineOptionException オプション指定の誤り
+     * @throws RunnerException 実行エラー
+     */
+    public static void main(String[] args)
+            throws CommandLineOptionException, RunnerException{
+        CommandLineOptions cmdOpts = new CommandLineOptions(args);
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOpts);
+        if(cmdOpts.getIncludes().isEmpty()){
+            builder.include(ParseBenchmark.class.getSimpleName());
+        }
+        builder.addProfiler(GCProfiler.class);
+
+        new Runner(builder.build()).run();
+
+        return;
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Shift_JIS decode benchmark
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import jp.osdn.jindolf.parser.content.ContentBuilderSJ;
+import jp.osdn.jindolf.parser.content.ContentLoader;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.osdn.jindolf.parser.content.SjisDecoder;
+import jp.osdn.jindolf.parser.content.SjisNotifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Shift_JISバイト列から{@link DecodedContent}を得るまでの性能計測。
+ *
+ * <p>デコード通知を介する従来の方式と、
+ * {@link SjisDecoder}による直接デコード、
+ * および{@link ContentLoader}による使い回しを伴うデコードとを比較する。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class DecodeBenchmark{
+
+    /** デコード対象文書。 */
+    @Param({"PROLOGUE_20", "PERIOD_5000"})
+    public PageFixture fixture;
+
+    private byte[] bytes;
+    private ContentLoader loader;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public DecodeBenchmark(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 文書を用意する。
+     */
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.bytes = this.fixture.buildBytes();
+        this.loader = new ContentLoader(1, Integer.MAX_VALUE);
+        return;
+    }
+
+    /**
+     * デコード通知を介してデコードする。
+     *
+     * @return デコード結果
+     * @throws IOException 入力エラー
+     * @throws DecodeBreakException デコード中断
+     */
+    @Benchmark
+    public DecodedContent decodeNotifier()
+            throws IOException, DecodeBreakException{
+        SjisNotifier notifier = new SjisNotifier();
+        ContentBuilderSJ builder = new ContentBuilderSJ();
+        notifier.setCharDecodeListener(builder);
+        notifier.decode(new ByteArrayInputStream(this.bytes));
+        return builder.getContent();
+    }
+
+    /**
+     * バイト配列から直接デコードする。
+     *
+     * @return デコード結果
+     */
+    @Benchmark
+    public DecodedContent decodeDirect(){
+        SjisDecoder decoder = new SjisDecoder();
+        return decoder.decode(this.bytes);
+    }
+
+    /**
+     * 文字列格納領域とデコーダを使い回してストリームからデコードする。
+     *
+     * @return デコード結果の文字数
+     * @throws IOException 入力エラー
+     */
+    @Benchmark
+    public int decodePooled() throws IOException{
+        DecodedContent content =
+                this.loader.load(new ByteArrayInputStream(this.bytes));
+        int result = content.length();
+        this.loader.release(content);
+        return result;
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * EntityConverter benchmark
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import jp.osdn.jindolf.parser.EntityConverter;
+import jp.osdn.jindolf.parser.HtmlParseException;
+import jp.osdn.jindolf.parser.HtmlParser;
+import jp.osdn.jindolf.parser.SeqRange;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link EntityConverter}の性能計測。
+ *
+ * <p>文書中の全発言テキスト片の文字実体参照を解決する。
+ * 表引きによる走査と、従来の正規表現による探索
+ * {@link RegexEntityConverter}とを比較する。
+ *
+ * <p>使い回す文字配列への変換も計測する。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityBenchmark{
+
+    /** 変換対象文書。 */
+    @Param({"PERIOD_500"})
+    public PageFixture fixture;
+
+    /** SMP面文字を代替処理するならtrue。 */
+    @Param({"false", "true"})
+    public boolean replaceSmp;
+
+    private DecodedContent content;
+    private int[] textStarts;
+    private int[] textEnds;
+
+    private EntityConverter scanConverter;
+    private RegexEntityConverter regexConverter;
+
+    private char[] sink;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public EntityBenchmark(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 文書と発言テキスト片の範囲を用意する。
+     *
+     * @throws HtmlParseException 生成した文書が不正
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws HtmlParseException{
+        this.content = this.fixture.buildContent();
+
+        TextCollector collector = new TextCollector();
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(collector);
+        parser.setTalkHandler(collector);
+        parser.setSysEventHandler(collector);
+        parser.parseAutomatic(this.content);
+
+        this.textStarts = Arrays.copyOf(collector.starts, collector.count);
+        this.textEnds   = Arrays.copyOf(collector.ends,   collector.count);
+
+        this.scanConverter  = new EntityConverter(this.replaceSmp);
+        this.regexConverter = new RegexEntityConverter(this.replaceSmp);
+
+        int maxLength = 0;
+        for(int idx = 0; idx < this.textStarts.length; idx++){
+            int length = this.textEnds[idx] - this.textStarts[idx];
+            maxLength = Math.max(maxLength, length);
+        }
+        this.sink = new char[maxLength];
+
+        for(int idx = 0; idx < this.textStarts.length; idx++){
+            int start = this.textStarts[idx];
+            int end   = this.textEnds[idx];
+            String scanned =
+                    this.scanConverter.convert(this.content, start, end)
+                    .toString();
+            String matched =
+                    this.regexConverter.convert(this.content, start, end)
+                    .toString();
+            if( ! scanned.equals(matched) ){
+                throw new IllegalStateException("conversion mismatch");
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * 表引きによる走査で変換する。
+     *
+     * @return 変換結果
+     */
+    @Benchmark
+    public DecodedContent convertScan(){
+        DecodedContent result = new DecodedContent();
+        for(int idx = 0; idx < this.textStarts.length; idx++){
+            this.scanConverter.append(result, this.content,
+                                      this.textStarts[idx],
+                                      this.textEnds[idx] );
+        }
+        return result;
+    }
+
+    /**
+     * 表引きによる走査で、使い回す文字配列へ変換する。
+     *
+     * @return 変換後の総文字数
+     */
+    @Benchmark
+    public int convertArray(){
+        int result = 0;
+        for(int idx = 0; idx < this.textStarts.length; idx++){
+            result += this.scanConverter.convert(this.content,
+                                                 this.textStarts[idx],
+                                                 this.textEnds[idx],
+                                                 this.sink, 0 );
+        }
+        return result;
+    }
+
+    /**
+     * 正規表現による探索で変換する。
+     *
+     * @return 変換結果
+     */
+    @Benchmark
+    public DecodedContent convertRegex(){
+        DecodedContent result = new DecodedContent();
+        for(int idx = 0; idx < this.textStarts.length; idx++){
+            this.regexConverter.append(result, this.content,
+                                       this.textStarts[idx],
+                                       this.textEnds[idx] );
+        }
+        return result;
+    }
+
+
+    /**
+     * 発言テキスト片の範囲を集めるハンドラ。
+     */
+    private static class TextCollector extends NopHandler{
+
+        private int[] starts = new int[256];
+        private int[] ends   = new int[256];
+        private int count;
+
+
+        /**
+         * コンストラクタ。
+         */
+        TextCollector(){
+            super();
+            return;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param content {@inheritDoc}
+         * @param textRange {@inheritDoc}
+         * @throws HtmlParseException {@inheritDoc}
+         */
+        @Override
+        public void talkText(DecodedContent content, SeqRange textRange)
+                throws HtmlParseException{
+            super.talkText(content, textRange);
+            if(this.count >= this.starts.length){
+                this.starts = Arrays.copyOf(this.starts, this.count * 2);
+                this.ends   = Arrays.copyOf(this.ends,   this.count * 2);
+            }
+            this.starts[this.count] = textRange.getStartPos();
+            this.ends  [this.count] = textRange.getEndPos();
+            this.count++;
+            return;
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * no-operation handler
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+import jp.osdn.jindolf.parser.HtmlAdapter;
+import jp.osdn.jindolf.parser.HtmlParseException;
+import jp.osdn.jindolf.parser.SeqRange;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.sourceforge.jindolf.corelib.VillageState;
+
+/**
+ * 何もしないハンドラ。
+ *
+ * <p>パーサ単体のコストを計測するために用いる。
+ * メッセージ数のみ数える。
+ * 村一覧の各村もメッセージとして数える。
+ */
+public class NopHandler extends HtmlAdapter{
+
+    private int messages;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public NopHandler(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 直近のパースで通知されたメッセージ数を返す。
+     *
+     * @return メッセージ数
+     */
+    public int getMessages(){
+        return this.messages;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param content {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void startParse(DecodedContent content)
+            throws HtmlParseException{
+        this.messages = 0;
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param content {@inheritDoc}
+     * @param anchorRange {@inheritDoc}
+     * @param villageRange {@inheritDoc}
+     * @param hour {@inheritDoc}
+     * @param minute {@inheritDoc}
+     * @param state {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void villageRecord(DecodedContent content,
+                              SeqRange anchorRange,
+                              SeqRange villageRange,
+                              int hour, int minute,
+                              VillageState state )
+            throws HtmlParseException{
+        this.messages++;
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void endTalk() throws HtmlParseException{
+        this.messages++;
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void endSysEvent() throws HtmlParseException{
+        this.messages++;
+        return;
+    }
+
+}
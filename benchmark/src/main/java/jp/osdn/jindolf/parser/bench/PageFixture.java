@@ -0,0 +1,121 @@
+/*
+ * benchmark page fixture
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+import java.nio.charset.Charset;
+import jp.osdn.jindolf.parser.PageType;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+/**
+ * ベンチマークで用いるXHTML文書の種類と規模。
+ */
+public enum PageFixture{
+
+    /** トップページ。 */
+    TOP_PAGE(PageType.TOP_PAGE, 30),
+    /** 終了した村一覧。 */
+    VILLAGELIST_PAGE(PageType.VILLAGELIST_PAGE, 2000),
+    /** 20メッセージのプロローグ。 */
+    PROLOGUE_20(PageType.PERIOD_PAGE, 20),
+    /** 500メッセージの進行日。 */
+    PERIOD_500(PageType.PERIOD_PAGE, 500),
+    /** 5000メッセージの賑やかな進行日。 */
+    PERIOD_5000(PageType.PERIOD_PAGE, 5000),
+    ;
+
+    private static final long SEED = 20090401L;
+    private static final Charset SJIS = Charset.forName("Shift_JIS");
+
+
+    private final PageType pageType;
+    private final int scale;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param pageType ページ種別
+     * @param scale 村数もしくはメッセージ数
+     */
+    PageFixture(PageType pageType, int scale){
+        this.pageType = pageType;
+        this.scale = scale;
+        return;
+    }
+
+
+    /**
+     * ページ種別を返す。
+     *
+     * @return ページ種別
+     */
+    public PageType getPageType(){
+        return this.pageType;
+    }
+
+    /**
+     * 規模を返す。
+     *
+     * <p>ページ種別により村数もしくはメッセージ数を表す。
+     *
+     * @return 規模
+     */
+    public int getScale(){
+        return this.scale;
+    }
+
+    /**
+     * XHTML文書を生成する。
+     *
+     * @return XHTML文書
+     */
+    public String buildText(){
+        PageGenerator generator = new PageGenerator(SEED);
+
+        String result;
+        switch(this){
+        case TOP_PAGE:
+            result = generator.topPage(this.scale);
+            break;
+        case VILLAGELIST_PAGE:
+            result = generator.villageListPage(this.scale);
+            break;
+        case PROLOGUE_20:
+            result = generator.prologuePage(this.scale);
+            break;
+        default:
+            result = generator.progressPage(this.scale);
+            break;
+        }
+
+        return result;
+    }
+
+    /**
+     * パース対象文字列を生成する。
+     *
+     * @return パース対象文字列
+     */
+    public DecodedContent buildContent(){
+        String text = buildText();
+        DecodedContent result = new DecodedContent(text);
+        return result;
+    }
+
+    /**
+     * Shift_JISで符号化されたXHTML文書を生成する。
+     *
+     * @return バイト列
+     */
+    public byte[] buildBytes(){
+        String text = buildText();
+        byte[] result = text.getBytes(SJIS);
+        return result;
+    }
+
+}
@@ -0,0 +1,376 @@
+/*
+ * benchmark page generator
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+import java.util.Random;
+
+/**
+ * ベンチマーク用に人狼BBS(F国)形式のXHTML文書を合成する。
+ *
+ * <p>乱数種が同じなら常に同じ文書が生成される。
+ *
+ * <p>生成される文字は全てShift_JIS(JIS X0208)で表現可能。
+ */
+public class PageGenerator{
+
+    private static final String[] AVATARS = {
+        "楽天家 ゲルト",
+        "村長 ヴァルター",
+        "老人 モーリッツ",
+        "神父 ジムゾン",
+        "木こり トーマス",
+        "旅人 ニコラス",
+        "ならず者 ディーター",
+        "少年 ペーター",
+        "少女 リーザ",
+        "羊飼い カタリナ",
+        "パン屋 オットー",
+        "青年 ヨアヒム",
+        "村娘 パメラ",
+        "農夫 ヤコブ",
+        "宿屋の女主人 レジーナ",
+        "シスター フリーデル",
+    };
+
+    private static final String[] PHRASES = {
+        "おはよう。今日もいい天気だね。",
+        "昨日の投票、みんなはどう考えてる？",
+        "占い結果はまだ出せないよ。",
+        "&gt;&gt;12 それは少し早計じゃないかな。",
+        "ちょっと席を外すね。すぐ戻るよ。",
+        "人狼はこの中にいる……。",
+        "&quot;吊り&quot;の順番を決めておこう。",
+        "パンが焼けたよ。みんな食べて。",
+        "今夜は誰を護るべきか悩ましいな。",
+        "ＣＯします。わたしが占い師です。",
+        "R&amp;D 的な発想で推理してみよう。",
+        "……。",
+    };
+
+    private static final String[] TALK_CLASSES = {
+        "say", "say", "say", "say", "think", "whisper", "groan",
+    };
+
+    private static final String HEAD_DECL =
+            "<?xml version=\"1.0\" encoding=\"Shift_JIS\"?>\n"
+            + "<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.1//EN\" "
+            + "\"http://www.w3.org/TR/xhtml11/DTD/xhtml11.dtd\">\n"
+            + "<html xmlns=\"http://www.w3.org/1999/xhtml\" xml:lang=\"ja\">\n"
+            + "<head>\n"
+            + "<meta http-equiv=\"Content-Type\" "
+            + "content=\"text/html; charset=Shift_JIS\" />\n";
+
+    private static final String LOGIN_FORM =
+            "<form action=\"index.rb\" method=\"post\" class=\"login_form\">\n"
+            + "<input type=\"hidden\" name=\"cmd\" value=\"logout\" />\n"
+            + "<input type=\"hidden\" name=\"user_id\" value=\"guest\" />\n"
+            + "<input type=\"submit\" value=\"ログアウト\" />\n"
+            + "</form>\n";
+
+    private static final String TAIL =
+            "</div>\n"
+            + "<div class=\"footer\">\n"
+            + "<a href=\"http://ninjinix.com/\">ninjinix.com</a>\n"
+            + "</div>\n"
+            + "</body>\n"
+            + "</html>\n";
+
+
+    private final Random random;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param seed 乱数種
+     */
+    public PageGenerator(long seed){
+        super();
+        this.random = new Random(seed);
+        return;
+    }
+
+
+    /**
+     * 文書先頭部を出力する。
+     *
+     * @param buf 出力先
+     * @param title ページタイトル
+     */
+    private static void appendHead(StringBuilder buf, String title){
+        buf.append(HEAD_DECL);
+        buf.append("<title>").append(title).append("</title>\n");
+        buf.append("</head>\n");
+        buf.append("<body>\n");
+        buf.append("<div class=\"main\">\n");
+        return;
+    }
+
+    /**
+     * 乱数で配列要素を選ぶ。
+     *
+     * @param array 配列
+     * @return 要素
+     */
+    private String choose(String... array){
+        int idx = this.random.nextInt(array.length);
+        return array[idx];
+    }
+
+    /**
+     * トップページを生成する。
+     *
+     * @param villages 進行中の村の数
+     * @return XHTML文書
+     */
+    public String topPage(int villages){
+        StringBuilder buf = new StringBuilder();
+
+        appendHead(buf, "人狼BBS:F");
+        buf.append(LOGIN_FORM);
+        buf.append("<p>人狼BBSへようこそ。</p>\n");
+        buf.append("<table class=\"list\">");
+        buf.append("<tr><th>村名</th><th>Mode</th>");
+        buf.append("<th>更新</th><th>状態</th></tr>\n");
+
+        String[] states = {
+            "参加者募集中です。", "開始待ちです。", "進行中です。",
+            "勝敗が決定しました。", "終了・ログ公開中。",
+        };
+
+        for(int ct = 0; ct < villages; ct++){
+            int vid = 3000 + ct;
+            buf.append("<tr><td>");
+            buf.append("<a href=\"index.rb?vid=").append(vid).append("\">");
+            buf.append('F').append(vid).append(" 人狼の村</a>");
+            buf.append("</td><td>通常</td><td>");
+            buf.append("<strong>（");
+            buf.append(this.random.nextBoolean() ? "午前" : "午後");
+            buf.append(' ');
+            buf.append(1 + this.random.nextInt(12)).append("時 ");
+            buf.append(this.random.nextInt(60)).append("分 更新）");
+            buf.append("</strong>");
+            buf.append("</td><td>");
+            buf.append(choose(states));
+            buf.append("</td></tr>\n");
+        }
+
+        buf.append("</table>\n");
+        buf.append(TAIL);
+
+        return buf.toString();
+    }
+
+    /**
+     * 終了した村一覧ページを生成する。
+     *
+     * @param villages 村の数
+     * @return XHTML文書
+     */
+    public String villageListPage(int villages){
+        StringBuilder buf = new StringBuilder();
+
+        appendHead(buf, "人狼BBS:F 終了した村の記録");
+        buf.append("終了した村の記録\n");
+        buf.append("<p>\n");
+
+        for(int ct = 0; ct < villages; ct++){
+            int vid = 1 + ct;
+            buf.append("<a href=\"index.rb?vid=").append(vid);
+            buf.append("&amp;meslog=").append(vid).append("_ready_0\">");
+            buf.append('F').append(vid).append(" 終わった村</a><br />");
+        }
+
+        buf.append("\n</p>\n");
+        buf.append(TAIL);
+
+        return buf.toString();
+    }
+
+    /**
+     * 村情報と日付間リンクを出力する。
+     *
+     * @param buf 出力先
+     * @param day 日付。0ならプロローグ。
+     */
+    private void appendVillageInfo(StringBuilder buf, int day){
+        appendHead(buf, "人狼BBS:F F2019 新緑の村");
+        buf.append(LOGIN_FORM);
+        buf.append("F2019 新緑の村 ");
+        buf.append("<strong>（7/12 午前 2時 0分 に更新）</strong>\n");
+
+        buf.append("<p>");
+        for(int ct = 0; ct <= day; ct++){
+            String label;
+            if(ct == 0) label = "プロローグ";
+            else        label = ct + "日目";
+
+            if(ct == day){
+                buf.append("<span class=\"time\">").append(label);
+                buf.append("</span>\n");
+            }else{
+                buf.append("<a href=\"index.rb?vid=2019&amp;meslog=2019_");
+                buf.append(ct).append("\">").append(label).append("</a>\n");
+            }
+        }
+        buf.append("</p>\n");
+
+        return;
+    }
+
+    /**
+     * システムイベントを出力する。
+     *
+     * @param buf 出力先
+     * @param family ファミリ名
+     * @param text 内容
+     */
+    private static void appendSysEvent(StringBuilder buf,
+                                       String family, String text){
+        buf.append("<div class=\"message\">\n");
+        buf.append("<div class=\"").append(family).append("\">\n");
+        buf.append(text).append('\n');
+        buf.append("</div>\n");
+        buf.append("</div>\n");
+        return;
+    }
+
+    /**
+     * 発言を出力する。
+     *
+     * @param buf 出力先
+     * @param serial 通し番号
+     * @param avatar 発言者名
+     * @param lines 行数
+     */
+    private void appendTalk(StringBuilder buf,
+                            int serial, String avatar, int lines){
+        int faceNo = 1 + serial % AVATARS.length;
+        String talkClass = choose(TALK_CLASSES);
+
+        buf.append("<div class=\"message ch").append(faceNo).append("\">\n");
+        buf.append("<a name=\"mes").append(1_000_000 + serial).append("\" ");
+        buf.append("class=\"ch_name\">").append(avatar).append("</a>\n");
+        buf.append("<span class=\"time\">");
+        buf.append(this.random.nextBoolean() ? "午前 " : "午後 ");
+        buf.append(1 + this.random.nextInt(12)).append("時 ");
+        buf.append(this.random.nextInt(60)).append("分 </span>\n");
+        buf.append("<table class=\"message_box\">\n");
+        buf.append("<tr>\n");
+        buf.append("<td width=\"50\"><img src=\"./plugin_wolf/img/face");
+        if(faceNo < 10) buf.append('0');
+        buf.append(faceNo).append(".jpg\"></td>\n");
+        buf.append("<td width=\"16\"><img src=\"./plugin_wolf/img/");
+        buf.append(talkClass).append("00.jpg\"></td>\n");
+        buf.append("<td>\n");
+        buf.append("<div class=\"mes_").append(talkClass).append("_body0\">\n");
+        buf.append("<div class=\"mes_").append(talkClass).append("_body1\">");
+
+        for(int line = 0; line < lines; line++){
+            if(line > 0) buf.append("<br />");
+            if(this.random.nextInt(16) == 0){
+                buf.append("<a href=\"#mes").append(serial).append("\">");
+                buf.append("&gt;&gt;").append(serial).append("</a>");
+            }
+            buf.append(choose(PHRASES));
+        }
+
+        buf.append("</div>\n");
+        buf.append("</div>\n");
+        buf.append("</td>\n");
+        buf.append("</tr>\n");
+        buf.append("</table>\n");
+        buf.append("</div>\n");
+
+        return;
+    }
+
+    /**
+     * プロローグのページを生成する。
+     *
+     * <p>入村通知と挨拶発言の組を繰り返す。
+     *
+     * @param messages メッセージ総数の目安
+     * @return XHTML文書
+     */
+    public String prologuePage(int messages){
+        StringBuilder buf = new StringBuilder();
+
+        appendVillageInfo(buf, 0);
+
+        appendSysEvent(buf, "announce",
+                  "昼間は人間のふりをして、夜に正体を現すという人狼。<br />"
+                + "その人狼が、この村に紛れ込んでいるという噂が広がった。"
+                + "<br /><br />"
+                + "村人達は半信半疑ながらも、"
+                + "村はずれの宿に集められることになった。<br />");
+        appendSysEvent(buf, "order",
+                  "演じたいキャラクターを選び、発言してください。<br />"
+                + "02:00 に11名以上がエントリーしていれば進行します。<br />"
+                + "最大16名まで参加可能です。<br /><br />"
+                + "※エントリーは取り消せません。"
+                + "ルールをよく理解した上でご参加下さい。<br />");
+
+        int serial = 0;
+        int entry = 1;
+        while(serial < messages - 2){
+            String avatar = AVATARS[(entry - 1) % AVATARS.length];
+            appendSysEvent(buf, "announce", entry + "人目、" + avatar + "。");
+            serial++;
+            appendTalk(buf, serial, avatar, 1 + this.random.nextInt(3));
+            serial++;
+            entry++;
+        }
+
+        buf.append(TAIL);
+
+        return buf.toString();
+    }
+
+    /**
+     * 進行中の日のページを生成する。
+     *
+     * <p>冒頭にシステムイベントを置き、以降は発言で埋める。
+     * 時折長いロールプレイ発言が混ざる。
+     *
+     * @param messages メッセージ総数の目安
+     * @return XHTML文書
+     */
+    public String progressPage(int messages){
+        StringBuilder buf = new StringBuilder();
+
+        appendVillageInfo(buf, 3);
+
+        appendSysEvent(buf, "announce",
+                "次の日の朝、神父 ジムゾン が無残な姿で発見された。");
+        appendSysEvent(buf, "announce",
+                  "現在の生存者は、楽天家 ゲルト、村長 ヴァルター、"
+                + "老人 モーリッツ、木こり トーマス の 4 名。");
+        appendSysEvent(buf, "order",
+                  "特殊な能力を持つ人は、"
+                + "02:00 までに行動を確定して下さい。<br />");
+        appendSysEvent(buf, "extra",
+                "パン屋 オットー は、少女 リーザ を占った。");
+
+        for(int serial = 4; serial < messages; serial++){
+            String avatar = choose(AVATARS);
+            int lines;
+            if(this.random.nextInt(50) == 0){
+                lines = 40 + this.random.nextInt(200);
+            }else{
+                lines = 1 + this.random.nextInt(6);
+            }
+            appendTalk(buf, serial, avatar, lines);
+        }
+
+        buf.append(TAIL);
+
+        return buf.toString();
+    }
+
+}
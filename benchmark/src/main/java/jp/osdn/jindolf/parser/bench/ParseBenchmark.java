@@ -0,0 +1,188 @@
+/*
+ * HtmlParser benchmark
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+import java.util.concurrent.TimeUnit;
+import jp.osdn.jindolf.parser.HtmlParseException;
+import jp.osdn.jindolf.parser.HtmlParser;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link HtmlParser#parseAutomatic(DecodedContent)}の性能計測。
+ *
+ * <p>各ページ種別・規模の文書に対し、
+ * 何もしないハンドラと一般的なクライアントを模したハンドラの
+ * 二通りでパースを行う。
+ *
+ * <p>補助カウンタ{@code messages}は単位時間あたりに処理されたメッセージ数。
+ * その逆数がメッセージ一件あたりの処理時間となる。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark{
+
+    /** パース対象文書。 */
+    @Param
+    public PageFixture fixture;
+
+    /** 発言テキストの走査に正規表現を用いるならtrue。 */
+    @Param("false")
+    public boolean regexTextScan;
+
+    /** 文字の参照回数に上限を課すならtrue。 */
+    @Param("false")
+    public boolean scanLimit;
+
+    private DecodedContent content;
+
+    private HtmlParser nopParser;
+    private NopHandler nopHandler;
+
+    private HtmlParser realParser;
+    private RealisticHandler realHandler;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public ParseBenchmark(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 文書とパーサを用意する。
+     *
+     * @throws HtmlParseException 生成した文書が不正
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws HtmlParseException{
+        this.content = this.fixture.buildContent();
+
+        this.nopHandler = new NopHandler();
+        this.nopParser = new HtmlParser();
+        this.nopParser.setBasicHandler(this.nopHandler);
+        this.nopParser.setTalkHandler(this.nopHandler);
+        this.nopParser.setSysEventHandler(this.nopHandler);
+        this.nopParser.setRegexTextScan(this.regexTextScan);
+
+        this.realHandler = new RealisticHandler();
+        this.realParser = new HtmlParser();
+        this.realParser.setBasicHandler(this.realHandler);
+        this.realParser.setTalkHandler(this.realHandler);
+        this.realParser.setSysEventHandler(this.realHandler);
+        this.realParser.setRegexTextScan(this.regexTextScan);
+
+        if(this.scanLimit){
+            long limit = 4L * this.content.length();
+            this.nopParser.setScanLimit(limit);
+            this.realParser.setScanLimit(limit);
+        }
+
+        this.nopParser.parseAutomatic(this.content);
+        if(this.nopHandler.getMessages() <= 0){
+            throw new IllegalStateException("no message parsed");
+        }
+
+        return;
+    }
+
+    /**
+     * 何もしないハンドラでパースする。
+     *
+     * @param counter メッセージ数カウンタ
+     * @return ハンドラ
+     * @throws HtmlParseException パースエラー
+     */
+    @Benchmark
+    public NopHandler parseNop(MessageCounter counter)
+            throws HtmlParseException{
+        this.nopParser.parseAutomatic(this.content);
+        counter.messages += this.nopHandler.getMessages();
+        return this.nopHandler;
+    }
+
+    /**
+     * 何もしないハンドラで先頭部分のみをパースする。
+     *
+     * @return ハンドラ
+     * @throws HtmlParseException パースエラー
+     */
+    @Benchmark
+    public NopHandler scanHeadNop() throws HtmlParseException{
+        this.nopParser.scanHead(this.content);
+        return this.nopHandler;
+    }
+
+    /**
+     * 一般的なクライアントを模したハンドラでパースする。
+     *
+     * @param counter メッセージ数カウンタ
+     * @return ハンドラ
+     * @throws HtmlParseException パースエラー
+     */
+    @Benchmark
+    public RealisticHandler parseRealistic(MessageCounter counter)
+            throws HtmlParseException{
+        this.realParser.parseAutomatic(this.content);
+        counter.messages += this.realHandler.getMessages();
+        return this.realHandler;
+    }
+
+
+    /**
+     * 処理されたメッセージ数を集計する補助カウンタ。
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @SuppressWarnings("checkstyle:VisibilityModifier")
+    public static class MessageCounter{
+
+        /** 処理されたメッセージ数。 */
+        public long messages;
+
+
+        /**
+         * コンストラクタ。
+         */
+        public MessageCounter(){
+            super();
+            return;
+        }
+
+
+        /**
+         * 計測反復ごとにカウンタを初期化する。
+         */
+        @Setup(Level.Iteration)
+        public void clear(){
+            this.messages = 0;
+            return;
+        }
+
+    }
+
+}
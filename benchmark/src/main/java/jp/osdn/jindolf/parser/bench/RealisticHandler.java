@@ -0,0 +1,288 @@
+/*
+ * realistic handler
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import jp.osdn.jindolf.parser.EntityConverter;
+import jp.osdn.jindolf.parser.HtmlParseException;
+import jp.osdn.jindolf.parser.SeqRange;
+import jp.osdn.jindolf.parser.StringInterner;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.sourceforge.jindolf.corelib.SysEventType;
+import jp.sourceforge.jindolf.corelib.TalkType;
+
+/**
+ * 一般的なクライアントを模したハンドラ。
+ *
+ * <p>村名やAvatar名を文字列として切り出し、
+ * 発言テキストは文字実体参照を解決した上で保持する。
+ * Avatar名は{@link StringInterner}により共有される。
+ */
+public class RealisticHandler extends NopHandler{
+
+    private final EntityConverter converter = new EntityConverter(true);
+    private final StringInterner interner = new StringInterner();
+
+    private final List<TalkRecord> talkList = new ArrayList<>();
+    private final List<SysEventType> eventList = new ArrayList<>();
+
+    private String villageName;
+
+    private String avatarName;
+    private TalkType talkType;
+    private int talkHour;
+    private int talkMinute;
+    private DecodedContent talkText;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public RealisticHandler(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 直近のパースで得られた発言一覧を返す。
+     *
+     * @return 発言一覧
+     */
+    public List<TalkRecord> getTalkList(){
+        return this.talkList;
+    }
+
+    /**
+     * 直近のパースで得られた村名を返す。
+     *
+     * @return 村名
+     */
+    public String getVillageName(){
+        return this.villageName;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param content {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void startParse(DecodedContent content)
+            throws HtmlParseException{
+        super.startParse(content);
+        this.talkList.clear();
+        this.eventList.clear();
+        this.villageName = null;
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param content {@inheritDoc}
+     * @param villageRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void villageName(DecodedContent content, SeqRange villageRange)
+            throws HtmlParseException{
+        this.villageName =
+                this.converter.convert(content, villageRange).toString();
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void startTalk() throws HtmlParseException{
+        this.talkText = new DecodedContent();
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param content {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkAvatar(DecodedContent content, SeqRange avatarRange)
+            throws HtmlParseException{
+        this.avatarName = this.interner.intern(content, avatarRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param hour {@inheritDoc}
+     * @param minute {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkTime(int hour, int minute) throws HtmlParseException{
+        this.talkHour = hour;
+        this.talkMinute = minute;
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param type {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkType(TalkType type) throws HtmlParseException{
+        this.talkType = type;
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param content {@inheritDoc}
+     * @param textRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkText(DecodedContent content, SeqRange textRange)
+            throws HtmlParseException{
+        this.converter.append(this.talkText, content, textRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkBreak() throws HtmlParseException{
+        this.talkText.append('\n');
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void endTalk() throws HtmlParseException{
+        super.endTalk();
+        TalkRecord record = new TalkRecord(this.avatarName,
+                                           this.talkType,
+                                           this.talkHour, this.talkMinute,
+                                           this.talkText );
+        this.talkList.add(record);
+        this.talkText = null;
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param type {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventType(SysEventType type) throws HtmlParseException{
+        this.eventList.add(type);
+        return;
+    }
+
+
+    /**
+     * 保持される発言。
+     */
+    public static final class TalkRecord{
+
+        private final String avatarName;
+        private final TalkType talkType;
+        private final int hour;
+        private final int minute;
+        private final DecodedContent text;
+
+
+        /**
+         * コンストラクタ。
+         *
+         * @param avatarName Avatar名
+         * @param talkType 発言種別
+         * @param hour 時
+         * @param minute 分
+         * @param text 発言テキスト
+         */
+        TalkRecord(String avatarName, TalkType talkType,
+                   int hour, int minute,
+                   DecodedContent text){
+            this.avatarName = avatarName;
+            this.talkType = talkType;
+            this.hour = hour;
+            this.minute = minute;
+            this.text = text;
+            return;
+        }
+
+
+        /**
+         * Avatar名を返す。
+         *
+         * @return Avatar名
+         */
+        public String getAvatarName(){
+            return this.avatarName;
+        }
+
+        /**
+         * 発言種別を返す。
+         *
+         * @return 発言種別
+         */
+        public TalkType getTalkType(){
+            return this.talkType;
+        }
+
+        /**
+         * 発言時刻の時を返す。
+         *
+         * @return 時
+         */
+        public int getHour(){
+            return this.hour;
+        }
+
+        /**
+         * 発言時刻の分を返す。
+         *
+         * @return 分
+         */
+        public int getMinute(){
+            return this.minute;
+        }
+
+        /**
+         * 発言テキストを返す。
+         *
+         * @return 発言テキスト
+         */
+        public DecodedContent getText(){
+            return this.text;
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * saved event replay benchmark
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import jp.osdn.jindolf.parser.ColumnarFormat;
+import jp.osdn.jindolf.parser.ColumnarRecorder;
+import jp.osdn.jindolf.parser.HtmlParseException;
+import jp.osdn.jindolf.parser.HtmlParser;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 保存済みイベント列の再通知の性能計測。
+ *
+ * <p>{@link HtmlParser#parseAutomatic(DecodedContent)}による再パースと、
+ * {@link ColumnarFormat}で保存された記録の復元および再通知とを比較する。
+ *
+ * <p>ハンドラ自身の処理時間を除くため、何もしないハンドラを用いる。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark{
+
+    /** パース対象文書。 */
+    @Param({"PROLOGUE_20", "PERIOD_500", "PERIOD_5000"})
+    public PageFixture fixture;
+
+    private DecodedContent content;
+
+    private HtmlParser parser;
+    private NopHandler handler;
+
+    private ByteBuffer saved;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public ReplayBenchmark(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 文書と保存済みの記録を用意する。
+     *
+     * @throws HtmlParseException 生成した文書が不正
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws HtmlParseException{
+        this.content = this.fixture.buildContent();
+
+        this.handler = new NopHandler();
+        this.parser = new HtmlParser();
+
+        ColumnarRecorder recorder = new ColumnarRecorder();
+        this.parser.setBasicHandler(recorder);
+        this.parser.setTalkHandler(recorder);
+        this.parser.setSysEventHandler(recorder);
+        this.parser.parseAutomatic(this.content);
+
+        ByteBuffer heap = ColumnarFormat.encode(recorder);
+        this.saved = ByteBuffer.allocateDirect(heap.remaining());
+        this.saved.put(heap);
+        this.saved.flip();
+
+        this.parser.setBasicHandler(this.handler);
+        this.parser.setTalkHandler(this.handler);
+        this.parser.setSysEventHandler(this.handler);
+
+        return;
+    }
+
+    /**
+     * 文書を再パースする。
+     *
+     * @return ハンドラ
+     * @throws HtmlParseException パースエラー
+     */
+    @Benchmark
+    public NopHandler reparse() throws HtmlParseException{
+        this.parser.parseAutomatic(this.content);
+        return this.handler;
+    }
+
+    /**
+     * 保存済みの記録を復元して再通知する。
+     *
+     * @return ハンドラ
+     * @throws HtmlParseException パースエラー
+     */
+    @Benchmark
+    public NopHandler loadReplay() throws HtmlParseException{
+        ColumnarRecorder recorder =
+                ColumnarFormat.decode(this.saved.duplicate());
+        recorder.replay(this.handler);
+        return this.handler;
+    }
+
+}
@@ -0,0 +1,14 @@
+/*
+ * JinParser benchmark パッケージコメント
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+/**
+ * JinParserの性能を計測するJMHベンチマーク群。
+ */
+
+package jp.osdn.jindolf.parser.bench;
+
+/* EOF */
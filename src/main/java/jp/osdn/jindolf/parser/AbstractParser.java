@@ -36,6 +36,7 @@ public abstract class AbstractParser implements ChainedParser{
     private DecodedContent content;
     private Matcher matcher;
     private String contextErrorMessage;
+    private ParseMetrics metrics;
 
 
     /**
@@ -62,11 +63,14 @@ protected AbstractParser(ChainedParser parent){
      * 正規表現のコンパイルを行う。
      * デフォルトで{@link java.util.regex.Pattern#DOTALL}が
      * オプション指定される。
+     * 固定文字列のみからなる正規表現は、
+     * 検索時に正規表現エンジンを介さない部分文字列検索が行われる。
      * @param regex 正規表現文字列
      * @return マッチエンジン
      */
     protected static Pattern compile(CharSequence regex){
         Pattern result = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        LiteralSeeker.register(result);
         return result;
     }
 
@@ -105,11 +109,21 @@ public void setContent(DecodedContent content){
         CharSequence rawContent = content.getRawContent();
 
         this.content = content;
-        this.matcher = DUMMY_PATTERN.matcher(rawContent);
+        this.matcher = DUMMY_PATTERN.matcher(matchTarget(rawContent));
 
         return;
     }
 
+    /**
+     * パース対象文字列から正規表現エンジンの検索対象を得る。
+     * デフォルトではパース対象文字列そのものを返す。
+     * @param rawContent パース対象文字列
+     * @return 検索対象
+     */
+    protected CharSequence matchTarget(CharSequence rawContent){
+        return rawContent;
+    }
+
     /**
      * {@inheritDoc}
      * @return {@inheritDoc}
@@ -136,6 +150,50 @@ public Matcher getMatcher(){
         return this.matcher;
     }
 
+    /**
+     * 計測値の収集先を登録する。
+     *
+     * <p>nullを渡すと計測は行われない。デフォルトはnull。
+     * 登録はリセットされない。
+     *
+     * @param metrics 収集先。nullも可能。
+     */
+    public void setMetrics(ParseMetrics metrics){
+        this.metrics = metrics;
+        return;
+    }
+
+    /**
+     * 計測値の収集先を返す。
+     * @return 収集先。未登録ならnull。
+     */
+    public ParseMetrics getMetrics(){
+        return this.metrics;
+    }
+
+    /**
+     * パース段階の開始時刻を得る。
+     * 計測値の収集先が未登録なら時刻を取得しない。
+     * @return 開始時刻。ナノ秒単位。
+     * @see #endPhase(ParseMetrics.Phase, long)
+     */
+    protected long startPhase(){
+        if(this.metrics == null) return 0L;
+        return System.nanoTime();
+    }
+
+    /**
+     * パース段階の所要時間を計測値の収集先に加算する。
+     * 収集先が未登録なら何もしない。
+     * @param phase パース段階
+     * @param startTime {@link #startPhase()}で得た開始時刻
+     */
+    protected void endPhase(ParseMetrics.Phase phase, long startTime){
+        if(this.metrics == null) return;
+        this.metrics.addPhaseTime(phase, System.nanoTime() - startTime);
+        return;
+    }
+
     /**
      * 文脈依存のエラーメッセージを設定する。
      * {@link #buildParseException}で利用される。
@@ -188,23 +246,86 @@ protected void shrinkRegion(){
 
     /**
      * 検査対象の一部が指定パターンにマッチするか判定する。
+     * 固定文字列のパターンは検索領域の先頭から部分文字列検索され、
+     * マッチした場合は検索領域の先頭がマッチ開始位置まで進む。
      * @param pattern 指定パターン
      * @return マッチすればtrue
      */
     protected boolean findProbe(Pattern pattern){
+        boolean result = findImpl(pattern);
+        if(this.metrics != null) this.metrics.countMatch(pattern, result);
+        return result;
+    }
+
+    /**
+     * 検査対象の一部が指定パターンにマッチするか判定する。
+     * @param pattern 指定パターン
+     * @return マッチすればtrue
+     * @see #findProbe(Pattern)
+     */
+    private boolean findImpl(Pattern pattern){
         switchPattern(pattern);
-        boolean result = getMatcher().find();
+
+        LiteralSeeker seeker = LiteralSeeker.getSeeker(pattern);
+        if(seeker == null){
+            boolean result = getMatcher().find();
+            return result;
+        }
+
+        Matcher currentMatcher = getMatcher();
+        CharSequence rawContent = getContent().getRawContent();
+        int regionStart = currentMatcher.regionStart();
+        int regionEnd   = currentMatcher.regionEnd();
+
+        int foundPos = seeker.indexOf(rawContent, regionStart, regionEnd);
+        if(foundPos < 0){
+            currentMatcher.region(regionStart, regionEnd);
+            return false;
+        }
+
+        currentMatcher.region(foundPos, regionEnd);
+        boolean result = currentMatcher.lookingAt();
+        assert result;
+
         return result;
     }
 
     /**
      * 検査対象先頭が指定パターンにマッチするか判定する。
+     * 固定文字列のパターンは
+     * マッチしないことが正規表現エンジンを介さずに判定される。
      * @param pattern 指定パターン
      * @return マッチすればtrue
      */
     protected boolean lookingAtProbe(Pattern pattern){
+        boolean result = lookingAtImpl(pattern);
+        if(this.metrics != null) this.metrics.countMatch(pattern, result);
+        return result;
+    }
+
+    /**
+     * 検査対象先頭が指定パターンにマッチするか判定する。
+     * @param pattern 指定パターン
+     * @return マッチすればtrue
+     * @see #lookingAtProbe(Pattern)
+     */
+    private boolean lookingAtImpl(Pattern pattern){
         switchPattern(pattern);
-        boolean result = getMatcher().lookingAt();
+
+        Matcher currentMatcher = getMatcher();
+
+        LiteralSeeker seeker = LiteralSeeker.getSeeker(pattern);
+        if(seeker != null){
+            CharSequence rawContent = getContent().getRawContent();
+            int regionStart = currentMatcher.regionStart();
+            int regionEnd   = currentMatcher.regionEnd();
+            if( ! seeker.startsWith(rawContent, regionStart, regionEnd) ){
+                currentMatcher.region(regionStart, regionEnd);
+                return false;
+            }
+        }
+
+        boolean result = currentMatcher.lookingAt();
         return result;
     }
 
@@ -216,6 +337,7 @@ protected boolean lookingAtProbe(Pattern pattern){
     protected boolean matchesProbe(Pattern pattern){
         switchPattern(pattern);
         boolean result = getMatcher().matches();
+        if(this.metrics != null) this.metrics.countMatch(pattern, result);
         return result;
     }
 
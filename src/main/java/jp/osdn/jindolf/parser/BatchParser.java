@@ -0,0 +1,437 @@
+/*
+ * batch parser
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import jp.osdn.jindolf.parser.content.ContentLoader;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+/**
+ * 多数の文書を複数のスレッドで並行してパースする。
+ *
+ * <p>
+ * {@link HtmlParser}はスレッドセーフではないため、
+ * ワーカースレッドと同数のパーサを用意し、
+ * 各文書のパース中は1つのパーサを1つのスレッドが占有する。
+ * </p>
+ *
+ * <p>
+ * 各文書のパースには{@link HandlerFactory}が生成した
+ * 個別のハンドラが用いられる。
+ * ある文書のパースに失敗しても、他の文書のパースは継続される。
+ * </p>
+ *
+ * <p>
+ * Shift_JIS符号化された文書のデコードには{@link ContentLoader}が用いられ、
+ * デコーダのバッファは文書をまたいで使い回される。
+ * {@link #setContentRecycling(boolean)}で有効にすれば、
+ * パースを終えた文書の文字列格納領域も使い回される。
+ * </p>
+ *
+ * <p>
+ * 使用後は{@link #close()}でワーカースレッドを終了させなければならない。
+ * </p>
+ */
+public class BatchParser implements AutoCloseable{
+
+    private static final String MSG_WORKERS = "workers must be 1 or more";
+    private static final String THREAD_PREFIX = "JinParser-batch-";
+
+
+    private final ExecutorService executor;
+    private final BlockingQueue<HtmlParser> parserPool;
+    private final ContentLoader loader;
+
+    private volatile boolean contentRecycling = false;
+    private volatile ParseMetrics metrics = null;
+    private volatile long scanLimit = 0L;
+    private volatile long timeLimit = 0L;
+    private volatile Set<MessageKind> interest =
+            EnumSet.allOf(MessageKind.class);
+
+
+    /**
+     * コンストラクタ。
+     * ワーカースレッド数は利用可能なプロセッサ数となる。
+     */
+    public BatchParser(){
+        this(Runtime.getRuntime().availableProcessors());
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param workers ワーカースレッド数
+     * @throws IllegalArgumentException ワーカースレッド数が1未満
+     */
+    public BatchParser(int workers) throws IllegalArgumentException{
+        super();
+
+        if(workers < 1) throw new IllegalArgumentException(MSG_WORKERS);
+
+        this.parserPool = new ArrayBlockingQueue<>(workers);
+        for(int ct = 0; ct < workers; ct++){
+            this.parserPool.add(new HtmlParser());
+        }
+
+        this.loader = new ContentLoader(workers,
+                                        ContentLoader.DEFAULT_MAX_RETAINED);
+
+        this.executor =
+                Executors.newFixedThreadPool(workers, new WorkerFactory());
+
+        return;
+    }
+
+
+    /**
+     * デコードした文書の文字列格納領域を使い回すか否か設定する。
+     *
+     * <p>
+     * 有効にすると、{@link #parseSources(List, HandlerFactory)}で
+     * デコードされた文書はパース終了後に初期化され、
+     * 以降の文書のデコードに使い回される。
+     * ハンドラはパース終了後に文書の内容を参照してはならない。
+     * </p>
+     *
+     * <p>
+     * デフォルトでは無効。
+     * </p>
+     *
+     * @param recycling 使い回すならtrue
+     */
+    public void setContentRecycling(boolean recycling){
+        this.contentRecycling = recycling;
+        return;
+    }
+
+    /**
+     * デコードした文書の文字列格納領域を使い回すか否か判定する。
+     * @return 使い回すならtrue
+     */
+    public boolean isContentRecycling(){
+        return this.contentRecycling;
+    }
+
+    /**
+     * 各ワーカーのパーサに共通の計測値の収集先を登録する。
+     *
+     * <p>以降に開始されるパースから反映される。
+     * nullを渡すと計測は行われない。デフォルトはnull。
+     *
+     * @param metrics 収集先。nullも可能。
+     * @see HtmlParser#setMetrics(ParseMetrics)
+     */
+    public void setMetrics(ParseMetrics metrics){
+        this.metrics = metrics;
+        return;
+    }
+
+    /**
+     * 計測値の収集先を返す。
+     * @return 収集先。未登録ならnull。
+     */
+    public ParseMetrics getMetrics(){
+        return this.metrics;
+    }
+
+    /**
+     * 各ワーカーのパーサに共通の、
+     * 1文書あたりの正規表現による文字の参照回数の上限を設定する。
+     *
+     * <p>以降に開始されるパースから反映される。
+     * 上限を超えた文書のパースは{@link ParseLimitException}で中断される。
+     *
+     * @param limit 参照回数の上限。0以下なら無制限。
+     * @see HtmlParser#setScanLimit(long)
+     */
+    public void setScanLimit(long limit){
+        this.scanLimit = limit;
+        return;
+    }
+
+    /**
+     * 1文書あたりの正規表現による文字の参照回数の上限を返す。
+     * @return 参照回数の上限。0以下なら無制限。
+     */
+    public long getScanLimit(){
+        return this.scanLimit;
+    }
+
+    /**
+     * 各ワーカーのパーサに共通の、1文書あたりのパース時間の上限を設定する。
+     *
+     * <p>以降に開始されるパースから反映される。
+     * 上限を超えた文書のパースは{@link ParseLimitException}で中断される。
+     *
+     * @param millis 時間の上限。ミリ秒単位。0以下なら無制限。
+     * @see HtmlParser#setTimeLimit(long)
+     */
+    public void setTimeLimit(long millis){
+        this.timeLimit = millis;
+        return;
+    }
+
+    /**
+     * 1文書あたりのパース時間の上限を返す。
+     * @return 時間の上限。ミリ秒単位。0以下なら無制限。
+     */
+    public long getTimeLimit(){
+        return this.timeLimit;
+    }
+
+    /**
+     * 各ワーカーのパーサに共通の、ハンドラへ通知するメッセージの種別を設定する。
+     *
+     * <p>以降に開始されるパースから反映される。
+     * デフォルトでは全種別が通知される。
+     *
+     * @param kinds 通知するメッセージ種別
+     * @see HtmlParser#setInterest(Collection)
+     */
+    public void setInterest(Collection<MessageKind> kinds){
+        Set<MessageKind> copied = EnumSet.noneOf(MessageKind.class);
+        copied.addAll(kinds);
+        this.interest = copied;
+        return;
+    }
+
+    /**
+     * ハンドラへ通知するメッセージの種別を返す。
+     * @return 通知するメッセージ種別の複製
+     */
+    public Set<MessageKind> getInterest(){
+        Set<MessageKind> result = EnumSet.noneOf(MessageKind.class);
+        result.addAll(this.interest);
+        return result;
+    }
+
+    /**
+     * Shift_JISバイト列をデコードする。
+     * @param source 供給元
+     * @return デコード結果
+     * @throws IOException 入力エラー
+     */
+    private DecodedContent decodeSource(ByteSource source)
+            throws IOException{
+        DecodedContent result;
+        try(InputStream istream = source.openStream()){
+            result = this.loader.load(istream);
+        }
+        return result;
+    }
+
+    /**
+     * 各文書のパースを並行して行う。
+     *
+     * <p>
+     * 全文書のパースが終わるまで呼び出し元スレッドはブロックされる。
+     * パース中の文書の内容を変更してはならない。
+     * </p>
+     *
+     * @param contentList 文書のリスト
+     * @param factory ハンドラファクトリ
+     * @return 入力と同順に並んだ文書ごとの結果
+     * @throws InterruptedException 待機中に割り込まれた
+     */
+    public List<BatchResult> parseContents(
+            List<? extends DecodedContent> contentList,
+            HandlerFactory factory )
+            throws InterruptedException{
+        int size = contentList.size();
+        List<Callable<BatchResult>> taskList = new ArrayList<>(size);
+
+        for(int idx = 0; idx < size; idx++){
+            DecodedContent content = contentList.get(idx);
+            int index = idx;
+            Callable<BatchResult> task = () -> {
+                HtmlHandler handler = null;
+                Exception failure = null;
+                try{
+                    handler = factory.createHandler(index);
+                    parse(content, handler);
+                }catch(HtmlParseException | RuntimeException e){
+                    failure = e;
+                }
+                return new BatchResult(index, handler, failure);
+            };
+            taskList.add(task);
+        }
+
+        List<BatchResult> result = invokeTasks(taskList);
+        return result;
+    }
+
+    /**
+     * Shift_JIS符号化された各文書のデコードとパースを並行して行う。
+     *
+     * <p>
+     * 全文書のパースが終わるまで呼び出し元スレッドはブロックされる。
+     * </p>
+     *
+     * @param sourceList 文書供給元のリスト
+     * @param factory ハンドラファクトリ
+     * @return 入力と同順に並んだ文書ごとの結果
+     * @throws InterruptedException 待機中に割り込まれた
+     */
+    public List<BatchResult> parseSources(
+            List<? extends ByteSource> sourceList,
+            HandlerFactory factory )
+            throws InterruptedException{
+        int size = sourceList.size();
+        List<Callable<BatchResult>> taskList = new ArrayList<>(size);
+
+        for(int idx = 0; idx < size; idx++){
+            ByteSource source = sourceList.get(idx);
+            int index = idx;
+            Callable<BatchResult> task = () -> {
+                HtmlHandler handler = null;
+                Exception failure = null;
+                DecodedContent content = null;
+                try{
+                    content = decodeSource(source);
+                    handler = factory.createHandler(index);
+                    parse(content, handler);
+                }catch(IOException
+                      | HtmlParseException
+                      | RuntimeException e){
+                    failure = e;
+                }finally{
+                    if(this.contentRecycling){
+                        this.loader.release(content);
+                    }
+                }
+                return new BatchResult(index, handler, failure);
+            };
+            taskList.add(task);
+        }
+
+        List<BatchResult> result = invokeTasks(taskList);
+        return result;
+    }
+
+    /**
+     * 空いているパーサを借りて文書をパースする。
+     * @param content 文書
+     * @param handler ハンドラ
+     * @throws HtmlParseException パースエラー
+     * @throws InterruptedException 待機中に割り込まれた
+     */
+    private void parse(DecodedContent content, HtmlHandler handler)
+            throws HtmlParseException, InterruptedException{
+        HtmlParser parser = this.parserPool.take();
+        try{
+            parser.setBasicHandler(handler);
+            parser.setTalkHandler(handler);
+            parser.setSysEventHandler(handler);
+            parser.setMetrics(this.metrics);
+            parser.setScanLimit(this.scanLimit);
+            parser.setTimeLimit(this.timeLimit);
+            parser.setInterest(this.interest);
+            parser.parseAutomatic(content);
+        }finally{
+            // 失敗したパースの文書を再利用後まで掴ませない
+            parser.reset();
+            parser.setBasicHandler(null);
+            parser.setTalkHandler(null);
+            parser.setSysEventHandler(null);
+            this.parserPool.add(parser);
+        }
+        return;
+    }
+
+    /**
+     * タスク群を実行し結果を集める。
+     * @param taskList タスク群
+     * @return 結果
+     * @throws InterruptedException 待機中に割り込まれた
+     */
+    private List<BatchResult> invokeTasks(
+            List<Callable<BatchResult>> taskList)
+            throws InterruptedException{
+        List<Future<BatchResult>> futureList =
+                this.executor.invokeAll(taskList);
+
+        List<BatchResult> result = new ArrayList<>(futureList.size());
+        for(Future<BatchResult> future : futureList){
+            BatchResult batchResult;
+            try{
+                batchResult = future.get();
+            }catch(ExecutionException e){
+                Throwable cause = e.getCause();
+                if(cause instanceof Error) throw (Error) cause;
+                if(cause instanceof InterruptedException){
+                    throw (InterruptedException) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+            result.add(batchResult);
+        }
+
+        return result;
+    }
+
+    /**
+     * ワーカースレッドを終了させる。
+     * 実行中のパースは完了を待たれない。
+     */
+    @Override
+    public void close(){
+        this.executor.shutdownNow();
+        return;
+    }
+
+
+    /**
+     * デーモン属性のワーカースレッドを生成する。
+     */
+    private static final class WorkerFactory implements ThreadFactory{
+
+        private static final AtomicInteger SERIAL = new AtomicInteger();
+
+
+        /**
+         * コンストラクタ。
+         */
+        WorkerFactory(){
+            super();
+            return;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         * @param task {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public Thread newThread(Runnable task){
+            String name = THREAD_PREFIX + SERIAL.incrementAndGet();
+            Thread result = new Thread(task, name);
+            result.setDaemon(true);
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * result of batch parsing
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+/**
+ * 一括パースにおける文書ごとの結果。
+ *
+ * <p>
+ * パースが完了したか、もしくは失敗した場合の原因を保持する。
+ * </p>
+ */
+public final class BatchResult{
+
+    private final int index;
+    private final HtmlHandler handler;
+    private final Exception failure;
+
+
+    /**
+     * コンストラクタ。
+     * @param index 一括パース対象中の文書の位置
+     * @param handler パースに用いたハンドラ。生成前に失敗したならnull。
+     * @param failure 失敗原因。パースが完了したならnull。
+     */
+    BatchResult(int index, HtmlHandler handler, Exception failure){
+        super();
+        this.index = index;
+        this.handler = handler;
+        this.failure = failure;
+        return;
+    }
+
+
+    /**
+     * 一括パース対象中の文書の位置を返す。
+     * @return 文書の位置
+     */
+    public int getIndex(){
+        return this.index;
+    }
+
+    /**
+     * パースに用いたハンドラを返す。
+     * @return ハンドラ。ハンドラ生成前に失敗した場合はnull。
+     */
+    public HtmlHandler getHandler(){
+        return this.handler;
+    }
+
+    /**
+     * パースが完了したか判定する。
+     * @return 完了したならtrue
+     */
+    public boolean isSuccess(){
+        return this.failure == null;
+    }
+
+    /**
+     * 失敗原因を返す。
+     *
+     * <p>
+     * 原因は{@link HtmlParseException}、
+     * {@link java.io.IOException}、
+     * もしくはハンドラがスローした実行時例外のいずれかである。
+     * </p>
+     *
+     * @return 失敗原因。パースが完了したならnull。
+     */
+    public Exception getFailure(){
+        return this.failure;
+    }
+
+}
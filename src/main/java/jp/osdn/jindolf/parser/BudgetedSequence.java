@@ -0,0 +1,187 @@
+/*
+ * budgeted character sequence
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+/**
+ * 文字の参照回数と経過時間に上限を設けた文字列のビュー。
+ *
+ * <p>正規表現エンジンの検索対象として用い、
+ * バックトラックが爆発的に増える不正な文書のパースを打ち切る。
+ * {@link #charAt(int)}の呼び出しが上限を超えるか、
+ * 期限を過ぎると{@link Exhausted}がスローされる。
+ *
+ * <p>期限は一定回数の参照ごとにしか判定されないため、
+ * 参照ごとの負荷はカウンタの減算と比較のみとなる。
+ *
+ * <p>マルチスレッドには非対応。
+ */
+final class BudgetedSequence implements CharSequence{
+
+    private static final int CHECK_INTERVAL = 4 * 1024;
+
+
+    private final CharSequence base;
+    private final long deadline;
+    private final boolean hasDeadline;
+
+    private long remaining;
+    private int countdown;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param base 元の文字列
+     * @param scanLimit 文字の参照回数の上限。0以下なら無制限。
+     * @param timeLimit 時間の上限。ナノ秒単位。0以下なら無制限。
+     */
+    BudgetedSequence(CharSequence base, long scanLimit, long timeLimit){
+        super();
+
+        this.base = base;
+
+        if(scanLimit > 0L) this.remaining = scanLimit;
+        else               this.remaining = Long.MAX_VALUE;
+
+        this.hasDeadline = timeLimit > 0L;
+        if(this.hasDeadline) this.deadline = System.nanoTime() + timeLimit;
+        else                 this.deadline = 0L;
+
+        this.countdown = 0;
+
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>別のビューの残りの上限と期限を引き継ぐ。
+     * 引き継ぎ元は以降用いてはならない。
+     *
+     * @param base 元の文字列
+     * @param previous 引き継ぎ元
+     */
+    BudgetedSequence(CharSequence base, BudgetedSequence previous){
+        super();
+
+        this.base = base;
+        this.remaining = previous.remaining;
+        this.deadline = previous.deadline;
+        this.hasDeadline = previous.hasDeadline;
+        this.countdown = previous.countdown;
+
+        return;
+    }
+
+
+    /**
+     * 上限と期限を判定し、次の判定までの参照回数を割り当てる。
+     *
+     * @throws Exhausted 上限を超えたか期限を過ぎた
+     */
+    private void refill() throws Exhausted{
+        if(this.remaining <= 0L){
+            throw new Exhausted(false);
+        }
+        if(this.hasDeadline && System.nanoTime() - this.deadline > 0L){
+            throw new Exhausted(true);
+        }
+
+        int grant = (int) Math.min(CHECK_INTERVAL, this.remaining);
+        this.remaining -= grant;
+        this.countdown = grant - 1;
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int length(){
+        return this.base.length();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>参照回数が数えられる。
+     *
+     * @param index {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws Exhausted 上限を超えたか期限を過ぎた
+     */
+    @Override
+    public char charAt(int index) throws Exhausted{
+        if(--this.countdown < 0) refill();
+        return this.base.charAt(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>参照回数は数えられない。
+     *
+     * @param start {@inheritDoc}
+     * @param end {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CharSequence subSequence(int start, int end){
+        return this.base.subSequence(start, end);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public String toString(){
+        return this.base.toString();
+    }
+
+
+    /**
+     * 参照回数の上限を超えたか期限を過ぎたことを示す非チェック例外。
+     *
+     * <p>パーサ内部でのみ用いられ、
+     * 外部へは{@link ParseLimitException}に変換されて伝わる。
+     */
+    @SuppressWarnings("serial")
+    static final class Exhausted extends RuntimeException{
+
+        private final boolean timeout;
+
+
+        /**
+         * コンストラクタ。
+         *
+         * @param timeout 期限を過ぎたならtrue
+         */
+        Exhausted(boolean timeout){
+            super(null, null, false, false);
+            this.timeout = timeout;
+            return;
+        }
+
+
+        /**
+         * 期限を過ぎたか判定する。
+         *
+         * @return 期限を過ぎたならtrue。参照回数の上限を超えたならfalse。
+         */
+        boolean isTimeout(){
+            return this.timeout;
+        }
+
+    }
+
+}
@@ -0,0 +1,32 @@
+/*
+ * byte source for batch parsing
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 一括パースにおけるShift_JIS符号化文書の供給元。
+ *
+ * <p>
+ * {@link BatchParser}はパースを担うスレッド内でストリームを開き、
+ * デコードが終わり次第、パースを始める前にストリームを閉じる。
+ * デコード中に例外が発生した場合もストリームは閉じられる。
+ * </p>
+ */
+@FunctionalInterface
+public interface ByteSource{
+
+    /**
+     * 文書を読み込むためのストリームを開く。
+     * @return 入力ストリーム
+     * @throws IOException 入力エラー
+     */
+    public abstract InputStream openStream() throws IOException;
+
+}
@@ -0,0 +1,437 @@
+/*
+ * columnar event binary format
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.Collections;
+import java.util.List;
+import jp.osdn.jindolf.parser.content.DecodeErrorInfo;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+/**
+ * {@link ColumnarRecorder}の記録内容をバイナリ形式で保存・復元する。
+ *
+ * <p>
+ * パース済みのページを保存しておけば、
+ * 正規表現によるパースを経ることなく
+ * 同じイベント列を各ハンドラへ再通知できる。
+ * </p>
+ *
+ * <p>
+ * 形式はビッグエンディアン固定で、以下の順に並ぶ。
+ * 整数値の各領域は4バイト境界に揃うため、
+ * メモリマップしたファイルからそのまま復元できる。
+ * </p>
+ *
+ * <ol>
+ * <li>ヘッダ。マジックナンバー、版数、
+ * 記録で用いる各列挙型の値の総数、
+ * 文字数、デコードエラー数、イベント数、文字領域数、整数値数。
+ * <li>デコードエラー。文字位置と生バイト値の組。
+ * <li>文字領域開始位置の列。
+ * <li>文字領域終了位置の列。
+ * <li>整数値の列。
+ * <li>パース対象文字列。UTF-16。
+ * <li>イベント種別の列。
+ * </ol>
+ *
+ * <p>
+ * 列挙型は序数として保存されるため、
+ * 列挙型の定義が異なるJinCoreの間では互換性がない。
+ * 値の総数が一致しない場合は復元時に拒否されるが、
+ * 値の並びの変更までは検出できない。
+ * </p>
+ */
+public final class ColumnarFormat{
+
+    /** マジックナンバー。 "JPCR" */
+    public static final int MAGIC = 0x4a504352;
+    /** 版数。 */
+    public static final int VERSION = 1;
+
+    private static final int SZ_INT  = Integer.BYTES;
+    private static final int SZ_CHAR = Character.BYTES;
+
+    private static final int FIXED_HEADER_INTS = 8;
+
+    private static final int ERR_HAS2ND = 0x10000;
+    private static final int BYTE_MASK  = 0xff;
+    private static final int BYTE_SHIFT = 8;
+
+    private static final int CHUNK_SZ = 4 * 1024;
+
+    private static final String MSG_MAGIC   = "bad magic number";
+    private static final String MSG_VERSION = "unsupported version:";
+    private static final String MSG_ENUM    = "incompatible enum definition";
+    private static final String MSG_BROKEN  = "broken data";
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private ColumnarFormat(){
+        super();
+        return;
+    }
+
+
+    /**
+     * ヘッダのバイト長を返す。
+     * @return バイト長
+     */
+    private static int headerLength(){
+        int enumNum = ColumnarRecorder.getEnumSizes().length;
+        int result = (FIXED_HEADER_INTS + enumNum) * SZ_INT;
+        return result;
+    }
+
+    /**
+     * 保存に要するバイト長を返す。
+     *
+     * @param recorder 記録
+     * @return バイト長
+     * @throws IllegalArgumentException 2GBを超える
+     */
+    public static int encodedLength(ColumnarRecorder recorder)
+            throws IllegalArgumentException{
+        DecodedContent content = recorder.getContent();
+
+        long result = headerLength();
+        if(content != null){
+            result += (long) content.getDecodeErrorList().size() * 2 * SZ_INT;
+            result += (long) content.length() * SZ_CHAR;
+        }
+        result += (long) recorder.getRangeCount() * 2 * SZ_INT;
+        result += (long) recorder.getValueCount() * SZ_INT;
+        result += recorder.size();
+
+        if(result > Integer.MAX_VALUE) throw new IllegalArgumentException();
+
+        return (int) result;
+    }
+
+    /**
+     * 記録をバイナリ形式で保存する。
+     *
+     * @param recorder 記録
+     * @return 保存結果。位置は先頭。
+     * @throws IllegalArgumentException 2GBを超える
+     */
+    public static ByteBuffer encode(ColumnarRecorder recorder)
+            throws IllegalArgumentException{
+        int length = encodedLength(recorder);
+        ByteBuffer result = ByteBuffer.allocate(length);
+        encode(recorder, result);
+        result.flip();
+        return result;
+    }
+
+    /**
+     * 記録をバイナリ形式でバッファの現在位置から書き込む。
+     *
+     * <p>
+     * バッファの位置は書き込んだ分だけ進む。
+     * バイト順の設定は無視される。
+     * </p>
+     *
+     * @param recorder 記録
+     * @param dst 書き込み先
+     * @throws IllegalArgumentException 2GBを超える
+     * @throws java.nio.BufferOverflowException 残りの容量が足りない
+     */
+    public static void encode(ColumnarRecorder recorder, ByteBuffer dst)
+            throws IllegalArgumentException{
+        int length = encodedLength(recorder);
+        ByteBuffer buf = dst.slice().order(ByteOrder.BIG_ENDIAN);
+        buf.limit(length);
+
+        DecodedContent content = recorder.getContent();
+        CharSequence text;
+        List<DecodeErrorInfo> errList;
+        if(content == null){
+            text = "";
+            errList = Collections.emptyList();
+        }else{
+            text = content.getRawContent();
+            errList = content.getDecodeErrorList();
+        }
+        int errorCount = errList.size();
+
+        int eventCount = recorder.size();
+        int rangeCount = recorder.getRangeCount();
+        int valueCount = recorder.getValueCount();
+
+        int[] enumSizes = ColumnarRecorder.getEnumSizes();
+        buf.putInt(MAGIC);
+        buf.putInt(VERSION);
+        buf.putInt(enumSizes.length);
+        for(int enumSize : enumSizes){
+            buf.putInt(enumSize);
+        }
+        buf.putInt(text.length());
+        buf.putInt(errorCount);
+        buf.putInt(eventCount);
+        buf.putInt(rangeCount);
+        buf.putInt(valueCount);
+
+        for(int idx = 0; idx < errorCount; idx++){
+            DecodeErrorInfo info = errList.get(idx);
+            int raw = info.getRawByte1st() & BYTE_MASK;
+            if(info.has2nd()){
+                raw <<= BYTE_SHIFT;
+                raw |= info.getRawByte2nd() & BYTE_MASK;
+                raw |= ERR_HAS2ND;
+            }
+            buf.putInt(info.getCharPosition());
+            buf.putInt(raw);
+        }
+
+        putInts(buf, recorder.getRangeStarts(), rangeCount);
+        putInts(buf, recorder.getRangeEnds(),   rangeCount);
+        putInts(buf, recorder.getValues(),      valueCount);
+
+        putChars(buf, text);
+
+        buf.put(recorder.getKinds(), 0, eventCount);
+
+        assert ! buf.hasRemaining();
+        dst.position(dst.position() + length);
+
+        return;
+    }
+
+    /**
+     * 整数列をまとめて書き込む。
+     * @param buf 書き込み先
+     * @param array 整数列
+     * @param length 要素数
+     */
+    private static void putInts(ByteBuffer buf, int[] array, int length){
+        IntBuffer view = buf.asIntBuffer();
+        view.put(array, 0, length);
+        buf.position(buf.position() + length * SZ_INT);
+        return;
+    }
+
+    /**
+     * 文字列をまとめて書き込む。
+     * @param buf 書き込み先
+     * @param text 文字列
+     */
+    private static void putChars(ByteBuffer buf, CharSequence text){
+        CharBuffer view = buf.asCharBuffer();
+        int length = text.length();
+        char[] chunk = new char[Math.min(length, CHUNK_SZ)];
+        for(int pos = 0; pos < length; pos += chunk.length){
+            int end = Math.min(length, pos + chunk.length);
+            int len = end - pos;
+            for(int idx = 0; idx < len; idx++){
+                chunk[idx] = text.charAt(pos + idx);
+            }
+            view.put(chunk, 0, len);
+        }
+        buf.position(buf.position() + length * SZ_CHAR);
+        return;
+    }
+
+    /**
+     * 整数列をまとめて読み込む。
+     * @param buf 読み込み元
+     * @param length 要素数
+     * @return 整数列
+     * @throws BufferUnderflowException データが足りない
+     */
+    private static int[] getInts(ByteBuffer buf, int length)
+            throws BufferUnderflowException{
+        if(buf.remaining() / SZ_INT < length){
+            throw new BufferUnderflowException();
+        }
+        int[] result = new int[length];
+        IntBuffer view = buf.asIntBuffer();
+        view.get(result);
+        buf.position(buf.position() + length * SZ_INT);
+        return result;
+    }
+
+    /**
+     * 文字列をデコードエラー情報とともに読み込む。
+     * @param buf 読み込み元
+     * @param length 文字数
+     * @param errors デコードエラーの文字位置と生バイト値の組
+     * @return 文字列
+     * @throws BufferUnderflowException データが足りない
+     * @throws IllegalArgumentException デコードエラー情報が不正
+     */
+    private static DecodedContent getContent(ByteBuffer buf,
+                                             int length,
+                                             int[] errors )
+            throws BufferUnderflowException, IllegalArgumentException{
+        if(buf.remaining() / SZ_CHAR < length){
+            throw new BufferUnderflowException();
+        }
+
+        DecodedContent result = new DecodedContent(length);
+        CharBuffer view = buf.asCharBuffer();
+        view.limit(length);
+
+        char[] chunk = new char[Math.min(length, CHUNK_SZ)];
+        int pos = 0;
+        for(int idx = 0; idx < errors.length; idx += 2){
+            int errPos = errors[idx];
+            int raw    = errors[idx + 1];
+            if(errPos < pos || length <= errPos){
+                throw new IllegalArgumentException(MSG_BROKEN);
+            }
+
+            pos = copyChars(view, result, errPos - pos, chunk) + pos;
+
+            if((raw & ERR_HAS2ND) != 0){
+                byte b1st = (byte) (raw >>> BYTE_SHIFT);
+                byte b2nd = (byte) raw;
+                result.addDecodeError(b1st, b2nd);
+            }else{
+                result.addDecodeError((byte) raw);
+            }
+
+            char altChar = view.get();
+            if(altChar != DecodedContent.ALTCHAR){
+                result.setCharAt(errPos, altChar);
+            }
+            pos++;
+        }
+
+        copyChars(view, result, length - pos, chunk);
+
+        buf.position(buf.position() + length * SZ_CHAR);
+
+        return result;
+    }
+
+    /**
+     * 文字をまとめて複写する。
+     * @param view 複写元
+     * @param content 複写先
+     * @param length 文字数
+     * @param chunk 作業用配列
+     * @return 文字数
+     */
+    private static int copyChars(CharBuffer view,
+                                 DecodedContent content,
+                                 int length,
+                                 char[] chunk ){
+        int rest = length;
+        while(rest > 0){
+            int len = Math.min(rest, chunk.length);
+            view.get(chunk, 0, len);
+            content.append(chunk, 0, len);
+            rest -= len;
+        }
+        return length;
+    }
+
+    /**
+     * バイナリ形式で保存された記録をバッファの現在位置から復元する。
+     *
+     * <p>
+     * バッファの位置は読み込んだ分だけ進む。
+     * バイト順の設定は無視される。
+     * </p>
+     *
+     * <p>
+     * 各列の記録数の整合性は検証されるが、
+     * 文字領域や整数値の値そのものは検証されない。
+     * 破損したデータからの復元結果を再通知すると
+     * 不正な文字領域や実行時例外が生じうる。
+     * </p>
+     *
+     * @param src 読み込み元
+     * @return 記録
+     * @throws IllegalArgumentException 形式が不正
+     */
+    public static ColumnarRecorder decode(ByteBuffer src)
+            throws IllegalArgumentException{
+        ByteBuffer buf = src.slice().order(ByteOrder.BIG_ENDIAN);
+
+        ColumnarRecorder result;
+        try{
+            result = decodeImpl(buf);
+        }catch(BufferUnderflowException e){
+            throw new IllegalArgumentException(MSG_BROKEN, e);
+        }
+
+        src.position(src.position() + buf.position());
+
+        return result;
+    }
+
+    /**
+     * バイナリ形式で保存された記録を復元する。
+     * @param buf 読み込み元。ビッグエンディアン。
+     * @return 記録
+     * @throws BufferUnderflowException データが足りない
+     * @throws IllegalArgumentException 形式が不正
+     */
+    private static ColumnarRecorder decodeImpl(ByteBuffer buf)
+            throws BufferUnderflowException, IllegalArgumentException{
+        if(buf.getInt() != MAGIC){
+            throw new IllegalArgumentException(MSG_MAGIC);
+        }
+        int version = buf.getInt();
+        if(version != VERSION){
+            throw new IllegalArgumentException(MSG_VERSION + version);
+        }
+
+        int[] enumSizes = ColumnarRecorder.getEnumSizes();
+        if(buf.getInt() != enumSizes.length){
+            throw new IllegalArgumentException(MSG_ENUM);
+        }
+        for(int enumSize : enumSizes){
+            if(buf.getInt() != enumSize){
+                throw new IllegalArgumentException(MSG_ENUM);
+            }
+        }
+
+        int textLength = buf.getInt();
+        int errorCount = buf.getInt();
+        int eventCount = buf.getInt();
+        int rangeCount = buf.getInt();
+        int valueCount = buf.getInt();
+
+        if(   textLength < 0
+           || errorCount < 0 || errorCount > textLength
+           || errorCount > Integer.MAX_VALUE / 2
+           || eventCount < 0
+           || rangeCount < 0
+           || valueCount < 0 ){
+            throw new IllegalArgumentException(MSG_BROKEN);
+        }
+
+        int[] errors      = getInts(buf, errorCount * 2);
+        int[] rangeStarts = getInts(buf, rangeCount);
+        int[] rangeEnds   = getInts(buf, rangeCount);
+        int[] values      = getInts(buf, valueCount);
+
+        DecodedContent content = getContent(buf, textLength, errors);
+
+        byte[] kinds = new byte[eventCount];
+        buf.get(kinds);
+
+        ColumnarRecorder result = new ColumnarRecorder(content,
+                                                       kinds,
+                                                       rangeStarts,
+                                                       rangeEnds,
+                                                       values );
+
+        return result;
+    }
+
+}
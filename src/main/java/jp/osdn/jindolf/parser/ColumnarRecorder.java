@@ -0,0 +1,1302 @@
+/*
+ * columnar event recorder
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.util.Arrays;
+import java.util.Objects;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.sourceforge.jindolf.corelib.EventFamily;
+import jp.sourceforge.jindolf.corelib.GameRole;
+import jp.sourceforge.jindolf.corelib.PeriodType;
+import jp.sourceforge.jindolf.corelib.SysEventType;
+import jp.sourceforge.jindolf.corelib.TalkType;
+import jp.sourceforge.jindolf.corelib.Team;
+import jp.sourceforge.jindolf.corelib.VillageState;
+
+/**
+ * パース中に通知された全イベントを記録するハンドラ。
+ *
+ * <p>
+ * イベントはオブジェクトとしてではなく、
+ * イベント種別、文字領域の開始位置、終了位置、整数値の
+ * 各プリミティブ配列へ列ごとに追記される。
+ * 列挙型の値は序数(nullは-1)として記録される。
+ * 配列の拡張を除き、記録時にオブジェクトは生成されない。
+ * </p>
+ *
+ * <p>
+ * 記録されたイベント列は{@link #replay(HtmlHandler)}により
+ * 任意のハンドラへ何度でも再通知できる。
+ * 文字領域は{@link #startParse(DecodedContent)}で渡された
+ * パース対象文字列への位置として記録されるため、
+ * 再通知を終えるまでパース対象文字列の内容を変更してはならない。
+ * 読み込み用の窓を通知する
+ * {@link HtmlParser#parseStream(java.nio.channels.ReadableByteChannel)}
+ * の記録には使えない。
+ * </p>
+ *
+ * <p>
+ * 記録は{@link ColumnarFormat}によりバイナリ形式で保存・復元できる。
+ * </p>
+ *
+ * <p>
+ * 記録中はマルチスレッドに非対応。
+ * 記録を終えた後であれば、複数スレッドから同時に再通知できる。
+ * </p>
+ */
+public class ColumnarRecorder implements HtmlHandler{
+
+    private static final int INIT_EVENTS = 256;
+
+    private static final byte EV_START_PARSE       = 0;
+    private static final byte EV_PAGE_TITLE        = 1;
+    private static final byte EV_LOGIN_NAME        = 2;
+    private static final byte EV_PAGE_TYPE         = 3;
+    private static final byte EV_VILLAGE_NAME      = 4;
+    private static final byte EV_COMMIT_TIME       = 5;
+    private static final byte EV_PERIOD_LINK       = 6;
+    private static final byte EV_VILLAGE_RECORD    = 7;
+    private static final byte EV_END_PARSE         = 8;
+    private static final byte EV_START_TALK        = 9;
+    private static final byte EV_END_TALK          = 10;
+    private static final byte EV_TALK_NO           = 11;
+    private static final byte EV_TALK_ID           = 12;
+    private static final byte EV_TALK_AVATAR       = 13;
+    private static final byte EV_TALK_TIME         = 14;
+    private static final byte EV_TALK_ICON_URL     = 15;
+    private static final byte EV_TALK_TYPE         = 16;
+    private static final byte EV_TALK_TEXT         = 17;
+    private static final byte EV_TALK_BREAK        = 18;
+    private static final byte EV_START_SYSEVENT    = 19;
+    private static final byte EV_SYSEVENT_TYPE     = 20;
+    private static final byte EV_END_SYSEVENT      = 21;
+    private static final byte EV_ON_STAGE          = 22;
+    private static final byte EV_OPEN_ROLE         = 23;
+    private static final byte EV_SURVIVOR          = 24;
+    private static final byte EV_COUNTING          = 25;
+    private static final byte EV_COUNTING2         = 26;
+    private static final byte EV_SUDDEN_DEATH      = 27;
+    private static final byte EV_MURDERED          = 28;
+    private static final byte EV_PLAYER_LIST       = 29;
+    private static final byte EV_EXECUTION         = 30;
+    private static final byte EV_VANISH            = 31;
+    private static final byte EV_CHECKOUT          = 32;
+    private static final byte EV_JUDGE             = 33;
+    private static final byte EV_GUARD             = 34;
+    private static final byte EV_ASK_ENTRY         = 35;
+    private static final byte EV_ASK_COMMIT        = 36;
+    private static final byte EV_NO_COMMENT        = 37;
+    private static final byte EV_STAY_EPILOGUE     = 38;
+    private static final byte EV_CONTENT           = 39;
+    private static final byte EV_CONTENT_BREAK     = 40;
+    private static final byte EV_CONTENT_ANCHOR    = 41;
+
+    /** イベント種別ごとの文字領域の数。 */
+    private static final byte[] RANGE_ARITY = {
+        0, 1, 1, 0, 1, 0, 1, 2, 0, 0, 0, 0, 1, 1,
+        0, 1, 0, 1, 0, 0, 0, 0, 1, 0, 1, 2, 2, 1,
+        1, 3, 1, 1, 1, 2, 2, 0, 0, 1, 0, 1, 0, 2,
+    };
+    /** イベント種別ごとの整数値の数。 */
+    private static final byte[] VALUE_ARITY = {
+        0, 0, 0, 1, 0, 4, 2, 3, 0, 0, 0, 1, 0, 0,
+        2, 0, 1, 0, 0, 1, 1, 0, 1, 2, 0, 0, 0, 0,
+        0, 2, 1, 0, 0, 0, 0, 4, 2, 0, 3, 0, 0, 0,
+    };
+
+    private static final PageType[]     PAGE_TYPES      = PageType.values();
+    private static final PeriodType[]   PERIOD_TYPES    = PeriodType.values();
+    private static final VillageState[] VILLAGE_STATES  =
+            VillageState.values();
+    private static final TalkType[]     TALK_TYPES      = TalkType.values();
+    private static final EventFamily[]  EVENT_FAMILYS   = EventFamily.values();
+    private static final SysEventType[] SYS_EVENT_TYPES =
+            SysEventType.values();
+    private static final GameRole[]     GAME_ROLES      = GameRole.values();
+    private static final Team[]         TEAMS           = Team.values();
+
+
+    private DecodedContent content;
+
+    private byte[] kinds = new byte[INIT_EVENTS];
+    private int eventCount;
+
+    private int[] rangeStarts = new int[INIT_EVENTS];
+    private int[] rangeEnds   = new int[INIT_EVENTS];
+    private int rangeCount;
+
+    private int[] values = new int[INIT_EVENTS];
+    private int valueCount;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public ColumnarRecorder(){
+        super();
+        return;
+    }
+
+    /**
+     * 記録済みの各列からインスタンスを復元する。
+     *
+     * <p>
+     * 各配列は複製されず、そのまま記録として用いられる。
+     * 配列長がそのまま各列の記録数となる。
+     * </p>
+     *
+     * @param content パース対象文字列
+     * @param kinds イベント種別の列
+     * @param rangeStarts 文字領域開始位置の列
+     * @param rangeEnds 文字領域終了位置の列
+     * @param values 整数値の列
+     * @throws IllegalArgumentException 各列の記録数が整合しない
+     */
+    ColumnarRecorder(DecodedContent content,
+                     byte[] kinds,
+                     int[] rangeStarts, int[] rangeEnds,
+                     int[] values )
+            throws IllegalArgumentException{
+        super();
+
+        int rangeSum = 0;
+        int valueSum = 0;
+        for(byte kind : kinds){
+            if(kind < 0 || RANGE_ARITY.length <= kind){
+                throw new IllegalArgumentException();
+            }
+            rangeSum += RANGE_ARITY[kind];
+            valueSum += VALUE_ARITY[kind];
+        }
+        if(   rangeSum != rangeStarts.length
+           || rangeSum != rangeEnds.length
+           || valueSum != values.length ){
+            throw new IllegalArgumentException();
+        }
+
+        this.content = content;
+        this.kinds = kinds;
+        this.eventCount = kinds.length;
+        this.rangeStarts = rangeStarts;
+        this.rangeEnds = rangeEnds;
+        this.rangeCount = rangeSum;
+        this.values = values;
+        this.valueCount = valueSum;
+
+        return;
+    }
+
+
+    /**
+     * 序数から列挙型の値を得る。
+     * @param <E> 列挙型
+     * @param enums 全値
+     * @param ordinal 序数。負ならnull。
+     * @return 値
+     */
+    private static <E> E toEnum(E[] enums, int ordinal){
+        if(ordinal < 0) return null;
+        return enums[ordinal];
+    }
+
+    /**
+     * 記録を消去する。
+     * 配列の容量は維持される。
+     */
+    public void clear(){
+        this.content = null;
+        this.eventCount = 0;
+        this.rangeCount = 0;
+        this.valueCount = 0;
+        return;
+    }
+
+    /**
+     * 記録されたパース対象文字列を返す。
+     * @return パース対象文字列。未記録ならnull。
+     */
+    public DecodedContent getContent(){
+        return this.content;
+    }
+
+    /**
+     * 記録されたイベント数を返す。
+     * @return イベント数
+     */
+    public int size(){
+        return this.eventCount;
+    }
+
+    /**
+     * 記録で用いる各列挙型の値の総数を返す。
+     *
+     * <p>
+     * 序数の意味が変わっていないかの簡易な検証に用いる。
+     * </p>
+     *
+     * @return 各列挙型の値の総数
+     */
+    static int[] getEnumSizes(){
+        int[] result = {
+            PAGE_TYPES.length,
+            PERIOD_TYPES.length,
+            VILLAGE_STATES.length,
+            TALK_TYPES.length,
+            EVENT_FAMILYS.length,
+            SYS_EVENT_TYPES.length,
+            GAME_ROLES.length,
+            TEAMS.length,
+        };
+        return result;
+    }
+
+    /**
+     * イベント種別の列を返す。
+     * 有効な要素数は{@link #size()}。
+     * @return イベント種別の列
+     */
+    byte[] getKinds(){
+        return this.kinds;
+    }
+
+    /**
+     * 文字領域開始位置の列を返す。
+     * 有効な要素数は{@link #getRangeCount()}。
+     * @return 文字領域開始位置の列
+     */
+    int[] getRangeStarts(){
+        return this.rangeStarts;
+    }
+
+    /**
+     * 文字領域終了位置の列を返す。
+     * 有効な要素数は{@link #getRangeCount()}。
+     * @return 文字領域終了位置の列
+     */
+    int[] getRangeEnds(){
+        return this.rangeEnds;
+    }
+
+    /**
+     * 記録された文字領域の数を返す。
+     * @return 文字領域の数
+     */
+    int getRangeCount(){
+        return this.rangeCount;
+    }
+
+    /**
+     * 整数値の列を返す。
+     * 有効な要素数は{@link #getValueCount()}。
+     * @return 整数値の列
+     */
+    int[] getValues(){
+        return this.values;
+    }
+
+    /**
+     * 記録された整数値の数を返す。
+     * @return 整数値の数
+     */
+    int getValueCount(){
+        return this.valueCount;
+    }
+
+    /**
+     * 拡張後の配列長を求める。
+     * @param length 現在の配列長
+     * @return 拡張後の配列長
+     */
+    private static int grownLength(int length){
+        return Math.max(INIT_EVENTS, length * 2);
+    }
+
+    /**
+     * イベント種別を追記する。
+     * @param kind イベント種別
+     */
+    private void addEvent(byte kind){
+        if(this.eventCount >= this.kinds.length){
+            this.kinds = Arrays.copyOf(this.kinds, grownLength(this.eventCount));
+        }
+        this.kinds[this.eventCount++] = kind;
+        return;
+    }
+
+    /**
+     * 文字領域を追記する。
+     * @param range 文字領域
+     */
+    private void addRange(SeqRange range){
+        if(this.rangeCount >= this.rangeStarts.length){
+            int newLength = grownLength(this.rangeCount);
+            this.rangeStarts = Arrays.copyOf(this.rangeStarts, newLength);
+            this.rangeEnds   = Arrays.copyOf(this.rangeEnds,   newLength);
+        }
+        this.rangeStarts[this.rangeCount] = range.getStartPos();
+        this.rangeEnds  [this.rangeCount] = range.getEndPos();
+        this.rangeCount++;
+        return;
+    }
+
+    /**
+     * 整数値を追記する。
+     * @param value 整数値
+     */
+    private void addValue(int value){
+        if(this.valueCount >= this.values.length){
+            this.values = Arrays.copyOf(this.values, grownLength(this.valueCount));
+        }
+        this.values[this.valueCount++] = value;
+        return;
+    }
+
+    /**
+     * 列挙型の値を序数として追記する。
+     * @param value 列挙型の値。nullも可。
+     */
+    private void addEnum(Enum<?> value){
+        int ordinal;
+        if(value == null) ordinal = -1;
+        else              ordinal = value.ordinal();
+        addValue(ordinal);
+        return;
+    }
+
+    /**
+     * 記録されたイベント列を記録順に再通知する。
+     *
+     * <p>
+     * 通知される文字領域のインスタンスは使い回されるため、
+     * 通知後に参照してはならない。
+     * </p>
+     *
+     * @param handler 通知先ハンドラ
+     * @throws HtmlParseException 通知先ハンドラによるパース中止
+     */
+    public void replay(HtmlHandler handler) throws HtmlParseException{
+        replay(handler, handler, handler);
+        return;
+    }
+
+    /**
+     * 記録されたイベント列を種類別のハンドラへ記録順に再通知する。
+     *
+     * <p>
+     * 通知される文字領域のインスタンスは使い回されるため、
+     * 通知後に参照してはならない。
+     * </p>
+     *
+     * @param basicHandler 基本情報の通知先ハンドラ
+     * @param talkHandler 発言の通知先ハンドラ
+     * @param sysEventHandler システムイベントの通知先ハンドラ
+     * @throws HtmlParseException 通知先ハンドラによるパース中止
+     * @throws NullPointerException ハンドラにnullを指定した
+     */
+    public void replay(BasicHandler basicHandler,
+                       TalkHandler talkHandler,
+                       SysEventHandler sysEventHandler )
+            throws HtmlParseException, NullPointerException{
+        Objects.requireNonNull(basicHandler);
+        Objects.requireNonNull(talkHandler);
+        Objects.requireNonNull(sysEventHandler);
+
+        TapeReader reader = new TapeReader();
+
+        // 引数は左から右へ評価されるため記録順に読み出される
+        int count = this.eventCount;
+        for(int idx = 0; idx < count; idx++){
+            byte kind = this.kinds[idx];
+            switch(kind){
+            case EV_START_PARSE:
+                basicHandler.startParse(this.content);
+                break;
+            case EV_PAGE_TITLE:
+                basicHandler.pageTitle(this.content, reader.nextRange(0));
+                break;
+            case EV_LOGIN_NAME:
+                basicHandler.loginName(this.content, reader.nextRange(0));
+                break;
+            case EV_PAGE_TYPE:
+                basicHandler.pageType(toEnum(PAGE_TYPES, reader.nextValue()));
+                break;
+            case EV_VILLAGE_NAME:
+                basicHandler.villageName(this.content, reader.nextRange(0));
+                break;
+            case EV_COMMIT_TIME:
+                basicHandler.commitTime(reader.nextValue(),
+                                        reader.nextValue(),
+                                        reader.nextValue(),
+                                        reader.nextValue());
+                break;
+            case EV_PERIOD_LINK:
+                basicHandler.periodLink(this.content,
+                                        reader.nextRange(0),
+                                        toEnum(PERIOD_TYPES, reader.nextValue()),
+                                        reader.nextValue());
+                break;
+            case EV_VILLAGE_RECORD:
+                basicHandler.villageRecord(this.content,
+                                           reader.nextRange(0),
+                                           reader.nextRange(1),
+                                           reader.nextValue(),
+                                           reader.nextValue(),
+                                           toEnum(VILLAGE_STATES, reader.nextValue()));
+                break;
+            case EV_END_PARSE:
+                basicHandler.endParse();
+                break;
+            case EV_START_TALK:
+                talkHandler.startTalk();
+                break;
+            case EV_END_TALK:
+                talkHandler.endTalk();
+                break;
+            case EV_TALK_NO:
+                talkHandler.talkNo(reader.nextValue());
+                break;
+            case EV_TALK_ID:
+                talkHandler.talkId(this.content, reader.nextRange(0));
+                break;
+            case EV_TALK_AVATAR:
+                talkHandler.talkAvatar(this.content, reader.nextRange(0));
+                break;
+            case EV_TALK_TIME:
+                talkHandler.talkTime(reader.nextValue(), reader.nextValue());
+                break;
+            case EV_TALK_ICON_URL:
+                talkHandler.talkIconUrl(this.content, reader.nextRange(0));
+                break;
+            case EV_TALK_TYPE:
+                talkHandler.talkType(toEnum(TALK_TYPES, reader.nextValue()));
+                break;
+            case EV_TALK_TEXT:
+                talkHandler.talkText(this.content, reader.nextRange(0));
+                break;
+            case EV_TALK_BREAK:
+                talkHandler.talkBreak();
+                break;
+            case EV_START_SYSEVENT:
+                sysEventHandler.startSysEvent(
+                        toEnum(EVENT_FAMILYS, reader.nextValue()));
+                break;
+            case EV_SYSEVENT_TYPE:
+                sysEventHandler.sysEventType(
+                        toEnum(SYS_EVENT_TYPES, reader.nextValue()));
+                break;
+            case EV_END_SYSEVENT:
+                sysEventHandler.endSysEvent();
+                break;
+            case EV_ON_STAGE:
+                sysEventHandler.sysEventOnStage(this.content,
+                                                reader.nextValue(),
+                                                reader.nextRange(0));
+                break;
+            case EV_OPEN_ROLE:
+                sysEventHandler.sysEventOpenRole(
+                        toEnum(GAME_ROLES, reader.nextValue()),
+                        reader.nextValue() );
+                break;
+            case EV_SURVIVOR:
+                sysEventHandler.sysEventSurvivor(this.content,
+                                                 reader.nextRange(0));
+                break;
+            case EV_COUNTING:
+                sysEventHandler.sysEventCounting(this.content,
+                                                 reader.nextRange(0),
+                                                 reader.nextRange(1));
+                break;
+            case EV_COUNTING2:
+                sysEventHandler.sysEventCounting2(this.content,
+                                                  reader.nextRange(0),
+                                                  reader.nextRange(1));
+                break;
+            case EV_SUDDEN_DEATH:
+                sysEventHandler.sysEventSuddenDeath(this.content,
+                                                    reader.nextRange(0));
+                break;
+            case EV_MURDERED:
+                sysEventHandler.sysEventMurdered(this.content,
+                                                 reader.nextRange(0));
+                break;
+            case EV_PLAYER_LIST:
+                sysEventHandler.sysEventPlayerList(
+                        this.content,
+                        reader.nextRange(0),
+                        reader.nextRange(1),
+                        reader.nextRange(2),
+                        reader.nextValue() != 0,
+                        toEnum(GAME_ROLES, reader.nextValue()) );
+                break;
+            case EV_EXECUTION:
+                sysEventHandler.sysEventExecution(this.content,
+                                                  reader.nextRange(0),
+                                                  reader.nextValue());
+                break;
+            case EV_VANISH:
+                sysEventHandler.sysEventVanish(this.content,
+                                               reader.nextRange(0));
+                break;
+            case EV_CHECKOUT:
+                sysEventHandler.sysEventCheckout(this.content,
+                                                 reader.nextRange(0));
+                break;
+            case EV_JUDGE:
+                sysEventHandler.sysEventJudge(this.content,
+                                              reader.nextRange(0),
+                                              reader.nextRange(1));
+                break;
+            case EV_GUARD:
+                sysEventHandler.sysEventGuard(this.content,
+                                              reader.nextRange(0),
+                                              reader.nextRange(1));
+                break;
+            case EV_ASK_ENTRY:
+                sysEventHandler.sysEventAskEntry(reader.nextValue(),
+                                                 reader.nextValue(),
+                                                 reader.nextValue(),
+                                                 reader.nextValue());
+                break;
+            case EV_ASK_COMMIT:
+                sysEventHandler.sysEventAskCommit(reader.nextValue(),
+                                                  reader.nextValue());
+                break;
+            case EV_NO_COMMENT:
+                sysEventHandler.sysEventNoComment(this.content,
+                                                  reader.nextRange(0));
+                break;
+            case EV_STAY_EPILOGUE:
+                sysEventHandler.sysEventStayEpilogue(
+                        toEnum(TEAMS, reader.nextValue()),
+                        reader.nextValue(),
+                        reader.nextValue() );
+                break;
+            case EV_CONTENT:
+                sysEventHandler.sysEventContent(this.content,
+                                                reader.nextRange(0));
+                break;
+            case EV_CONTENT_BREAK:
+                sysEventHandler.sysEventContentBreak();
+                break;
+            case EV_CONTENT_ANCHOR:
+                sysEventHandler.sysEventContentAnchor(this.content,
+                                                      reader.nextRange(0),
+                                                      reader.nextRange(1));
+                break;
+            default:
+                assert false;
+                throw new IllegalStateException();
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void startParse(DecodedContent content)
+            throws HtmlParseException{
+        clear();
+        this.content = content;
+        addEvent(EV_START_PARSE);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param titleRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void pageTitle(DecodedContent content, SeqRange titleRange)
+            throws HtmlParseException{
+        addEvent(EV_PAGE_TITLE);
+        addRange(titleRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param loginRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void loginName(DecodedContent content, SeqRange loginRange)
+            throws HtmlParseException{
+        addEvent(EV_LOGIN_NAME);
+        addRange(loginRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param type {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void pageType(PageType type)
+            throws HtmlParseException{
+        addEvent(EV_PAGE_TYPE);
+        addEnum(type);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param villageRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void villageName(DecodedContent content,
+                            SeqRange villageRange )
+            throws HtmlParseException{
+        addEvent(EV_VILLAGE_NAME);
+        addRange(villageRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param month {@inheritDoc}
+     * @param day {@inheritDoc}
+     * @param hour {@inheritDoc}
+     * @param minute {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void commitTime(int month, int day, int hour, int minute)
+            throws HtmlParseException{
+        addEvent(EV_COMMIT_TIME);
+        addValue(month);
+        addValue(day);
+        addValue(hour);
+        addValue(minute);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param anchorRange {@inheritDoc}
+     * @param periodType {@inheritDoc}
+     * @param day {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void periodLink(DecodedContent content,
+                           SeqRange anchorRange,
+                           PeriodType periodType,
+                           int day )
+            throws HtmlParseException{
+        addEvent(EV_PERIOD_LINK);
+        addRange(anchorRange);
+        addEnum(periodType);
+        addValue(day);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param anchorRange {@inheritDoc}
+     * @param villageRange {@inheritDoc}
+     * @param hour {@inheritDoc}
+     * @param minute {@inheritDoc}
+     * @param state {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void villageRecord(DecodedContent content,
+                              SeqRange anchorRange,
+                              SeqRange villageRange,
+                              int hour,
+                              int minute,
+                              VillageState state )
+            throws HtmlParseException{
+        addEvent(EV_VILLAGE_RECORD);
+        addRange(anchorRange);
+        addRange(villageRange);
+        addValue(hour);
+        addValue(minute);
+        addEnum(state);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void endParse()
+            throws HtmlParseException{
+        addEvent(EV_END_PARSE);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void startTalk()
+            throws HtmlParseException{
+        addEvent(EV_START_TALK);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void endTalk()
+            throws HtmlParseException{
+        addEvent(EV_END_TALK);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param talkNo {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkNo(int talkNo)
+            throws HtmlParseException{
+        addEvent(EV_TALK_NO);
+        addValue(talkNo);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param idRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkId(DecodedContent content, SeqRange idRange)
+            throws HtmlParseException{
+        addEvent(EV_TALK_ID);
+        addRange(idRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkAvatar(DecodedContent content, SeqRange avatarRange)
+            throws HtmlParseException{
+        addEvent(EV_TALK_AVATAR);
+        addRange(avatarRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param hour {@inheritDoc}
+     * @param minute {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkTime(int hour, int minute)
+            throws HtmlParseException{
+        addEvent(EV_TALK_TIME);
+        addValue(hour);
+        addValue(minute);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param urlRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkIconUrl(DecodedContent content, SeqRange urlRange)
+            throws HtmlParseException{
+        addEvent(EV_TALK_ICON_URL);
+        addRange(urlRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param type {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkType(TalkType type)
+            throws HtmlParseException{
+        addEvent(EV_TALK_TYPE);
+        addEnum(type);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param textRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkText(DecodedContent content, SeqRange textRange)
+            throws HtmlParseException{
+        addEvent(EV_TALK_TEXT);
+        addRange(textRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void talkBreak()
+            throws HtmlParseException{
+        addEvent(EV_TALK_BREAK);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param eventFamily {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void startSysEvent(EventFamily eventFamily)
+            throws HtmlParseException{
+        addEvent(EV_START_SYSEVENT);
+        addEnum(eventFamily);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param type {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventType(SysEventType type)
+            throws HtmlParseException{
+        addEvent(EV_SYSEVENT_TYPE);
+        addEnum(type);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void endSysEvent()
+            throws HtmlParseException{
+        addEvent(EV_END_SYSEVENT);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param entryNo {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventOnStage(DecodedContent content,
+                                int entryNo,
+                                SeqRange avatarRange )
+            throws HtmlParseException{
+        addEvent(EV_ON_STAGE);
+        addValue(entryNo);
+        addRange(avatarRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param role {@inheritDoc}
+     * @param num {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventOpenRole(GameRole role, int num)
+            throws HtmlParseException{
+        addEvent(EV_OPEN_ROLE);
+        addEnum(role);
+        addValue(num);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventSurvivor(DecodedContent content,
+                                 SeqRange avatarRange )
+            throws HtmlParseException{
+        addEvent(EV_SURVIVOR);
+        addRange(avatarRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param voteByRange {@inheritDoc}
+     * @param voteToRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventCounting(DecodedContent content,
+                                 SeqRange voteByRange,
+                                 SeqRange voteToRange )
+            throws HtmlParseException{
+        addEvent(EV_COUNTING);
+        addRange(voteByRange);
+        addRange(voteToRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param voteByRange {@inheritDoc}
+     * @param voteToRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventCounting2(DecodedContent content,
+                                  SeqRange voteByRange,
+                                  SeqRange voteToRange )
+            throws HtmlParseException{
+        addEvent(EV_COUNTING2);
+        addRange(voteByRange);
+        addRange(voteToRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventSuddenDeath(DecodedContent content,
+                                    SeqRange avatarRange )
+            throws HtmlParseException{
+        addEvent(EV_SUDDEN_DEATH);
+        addRange(avatarRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventMurdered(DecodedContent content,
+                                 SeqRange avatarRange )
+            throws HtmlParseException{
+        addEvent(EV_MURDERED);
+        addRange(avatarRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @param anchorRange {@inheritDoc}
+     * @param loginRange {@inheritDoc}
+     * @param isLiving {@inheritDoc}
+     * @param role {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventPlayerList(DecodedContent content,
+                                   SeqRange avatarRange,
+                                   SeqRange anchorRange,
+                                   SeqRange loginRange,
+                                   boolean isLiving,
+                                   GameRole role )
+            throws HtmlParseException{
+        addEvent(EV_PLAYER_LIST);
+        addRange(avatarRange);
+        addRange(anchorRange);
+        addRange(loginRange);
+        addValue(isLiving ? 1 : 0);
+        addEnum(role);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @param votes {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventExecution(DecodedContent content,
+                                  SeqRange avatarRange,
+                                  int votes )
+            throws HtmlParseException{
+        addEvent(EV_EXECUTION);
+        addRange(avatarRange);
+        addValue(votes);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventVanish(DecodedContent content,
+                               SeqRange avatarRange )
+            throws HtmlParseException{
+        addEvent(EV_VANISH);
+        addRange(avatarRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventCheckout(DecodedContent content,
+                                 SeqRange avatarRange )
+            throws HtmlParseException{
+        addEvent(EV_CHECKOUT);
+        addRange(avatarRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param judgeByRange {@inheritDoc}
+     * @param judgeToRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventJudge(DecodedContent content,
+                              SeqRange judgeByRange,
+                              SeqRange judgeToRange )
+            throws HtmlParseException{
+        addEvent(EV_JUDGE);
+        addRange(judgeByRange);
+        addRange(judgeToRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param guardByRange {@inheritDoc}
+     * @param guardToRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventGuard(DecodedContent content,
+                              SeqRange guardByRange,
+                              SeqRange guardToRange )
+            throws HtmlParseException{
+        addEvent(EV_GUARD);
+        addRange(guardByRange);
+        addRange(guardToRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param hour {@inheritDoc}
+     * @param minute {@inheritDoc}
+     * @param minLimit {@inheritDoc}
+     * @param maxLimit {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventAskEntry(int hour,
+                                 int minute,
+                                 int minLimit,
+                                 int maxLimit )
+            throws HtmlParseException{
+        addEvent(EV_ASK_ENTRY);
+        addValue(hour);
+        addValue(minute);
+        addValue(minLimit);
+        addValue(maxLimit);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param hour {@inheritDoc}
+     * @param minute {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventAskCommit(int hour, int minute)
+            throws HtmlParseException{
+        addEvent(EV_ASK_COMMIT);
+        addValue(hour);
+        addValue(minute);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param avatarRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventNoComment(DecodedContent content,
+                                  SeqRange avatarRange )
+            throws HtmlParseException{
+        addEvent(EV_NO_COMMENT);
+        addRange(avatarRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param winner {@inheritDoc}
+     * @param hour {@inheritDoc}
+     * @param minute {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventStayEpilogue(Team winner, int hour, int minute)
+            throws HtmlParseException{
+        addEvent(EV_STAY_EPILOGUE);
+        addEnum(winner);
+        addValue(hour);
+        addValue(minute);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param contentRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventContent(DecodedContent content,
+                                SeqRange contentRange )
+            throws HtmlParseException{
+        addEvent(EV_CONTENT);
+        addRange(contentRange);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventContentBreak()
+            throws HtmlParseException{
+        addEvent(EV_CONTENT_BREAK);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param content {@inheritDoc}
+     * @param anchorRange {@inheritDoc}
+     * @param contentRange {@inheritDoc}
+     * @throws HtmlParseException {@inheritDoc}
+     */
+    @Override
+    public void sysEventContentAnchor(DecodedContent content,
+                                      SeqRange anchorRange,
+                                      SeqRange contentRange )
+            throws HtmlParseException{
+        addEvent(EV_CONTENT_ANCHOR);
+        addRange(anchorRange);
+        addRange(contentRange);
+        return;
+    }
+
+
+    /**
+     * 記録された文字領域と整数値を順に読み出す。
+     */
+    private final class TapeReader{
+
+        private static final int RANGE_POOL_SZ = 3;
+
+        private final SeqRange[] rangePool = new SeqRange[RANGE_POOL_SZ];
+        private int rangeCursor;
+        private int valueCursor;
+
+
+        /**
+         * コンストラクタ。
+         */
+        TapeReader(){
+            super();
+            for(int idx = 0; idx < RANGE_POOL_SZ; idx++){
+                this.rangePool[idx] = new SeqRange();
+            }
+            return;
+        }
+
+
+        /**
+         * 次の文字領域を読み出す。
+         * @param poolIdx 使い回す文字領域インスタンスの番号
+         * @return 文字領域
+         */
+        SeqRange nextRange(int poolIdx){
+            SeqRange result = this.rangePool[poolIdx];
+            int idx = this.rangeCursor++;
+            result.setRange(ColumnarRecorder.this.rangeStarts[idx],
+                            ColumnarRecorder.this.rangeEnds[idx] );
+            return result;
+        }
+
+        /**
+         * 次の整数値を読み出す。
+         * @return 整数値
+         */
+        int nextValue(){
+            int result = ColumnarRecorder.this.values[this.valueCursor++];
+            return result;
+        }
+
+    }
+
+}
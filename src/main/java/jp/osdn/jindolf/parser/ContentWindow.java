@@ -0,0 +1,170 @@
+/*
+ * sliding window of decoded content
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.osdn.jindolf.parser.content.SjisDecoder;
+
+/**
+ * Shift_JISバイトストリームを逐次デコードした文字列の窓。
+ *
+ * <p>読み込んだ文字列は窓の末尾へ追加され、
+ * パース済みの先頭部分は{@link #discard(int)}で捨てられる。
+ * 窓の先頭が文書全体のどの位置にあたるかは{@link #getBase()}で得られる。
+ *
+ * <p>入力チャネルはブロッキングモードでなければならない。
+ */
+final class ContentWindow{
+
+    private static final int BYTEBUF_SZ = 8 * 1024;
+    private static final int DISCARD_THRESHOLD = 16 * 1024;
+    private static final int MAX_EMPTY_READS = 1000;
+
+    private static final String MSG_NONBLOCKING =
+            "non-blocking channel is not supported";
+    private static final String MSG_NOPROGRESS =
+            "channel returned no bytes repeatedly";
+
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer byteBuffer = ByteBuffer.allocate(BYTEBUF_SZ);
+    private final SjisDecoder decoder = new SjisDecoder();
+
+    private DecodedContent content = new DecodedContent();
+    private DecodedContent spare = new DecodedContent();
+    private int base = 0;
+    private boolean endOfInput = false;
+
+
+    /**
+     * コンストラクタ。
+     * @param channel 入力チャネル
+     * @throws IllegalArgumentException 非ブロッキングモードのチャネル
+     */
+    ContentWindow(ReadableByteChannel channel)
+            throws IllegalArgumentException{
+        super();
+
+        if(channel instanceof SelectableChannel){
+            SelectableChannel selectable = (SelectableChannel) channel;
+            if( ! selectable.isBlocking() ){
+                throw new IllegalArgumentException(MSG_NONBLOCKING);
+            }
+        }
+
+        this.channel = channel;
+        return;
+    }
+
+
+    /**
+     * 窓内の文字列を返す。
+     * {@link #discard(int)}の呼び出しにより別のインスタンスに替わりうる。
+     * @return 文字列
+     */
+    DecodedContent getContent(){
+        return this.content;
+    }
+
+    /**
+     * 窓の先頭の文書内位置を返す。
+     * @return 文書内位置
+     */
+    int getBase(){
+        return this.base;
+    }
+
+    /**
+     * 入力が終わったか判定する。
+     * @return 入力が終わっていればtrue
+     */
+    boolean isEndOfInput(){
+        return this.endOfInput;
+    }
+
+    /**
+     * 入力を読み進め、デコード結果を窓の末尾へ追加する。
+     *
+     * <p>チャネルが1バイトも返さなかった場合は読み直す。
+     * 読み直しが続く場合は入力エラーとする。
+     * @return 新たな入力がありえるならtrue。入力が終わっていればfalse。
+     * @throws IOException 入力エラー
+     */
+    boolean fill() throws IOException{
+        if(this.endOfInput) return false;
+
+        assert this.byteBuffer.hasRemaining();
+
+        int readLen = this.channel.read(this.byteBuffer);
+        int emptyReads = 0;
+        while(readLen == 0){
+            emptyReads++;
+            if(emptyReads >= MAX_EMPTY_READS){
+                throw new IOException(MSG_NOPROGRESS);
+            }
+            Thread.yield();
+            readLen = this.channel.read(this.byteBuffer);
+        }
+        if(readLen < 0) this.endOfInput = true;
+
+        this.byteBuffer.flip();
+        this.decoder.decode(this.byteBuffer, this.content, this.endOfInput);
+        this.byteBuffer.compact();
+
+        return true;
+    }
+
+    /**
+     * 入力を終わりまで読み進める。
+     * @throws IOException 入力エラー
+     */
+    void fillAll() throws IOException{
+        while(fill()){
+            assert true;
+        }
+        return;
+    }
+
+    /**
+     * 窓内の指定位置より後ろに文字が届くまで入力を読み進める。
+     * @param pos 窓内の位置
+     * @return 指定位置の文字が存在すればtrue
+     * @throws IOException 入力エラー
+     */
+    boolean fillBeyond(int pos) throws IOException{
+        while(this.content.length() <= pos){
+            if( ! fill() ) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 窓内の指定位置より前の文字列を捨てる。
+     * 捨てる量が少ない場合は何もしない。
+     * @param pos 窓内の位置
+     * @return 窓の内容を移動させたならtrue
+     */
+    boolean discard(int pos){
+        if(pos < DISCARD_THRESHOLD) return false;
+
+        DecodedContent newContent = this.spare;
+        newContent.init();
+        newContent.append(this.content, pos, this.content.length());
+
+        this.spare = this.content;
+        this.content = newContent;
+        this.base += pos;
+
+        return true;
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * markup delimiter seeker
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+/**
+ * マークアップの区切り文字{@code <}および{@code >}の検索器。
+ *
+ * <p>発言テキストやAvatar名など、
+ * 区切り文字を含まない長い文字並びの終端を探すために用いる。
+ *
+ * <p>Java 9以降の実行環境では、
+ * マルチリリースJARに同梱された別実装に置き換わる。
+ * この実装は一文字ずつ走査する。
+ */
+final class DelimiterSeeker{
+
+    private static final char TAG_OPEN  = '<';
+    private static final char TAG_CLOSE = '>';
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private DelimiterSeeker(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 指定範囲から{@code <}もしくは{@code >}が最初に現れる位置を探す。
+     * @param seq 検索対象
+     * @param startPos 検索開始位置
+     * @param endPos 検索終了位置
+     * @return 出現位置。見つからなければ検索終了位置。
+     */
+    static int indexOfDelimiter(CharSequence seq, int startPos, int endPos){
+        for(int pos = startPos; pos < endPos; pos++){
+            char letter = seq.charAt(pos);
+            if(letter == TAG_OPEN || letter == TAG_CLOSE) return pos;
+        }
+        return endPos;
+    }
+
+    /**
+     * 指定範囲から{@code <}が最初に現れる位置を探す。
+     * @param seq 検索対象
+     * @param startPos 検索開始位置
+     * @param endPos 検索終了位置
+     * @return 出現位置。見つからなければ検索終了位置。
+     */
+    static int indexOfOpen(CharSequence seq, int startPos, int endPos){
+        for(int pos = startPos; pos < endPos; pos++){
+            if(seq.charAt(pos) == TAG_OPEN) return pos;
+        }
+        return endPos;
+    }
+
+}
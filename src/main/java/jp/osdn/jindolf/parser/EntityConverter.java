@@ -7,11 +7,6 @@
 
 package jp.osdn.jindolf.parser;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import jp.osdn.jindolf.parser.content.DecodedContent;
 
 /**
@@ -30,35 +25,31 @@
  * {@link java.lang.Character#MIN_SUPPLEMENTARY_CODE_POINT}
  * {@link java.lang.Character#MAX_CODE_POINT}
  *
+ * <p>変換結果の書き込み先として、
+ * 呼び出し側で使い回す{@link DecodedContent}や文字配列を指定できる。
+ * 使い回した場合、変換ごとのオブジェクト生成は
+ * デコードエラー情報の複製を除き起こらない。
+ *
  * <p>マルチスレッドには非対応。
  */
 public class EntityConverter{
 
-    private static final char   DQ_CH = '"';
-    private static final String DQ_STR = Character.toString(DQ_CH);
-    private static final String YEN_STR = "\u00a5";
-
-    private static final char   BS_CH = '\u005c\u005c';
-    private static final String BS_STR = Character.toString(BS_CH);
-    private static final String BS_PATTERN = BS_STR + BS_STR;
+    private static final char AMP_CH = '&';
+    private static final char BS_CH = '\u005c\u005c';
+    private static final char YEN_CH = '\u00a5';
+    private static final char SMP_ALT = '?';
 
-    private static final String UCS4_PATTERN = "[\\x{10000}-\\x{10ffff}]";
+    private static final String[] ENTITIES = {
+        "&gt;", "&lt;", "&amp;", "&quot;",
+    };
+    private static final char[] ALTS = {
+        '>',    '<',    '&',     '"',
+    };
 
-    private static final RepInfo GT   = new RepInfo("&gt;",       ">");
-    private static final RepInfo LT   = new RepInfo("&lt;",       "<");
-    private static final RepInfo AMP  = new RepInfo("&amp;",      "&");
-    private static final RepInfo QUAT = new RepInfo("&quot;",     DQ_STR);
-    private static final RepInfo BS   = new RepInfo(BS_PATTERN,   YEN_STR);
-    private static final RepInfo UCS4 = new RepInfo(UCS4_PATTERN, "?");
+    private static final int NO_MATCH = -1;
 
 
-    private final MultiMatcher multiMatcher = new MultiMatcher();
-
-    {
-        this.multiMatcher.putRepInfo(GT, LT, AMP, QUAT, BS, UCS4);
-    }
-
-    private final boolean replaceSmp;
+    private final EntityScanner scanner;
 
 
     /**
@@ -78,7 +69,7 @@ public EntityConverter(){
      */
     public EntityConverter(boolean replaceSmp){
         super();
-        this.replaceSmp = replaceSmp;
+        this.scanner = new EntityScanner(replaceSmp);
         return;
     }
 
@@ -188,23 +179,19 @@ public DecodedContent append(DecodedContent dstContent,
         }
 
         CharSequence rawContent = srcContent.getRawContent();
-        this.multiMatcher.setText(rawContent, startPos, endPos);
+        this.scanner.setText(rawContent, startPos, endPos);
 
         int copiedPos = startPos;
 
         for(;;){
-            RepInfo repInfo = this.multiMatcher.multiFind();
-            if(repInfo == null) break;
-            if(repInfo == UCS4 &&  ! this.replaceSmp){
-                continue;
-            }
+            int altChar = this.scanner.find();
+            if(altChar == NO_MATCH) break;
 
-            int matchStart = this.multiMatcher.getMatchStart();
-            int matchEnd   = this.multiMatcher.getMatchEnd();
+            int matchStart = this.scanner.getMatchStart();
+            int matchEnd   = this.scanner.getMatchEnd();
             result.append(srcContent, copiedPos, matchStart);
 
-            String altTxt = repInfo.getAltTxt();
-            result.append(altTxt);
+            result.append((char) altChar);
 
             copiedPos = matchEnd;
         }
@@ -214,21 +201,117 @@ public DecodedContent append(DecodedContent dstContent,
         return result;
     }
 
+    /**
+     * XHTML文字実体参照の変換を行い文字配列に書き込む。
+     *
+     * <p>書き込み先は呼び出し側で使い回せるため、
+     * 変換ごとのオブジェクト生成は起こらない。
+     * デコードエラー情報は失われ、代替文字のみが書き込まれる。
+     *
+     * <p>変換後の文字数は変換元の範囲の文字数を超えない。
+     * 書き込み先には変換元の範囲の文字数分の空きが必要。
+     *
+     * @param srcContent 変換元文書
+     * @param range 範囲指定
+     * @param dst 書き込み先
+     * @param dstPos 書き込み開始位置
+     * @return 書き込んだ文字数
+     * @throws IndexOutOfBoundsException 位置指定に不正があった。
+     *     または書き込み先の空きが足りない。
+     */
+    public int convert(DecodedContent srcContent, SeqRange range,
+                       char[] dst, int dstPos)
+            throws IndexOutOfBoundsException{
+        int startPos = range.getStartPos();
+        int endPos   = range.getEndPos();
+        return convert(srcContent, startPos, endPos, dst, dstPos);
+    }
+
+    /**
+     * XHTML文字実体参照の変換を行い文字配列に書き込む。
+     *
+     * <p>書き込み先は呼び出し側で使い回せるため、
+     * 変換ごとのオブジェクト生成は起こらない。
+     * デコードエラー情報は失われ、代替文字のみが書き込まれる。
+     *
+     * <p>変換後の文字数は変換元の範囲の文字数を超えない。
+     * 書き込み先には変換元の範囲の文字数分の空きが必要。
+     *
+     * @param srcContent 変換元文書
+     * @param startPos 開始位置
+     * @param endPos 終了位置
+     * @param dst 書き込み先
+     * @param dstPos 書き込み開始位置
+     * @return 書き込んだ文字数
+     * @throws IndexOutOfBoundsException 位置指定に不正があった。
+     *     または書き込み先の空きが足りない。
+     */
+    public int convert(DecodedContent srcContent,
+                       int startPos, int endPos,
+                       char[] dst, int dstPos)
+            throws IndexOutOfBoundsException{
+        if(    startPos > endPos
+            || startPos < 0
+            || srcContent.length() < endPos){
+            throw new IndexOutOfBoundsException();
+        }
+        if(dstPos < 0 || dst.length - dstPos < endPos - startPos){
+            throw new IndexOutOfBoundsException();
+        }
+
+        CharSequence rawContent = srcContent.getRawContent();
+        this.scanner.setText(rawContent, startPos, endPos);
+
+        int copiedPos = startPos;
+        int writePos = dstPos;
+
+        for(;;){
+            int altChar = this.scanner.find();
+            if(altChar == NO_MATCH) break;
+
+            int matchStart = this.scanner.getMatchStart();
+            int matchEnd   = this.scanner.getMatchEnd();
+            srcContent.getChars(copiedPos, matchStart, dst, writePos);
+            writePos += matchStart - copiedPos;
+
+            dst[writePos++] = (char) altChar;
+
+            copiedPos = matchEnd;
+        }
+
+        srcContent.getChars(copiedPos, endPos, dst, writePos);
+        writePos += endPos - copiedPos;
+
+        return writePos - dstPos;
+    }
+
 
     /**
-     * 同時に複数の正規表現をOR探索するマッチャ。
+     * 置換対象の文字並びを探す走査器。
+     *
+     * <p>ASCII文字は表引きで判定し、
+     * 置換対象の先頭となりうる文字の間を読み飛ばす。
+     * 置換対象の先頭は{@code &}、バックスラッシュ、
+     * およびSMP面文字を代替処理する場合のサロゲートペア上位。
      */
-    private static class MultiMatcher{
+    private static class EntityScanner{
 
-        private static final char REGEX_OR       = '|';
-        private static final char REGEX_GRPOPEN  = '(';
-        private static final char REGEX_GRPCLOSE = ')';
+        private static final int ASCII_LIMIT = 0x80;
 
+        private static final boolean[] ASCII_TRIGGER =
+                new boolean[ASCII_LIMIT];
+
+        static{
+            ASCII_TRIGGER[AMP_CH] = true;
+            ASCII_TRIGGER[BS_CH]  = true;
+        }
 
-        private List<RepInfo> repInfoList;
-        private Pattern orPattern;
 
-        private Matcher matcher;
+        private final boolean replaceSmp;
+
+        private CharSequence seq;
+        private int endPos;
+        private int scanPos;
 
         private int matchStart = -1;
         private int matchEnd   = -1;
@@ -236,57 +319,27 @@ public DecodedContent append(DecodedContent dstContent,
 
         /**
          * コンストラクタ。
+         *
+         * @param replaceSmp SMP面文字を代替処理するならtrue
          */
-        MultiMatcher(){
+        EntityScanner(boolean replaceSmp){
             super();
+            this.replaceSmp = replaceSmp;
             return;
         }
 
 
-        /**
-         * 置換情報を設定する。
-         *
-         * <p>先頭の置換情報の方が優先的にマッチングされる。
-         *
-         * @param infos 置換情報並び
-         */
-        void putRepInfo(RepInfo... infos){
-            List<RepInfo> list;
-            list = Arrays.asList(infos);
-            list = Collections.unmodifiableList(list);
-            this.repInfoList = list;
-
-            StringBuilder orRegex = new StringBuilder();
-            for(RepInfo repInfo : this.repInfoList){
-                String regex = repInfo.getRegex();
-
-                if(orRegex.length() != 0) orRegex.append(REGEX_OR);
-                orRegex.append(REGEX_GRPOPEN);
-                orRegex.append(regex);
-                orRegex.append(REGEX_GRPCLOSE);
-            }
-            this.orPattern = Pattern.compile(orRegex.toString());
-
-            this.matcher = this.orPattern.matcher("");
-            this.matchStart = -1;
-            this.matchEnd   = -1;
-
-            return;
-        }
-
         /**
          * 走査対象を設定する。
          *
-         * @param seq 対象文字列
+         * @param seqArg 対象文字列
          * @param startPos 走査開始位置
-         * @param endPos 走査終了位置
-         * @throws IllegalStateException 置換情報が未設定
+         * @param endPosArg 走査終了位置
          */
-        void setText(CharSequence seq, int startPos, int endPos){
-            if(this.matcher == null) throw new IllegalStateException();
-
-            this.matcher.reset(seq);
-            this.matcher.region(startPos, endPos);
+        void setText(CharSequence seqArg, int startPos, int endPosArg){
+            this.seq = seqArg;
+            this.scanPos = startPos;
+            this.endPos = endPosArg;
 
             this.matchStart = -1;
             this.matchEnd   = -1;
@@ -313,80 +366,106 @@ int getMatchEnd(){
         }
 
         /**
-         * 同時に複数の正規表現とのマッチングを試みるための走査を行う。
-         *
-         * <p>マッチングに伴いマッチ開始位置と終了位置が更新される。
+         * 置換対象の先頭となりうる文字を探す。
          *
-         * @return 最初にマッチングした正規表現。
-         *     マッチングしなければnullを返す。
-         * @throws IllegalStateException 置換情報が未設定
+         * @param pos 探索開始位置
+         * @return 見つかった位置。見つからなければ走査終了位置。
          */
-        RepInfo multiFind(){
-            if(this.repInfoList == null || this.matcher == null){
-                throw new IllegalStateException();
+        private int seekTrigger(int pos){
+            CharSequence text = this.seq;
+            int end = this.endPos;
+
+            for(int idx = pos; idx < end; idx++){
+                char ch = text.charAt(idx);
+                if(ch < ASCII_LIMIT){
+                    if(ASCII_TRIGGER[ch]) return idx;
+                }else if(this.replaceSmp && Character.isHighSurrogate(ch)){
+                    return idx;
+                }
             }
 
-            if( ! this.matcher.find()) return null;
-
-            RepInfo result = null;
+            return end;
+        }
 
-            int group = 1;
-            for(RepInfo rc : this.repInfoList){
-                this.matchStart = this.matcher.start(group);
-                this.matchEnd   = this.matcher.end(group);
-                if(this.matchStart >= 0){
-                    result = rc;
-                    break;
+        /**
+         * 指定位置から文字実体参照が始まるか判定する。
+         *
+         * @param pos 位置
+         * @return 文字実体参照の番号。始まらなければ負の値。
+         */
+        private int matchEntity(int pos){
+            CharSequence text = this.seq;
+            int rest = this.endPos - pos;
+
+            for(int idx = 0; idx < ENTITIES.length; idx++){
+                String entity = ENTITIES[idx];
+                int length = entity.length();
+                if(length > rest) continue;
+
+                boolean matched = true;
+                for(int ct = 1; ct < length; ct++){
+                    if(text.charAt(pos + ct) != entity.charAt(ct)){
+                        matched = false;
+                        break;
+                    }
                 }
-                group++;
+                if(matched) return idx;
             }
 
-            return result;
+            return -1;
         }
 
-    }
-
-
-    /**
-     * 文字列置換設定。
-     */
-    private static class RepInfo{
-
-        private final String regex;
-        private final String altTxt;
-
-
         /**
-         * コンストラクタ。
+         * 置換対象を探す。
          *
-         * <p>正規表現文字列に前方参照グループ記号()を含めてはならない。
+         * <p>マッチングに伴いマッチ開始位置と終了位置が更新される。
          *
-         * @param regex 置換元パターン正規表現
-         * @param altTxt 置換文字列。
+         * @return 置換文字。見つからなければ負の値を返す。
          */
-        RepInfo(String regex, String altTxt){
-            this.regex = regex;
-            this.altTxt = altTxt;
-            return;
-        }
+        int find(){
+            int pos = this.scanPos;
+
+            for(;;){
+                pos = seekTrigger(pos);
+                if(pos >= this.endPos) break;
+
+                char ch = this.seq.charAt(pos);
+                int altChar = NO_MATCH;
+                int matchLength = 0;
+
+                if(ch == AMP_CH){
+                    int entityIdx = matchEntity(pos);
+                    if(entityIdx >= 0){
+                        altChar = ALTS[entityIdx];
+                        matchLength = ENTITIES[entityIdx].length();
+                    }
+                }else if(ch == BS_CH){
+                    altChar = YEN_CH;
+                    matchLength = 1;
+                }else{
+                    int next = pos + 1;
+                    if(   next < this.endPos
+                       && Character.isLowSurrogate(this.seq.charAt(next))){
+                        altChar = SMP_ALT;
+                        matchLength = 2;
+                    }
+                }
 
+                if(altChar != NO_MATCH){
+                    this.matchStart = pos;
+                    this.matchEnd   = pos + matchLength;
+                    this.scanPos    = this.matchEnd;
+                    return altChar;
+                }
 
-        /**
-         * 正規表現文字列を返す。
-         *
-         * @return 正規表現文字列
-         */
-        String getRegex(){
-            return this.regex;
-        }
+                pos++;
+            }
 
-        /**
-         * 置換文字列を返す。
-         *
-         * @return 置換文字列
-         */
-        String getAltTxt(){
-            return this.altTxt;
+            this.scanPos = this.endPos;
+            this.matchStart = -1;
+            this.matchEnd   = -1;
+
+            return NO_MATCH;
         }
 
     }
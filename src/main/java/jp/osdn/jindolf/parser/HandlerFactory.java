@@ -0,0 +1,28 @@
+/*
+ * handler factory for batch parsing
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+/**
+ * 一括パースにおいて文書ごとのハンドラを生成する。
+ *
+ * <p>
+ * {@link BatchParser}は各文書のパース開始直前にこのファクトリを呼ぶ。
+ * 呼び出しは複数のスレッドから並行して行われうる。
+ * </p>
+ */
+@FunctionalInterface
+public interface HandlerFactory{
+
+    /**
+     * 文書用のハンドラを生成する。
+     * @param index 一括パース対象中の文書の位置
+     * @return ハンドラ
+     */
+    public abstract HtmlHandler createHandler(int index);
+
+}
@@ -66,6 +66,27 @@ public int getCharPos(){
         return this.charPos;
     }
 
+    /**
+     * パース中断位置をずらした例外を返す。
+     * パース中断位置が不明な場合や、
+     * この例外がサブクラスの場合はこの例外自身を返す。
+     * @param offset ずらす文字数
+     * @return 例外
+     */
+    HtmlParseException shiftCharPos(int offset){
+        if(this.charPos < 0 || offset == 0) return this;
+        if(getClass() != HtmlParseException.class) return this;
+
+        HtmlParseException result =
+                new HtmlParseException(super.getMessage(),
+                                       this.charPos + offset );
+        result.setStackTrace(getStackTrace());
+        Throwable cause = getCause();
+        if(cause != null) result.initCause(cause);
+
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      * @return {@inheritDoc}
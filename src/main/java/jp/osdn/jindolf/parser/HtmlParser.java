@@ -7,6 +7,16 @@
 
 package jp.osdn.jindolf.parser;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import jp.osdn.jindolf.parser.content.DecodedContent;
 import jp.sourceforge.jindolf.corelib.PeriodType;
@@ -23,6 +33,9 @@
 })
 public class HtmlParser extends AbstractParser{
 
+    /** パース対象文字列が文書全体であることを示す文書内位置。 */
+    private static final IntSupplier DOCUMENT_TOP = () -> 0;
+
     private static final String SP = "\u0020";
 
 
@@ -33,6 +46,20 @@ public class HtmlParser extends AbstractParser{
     private final SeqRange rangepool_1 = new SeqRange();
     private final SeqRange rangepool_2 = new SeqRange();
 
+    private int firstMessageStart;
+    private int lastMessageStart;
+    private int lastMessageEnd;
+    private int lastTalkNo;
+    private ParseCheckpoint checkpoint;
+    private PageType pageType;
+
+    private final Set<MessageKind> interest =
+            EnumSet.allOf(MessageKind.class);
+
+    private long scanLimit = 0L;
+    private long timeLimit = 0L;
+    private BudgetedSequence budget;
+
     /**
      * コンストラクタ。
      */
@@ -68,6 +95,268 @@ public void setSysEventHandler(SysEventHandler handler){
         return;
     }
 
+    /**
+     * 直近のパースで得られたPeriodページの再開地点を返す。
+     *
+     * <p>{@link #parseAutomatic(DecodedContent)}もしくは
+     * {@link #resumeParse(DecodedContent, ParseCheckpoint)}で
+     * メッセージを1件以上含むPeriodページのパースを完了した場合のみ得られる。
+     *
+     * @return 再開地点。得られなければnull。
+     */
+    public ParseCheckpoint getCheckpoint(){
+        return this.checkpoint;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>配下の{@link TalkParser}と{@link SysEventParser}にも登録される。
+     *
+     * @param metrics {@inheritDoc}
+     */
+    @Override
+    public void setMetrics(ParseMetrics metrics){
+        super.setMetrics(metrics);
+        this.talkParser.setMetrics(metrics);
+        this.sysEventParser.setMetrics(metrics);
+        return;
+    }
+
+    /**
+     * パースを終えた文書を計測値の収集先に数える。
+     * @param charCount 文書の文字数
+     */
+    private void countDocument(int charCount){
+        ParseMetrics metrics = getMetrics();
+        if(metrics != null) metrics.countDocument(charCount);
+        return;
+    }
+
+    /**
+     * ページ種別を記録しハンドラへ通知する。
+     * @param type ページ種別
+     * @throws HtmlParseException パースエラー
+     */
+    private void notifyPageType(PageType type) throws HtmlParseException{
+        this.pageType = type;
+        this.basicHandler.pageType(type);
+        return;
+    }
+
+    /**
+     * パースしたメッセージを計測値の収集先に数える。
+     * @param kind メッセージ種別
+     */
+    private void countMessage(MessageKind kind){
+        ParseMetrics metrics = getMetrics();
+        if(metrics != null) metrics.countMessage(kind);
+        return;
+    }
+
+    /**
+     * 発言テキストの走査に正規表現を用いるか設定する。
+     * @param flag 正規表現を用いるならtrue
+     * @see TalkParser#setRegexTextScan(boolean)
+     */
+    public void setRegexTextScan(boolean flag){
+        this.talkParser.setRegexTextScan(flag);
+        return;
+    }
+
+    /**
+     * ハンドラへ通知するメッセージの種別を設定する。
+     *
+     * <p>指定されなかった種別のメッセージは、
+     * 内部を解釈せずにメッセージの終わりまで読み飛ばされる。
+     * 読み飛ばされたメッセージに関するハンドラへの通知は一切行われない。
+     * 発言の白発言番号は読み飛ばしても再開地点に反映される。
+     *
+     * <p>デフォルトでは全種別が通知される。
+     *
+     * @param kinds 通知するメッセージ種別
+     */
+    public void setInterest(Collection<MessageKind> kinds){
+        this.interest.clear();
+        this.interest.addAll(kinds);
+        return;
+    }
+
+    /**
+     * ハンドラへ通知するメッセージの種別を返す。
+     * @return 通知するメッセージ種別の複製
+     */
+    public Set<MessageKind> getInterest(){
+        Set<MessageKind> result = EnumSet.noneOf(MessageKind.class);
+        result.addAll(this.interest);
+        return result;
+    }
+
+    /**
+     * 1文書のパースで正規表現エンジンが文字を参照する回数の上限を設定する。
+     *
+     * <p>上限を超えたパースは{@link ParseLimitException}で中断される。
+     * 不正な文書で正規表現のバックトラックが爆発的に増え、
+     * パースが停滞することを防ぐ。
+     * 正規表現を介さない走査の参照回数は数えられない。
+     *
+     * <p>正常な文書のパースでは、参照回数は概ね文書の文字数の2倍以内に収まる。
+     * デフォルトは無制限。
+     *
+     * @param limit 参照回数の上限。0以下なら無制限。
+     * @see #setTimeLimit(long)
+     */
+    public void setScanLimit(long limit){
+        this.scanLimit = limit;
+        return;
+    }
+
+    /**
+     * 1文書のパースで正規表現エンジンが文字を参照する回数の上限を返す。
+     * @return 参照回数の上限。0以下なら無制限。
+     */
+    public long getScanLimit(){
+        return this.scanLimit;
+    }
+
+    /**
+     * 1文書のパースに費やす時間の上限を設定する。
+     *
+     * <p>上限を超えたパースは{@link ParseLimitException}で中断される。
+     * 経過時間は正規表現エンジンが一定回数文字を参照するごとに判定されるため、
+     * 正規表現を介さない走査やハンドラの処理中には中断されない。
+     * デフォルトは無制限。
+     *
+     * @param millis 時間の上限。ミリ秒単位。0以下なら無制限。
+     * @see #setScanLimit(long)
+     */
+    public void setTimeLimit(long millis){
+        this.timeLimit = millis;
+        return;
+    }
+
+    /**
+     * 1文書のパースに費やす時間の上限を返す。
+     * @return 時間の上限。ミリ秒単位。0以下なら無制限。
+     */
+    public long getTimeLimit(){
+        return this.timeLimit;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>参照回数もしくは時間の上限が設定されていれば、
+     * 上限を課したビューを返す。
+     * 同じ文書のパース中に検索対象が替わった場合、
+     * 残りの上限は新しいビューへ引き継がれる。
+     *
+     * @param rawContent {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    protected CharSequence matchTarget(CharSequence rawContent){
+        if(this.scanLimit <= 0L && this.timeLimit <= 0L){
+            return rawContent;
+        }
+
+        if(this.budget == null){
+            long nanos = TimeUnit.MILLISECONDS.toNanos(this.timeLimit);
+            this.budget =
+                    new BudgetedSequence(rawContent, this.scanLimit, nanos);
+        }else{
+            this.budget = new BudgetedSequence(rawContent, this.budget);
+        }
+
+        return this.budget;
+    }
+
+    /**
+     * 上限超過によるパースの中断を例外に変換する。
+     * @param cause 上限超過
+     * @param offset パース中断位置に加える値
+     * @return パース例外
+     */
+    private ParseLimitException buildLimitException(
+            BudgetedSequence.Exhausted cause, int offset){
+        boolean timeout = cause.isTimeout();
+
+        String message;
+        if(timeout) message = "parse time limit exceeded";
+        else        message = "parse scan limit exceeded";
+
+        ParseLimitException result =
+                new ParseLimitException(message, regionStart() + offset,
+                                        timeout );
+
+        return result;
+    }
+
+    /**
+     * パース区間を記録しつつパース本体を実行する。
+     *
+     * <p>パース例外の送出も記録される。
+     *
+     * @param <E> パース本体が送出しうるパース例外以外の例外
+     * @param body パース本体
+     * @param windowBase パース対象文字列先頭の文書内位置
+     * @throws E パース本体が送出した例外
+     * @throws HtmlParseException パースエラー
+     * @see #parseBudgeted(ParseBody, IntSupplier)
+     */
+    private <E extends Exception> void parseTraced(ParseBody<E> body,
+                                                   IntSupplier windowBase)
+            throws E, HtmlParseException{
+        Object event = ParseEvents.beginDocument();
+        this.pageType = null;
+
+        int charCount;
+        try{
+            charCount = parseBudgeted(body, windowBase);
+        }catch(HtmlParseException e){
+            ParseEvents.parseError(e);
+            throw e;
+        }
+
+        ParseEvents.commitDocument(event, this.pageType, charCount);
+
+        return;
+    }
+
+    /**
+     * 上限を課しつつパース本体を実行する。
+     *
+     * <p>上限超過による中断は{@link ParseLimitException}に変換される。
+     * パース例外のパース中断位置は文書先頭からの位置に直される。
+     * パース後は上限を課したビューを手放す。
+     *
+     * @param <E> パース本体が送出しうるパース例外以外の例外
+     * @param body パース本体
+     * @param windowBase パース対象文字列先頭の文書内位置。
+     *     パース中に変わりうるため中断時に問い合わせる。
+     * @return パース本体が返した文字数
+     * @throws E パース本体が送出した例外
+     * @throws HtmlParseException パースエラー
+     */
+    private <E extends Exception> int parseBudgeted(ParseBody<E> body,
+                                                    IntSupplier windowBase)
+            throws E, HtmlParseException{
+        this.budget = null;
+
+        int result;
+        try{
+            result = body.parse();
+        }catch(BudgetedSequence.Exhausted e){
+            throw buildLimitException(e, windowBase.getAsInt());
+        }catch(HtmlParseException e){
+            throw e.shiftCharPos(windowBase.getAsInt());
+        }finally{
+            this.budget = null;
+        }
+
+        return result;
+    }
+
     private static final Pattern XMLDECL_PATTERN =
             compile("<\\?xml\u0020");
     private static final Pattern O_HTML_PATTERN =
@@ -84,6 +373,8 @@ public void setSysEventHandler(SysEventHandler handler){
      * @throws HtmlParseException パースエラー
      */
     private void parseHead() throws HtmlParseException{
+        long startTime = startPhase();
+
         setContextErrorMessage("lost head part");
 
         SeqRange titleRange = this.rangepool_1;
@@ -106,6 +397,8 @@ private void parseHead() throws HtmlParseException{
         findAffirm(O_DIVMAIN_PATTERN);
         shrinkRegion();
 
+        endPhase(ParseMetrics.Phase.HEAD, startTime);
+
         return;
     }
 
@@ -334,44 +627,68 @@ private void parsePeriodLink() throws HtmlParseException{
             );
     private static final Pattern C_DIV_PATTERN = compile("</div>");
 
+    private static final String O_DIV_TAG = "<div";
+    private static final String C_DIV_TAG = "</div>";
+    private static final int MESSAGE_TAG_MAX = 64;
+    private static final int TALK_DEPTH = 1;
+    private static final int FAMILY_DEPTH = 2;
+
     /**
      * 各種メッセージをパース。
      * @throws HtmlParseException パースエラー
      */
     private void parseMessage() throws HtmlParseException{
+        long startTime = startPhase();
+
         setContextErrorMessage("lost message");
 
-        boolean skipGarbage = true;
+        boolean skipGarbage = true;      // 最初の1回のみ
+        while(parseMessageBlock(skipGarbage)){
+            skipGarbage = false;
+        }
 
-        for(;;){
-            sweepSpace();
+        endPhase(ParseMetrics.Phase.MESSAGE, startTime);
 
-            boolean matched;
-            if(skipGarbage){
-                skipGarbage = false;
-                matched = findProbe(O_MESSAGE_PATTERN); // 最初の1回のみ
-            }else{
-                matched = lookingAtProbe(O_MESSAGE_PATTERN);
-            }
-            if( ! matched ){
-                matched = lookingAtProbe(O_RELOAD_PATTERN);
-                if(matched){
-                    shrinkRegion();
-                    findAffirm(C_DIV_PATTERN);
-                    shrinkRegion();
-                    continue;
-                }
-                break;
-            }
-            shrinkRegion();
+        return;
+    }
 
-            dispatchFamily();
+    /**
+     * メッセージ1件をパース。
+     * @param skipGarbage メッセージ前のゴミを読み飛ばすならtrue
+     * @return メッセージもしくはリロード指示をパースできたならtrue
+     * @throws HtmlParseException パースエラー
+     */
+    private boolean parseMessageBlock(boolean skipGarbage)
+            throws HtmlParseException{
+        sweepSpace();
 
-            lookingAtAffirm(C_DIV_PATTERN);
+        boolean matched;
+        if(skipGarbage){
+            matched = findProbe(O_MESSAGE_PATTERN);
+        }else{
+            matched = lookingAtProbe(O_MESSAGE_PATTERN);
+        }
+        if( ! matched ){
+            matched = lookingAtProbe(O_RELOAD_PATTERN);
+            if( ! matched ) return false;
+            shrinkRegion();
+            findAffirm(C_DIV_PATTERN);
             shrinkRegion();
+            return true;
         }
+        int blockStart = matchStart();
+        shrinkRegion();
 
-        return;
+        dispatchFamily();
+
+        lookingAtAffirm(C_DIV_PATTERN);
+        shrinkRegion();
+
+        if(this.firstMessageStart < 0) this.firstMessageStart = blockStart;
+        this.lastMessageStart = blockStart;
+        this.lastMessageEnd = regionStart();
+
+        return true;
     }
 
     /**
@@ -386,13 +703,28 @@ private void dispatchFamily() throws HtmlParseException{
         lookingAtAffirm(O_MSGKIND_PATTERN);
         if(isGroupMatched(1)){
             shrinkRegion();
-            this.sysEventParser.parseAnnounce();
+            countMessage(MessageKind.ANNOUNCE);
+            if(this.interest.contains(MessageKind.ANNOUNCE)){
+                this.sysEventParser.parseAnnounce();
+            }else{
+                skipMessageBody(FAMILY_DEPTH);
+            }
         }else if(isGroupMatched(2)){
             shrinkRegion();
-            this.sysEventParser.parseOrder();
+            countMessage(MessageKind.ORDER);
+            if(this.interest.contains(MessageKind.ORDER)){
+                this.sysEventParser.parseOrder();
+            }else{
+                skipMessageBody(FAMILY_DEPTH);
+            }
         }else if(isGroupMatched(3)){
             shrinkRegion();
-            this.sysEventParser.parseExtra();
+            countMessage(MessageKind.EXTRA);
+            if(this.interest.contains(MessageKind.EXTRA)){
+                this.sysEventParser.parseExtra();
+            }else{
+                skipMessageBody(FAMILY_DEPTH);
+            }
         }else if(isGroupMatched(5)){
             nameRange.setLastMatchedGroupRange(getMatcher(), 5);
             int talkNo = -1;
@@ -400,7 +732,13 @@ private void dispatchFamily() throws HtmlParseException{
                 talkNo = parseGroupedInt(4);
             }
             shrinkRegion();
-            this.talkParser.parseTalk(talkNo, nameRange);
+            if(talkNo >= 0) this.lastTalkNo = talkNo;
+            countMessage(MessageKind.TALK);
+            if(this.interest.contains(MessageKind.TALK)){
+                this.talkParser.parseTalk(talkNo, nameRange);
+            }else{
+                skipMessageBody(TALK_DEPTH);
+            }
         }else{
             assert false;
             throw buildParseException();
@@ -409,6 +747,47 @@ private void dispatchFamily() throws HtmlParseException{
         return;
     }
 
+    /**
+     * メッセージの内部を解釈せずに読み飛ばす。
+     *
+     * <p>{@code <div>}の入れ子を数えながら走査し、
+     * メッセージを閉じる{@code </div>}の直前まで検索領域を縮める。
+     *
+     * @param depth 検索領域先頭での、
+     *     メッセージ自身を含む{@code <div>}の入れ子の深さ
+     * @throws HtmlParseException メッセージが閉じていない
+     */
+    private void skipMessageBody(int depth) throws HtmlParseException{
+        CharSequence rawContent = getContent().getRawContent();
+        int regionEnd = regionEnd();
+        int limit = regionEnd - C_DIV_TAG.length() + 1;
+
+        int level = depth;
+        int pos = regionStart();
+        for(;;){
+            pos = DelimiterSeeker.indexOfOpen(rawContent, pos, limit);
+            if(pos >= limit){
+                throw buildParseException();
+            }
+
+            if(isOpenDiv(rawContent, pos)){
+                level++;
+                pos += O_DIV_TAG.length();
+            }else if(LiteralSeeker.startsWith(rawContent, pos, regionEnd,
+                                              C_DIV_TAG)){
+                level--;
+                if(level <= 0) break;
+                pos += C_DIV_TAG.length();
+            }else{
+                pos++;
+            }
+        }
+
+        getMatcher().region(pos, regionEnd);
+
+        return;
+    }
+
     private static final Pattern O_LISTTABLE_PATTERN =
             compile("<table\u0020class=\"list\">"
                    +"(?:"
@@ -577,7 +956,51 @@ private void parseTail() throws HtmlParseException{
      */
     public void parseAutomatic(DecodedContent content)
             throws HtmlParseException{
+        parseTraced(() -> {
+            parseDocument(content, false);
+            return content.length();
+        }, DOCUMENT_TOP);
+
+        return;
+    }
+
+    /**
+     * 人狼BBSのページ種別を自動認識しつつ先頭部分のみをパースする。
+     *
+     * <p>ページ種別を判定し、
+     * Periodページであれば村名、更新時刻、Period間リンクまでを通知した後、
+     * メッセージや文書末尾を調べずに{@link BasicHandler#endParse()}を通知する。
+     * トップページと終了した村一覧では村の一覧を調べない。
+     * 発言やシステムイベントは一切通知されない。
+     *
+     * <p>文書の先頭部分さえ含まれていれば、
+     * 途中で切り詰められた文書もパースできる。
+     * 再開地点は得られない。
+     *
+     * @param content パース対象の文字列
+     * @throws HtmlParseException パースエラー
+     * @see #parseAutomatic(DecodedContent)
+     */
+    public void scanHead(DecodedContent content)
+            throws HtmlParseException{
+        parseTraced(() -> {
+            parseDocument(content, true);
+            return content.length();
+        }, DOCUMENT_TOP);
+
+        return;
+    }
+
+    /**
+     * 人狼BBSのページ種別を自動認識しつつ文書をパースする。
+     * @param content パース対象の文字列
+     * @param headOnly 先頭部分のみをパースするならtrue
+     * @throws HtmlParseException パースエラー
+     */
+    private void parseDocument(DecodedContent content, boolean headOnly)
+            throws HtmlParseException{
         setContent(content);
+        clearCheckpoint();
 
         this.basicHandler.startParse(getContent());
 
@@ -587,20 +1010,252 @@ public void parseAutomatic(DecodedContent content)
 
         if(lookingAtProbe(LISTTITLE_PATTERN)){
             shrinkRegion();
-            this.basicHandler.pageType(PageType.VILLAGELIST_PAGE);
+            notifyPageType(PageType.VILLAGELIST_PAGE);
+            if( ! headOnly ) parseLogList();
+        }else{
+            parseLoginForm();
+            sweepSpace();
+            if(lookingAtProbe(O_PARAG_PATTERN)){
+                shrinkRegion();
+                notifyPageType(PageType.TOP_PAGE);
+                if( ! headOnly ) parseTopList();
+            }else{
+                notifyPageType(PageType.PERIOD_PAGE);
+                parseVillageInfo();
+                parsePeriodLink();
+                if( ! headOnly ) parseMessage();
+            }
+        }
+
+        if( ! headOnly ) parseTail();
+
+        this.basicHandler.endParse();
+
+        if( ! headOnly ){
+            countDocument(content.length());
+            captureCheckpoint();
+        }
+
+        reset();
+
+        return;
+    }
+
+    /**
+     * 前回パースした時点から末尾にメッセージが追記された
+     * Periodページを、再開地点からパースする。
+     *
+     * <p>文書が再開地点から再開可能であれば、
+     * {@link BasicHandler#startParse(DecodedContent)}の後に
+     * 再開地点以降のメッセージのみが通知され、
+     * 最後に{@link BasicHandler#endParse()}が通知される。
+     * 先頭部分やPeriod間リンクなどは通知されない。
+     *
+     * <p>再開可能でなければ
+     * {@link #parseAutomatic(DecodedContent)}と同じく
+     * 文書全体をパースする。
+     *
+     * @param content パース対象の文字列
+     * @param resumePoint 前回のパースで得られた再開地点
+     * @return 再開地点からパースしたならtrue。
+     *     文書全体をパースしたならfalse。
+     * @throws HtmlParseException パースエラー
+     * @see ParseCheckpoint#isResumable(CharSequence)
+     */
+    public boolean resumeParse(DecodedContent content,
+                               ParseCheckpoint resumePoint )
+            throws HtmlParseException{
+        if( ! resumePoint.isResumable(content.getRawContent()) ){
+            parseAutomatic(content);
+            return false;
+        }
+
+        parseTraced(() -> {
+            parseResumed(content, resumePoint);
+            return content.length() - resumePoint.getCharPos();
+        }, DOCUMENT_TOP);
+
+        return true;
+    }
+
+    /**
+     * 再開地点以降のメッセージをパースする。
+     * @param content パース対象の文字列
+     * @param resumePoint 再開可能な再開地点
+     * @throws HtmlParseException パースエラー
+     */
+    private void parseResumed(DecodedContent content,
+                              ParseCheckpoint resumePoint )
+            throws HtmlParseException{
+        setContent(content);
+        clearCheckpoint();
+        this.pageType = PageType.PERIOD_PAGE;
+        this.firstMessageStart = resumePoint.getHeadLength();
+        this.lastMessageStart  = resumePoint.getBlockStart();
+        this.lastMessageEnd    = resumePoint.getCharPos();
+        this.lastTalkNo        = resumePoint.getTalkNo();
+
+        getMatcher().region(resumePoint.getCharPos(), content.length());
+
+        this.basicHandler.startParse(getContent());
+
+        long startTime = startPhase();
+
+        setContextErrorMessage("lost message");
+        while(parseMessageBlock(false)){
+            assert true;
+        }
+
+        endPhase(ParseMetrics.Phase.MESSAGE, startTime);
+
+        parseTail();
+
+        this.basicHandler.endParse();
+
+        countDocument(content.length() - resumePoint.getCharPos());
+
+        captureCheckpoint();
+
+        reset();
+
+        return;
+    }
+
+    /**
+     * 再開地点に関する情報を消去する。
+     */
+    private void clearCheckpoint(){
+        this.firstMessageStart = -1;
+        this.lastMessageStart  = -1;
+        this.lastMessageEnd    = -1;
+        this.lastTalkNo        = -1;
+        this.checkpoint = null;
+        return;
+    }
+
+    /**
+     * 最後にパースしたメッセージの直後を再開地点として記録する。
+     */
+    private void captureCheckpoint(){
+        if(this.lastMessageEnd < 0) return;
+
+        this.checkpoint = new ParseCheckpoint(getContent().getRawContent(),
+                                              this.firstMessageStart,
+                                              this.lastMessageStart,
+                                              this.lastMessageEnd,
+                                              this.lastTalkNo );
+
+        return;
+    }
+
+    /**
+     * Shift_JIS符号化された人狼BBSのページを
+     * 入力ストリームから読み込みつつパースする。
+     *
+     * <p>ストリームは閉じられない。
+     *
+     * @param istream 入力ストリーム
+     * @throws IOException 入力エラー
+     * @throws HtmlParseException パースエラー
+     * @see #parseStream(ReadableByteChannel)
+     */
+    public void parseStream(InputStream istream)
+            throws IOException, HtmlParseException{
+        ReadableByteChannel channel = Channels.newChannel(istream);
+        parseStream(channel);
+        return;
+    }
+
+    /**
+     * Shift_JIS符号化された人狼BBSのページを
+     * 入力チャネルから読み込みつつパースする。
+     *
+     * <p>ハンドラへの通知内容は{@link #parseAutomatic(DecodedContent)}と同じ。
+     * Periodページの各メッセージは読み込みが済んだ時点で通知され、
+     * 通知済みの部分は読み込み用の窓から順次捨てられる。
+     * このためメモリ消費量は文書全体ではなく、
+     * 最大のメッセージの大きさに比例する。
+     *
+     * <p>ハンドラに渡される文字列は文書全体ではなく読み込み用の窓であり、
+     * 通知ごとに別のインスタンスになることや、
+     * 通知後に内容が書き換えられることがある。
+     * 文字列やその文字領域を通知後も参照したい場合は、
+     * 通知中に複製しなければならない。
+     * {@link BasicHandler#startParse(DecodedContent)}に渡される文字列も
+     * 同様に窓である。
+     *
+     * <p>パース例外のパース中断位置は文書先頭からの位置となる。
+     *
+     * <p>再開地点は得られない。
+     *
+     * <p>チャネルは閉じられない。
+     * 非ブロッキングモードのチャネルは扱えない。
+     * 1バイトも返さない読み込みが続くチャネルは入力エラーとなる。
+     *
+     * @param channel 入力チャネル
+     * @throws IOException 入力エラー
+     * @throws HtmlParseException パースエラー
+     * @throws IllegalArgumentException 非ブロッキングモードのチャネル
+     */
+    public void parseStream(ReadableByteChannel channel)
+            throws IOException, HtmlParseException,
+                   IllegalArgumentException{
+        ContentWindow window = new ContentWindow(channel);
+        clearCheckpoint();
+
+        parseTraced(() -> {
+            parseWindow(window);
+            return window.getBase() + window.getContent().length();
+        }, window::getBase);
+
+        return;
+    }
+
+    /**
+     * 読み込み用の窓を進めつつ人狼BBSのページをパースする。
+     *
+     * <p>最初のメッセージが現れるまでを読み込んでから先頭部分をパースする。
+     * メッセージが現れなければ文書全体を読み込んでからパースする。
+     *
+     * @param window 読み込み用の窓
+     * @throws IOException 入力エラー
+     * @throws HtmlParseException パースエラー
+     */
+    private void parseWindow(ContentWindow window)
+            throws IOException, HtmlParseException{
+        int messagePos = seekFirstMessage(window);
+        if(messagePos < 0){
+            parseDocument(window.getContent(), false);
+            return;
+        }
+
+        setContent(window.getContent());
+        getMatcher().region(0, messagePos);
+
+        this.basicHandler.startParse(getContent());
+
+        parseHead();
+
+        sweepSpace();
+
+        if(lookingAtProbe(LISTTITLE_PATTERN)){
+            shrinkRegion();
+            notifyPageType(PageType.VILLAGELIST_PAGE);
+            extendRegion(window);
             parseLogList();
         }else{
             parseLoginForm();
             sweepSpace();
             if(lookingAtProbe(O_PARAG_PATTERN)){
                 shrinkRegion();
-                this.basicHandler.pageType(PageType.TOP_PAGE);
+                notifyPageType(PageType.TOP_PAGE);
+                extendRegion(window);
                 parseTopList();
             }else{
-                this.basicHandler.pageType(PageType.PERIOD_PAGE);
+                notifyPageType(PageType.PERIOD_PAGE);
                 parseVillageInfo();
                 parsePeriodLink();
-                parseMessage();
+                parseMessageStream(window, messagePos);
             }
         }
 
@@ -608,9 +1263,208 @@ public void parseAutomatic(DecodedContent content)
 
         this.basicHandler.endParse();
 
+        countDocument(window.getBase() + window.getContent().length());
+
         reset();
 
         return;
     }
 
+    /**
+     * 最初のメッセージの開始位置が現れるまで窓を読み進める。
+     * @param window 読み込み用の窓
+     * @return メッセージ開始位置。メッセージが無ければ負の値。
+     * @throws IOException 入力エラー
+     */
+    private static int seekFirstMessage(ContentWindow window)
+            throws IOException{
+        Matcher matcher =
+                O_MESSAGE_PATTERN.matcher(window.getContent().getRawContent());
+
+        int from = 0;
+        for(;;){
+            boolean filled = window.fill();
+            int length = window.getContent().length();
+
+            matcher.region(from, length);
+            if(matcher.find()) return matcher.start();
+            if( ! filled ) break;
+
+            from = Math.max(from, length - MESSAGE_TAG_MAX);
+        }
+
+        return -1;
+    }
+
+    /**
+     * 入力を終わりまで読み込み、検索領域の末尾を窓の末尾まで広げる。
+     * @param window 読み込み用の窓
+     * @throws IOException 入力エラー
+     */
+    private void extendRegion(ContentWindow window) throws IOException{
+        window.fillAll();
+        int regionStart = regionStart();
+        int length = window.getContent().length();
+        getMatcher().region(regionStart, length);
+        return;
+    }
+
+    /**
+     * 読み込み用の窓を進めつつ各種メッセージをパース。
+     *
+     * <p>{@code <div>}要素の入れ子が閉じるまでを1件のメッセージとし、
+     * その範囲を読み込んでからパースする。
+     * 通知済みの部分は窓から捨てられる。
+     * 要素が閉じないまま入力が終わった場合や
+     * {@code <div>}要素が続かない場合は、
+     * 残りの入力を全て読み込んでからパースを続ける。
+     *
+     * @param window 読み込み用の窓
+     * @param messagePos 最初のメッセージの開始位置
+     * @throws IOException 入力エラー
+     * @throws HtmlParseException パースエラー
+     */
+    private void parseMessageStream(ContentWindow window, int messagePos)
+            throws IOException, HtmlParseException{
+        long startTime = startPhase();
+
+        setContextErrorMessage("lost message");
+
+        boolean skipGarbage = true;      // 最初の1回のみ
+        int blockStart = messagePos;
+
+        for(;;){
+            int blockEnd = seekBlockEnd(window, blockStart);
+            if(blockEnd < 0) break;
+
+            getMatcher().region(regionStart(), blockEnd);
+            if( ! parseMessageBlock(skipGarbage) ) break;
+            skipGarbage = false;
+
+            int pos = regionStart();
+            if(window.discard(pos)){
+                setContent(window.getContent());
+                pos = 0;
+            }
+            getMatcher().region(pos, window.getContent().length());
+
+            blockStart = seekNonSpace(window, pos);
+            if(blockStart < 0) break;
+        }
+
+        extendRegion(window);
+        while(parseMessageBlock(skipGarbage)){
+            skipGarbage = false;
+        }
+
+        endPhase(ParseMetrics.Phase.MESSAGE, startTime);
+
+        return;
+    }
+
+    /**
+     * 指定位置から始まる{@code <div>}要素の終わりまで窓を読み進める。
+     * 入れ子の{@code <div>}要素も考慮される。
+     * @param window 読み込み用の窓
+     * @param startPos {@code <div>}要素の開始位置
+     * @return 要素の終わりの直後の位置。
+     *     {@code <div>}要素で始まらない場合や
+     *     要素が閉じないまま入力が終わった場合は負の値。
+     * @throws IOException 入力エラー
+     */
+    private static int seekBlockEnd(ContentWindow window, int startPos)
+            throws IOException{
+        if( ! window.fillBeyond(startPos + O_DIV_TAG.length()) ) return -1;
+        if( ! isOpenDiv(window.getContent(), startPos) ) return -1;
+
+        int depth = 0;
+        int pos = startPos;
+        for(;;){
+            if( ! window.fillBeyond(pos + C_DIV_TAG.length() - 1) ){
+                return -1;
+            }
+            CharSequence rawContent = window.getContent().getRawContent();
+
+            if(rawContent.charAt(pos) != '<'){
+                pos++;
+            }else if(isOpenDiv(rawContent, pos)){
+                depth++;
+                pos += O_DIV_TAG.length();
+            }else if(LiteralSeeker.startsWith(rawContent,
+                                              pos, rawContent.length(),
+                                              C_DIV_TAG)){
+                depth--;
+                pos += C_DIV_TAG.length();
+                if(depth <= 0) return pos;
+            }else{
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * 指定位置から{@code <div>}開始タグが始まるか判定する。
+     * 判定には開始タグ名直後の1文字までが読み込まれていなければならない。
+     * @param seq 文字列
+     * @param pos 位置
+     * @return {@code <div>}開始タグが始まるならtrue
+     */
+    private static boolean isOpenDiv(CharSequence seq, int pos){
+        if( ! LiteralSeeker.startsWith(seq, pos, seq.length(), O_DIV_TAG) ){
+            return false;
+        }
+
+        char next = seq.charAt(pos + O_DIV_TAG.length());
+        boolean result = next == '\u0020' || next == '>';
+
+        return result;
+    }
+
+    /**
+     * 指定位置からホワイトスペースを読み飛ばしつつ窓を読み進める。
+     * @param window 読み込み用の窓
+     * @param startPos 開始位置
+     * @return ホワイトスペース以外の文字の位置。
+     *     入力が終わった場合は負の値。
+     * @throws IOException 入力エラー
+     */
+    private static int seekNonSpace(ContentWindow window, int startPos)
+            throws IOException{
+        int pos = startPos;
+        while(window.fillBeyond(pos)){
+            char letter = window.getContent().charAt(pos);
+            switch(letter){
+            case '\u0020':
+            case '\t':
+            case '\n':
+            case '\r':
+                pos++;
+                break;
+            default:
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * {@link HtmlParser}のパース本体。
+     *
+     * @param <E> パース例外以外に送出しうる例外
+     */
+    @FunctionalInterface
+    private interface ParseBody<E extends Exception>{
+
+        /**
+         * パースする。
+         *
+         * @return パースした文字数
+         * @throws E パース例外以外の例外
+         * @throws HtmlParseException パースエラー
+         */
+        int parse() throws E, HtmlParseException;
+
+    }
+
 }
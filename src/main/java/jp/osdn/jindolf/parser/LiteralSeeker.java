@@ -0,0 +1,207 @@
+/*
+ * literal string seeker
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 固定文字列のみからなる正規表現パターンの高速検索器。
+ * Boyer-Moore-Horspool法による部分文字列検索を行う。
+ * スキップ表は文字コードの下位8bitで索引される。
+ *
+ * <p>{@link AbstractParser#compile(CharSequence)}でコンパイルされた
+ * パターンのうち、固定文字列とみなせるものが登録される。
+ */
+final class LiteralSeeker{
+
+    private static final String REGEX_META = "\\[](){}.*+?^$|";
+    private static final int TABLE_SZ = 256;
+    private static final int TABLE_MASK = TABLE_SZ - 1;
+
+    private static final Map<Pattern, LiteralSeeker> SEEKER_MAP =
+            new ConcurrentHashMap<>();
+
+
+    private final String literal;
+    private final int[] shiftTable = new int[TABLE_SZ];
+
+
+    /**
+     * コンストラクタ。
+     * @param literal 固定文字列。長さ1以上。
+     */
+    LiteralSeeker(String literal){
+        super();
+
+        assert literal.length() > 0;
+
+        this.literal = literal;
+
+        int length = literal.length();
+        Arrays.fill(this.shiftTable, length);
+        for(int idx = 0; idx < length - 1; idx++){
+            char letter = literal.charAt(idx);
+            this.shiftTable[letter & TABLE_MASK] = length - 1 - idx;
+        }
+
+        return;
+    }
+
+
+    /**
+     * 正規表現が固定文字列とみなせるなら、その固定文字列を返す。
+     * 英数字以外の文字を{@code \}でエスケープしたものは
+     * その文字自身とみなす。
+     * @param regex 正規表現文字列
+     * @return 固定文字列。固定文字列とみなせなければnull。
+     */
+    static String toLiteral(CharSequence regex){
+        int regexLength = regex.length();
+        if(regexLength <= 0) return null;
+
+        StringBuilder result = new StringBuilder(regexLength);
+
+        for(int pos = 0; pos < regexLength; pos++){
+            char letter = regex.charAt(pos);
+            if(letter == '\\'){
+                pos++;
+                if(pos >= regexLength) return null;
+                letter = regex.charAt(pos);
+                if(Character.isLetterOrDigit(letter)) return null;
+            }else if(REGEX_META.indexOf(letter) >= 0){
+                return null;
+            }
+            result.append(letter);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * 固定文字列とみなせるパターンを登録する。
+     * 固定文字列とみなせないパターンは無視される。
+     * @param pattern パターン
+     */
+    static void register(Pattern pattern){
+        String literal = toLiteral(pattern.pattern());
+        if(literal == null) return;
+        LiteralSeeker seeker = new LiteralSeeker(literal);
+        SEEKER_MAP.put(pattern, seeker);
+        return;
+    }
+
+    /**
+     * パターンに対応する検索器を返す。
+     * @param pattern パターン
+     * @return 検索器。固定文字列とみなせないパターンならnull。
+     */
+    static LiteralSeeker getSeeker(Pattern pattern){
+        LiteralSeeker result = SEEKER_MAP.get(pattern);
+        return result;
+    }
+
+    /**
+     * 固定文字列を返す。
+     * @return 固定文字列
+     */
+    String getLiteral(){
+        return this.literal;
+    }
+
+    /**
+     * 固定文字列の長さを返す。
+     * @return 文字数
+     */
+    int length(){
+        return this.literal.length();
+    }
+
+    /**
+     * 指定範囲から固定文字列が最初に現れる位置を探す。
+     * 固定文字列全体が範囲内に収まらなければならない。
+     * @param seq 検索対象
+     * @param startPos 検索開始位置
+     * @param endPos 検索終了位置
+     * @return 出現位置。見つからなければ負の値。
+     */
+    int indexOf(CharSequence seq, int startPos, int endPos){
+        int length = this.literal.length();
+        int lastIdx = length - 1;
+        char lastChar = this.literal.charAt(lastIdx);
+
+        int limit = endPos - length;
+        int pos = startPos;
+        while(pos <= limit){
+            char letter = seq.charAt(pos + lastIdx);
+            if(letter == lastChar && matchHead(seq, pos)){
+                return pos;
+            }
+            pos += this.shiftTable[letter & TABLE_MASK];
+        }
+
+        return -1;
+    }
+
+    /**
+     * 指定位置から固定文字列が始まるか判定する。
+     * 固定文字列全体が範囲内に収まらなければならない。
+     * @param seq 検索対象
+     * @param startPos 判定位置
+     * @param endPos 検索終了位置
+     * @return 固定文字列が始まるならtrue
+     */
+    boolean startsWith(CharSequence seq, int startPos, int endPos){
+        boolean result = startsWith(seq, startPos, endPos, this.literal);
+        return result;
+    }
+
+    /**
+     * 指定位置から任意の固定文字列が始まるか判定する。
+     * 固定文字列全体が範囲内に収まらなければならない。
+     *
+     * <p>検索器を持たない固定文字列の判定にも用いられる。
+     * @param seq 検索対象
+     * @param startPos 判定位置
+     * @param endPos 検索終了位置
+     * @param literal 固定文字列
+     * @return 固定文字列が始まるならtrue
+     */
+    static boolean startsWith(CharSequence seq, int startPos, int endPos,
+                              String literal){
+        int length = literal.length();
+        if(endPos - startPos < length) return false;
+
+        for(int idx = 0; idx < length; idx++){
+            if(seq.charAt(startPos + idx) != literal.charAt(idx)){
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 末尾の文字を除く固定文字列が指定位置から始まるか判定する。
+     * @param seq 検索対象
+     * @param startPos 判定位置
+     * @return 一致すればtrue
+     */
+    private boolean matchHead(CharSequence seq, int startPos){
+        int lastIdx = this.literal.length() - 1;
+        for(int idx = 0; idx < lastIdx; idx++){
+            if(seq.charAt(startPos + idx) != this.literal.charAt(idx)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,25 @@
+/*
+ * message kind
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+/**
+ * Periodページに現れるメッセージの種別。
+ */
+public enum MessageKind{
+
+    /** Announceメッセージ。 */
+    ANNOUNCE,
+    /** Orderメッセージ。 */
+    ORDER,
+    /** Extraメッセージ。 */
+    EXTRA,
+    /** 発言。 */
+    TALK,
+    ;
+
+}
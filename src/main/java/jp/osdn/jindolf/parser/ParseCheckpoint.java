@@ -0,0 +1,158 @@
+/*
+ * checkpoint of period page parsing
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+/**
+ * Periodページのパースにおける最後のメッセージ直後の再開地点。
+ *
+ * <p>
+ * 発言が追加され続ける進行中のPeriodページを再取得した際に、
+ * 前回パース済みのメッセージを読み飛ばしてパースを再開するために用いる。
+ * {@link HtmlParser#resumeParse(
+ * jp.osdn.jindolf.parser.content.DecodedContent, ParseCheckpoint)}
+ * を参照。
+ * </p>
+ *
+ * <p>
+ * 文書全体は保持せず、
+ * 最初のメッセージより前の先頭部分と最後のメッセージについて、
+ * その位置と内容の写しおよびハッシュ値を保持する。
+ * 再開可否の判定ではハッシュ値を前段の絞り込みにのみ用い、
+ * 最終的には写しとの完全な一致を検査する。
+ * </p>
+ *
+ * @see HtmlParser#getCheckpoint()
+ */
+public final class ParseCheckpoint{
+
+    private final int headLength;
+    private final int headHash;
+    private final String headText;
+    private final int blockStart;
+    private final int blockEnd;
+    private final int blockHash;
+    private final String blockText;
+    private final int talkNo;
+
+
+    /**
+     * コンストラクタ。
+     * @param seq 文書
+     * @param headLength 最初のメッセージの開始位置
+     * @param blockStart 最後のメッセージの開始位置
+     * @param blockEnd 最後のメッセージの終了位置
+     * @param talkNo 最後の発言番号。不明なら負の値。
+     */
+    ParseCheckpoint(CharSequence seq,
+                    int headLength,
+                    int blockStart, int blockEnd,
+                    int talkNo ){
+        super();
+
+        assert 0 <= headLength;
+        assert headLength <= blockStart;
+        assert blockStart <= blockEnd;
+        assert blockEnd <= seq.length();
+
+        this.headLength = headLength;
+        this.headHash = hash(seq, 0, headLength);
+        this.headText = seq.subSequence(0, headLength).toString();
+        this.blockStart = blockStart;
+        this.blockEnd = blockEnd;
+        this.blockHash = hash(seq, blockStart, blockEnd);
+        this.blockText = seq.subSequence(blockStart, blockEnd).toString();
+        this.talkNo = talkNo;
+
+        return;
+    }
+
+
+    /**
+     * 文字列の指定範囲のハッシュ値を求める。
+     * {@link String#hashCode()}と同じ算法を用いる。
+     * @param seq 文字列
+     * @param start 開始位置
+     * @param end 終了位置
+     * @return ハッシュ値
+     */
+    private static int hash(CharSequence seq, int start, int end){
+        int result = 0;
+        for(int pos = start; pos < end; pos++){
+            result = result * 31 + seq.charAt(pos);
+        }
+        return result;
+    }
+
+    /**
+     * 最初のメッセージの開始位置を返す。
+     * @return 開始位置
+     */
+    int getHeadLength(){
+        return this.headLength;
+    }
+
+    /**
+     * 最後のメッセージの開始位置を返す。
+     * @return 開始位置
+     */
+    int getBlockStart(){
+        return this.blockStart;
+    }
+
+    /**
+     * パース再開位置を返す。
+     * 最後のメッセージの終了位置に等しい。
+     * @return パース再開位置
+     */
+    public int getCharPos(){
+        return this.blockEnd;
+    }
+
+    /**
+     * 最後にパースされた発言番号を返す。
+     * @return 発言番号。発言番号が一度も現れなかった場合は負の値。
+     */
+    public int getTalkNo(){
+        return this.talkNo;
+    }
+
+    /**
+     * 文書がこの再開地点の時点から
+     * 末尾に追記されたものであるか検査する。
+     *
+     * <p>
+     * 先頭部分と最後のメッセージの内容が同一であることを検査する。
+     * ハッシュ値が一致した場合も、保持した写しと一文字ずつ比較する。
+     * その間のメッセージの内容までは検査されない。
+     * </p>
+     *
+     * @param seq 文書
+     * @return 再開可能ならtrue
+     */
+    public boolean isResumable(CharSequence seq){
+        if(seq.length() < this.blockEnd) return false;
+
+        if(hash(seq, 0, this.headLength) != this.headHash) return false;
+
+        int hashVal = hash(seq, this.blockStart, this.blockEnd);
+        if(hashVal != this.blockHash) return false;
+
+        // ハッシュ値の衝突に備える
+        if( ! LiteralSeeker.startsWith(seq, 0, this.headLength,
+                                       this.headText) ){
+            return false;
+        }
+        if( ! LiteralSeeker.startsWith(seq, this.blockStart, this.blockEnd,
+                                       this.blockText) ){
+            return false;
+        }
+
+        return true;
+    }
+
+}
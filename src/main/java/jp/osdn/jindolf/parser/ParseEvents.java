@@ -0,0 +1,109 @@
+/*
+ * flight recorder events of parser
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import jp.sourceforge.jindolf.corelib.EventFamily;
+import jp.sourceforge.jindolf.corelib.SysEventType;
+
+/**
+ * パース処理の区間をJava Flight Recorderのイベントとして記録する。
+ *
+ * <p>区間の開始時に得たイベントを、終了時に属性と共に確定する。
+ * 記録が行われていなければ、開始時に得られるイベントはnullとなる。
+ *
+ * <p>Java 11以降の実行環境では、
+ * マルチリリースJARに同梱された別実装に置き換わる。
+ * この実装は何も記録しない。
+ */
+final class ParseEvents{
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private ParseEvents(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 文書パースの区間を開始する。
+     *
+     * @return イベント。記録しないならnull。
+     */
+    static Object beginDocument(){
+        return null;
+    }
+
+    /**
+     * 文書パースの区間を確定する。
+     *
+     * @param event {@link #beginDocument()}で得たイベント。nullも可能。
+     * @param pageType ページ種別。nullも可能。
+     * @param charCount 文字数
+     */
+    static void commitDocument(Object event,
+                               PageType pageType,
+                               int charCount ){
+        return;
+    }
+
+    /**
+     * 発言パースの区間を開始する。
+     *
+     * @return イベント。記録しないならnull。
+     */
+    static Object beginTalk(){
+        return null;
+    }
+
+    /**
+     * 発言パースの区間を確定する。
+     *
+     * @param event {@link #beginTalk()}で得たイベント。nullも可能。
+     * @param talkNo 白発言番号。無ければ負の値。
+     * @param charCount 文字数
+     */
+    static void commitTalk(Object event, int talkNo, int charCount){
+        return;
+    }
+
+    /**
+     * システムイベントパースの区間を開始する。
+     *
+     * @return イベント。記録しないならnull。
+     */
+    static Object beginSysEvent(){
+        return null;
+    }
+
+    /**
+     * システムイベントパースの区間を確定する。
+     *
+     * @param event {@link #beginSysEvent()}で得たイベント。nullも可能。
+     * @param family イベント種別
+     * @param type イベント詳細種別。nullも可能。
+     * @param charCount 文字数
+     */
+    static void commitSysEvent(Object event,
+                               EventFamily family,
+                               SysEventType type,
+                               int charCount ){
+        return;
+    }
+
+    /**
+     * パース例外の送出を記録する。
+     *
+     * @param exception パース例外
+     */
+    static void parseError(HtmlParseException exception){
+        return;
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * parse limit exception
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+/**
+ * パース作業量の上限超過による中断。
+ * {@link HtmlParser#setScanLimit(long)}もしくは
+ * {@link HtmlParser#setTimeLimit(long)}で設定された上限を
+ * 1文書のパースが超えた場合にスローされる。
+ * パース中断位置は上限を超えた時点で解釈中だった構造の開始位置となる。
+ */
+@SuppressWarnings("serial")
+public class ParseLimitException extends HtmlParseException{
+
+    private final boolean timeout;
+
+    /**
+     * コンストラクタ。
+     * @param message メッセージ
+     * @param charPos パース中断位置
+     * @param timeout 時間の上限を超えたならtrue
+     */
+    public ParseLimitException(String message, int charPos, boolean timeout){
+        super(message, charPos);
+        this.timeout = timeout;
+        return;
+    }
+
+    /**
+     * 時間の上限を超えたか判定する。
+     * @return 時間の上限を超えたならtrue。
+     *     文字の参照回数の上限を超えたならfalse。
+     */
+    public boolean isTimeout(){
+        return this.timeout;
+    }
+
+}
@@ -0,0 +1,302 @@
+/*
+ * parse metrics
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * パース処理の計測値を集める。
+ *
+ * <p>
+ * {@link AbstractParser#setMetrics(ParseMetrics)}で登録されると、
+ * パーサはパースした文書数と文字数、種別ごとのメッセージ数、
+ * 各パース段階の所要時間、
+ * 正規表現パターンごとのマッチ試行数と失敗数を加算していく。
+ * </p>
+ *
+ * <p>
+ * 登録されていないパーサは計測を一切行わない。
+ * </p>
+ *
+ * <p>
+ * マルチスレッドに対応する。
+ * 複数のパーサから同時に加算されてもよい。
+ * 値の参照中に加算が行われた場合、
+ * 各値の間の整合性は保証されない。
+ * </p>
+ */
+public class ParseMetrics{
+
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder chars = new LongAdder();
+    private final LongAdder[] messages =
+            newAdders(MessageKind.values().length);
+    private final LongAdder[] phaseCounts =
+            newAdders(Phase.values().length);
+    private final LongAdder[] phaseNanos =
+            newAdders(Phase.values().length);
+    private final LongAdder simpleAnnounceMisses = new LongAdder();
+
+    private final ConcurrentMap<Pattern, PatternCounter> patternMap =
+            new ConcurrentHashMap<>();
+
+
+    /**
+     * コンストラクタ。
+     */
+    public ParseMetrics(){
+        super();
+        return;
+    }
+
+
+    /**
+     * カウンタの配列を生成する。
+     *
+     * @param size 要素数
+     * @return カウンタの配列
+     */
+    private static LongAdder[] newAdders(int size){
+        LongAdder[] result = new LongAdder[size];
+        for(int idx = 0; idx < size; idx++){
+            result[idx] = new LongAdder();
+        }
+        return result;
+    }
+
+    /**
+     * パースした文書を数える。
+     *
+     * @param charCount 文書の文字数
+     */
+    void countDocument(int charCount){
+        this.documents.increment();
+        this.chars.add(charCount);
+        return;
+    }
+
+    /**
+     * パースしたメッセージを数える。
+     *
+     * @param kind メッセージ種別
+     */
+    void countMessage(MessageKind kind){
+        this.messages[kind.ordinal()].increment();
+        return;
+    }
+
+    /**
+     * パース段階の所要時間を加算する。
+     *
+     * @param phase パース段階
+     * @param nanos 所要時間。ナノ秒単位。
+     */
+    void addPhaseTime(Phase phase, long nanos){
+        int idx = phase.ordinal();
+        this.phaseCounts[idx].increment();
+        this.phaseNanos[idx].add(nanos);
+        return;
+    }
+
+    /**
+     * パターンのマッチ試行を数える。
+     *
+     * @param pattern 正規表現パターン
+     * @param matched マッチしたならtrue
+     */
+    void countMatch(Pattern pattern, boolean matched){
+        PatternCounter counter = this.patternMap.get(pattern);
+        if(counter == null){
+            counter = this.patternMap.computeIfAbsent(
+                    pattern, key -> new PatternCounter());
+        }
+
+        counter.attempts.increment();
+        if( ! matched ) counter.failures.increment();
+
+        return;
+    }
+
+    /**
+     * 固定文字列のAnnounceメッセージとして
+     * 解釈できなかったAnnounceメッセージを数える。
+     */
+    void countSimpleAnnounceMiss(){
+        this.simpleAnnounceMisses.increment();
+        return;
+    }
+
+    /**
+     * パースを終えた文書の数を返す。
+     *
+     * <p>パースエラーで中断した文書は含まれない。
+     *
+     * @return 文書数
+     */
+    public long getDocuments(){
+        return this.documents.sum();
+    }
+
+    /**
+     * パースを終えた文書の総文字数を返す。
+     *
+     * <p>再開地点からのパースでは、再開地点以降の文字数のみが数えられる。
+     *
+     * @return 文字数
+     */
+    public long getChars(){
+        return this.chars.sum();
+    }
+
+    /**
+     * 種別ごとのメッセージ数を返す。
+     *
+     * @param kind メッセージ種別
+     * @return メッセージ数
+     */
+    public long getMessages(MessageKind kind){
+        return this.messages[kind.ordinal()].sum();
+    }
+
+    /**
+     * パース段階の実行回数を返す。
+     *
+     * @param phase パース段階
+     * @return 実行回数
+     */
+    public long getPhaseCount(Phase phase){
+        return this.phaseCounts[phase.ordinal()].sum();
+    }
+
+    /**
+     * パース段階の累積所要時間を返す。
+     *
+     * <p>段階中のハンドラの処理時間も含まれる。
+     * パースエラーで中断した段階は含まれない。
+     *
+     * @param phase パース段階
+     * @return 所要時間。ナノ秒単位。
+     */
+    public long getPhaseNanos(Phase phase){
+        return this.phaseNanos[phase.ordinal()].sum();
+    }
+
+    /**
+     * 固定文字列のAnnounceメッセージとして
+     * 解釈できなかったAnnounceメッセージの数を返す。
+     *
+     * <p>人狼BBSの出力が変わった場合、
+     * より重い後続の解釈が試みられるため、この値が増える。
+     *
+     * @return 数
+     */
+    public long getSimpleAnnounceMisses(){
+        return this.simpleAnnounceMisses.sum();
+    }
+
+    /**
+     * マッチが試行された正規表現パターンの集合を返す。
+     *
+     * <p>返される集合は呼び出し時点の複製であり、変更できない。
+     *
+     * @return パターンの集合
+     */
+    public Set<Pattern> getPatterns(){
+        Set<Pattern> result = new HashSet<>(this.patternMap.keySet());
+        result = Collections.unmodifiableSet(result);
+        return result;
+    }
+
+    /**
+     * パターンのマッチ試行数を返す。
+     *
+     * @param pattern 正規表現パターン
+     * @return 試行数
+     */
+    public long getMatchAttempts(Pattern pattern){
+        PatternCounter counter = this.patternMap.get(pattern);
+        if(counter == null) return 0L;
+        return counter.attempts.sum();
+    }
+
+    /**
+     * パターンのマッチ失敗数を返す。
+     *
+     * @param pattern 正規表現パターン
+     * @return 失敗数
+     */
+    public long getMatchFailures(Pattern pattern){
+        PatternCounter counter = this.patternMap.get(pattern);
+        if(counter == null) return 0L;
+        return counter.failures.sum();
+    }
+
+    /**
+     * 全ての計測値を0に戻す。
+     */
+    public void reset(){
+        this.documents.reset();
+        this.chars.reset();
+        for(LongAdder adder : this.messages){
+            adder.reset();
+        }
+        for(LongAdder adder : this.phaseCounts){
+            adder.reset();
+        }
+        for(LongAdder adder : this.phaseNanos){
+            adder.reset();
+        }
+        this.simpleAnnounceMisses.reset();
+        this.patternMap.clear();
+        return;
+    }
+
+
+    /**
+     * 計測対象のパース段階。
+     */
+    public enum Phase{
+
+        /** XHTML先頭部分。 */
+        HEAD,
+        /** Periodページの全メッセージ。 */
+        MESSAGE,
+        /** 発言1件。 */
+        TALK,
+        /** Announceメッセージ1件。 */
+        ANNOUNCE,
+        ;
+
+    }
+
+    /**
+     * パターンごとのカウンタ。
+     */
+    private static final class PatternCounter{
+
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+
+        /**
+         * コンストラクタ。
+         */
+        PatternCounter(){
+            super();
+            return;
+        }
+
+    }
+
+}
@@ -137,6 +137,167 @@ public CharSequence sliceSequence(CharSequence seq)
         return result;
     }
 
+    /**
+     * 現在の範囲が与えられた文字列に収まるか検査する。
+     * @param seq 文字列
+     * @throws IndexOutOfBoundsException 範囲が無効
+     */
+    private void checkRange(CharSequence seq)
+            throws IndexOutOfBoundsException{
+        if(   this.startPos < 0
+           || this.startPos > this.endPos
+           || this.endPos > seq.length() ){
+            throw new IndexOutOfBoundsException();
+        }
+        return;
+    }
+
+    /**
+     * 現在の範囲の文字列のハッシュ値を求める。
+     *
+     * <p>文字列を切り出すことなく、
+     * 切り出した文字列の{@link String#hashCode()}と同じ値を返す。
+     *
+     * @param seq 切り出し元文字列
+     * @return ハッシュ値
+     * @throws IndexOutOfBoundsException 範囲が無効
+     */
+    public int contentHashCode(CharSequence seq)
+            throws IndexOutOfBoundsException{
+        checkRange(seq);
+
+        int result = 0;
+        for(int pos = this.startPos; pos < this.endPos; pos++){
+            result = 31 * result + seq.charAt(pos);
+        }
+
+        return result;
+    }
+
+    /**
+     * 現在の範囲の文字列が別の文字列と等しいか判定する。
+     *
+     * <p>文字列を切り出すことなく比較する。
+     *
+     * @param seq 切り出し元文字列
+     * @param other 比較対象文字列
+     * @return 等しければtrue
+     * @throws IndexOutOfBoundsException 範囲が無効
+     */
+    public boolean contentEquals(CharSequence seq, CharSequence other)
+            throws IndexOutOfBoundsException{
+        checkRange(seq);
+
+        int length = length();
+        if(other.length() != length) return false;
+
+        return matchesAt(seq, this.startPos, other, 0, length);
+    }
+
+    /**
+     * 同じ文字列上の別の範囲と、文字列として等しいか判定する。
+     *
+     * <p>同じAvatarの名前など、
+     * 位置が異なっても内容の等しい範囲の判定に用いる。
+     *
+     * @param seq 切り出し元文字列
+     * @param other 比較対象範囲
+     * @return 等しければtrue
+     * @throws IndexOutOfBoundsException いずれかの範囲が無効
+     */
+    public boolean contentEquals(CharSequence seq, SeqRange other)
+            throws IndexOutOfBoundsException{
+        checkRange(seq);
+        other.checkRange(seq);
+
+        int length = length();
+        if(other.length() != length) return false;
+        if(other.startPos == this.startPos) return true;
+
+        return matchesAt(seq, this.startPos, seq, other.startPos, length);
+    }
+
+    /**
+     * 現在の範囲の文字列を別の文字列と辞書順で比較する。
+     *
+     * <p>文字列を切り出すことなく、
+     * 切り出した文字列の{@link String#compareTo(String)}と
+     * 同じ符号の値を返す。
+     *
+     * @param seq 切り出し元文字列
+     * @param other 比較対象文字列
+     * @return 範囲の文字列が小さければ負、等しければ0、大きければ正
+     * @throws IndexOutOfBoundsException 範囲が無効
+     */
+    public int compareContent(CharSequence seq, CharSequence other)
+            throws IndexOutOfBoundsException{
+        checkRange(seq);
+
+        int length = length();
+        int otherLength = other.length();
+        int minLength = Math.min(length, otherLength);
+
+        for(int idx = 0; idx < minLength; idx++){
+            char ch1 = seq.charAt(this.startPos + idx);
+            char ch2 = other.charAt(idx);
+            if(ch1 != ch2) return ch1 - ch2;
+        }
+
+        return length - otherLength;
+    }
+
+    /**
+     * 現在の範囲内の部分文字列が、
+     * 別の文字列の部分文字列と等しいか判定する。
+     *
+     * <p>{@link String#regionMatches(int, String, int, int)}と同様に、
+     * 比較位置がいずれかの範囲からはみ出す場合はfalseを返す。
+     *
+     * @param seq 切り出し元文字列
+     * @param offset 範囲の開始位置からの比較開始位置
+     * @param other 比較対象文字列
+     * @param otherOffset 比較対象文字列の比較開始位置
+     * @param len 比較する文字数
+     * @return 等しければtrue
+     * @throws IndexOutOfBoundsException 範囲が無効
+     */
+    public boolean regionMatches(CharSequence seq,
+                                 int offset,
+                                 CharSequence other,
+                                 int otherOffset,
+                                 int len )
+            throws IndexOutOfBoundsException{
+        checkRange(seq);
+
+        if(offset < 0 || otherOffset < 0) return false;
+        if(offset > length() - len) return false;
+        if(otherOffset > other.length() - len) return false;
+
+        return matchesAt(seq, this.startPos + offset,
+                         other, otherOffset,
+                         len );
+    }
+
+    /**
+     * 二つの文字列の指定位置から指定文字数が等しいか判定する。
+     * @param seq1 文字列1
+     * @param pos1 文字列1の開始位置
+     * @param seq2 文字列2
+     * @param pos2 文字列2の開始位置
+     * @param len 文字数
+     * @return 等しければtrue
+     */
+    private static boolean matchesAt(CharSequence seq1, int pos1,
+                                     CharSequence seq2, int pos2,
+                                     int len ){
+        for(int idx = 0; idx < len; idx++){
+            if(seq1.charAt(pos1 + idx) != seq2.charAt(pos2 + idx)){
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * 範囲指定を無効にする。
      */
@@ -0,0 +1,183 @@
+/*
+ * bounded string interner
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 繰り返し現れる文字列を共有するための、容量上限付きキャッシュ。
+ *
+ * <p>
+ * Avatar名や発言ID、アイコンURLなど、
+ * 同じ内容が何度も通知される文字領域から文字列を得る際に用いる。
+ * 検索は文字領域の内容そのもので行われるため、
+ * キャッシュにヒットした場合は文字列を生成しない。
+ * </p>
+ *
+ * <p>
+ * キャッシュは2要素ずつの組に分かれた固定長の表で、
+ * ハッシュ値により組が決まる。
+ * 組が埋まっている場合は古い方の要素が追い出される。
+ * 登録数が容量を超えることはない。
+ * </p>
+ *
+ * <p>
+ * マルチスレッドに対応する。ロックは用いない。
+ * 複数スレッドから同時に同じ内容が登録された場合、
+ * 一時的に異なるインスタンスが返されることがある。
+ * </p>
+ */
+public class StringInterner{
+
+    /** デフォルトの容量。 */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** デフォルトの登録対象最大文字数。 */
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int WAYS = 2;
+
+
+    private final AtomicReferenceArray<String> table;
+    private final int setMask;
+    private final int maxLength;
+
+
+    /**
+     * コンストラクタ。
+     * デフォルトの容量と登録対象最大文字数で初期化される。
+     */
+    public StringInterner(){
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>
+     * 容量は2のべき乗に切り上げられる。
+     * 登録対象最大文字数を超える長さの文字列は、
+     * キャッシュされず毎回生成される。
+     * </p>
+     *
+     * @param capacity 容量
+     * @param maxLength 登録対象最大文字数
+     * @throws IllegalArgumentException 容量が2未満もしくは大きすぎる。
+     * または登録対象最大文字数が負。
+     */
+    public StringInterner(int capacity, int maxLength)
+            throws IllegalArgumentException{
+        super();
+
+        if(capacity < WAYS || MAX_CAPACITY < capacity){
+            throw new IllegalArgumentException();
+        }
+        if(maxLength < 0) throw new IllegalArgumentException();
+
+        int tableSize = Integer.highestOneBit(capacity - 1) << 1;
+
+        this.table = new AtomicReferenceArray<>(tableSize);
+        this.setMask = tableSize - WAYS;
+        this.maxLength = maxLength;
+
+        return;
+    }
+
+
+    /**
+     * ハッシュ値の上位ビットを下位ビットへ拡散させる。
+     * @param hash ハッシュ値
+     * @return 拡散されたハッシュ値
+     */
+    private static int spread(int hash){
+        int result = hash ^ (hash >>> 16);
+        return result;
+    }
+
+    /**
+     * キャッシュ内の文字列が文字領域の内容と等しいか判定する。
+     * @param candidate キャッシュ内の文字列。nullも可。
+     * @param hash 文字領域のハッシュ値
+     * @param seq 文字列
+     * @param range 文字領域
+     * @return 等しければtrue
+     */
+    private static boolean matches(String candidate,
+                                   int hash,
+                                   CharSequence seq,
+                                   SeqRange range ){
+        if(candidate == null) return false;
+        if(candidate.hashCode() != hash) return false;
+        return range.contentEquals(seq, candidate);
+    }
+
+    /**
+     * 容量を返す。
+     * @return 容量
+     */
+    public int getCapacity(){
+        return this.table.length();
+    }
+
+    /**
+     * 登録対象最大文字数を返す。
+     * @return 登録対象最大文字数
+     */
+    public int getMaxLength(){
+        return this.maxLength;
+    }
+
+    /**
+     * 文字領域の内容と等しい文字列を返す。
+     *
+     * <p>
+     * 等しい内容の文字列がキャッシュにあればそれを返す。
+     * なければ新たに文字列を生成してキャッシュに登録する。
+     * </p>
+     *
+     * @param seq 文字列
+     * @param range 文字領域
+     * @return 文字領域の内容と等しい文字列
+     * @throws IndexOutOfBoundsException 文字領域が無効
+     */
+    public String intern(CharSequence seq, SeqRange range)
+            throws IndexOutOfBoundsException{
+        if(range.length() > this.maxLength){
+            return range.sliceSequence(seq).toString();
+        }
+
+        int hash = range.contentHashCode(seq);
+        int idx = spread(hash) & this.setMask;
+
+        String first = this.table.get(idx);
+        if(matches(first, hash, seq, range)) return first;
+
+        String second = this.table.get(idx + 1);
+        if(matches(second, hash, seq, range)) return second;
+
+        String result = range.sliceSequence(seq).toString();
+
+        if(first != null) this.table.lazySet(idx + 1, first);
+        this.table.lazySet(idx, result);
+
+        return result;
+    }
+
+    /**
+     * キャッシュを空にする。
+     */
+    public void clear(){
+        int length = this.table.length();
+        for(int idx = 0; idx < length; idx++){
+            this.table.lazySet(idx, null);
+        }
+        return;
+    }
+
+}
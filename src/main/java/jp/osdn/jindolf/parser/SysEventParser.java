@@ -35,6 +35,7 @@ public class SysEventParser extends AbstractParser{
 
 
     private SysEventHandler sysEventHandler;
+    private SysEventType sysEventType;
 
     private int pushedRegionStart = -1;
     private int pushedRegionEnd   = -1;
@@ -61,13 +62,31 @@ public void setSysEventHandler(SysEventHandler sysEventHandler){
         return;
     }
 
+    /**
+     * システムイベント詳細種別を記録しハンドラへ通知する。
+     * @param type イベント詳細種別
+     * @throws HtmlParseException パースエラー
+     */
+    private void notifySysEventType(SysEventType type)
+            throws HtmlParseException{
+        this.sysEventType = type;
+        this.sysEventHandler.sysEventType(type);
+        return;
+    }
+
     /**
      * Announceメッセージをパースする。
      * @throws HtmlParseException パースエラー
      */
     public void parseAnnounce() throws HtmlParseException{
+        long startTime = startPhase();
+
         setContextErrorMessage("Unknown Announce message");
 
+        Object event = ParseEvents.beginSysEvent();
+        int eventStart = regionStart();
+        this.sysEventType = null;
+
         this.sysEventHandler.startSysEvent(EventFamily.ANNOUNCE);
 
         int regionStart = regionStart();
@@ -98,6 +117,12 @@ public void parseAnnounce() throws HtmlParseException{
 
         this.sysEventHandler.endSysEvent();
 
+        ParseEvents.commitSysEvent(event,
+                                   EventFamily.ANNOUNCE, this.sysEventType,
+                                   regionStart() - eventStart );
+
+        endPhase(ParseMetrics.Phase.ANNOUNCE, startTime);
+
         return;
     }
 
@@ -163,9 +188,31 @@ public void parseAnnounce() throws HtmlParseException{
         { PANIC_PATTERN,        SysEventType.PANIC        },
         { SHORTMEMBER_PATTERN,  SysEventType.SHORTMEMBER  },
     };
+    private static final char[] SIMPLE_LEADS = buildSimpleLeads();
+
+    /**
+     * シンプルなAnnounceメッセージの各パターンの先頭文字の表を作る。
+     * @return {@link #SIMPLE_REGEX_TO_TYPE}と同順の先頭文字の配列
+     */
+    private static char[] buildSimpleLeads(){
+        int size = SIMPLE_REGEX_TO_TYPE.length;
+        char[] result = new char[size];
+
+        for(int idx = 0; idx < size; idx++){
+            Pattern pattern = (Pattern) SIMPLE_REGEX_TO_TYPE[idx][0];
+            String regex = pattern.pattern();
+            assert LiteralSeeker.toLiteral(regex.substring(0, 1)) != null;
+            result[idx] = regex.charAt(0);
+        }
+
+        return result;
+    }
 
     /**
      * 文字列が固定されたシンプルなAnnounceメッセージのパースを試みる。
+     *
+     * <p>検索領域先頭の文字と先頭文字が一致するパターンのみを試す。
+     *
      * @return マッチしたらtrue
      * @throws HtmlParseException パースエラー
      */
@@ -176,22 +223,35 @@ private boolean probeSimpleAnnounce() throws HtmlParseException{
 
         SysEventType matchedType = null;
 
-        for(Object[] pair : SIMPLE_REGEX_TO_TYPE){
-            Pattern pattern = (Pattern) pair[0];
+        CharSequence rawContent = getContent().getRawContent();
+        int regionStart = regionStart();
+        int regionEnd   = regionEnd();
 
-            if(lookingAtProbe(pattern)){
-                shrinkRegion();
-                matchedType = (SysEventType) pair[1];
-                break;
+        if(regionStart < regionEnd){
+            char head = rawContent.charAt(regionStart);
+
+            for(int idx = 0; idx < SIMPLE_LEADS.length; idx++){
+                if(SIMPLE_LEADS[idx] != head) continue;
+
+                Object[] pair = SIMPLE_REGEX_TO_TYPE[idx];
+                Pattern pattern = (Pattern) pair[0];
+
+                if(lookingAtProbe(pattern)){
+                    shrinkRegion();
+                    matchedType = (SysEventType) pair[1];
+                    break;
+                }
             }
         }
 
         if(matchedType == null){
             popRegion();
+            ParseMetrics metrics = getMetrics();
+            if(metrics != null) metrics.countSimpleAnnounceMiss();
             return false;
         }
 
-        this.sysEventHandler.sysEventType(matchedType);
+        notifySysEventType(matchedType);
 
         sweepSpace();
 
@@ -221,7 +281,7 @@ private boolean probeOpenRole() throws HtmlParseException{
         }
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.OPENROLE);
+        notifySysEventType(SysEventType.OPENROLE);
 
         for(;;){
             GameRole role = lookingAtRole();
@@ -281,7 +341,7 @@ private boolean probeSurvivor() throws HtmlParseException{
         }
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.SURVIVOR);
+        notifySysEventType(SysEventType.SURVIVOR);
 
         int avatarNum = 0;
         for(;;){
@@ -342,7 +402,7 @@ private boolean probeMurdered() throws HtmlParseException{
         }
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.MURDERED);
+        notifySysEventType(SysEventType.MURDERED);
 
         for(;;){
             if( ! lookingAtProbe(AVATAR_PATTERN)){
@@ -415,7 +475,7 @@ private boolean probeOnStage() throws HtmlParseException{
         int entryNo = parseGroupedInt(1);
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.ONSTAGE);
+        notifySysEventType(SysEventType.ONSTAGE);
 
         if( ! lookingAtProbe(ONSTAGE_DOT_PATTERN) ){
             popRegion();
@@ -459,7 +519,7 @@ private boolean probeSuddenDeath() throws HtmlParseException{
         avatarRange.setLastMatchedGroupRange(getMatcher(), 1);
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.SUDDENDEATH);
+        notifySysEventType(SysEventType.SUDDENDEATH);
         this.sysEventHandler
             .sysEventSuddenDeath(getContent(), avatarRange);
 
@@ -513,7 +573,7 @@ private boolean probeCounting() throws HtmlParseException{
             }else if(isGroupMatched(2)){
                 if( ! hasVote ){
                     hasVote = true;
-                    this.sysEventHandler.sysEventType(SysEventType.COUNTING);
+                    notifySysEventType(SysEventType.COUNTING);
                 }
                 voteByRange.setLastMatchedGroupRange(getMatcher(), 2);
                 voteToRange.setLastMatchedGroupRange(getMatcher(), 3);
@@ -567,7 +627,7 @@ private boolean probeCounting2() throws HtmlParseException{
             }
             if( ! hasVote ){
                 hasVote = true;
-                this.sysEventHandler.sysEventType(SysEventType.COUNTING2);
+                notifySysEventType(SysEventType.COUNTING2);
             }
             voteByRange.setLastMatchedGroupRange(getMatcher(), 1);
             voteToRange.setLastMatchedGroupRange(getMatcher(), 2);
@@ -668,7 +728,7 @@ private boolean probePlayerList() throws HtmlParseException{
 
             if( ! hasPlayerList ){
                 hasPlayerList = true;
-                this.sysEventHandler.sysEventType(SysEventType.PLAYERLIST);
+                notifySysEventType(SysEventType.PLAYERLIST);
             }
 
             this.sysEventHandler
@@ -721,7 +781,7 @@ private boolean probeExecution() throws HtmlParseException{
 
             if( ! hasExecution ){
                 hasExecution = true;
-                this.sysEventHandler.sysEventType(SysEventType.EXECUTION);
+                notifySysEventType(SysEventType.EXECUTION);
             }
 
             if(isGroupMatched(1)){
@@ -781,7 +841,7 @@ private boolean probeVanish() throws HtmlParseException{
 
             if( ! hasVanish ){
                 hasVanish = true;
-                this.sysEventHandler.sysEventType(SysEventType.VANISH);
+                notifySysEventType(SysEventType.VANISH);
             }
             avatarRange.setLastMatchedGroupRange(getMatcher(), 1);
 
@@ -830,7 +890,7 @@ private boolean probeCheckout() throws HtmlParseException{
 
             if( ! hasCheckout ){
                 hasCheckout = true;
-                this.sysEventHandler.sysEventType(SysEventType.CHECKOUT);
+                notifySysEventType(SysEventType.CHECKOUT);
             }
             avatarRange.setLastMatchedGroupRange(getMatcher(), 1);
 
@@ -857,6 +917,10 @@ private boolean probeCheckout() throws HtmlParseException{
     public void parseOrder() throws HtmlParseException{
         setContextErrorMessage("Unknown Order message");
 
+        Object event = ParseEvents.beginSysEvent();
+        int eventStart = regionStart();
+        this.sysEventType = null;
+
         this.sysEventHandler.startSysEvent(EventFamily.ORDER);
 
         int regionStart = regionStart();
@@ -881,6 +945,10 @@ public void parseOrder() throws HtmlParseException{
 
         this.sysEventHandler.endSysEvent();
 
+        ParseEvents.commitSysEvent(event,
+                                   EventFamily.ORDER, this.sysEventType,
+                                   regionStart() - eventStart );
+
         return;
     }
 
@@ -918,7 +986,7 @@ private boolean probeAskEntry() throws HtmlParseException{
 
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.ASKENTRY);
+        notifySysEventType(SysEventType.ASKENTRY);
         this.sysEventHandler
             .sysEventAskEntry(hour, minute, minLimit, maxLimit);
 
@@ -973,7 +1041,7 @@ private boolean probeAskCommit() throws HtmlParseException{
             throw new HtmlParseException(regionStart());
         }
 
-        this.sysEventHandler.sysEventType(SysEventType.ASKCOMMIT);
+        notifySysEventType(SysEventType.ASKCOMMIT);
         this.sysEventHandler.sysEventAskCommit(hh2, mm2);
 
         sweepSpace();
@@ -1010,7 +1078,7 @@ private boolean probeNoComment() throws HtmlParseException{
         }
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.NOCOMMENT);
+        notifySysEventType(SysEventType.NOCOMMENT);
 
         int avatarNum = 0;
         for(;;){
@@ -1078,7 +1146,7 @@ private boolean probeStayEpilogue() throws HtmlParseException{
 
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.STAYEPILOGUE);
+        notifySysEventType(SysEventType.STAYEPILOGUE);
         this.sysEventHandler.sysEventStayEpilogue(winner, hour, minute);
 
         sweepSpace();
@@ -1106,7 +1174,7 @@ private boolean probeGameOver() throws HtmlParseException{
 
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.GAMEOVER);
+        notifySysEventType(SysEventType.GAMEOVER);
 
         sweepSpace();
 
@@ -1120,6 +1188,10 @@ private boolean probeGameOver() throws HtmlParseException{
     public void parseExtra() throws HtmlParseException{
         setContextErrorMessage("Unknown Extra message");
 
+        Object event = ParseEvents.beginSysEvent();
+        int eventStart = regionStart();
+        this.sysEventType = null;
+
         this.sysEventHandler.startSysEvent(EventFamily.EXTRA);
 
         int regionStart = regionStart();
@@ -1141,6 +1213,10 @@ public void parseExtra() throws HtmlParseException{
 
         this.sysEventHandler.endSysEvent();
 
+        ParseEvents.commitSysEvent(event,
+                                   EventFamily.EXTRA, this.sysEventType,
+                                   regionStart() - eventStart );
+
         return;
     }
 
@@ -1188,7 +1264,7 @@ private boolean probeJudge() throws HtmlParseException{
         }
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.JUDGE);
+        notifySysEventType(SysEventType.JUDGE);
         this.sysEventHandler
             .sysEventJudge(getContent(),
                            judgeByRange,
@@ -1242,7 +1318,7 @@ private boolean probeGuard() throws HtmlParseException{
         }
         shrinkRegion();
 
-        this.sysEventHandler.sysEventType(SysEventType.GUARD);
+        notifySysEventType(SysEventType.GUARD);
         this.sysEventHandler.sysEventGuard(getContent(),
                                            guardByRange,
                                            guardToRange );
@@ -23,6 +23,8 @@ public class TalkParser extends AbstractParser{
 
     private TalkHandler talkHandler;
 
+    private boolean regexTextScan = false;
+
     private final SeqRange rangepool_1 = new SeqRange();
 
     /**
@@ -43,6 +45,25 @@ public void setTalkHandler(TalkHandler talkHandler){
         return;
     }
 
+    /**
+     * 発言テキストの走査に正規表現を用いるか設定する。
+     * デフォルトでは正規表現を用いない専用の走査処理が使われる。
+     * どちらを用いてもハンドラへの通知内容は変わらない。
+     * @param flag 正規表現を用いるならtrue
+     */
+    public void setRegexTextScan(boolean flag){
+        this.regexTextScan = flag;
+        return;
+    }
+
+    /**
+     * 発言テキストの走査に正規表現を用いるか判定する。
+     * @return 正規表現を用いるならtrue
+     */
+    public boolean isRegexTextScan(){
+        return this.regexTextScan;
+    }
+
     /**
      * 各Avatarの個別の発言をパースする。
      * 最初のAタグは既にパース済みとする。
@@ -52,6 +73,10 @@ public void setTalkHandler(TalkHandler talkHandler){
      */
     public void parseTalk(int talkNo, SeqRange nameRange)
             throws HtmlParseException{
+        long startTime = startPhase();
+        Object event = ParseEvents.beginTalk();
+        int talkStart = regionStart();
+
         this.talkHandler.startTalk();
 
         this.talkHandler.talkNo(talkNo);
@@ -66,14 +91,15 @@ public void parseTalk(int talkNo, SeqRange nameRange)
 
         this.talkHandler.endTalk();
 
+        ParseEvents.commitTalk(event, talkNo, regionStart() - talkStart);
+        endPhase(ParseMetrics.Phase.TALK, startTime);
+
         return;
     }
 
-    private static final Pattern AVATARNAME_PATTERN =
-            compile("([^<]*)");
-
     /**
      * 発言者名をパースする。
+     * 発言者名は次の{@code <}の手前までとなる。
      * @throws HtmlParseException パースエラー
      */
     private void parseName() throws HtmlParseException{
@@ -81,9 +107,12 @@ private void parseName() throws HtmlParseException{
 
         SeqRange avatarRange = this.rangepool_1;
 
-        lookingAtAffirm(AVATARNAME_PATTERN);
-        avatarRange.setLastMatchedGroupRange(getMatcher(), 1);
-        shrinkRegion();
+        CharSequence rawContent = getContent().getRawContent();
+        int start = regionStart();
+        int end = regionEnd();
+        int nameEnd = DelimiterSeeker.indexOfOpen(rawContent, start, end);
+        avatarRange.setRange(start, nameEnd);
+        getMatcher().region(nameEnd, end);
 
         this.talkHandler.talkAvatar(getContent(), avatarRange);
 
@@ -194,6 +223,11 @@ private void parseType() throws HtmlParseException{
     private static final Pattern TEXT_PATTERN =
             compile("([^<>]+)|(<br />)|(<a href=\"[^\"]*\">)|(</a>)");
 
+    private static final String TEXT_BR    = "<br />";
+    private static final String TEXT_O_A   = "<a href=\"";
+    private static final String TEXT_O_A_C = "\">";
+    private static final String TEXT_C_A   = "</a>";
+
     /**
      * 発言テキストをパースする。
      * 前後のホワイトスペースは無視しない。
@@ -202,6 +236,20 @@ private void parseType() throws HtmlParseException{
     private void parseText() throws HtmlParseException{
         setContextErrorMessage("lost dialog text");
 
+        if(this.regexTextScan){
+            parseTextByRegex();
+        }else{
+            parseTextByScan();
+        }
+
+        return;
+    }
+
+    /**
+     * 正規表現を用いて発言テキストをパースする。
+     * @throws HtmlParseException パースエラー
+     */
+    private void parseTextByRegex() throws HtmlParseException{
         SeqRange textRange = this.rangepool_1;
 
         while(lookingAtProbe(TEXT_PATTERN)){
@@ -226,6 +274,59 @@ private void parseText() throws HtmlParseException{
         return;
     }
 
+    /**
+     * 正規表現を用いず文字単位の走査で発言テキストをパースする。
+     * 正規表現による走査と同じ結果をハンドラに通知する。
+     * 走査を終えた位置が新たな検索領域の先頭となる。
+     * @throws HtmlParseException パースエラー
+     */
+    private void parseTextByScan() throws HtmlParseException{
+        SeqRange textRange = this.rangepool_1;
+
+        CharSequence rawContent = getContent().getRawContent();
+        int pos = regionStart();
+        int end = regionEnd();
+
+        while(pos < end){
+            char letter = rawContent.charAt(pos);
+
+            if(letter == '>') break;
+
+            if(letter != '<'){
+                int textEnd =
+                        DelimiterSeeker.indexOfDelimiter(rawContent,
+                                                         pos + 1, end);
+                textRange.setRange(pos, textEnd);
+                this.talkHandler.talkText(getContent(), textRange);
+                pos = textEnd;
+            }else if(LiteralSeeker.startsWith(rawContent, pos, end,
+                                              TEXT_BR)){
+                this.talkHandler.talkBreak();
+                pos += TEXT_BR.length();
+            }else if(LiteralSeeker.startsWith(rawContent, pos, end,
+                                              TEXT_C_A)){
+                pos += TEXT_C_A.length();
+            }else if(LiteralSeeker.startsWith(rawContent, pos, end,
+                                              TEXT_O_A)){
+                int quotePos = pos + TEXT_O_A.length();
+                while(quotePos < end && rawContent.charAt(quotePos) != '"'){
+                    quotePos++;
+                }
+                if( ! LiteralSeeker.startsWith(rawContent, quotePos, end,
+                                               TEXT_O_A_C) ){
+                    break;
+                }
+                pos = quotePos + TEXT_O_A_C.length();
+            }else{
+                break;
+            }
+        }
+
+        getMatcher().region(pos, end);
+
+        return;
+    }
+
     private static final Pattern TAIL_PATTERN =
             compile(
                        "</div>"  // F1603 2d21:12 ペーター発言には注意
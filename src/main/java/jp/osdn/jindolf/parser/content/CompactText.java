@@ -0,0 +1,225 @@
+/*
+ * compact immutable text
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+/**
+ * 省メモリな不変文字列。
+ *
+ * <p>Latin-1の範囲の文字は1バイト、それ以外の文字は2バイトで、
+ * それぞれ出現順に別の配列へ格納される。
+ * 各文字がどちらの配列にあるかは1文字1ビットの表で管理され、
+ * 64文字ごとに前置されたそれ以前の2バイト文字数と合わせて、
+ * 任意位置の文字を定数時間で得られる。
+ *
+ * <p>HTMLのマークアップが大半を占め和文が散在する文書では、
+ * 一定長ごとにLatin-1かどうかを切り替える方式より格納効率が良い。
+ */
+final class CompactText implements CharSequence{
+
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final char LATIN_MAX = '\u00ff';
+
+
+    private final int length;
+    private final byte[] narrowChars;
+    private final char[] wideChars;
+    private final long[] wideMap;
+    private final int[] wideRank;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param seq 文字列
+     */
+    CompactText(CharSequence seq){
+        super();
+
+        int seqLength = seq.length();
+        int blocks = (seqLength + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+
+        this.length = seqLength;
+        this.wideMap = new long[blocks];
+        this.wideRank = new int[blocks];
+
+        int wideCount = 0;
+        for(int pos = 0; pos < seqLength; pos++){
+            int block = pos >>> BLOCK_SHIFT;
+            if((pos & (BLOCK_SIZE - 1)) == 0){
+                this.wideRank[block] = wideCount;
+            }
+            if(seq.charAt(pos) > LATIN_MAX){
+                this.wideMap[block] |= 1L << pos;
+                wideCount++;
+            }
+        }
+
+        this.narrowChars = new byte[seqLength - wideCount];
+        this.wideChars = new char[wideCount];
+
+        int narrowIdx = 0;
+        int wideIdx = 0;
+        for(int pos = 0; pos < seqLength; pos++){
+            char letter = seq.charAt(pos);
+            if(letter > LATIN_MAX){
+                this.wideChars[wideIdx++] = letter;
+            }else{
+                this.narrowChars[narrowIdx++] = (byte) letter;
+            }
+        }
+
+        return;
+    }
+
+
+    /**
+     * 指定位置より前にある2バイト格納文字の数を返す。
+     *
+     * @param index 文字位置
+     * @return 2バイト格納文字の数
+     */
+    private int wideBefore(int index){
+        int block = index >>> BLOCK_SHIFT;
+        if(block >= this.wideMap.length) return this.wideChars.length;
+        long below = this.wideMap[block] & ((1L << index) - 1L);
+        int result = this.wideRank[block] + Long.bitCount(below);
+        return result;
+    }
+
+    /**
+     * 指定位置の文字が2バイト格納か判定する。
+     *
+     * @param index 文字位置
+     * @return 2バイト格納ならtrue
+     */
+    private boolean isWide(int index){
+        long word = this.wideMap[index >>> BLOCK_SHIFT];
+        boolean result = (word & (1L << index)) != 0L;
+        return result;
+    }
+
+    /**
+     * 範囲指定を検査する。
+     *
+     * @param start 開始位置
+     * @param end 終了位置
+     * @throws IndexOutOfBoundsException 不正な範囲指定
+     */
+    private void checkRange(int start, int end)
+            throws IndexOutOfBoundsException{
+        if(start < 0 || start > end || end > this.length){
+            throw new IndexOutOfBoundsException();
+        }
+        return;
+    }
+
+    /**
+     * 指定範囲の文字を文字配列へ複写する。
+     *
+     * @param start 開始位置
+     * @param end 終了位置
+     * @param dst 複写先
+     * @param dstBegin 複写先の開始位置
+     * @throws IndexOutOfBoundsException 不正な位置指定
+     * @see String#getChars(int, int, char[], int)
+     */
+    void getChars(int start, int end, char[] dst, int dstBegin)
+            throws IndexOutOfBoundsException{
+        checkRange(start, end);
+        if(dstBegin < 0 || dstBegin + (end - start) > dst.length){
+            throw new IndexOutOfBoundsException();
+        }
+
+        int wideIdx = wideBefore(start);
+        int narrowIdx = start - wideIdx;
+
+        int dstPos = dstBegin;
+        for(int pos = start; pos < end; pos++){
+            char letter;
+            if(isWide(pos)){
+                letter = this.wideChars[wideIdx++];
+            }else{
+                letter = (char) (this.narrowChars[narrowIdx++] & 0xff);
+            }
+            dst[dstPos++] = letter;
+        }
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int length(){
+        return this.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param index {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @Override
+    public char charAt(int index) throws IndexOutOfBoundsException{
+        if(index < 0 || index >= this.length){
+            throw new IndexOutOfBoundsException();
+        }
+
+        int block = index >>> BLOCK_SHIFT;
+        long word = this.wideMap[block];
+        long bit = 1L << index;
+        int wideIdx = this.wideRank[block] + Long.bitCount(word & (bit - 1L));
+
+        char result;
+        if((word & bit) != 0L){
+            result = this.wideChars[wideIdx];
+        }else{
+            result = (char) (this.narrowChars[index - wideIdx] & 0xff);
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param start {@inheritDoc}
+     * @param end {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @Override
+    public CharSequence subSequence(int start, int end)
+            throws IndexOutOfBoundsException{
+        checkRange(start, end);
+        char[] chars = new char[end - start];
+        getChars(start, end, chars, 0);
+        String result = new String(chars);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public String toString(){
+        char[] chars = new char[this.length];
+        getChars(0, this.length, chars, 0);
+        String result = new String(chars);
+        return result;
+    }
+
+}
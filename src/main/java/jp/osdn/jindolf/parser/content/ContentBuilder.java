@@ -23,6 +23,9 @@ public class ContentBuilder implements CharDecodeListener{
     /** 文字列内容。 */
     private final DecodedContent content;
 
+    private Object decodeEvent;
+    private long byteCount;
+
 
     /**
      * コンストラクタ。
@@ -63,6 +66,8 @@ public DecodedContent getContent(){
     public void startDecoding(CharsetDecoder decoder)
             throws DecodeBreakException{
         this.content.init();
+        this.byteCount = 0L;
+        this.decodeEvent = DecodeEvents.begin();
         return;
     }
 
@@ -74,7 +79,8 @@ public void startDecoding(CharsetDecoder decoder)
     @Override
     public void endDecoding()
             throws DecodeBreakException{
-        // NOTHING
+        DecodeEvents.commit(this.decodeEvent, this.byteCount, this.content);
+        this.decodeEvent = null;
         return;
     }
 
@@ -87,7 +93,7 @@ public void endDecoding()
      */
     @Override
     public void rawBytes(byte[] byteArray, int offset, int length){
-        // NOTHING
+        this.byteCount += length;
         return;
     }
 
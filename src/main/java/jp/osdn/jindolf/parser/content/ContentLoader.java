@@ -0,0 +1,239 @@
+/*
+ * pooled content loader
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Shift_JIS符号化された文書を読み込み{@link DecodedContent}を得る。
+ *
+ * <p>
+ * デコーダとそのバッファ、および返却された{@link DecodedContent}を
+ * プールし、文書をまたいで使い回す。
+ * 使い回される{@link DecodedContent}は{@link DecodedContent#init()}で
+ * 初期化され、それまでに拡張された容量を引き継ぐ。
+ * 多数の文書を続けて読み込む際の、
+ * 文字列格納領域の再割り当てと複写を抑える。
+ * </p>
+ *
+ * <p>
+ * 容量が上限を超えた{@link DecodedContent}はプールされず、
+ * 巨大な文書が以降のメモリを占有し続けることはない。
+ * </p>
+ *
+ * <p>
+ * マルチスレッドに対応する。
+ * </p>
+ */
+public class ContentLoader{
+
+    /** デフォルトのプール数。 */
+    public static final int DEFAULT_POOL_SIZE = 8;
+    /** デフォルトのプール対象容量上限。文字数単位。 */
+    public static final int DEFAULT_MAX_RETAINED = 1024 * 1024;
+
+    private static final String MSG_POOL = "pool size must be 1 or more";
+    private static final String MSG_RETAINED = "negative capacity";
+
+
+    private final BlockingQueue<DecodedContent> contentPool;
+    private final BlockingQueue<SjisDecoder> decoderPool;
+    private final int maxRetained;
+
+
+    /**
+     * コンストラクタ。
+     * デフォルトのプール数と容量上限で初期化される。
+     */
+    public ContentLoader(){
+        this(DEFAULT_POOL_SIZE, DEFAULT_MAX_RETAINED);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param poolSize {@link DecodedContent}とデコーダそれぞれのプール数
+     * @param maxRetained プール対象となる{@link DecodedContent}の
+     *     容量上限。文字数単位。
+     * @throws IllegalArgumentException プール数が1未満、
+     *     もしくは容量上限が負
+     */
+    public ContentLoader(int poolSize, int maxRetained)
+            throws IllegalArgumentException{
+        super();
+
+        if(poolSize < 1) throw new IllegalArgumentException(MSG_POOL);
+        if(maxRetained < 0){
+            throw new IllegalArgumentException(MSG_RETAINED);
+        }
+
+        this.contentPool = new ArrayBlockingQueue<>(poolSize);
+        this.decoderPool = new ArrayBlockingQueue<>(poolSize);
+        this.maxRetained = maxRetained;
+
+        return;
+    }
+
+
+    /**
+     * プール対象となる容量上限を返す。
+     *
+     * @return 文字数単位の容量上限
+     */
+    public int getMaxRetained(){
+        return this.maxRetained;
+    }
+
+    /**
+     * プール中の{@link DecodedContent}の数を返す。
+     *
+     * @return プール中の数
+     */
+    public int getPooledCount(){
+        return this.contentPool.size();
+    }
+
+    /**
+     * プールから空の{@link DecodedContent}を取り出す。
+     *
+     * <p>プールが空なら新たに生成する。
+     *
+     * @return 空の文字列
+     */
+    private DecodedContent takeContent(){
+        DecodedContent result = this.contentPool.poll();
+        if(result == null){
+            result = new DecodedContent();
+        }
+        return result;
+    }
+
+    /**
+     * プールからデコーダを取り出す。
+     *
+     * <p>プールが空なら新たに生成する。
+     *
+     * @return デコーダ
+     */
+    private SjisDecoder takeDecoder(){
+        SjisDecoder result = this.decoderPool.poll();
+        if(result == null){
+            result = new SjisDecoder();
+        }
+        return result;
+    }
+
+    /**
+     * 入力ストリームを終わりまで読み込みデコードする。
+     *
+     * <p>ストリームは閉じられない。
+     *
+     * <p>読み込みに失敗した場合、取り出した文字列はプールへ返却される。
+     * デコードの計測イベントは{@link #load(ByteBuffer)}と同じく
+     * 文書1件につき1件記録される。
+     *
+     * @param istream 入力ストリーム
+     * @return デコード結果
+     * @throws IOException 入力エラー
+     */
+    public DecodedContent load(InputStream istream) throws IOException{
+        DecodedContent result = takeContent();
+        SjisDecoder decoder = takeDecoder();
+
+        boolean loaded = false;
+        try{
+            // 計測イベントはデコーダが記録する
+            decoder.decode(istream, result);
+            loaded = true;
+        }finally{
+            this.decoderPool.offer(decoder);
+            if( ! loaded ) release(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * バッファの残り全体をデコードする。
+     *
+     * <p>バッファの位置は末尾まで進む。
+     *
+     * <p>デコードに失敗した場合、取り出した文字列はプールへ返却される。
+     * デコードの計測イベントは{@link #load(InputStream)}と同じく
+     * 文書1件につき1件記録される。
+     *
+     * @param buffer バッファ
+     * @return デコード結果
+     */
+    public DecodedContent load(ByteBuffer buffer){
+        DecodedContent result = takeContent();
+        SjisDecoder decoder = takeDecoder();
+
+        Object event = DecodeEvents.begin();
+
+        boolean loaded = false;
+        int byteCount;
+        try{
+            byteCount = buffer.remaining();
+            result.ensureCapacity(SjisDecoder.countChars(buffer));
+            decoder.decode(buffer, result, true);
+            loaded = true;
+        }finally{
+            this.decoderPool.offer(decoder);
+            if( ! loaded ) release(result);
+        }
+
+        DecodeEvents.commit(event, byteCount, result);
+
+        return result;
+    }
+
+    /**
+     * バイト配列全体をデコードする。
+     *
+     * @param bytes バイト配列
+     * @return デコード結果
+     */
+    public DecodedContent load(byte[] bytes){
+        DecodedContent result = load(ByteBuffer.wrap(bytes));
+        return result;
+    }
+
+    /**
+     * 不要になった{@link DecodedContent}を返却する。
+     *
+     * <p>
+     * 容量が上限以下でプールに空きがあれば、
+     * 初期化された上でプールされ、以降の読み込みで使い回される。
+     * 呼び出し側は返却後の文字列を参照してはならない。
+     * 同じ文字列を二度返却してはならない。
+     * </p>
+     *
+     * <p>
+     * このローダ以外から得た{@link DecodedContent}を返却してもよい。
+     * nullは無視される。
+     * </p>
+     *
+     * @param content 文字列
+     */
+    public void release(DecodedContent content){
+        if(content == null) return;
+        if(content.capacity() > this.maxRetained) return;
+
+        content.init();
+        this.contentPool.offer(content);
+
+        return;
+    }
+
+}
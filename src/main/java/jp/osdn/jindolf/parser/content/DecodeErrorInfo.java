@@ -21,6 +21,8 @@
  * 2バイトの場合はおそらくシフトJISの文字集合に関するエラー。
  *
  * <p>{@link DecodedContent}内での代替文字出現位置をchar単位で保持する。
+ *
+ * <p>出現位置とエラーバイト値がすべて等しいインスタンス同士は等価とみなす。
  */
 public class DecodeErrorInfo{
 
@@ -150,6 +152,9 @@ public static int bsearchErrorIndex(List<DecodeErrorInfo> errList,
      * <p>ランダムアクセスの可否、および要素数の増減に応じて
      * リニアサーチとバイナリサーチを使い分ける。
      *
+     * <p>{@link DecodedContent#getDecodeErrorList()}で得たリストの場合は、
+     * 要素を生成せずに内部の配列をバイナリサーチする。
+     *
      * @param errList デコードエラーのリスト
      * @param charPos 代替文字位置
      * @return 0から始まるリスト内の位置。
@@ -160,6 +165,12 @@ public static int searchErrorIndex(List<DecodeErrorInfo> errList,
                                        int charPos){
         int result;
 
+        DecodeErrorTable table = DecodeErrorTable.tableOf(errList);
+        if(table != null){
+            result = table.searchIndex(charPos);
+            return result;
+        }
+
         boolean useLinear;
         if(errList instanceof RandomAccess){
             if(errList.size() < BSEARCH_THRESHOLD){
@@ -240,6 +251,44 @@ public DecodeErrorInfo createGappedClone(int gap)
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>出現位置、2バイト目の有無、各エラーバイト値が
+     * すべて等しければ等価とみなす。
+     *
+     * @param obj {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj){
+        if(this == obj) return true;
+        if( ! (obj instanceof DecodeErrorInfo) ) return false;
+
+        DecodeErrorInfo other = (DecodeErrorInfo) obj;
+
+        if(this.charPos    != other.charPos)    return false;
+        if(this.has2ndFlag != other.has2ndFlag) return false;
+        if(this.rawByte1st != other.rawByte1st) return false;
+        if(this.rawByte2nd != other.rawByte2nd) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int hashCode(){
+        int result = this.charPos;
+        result = result * 31 + (this.has2ndFlag ? 1 : 0);
+        result = result * 31 + (this.rawByte1st & 0xff);
+        result = result * 31 + (this.rawByte2nd & 0xff);
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -0,0 +1,359 @@
+/*
+ * decode error table
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * デコードエラー情報の出現位置順の表。
+ *
+ * <p>エラーごとにオブジェクトを生成せず、
+ * 代替文字の出現位置と生バイト値をそれぞれint配列で保持する。
+ * 生バイト値は1バイト目を下位8bitに持ち、
+ * 2バイト目がある場合は1バイト目を8bit左へずらし、
+ * 下位8bitに2バイト目を持った上で{@link #HAS2ND}を立てる。
+ *
+ * <p>{@link DecodeErrorInfo}のリストとしての参照は、
+ * 要素取得の都度生成される読み出し専用のビューで提供される。
+ * 同じ要素を取得するたびに別のインスタンスが返るが、
+ * それらは{@link DecodeErrorInfo#equals(Object)}で等価となる。
+ *
+ * <p>マルチスレッドには非対応。
+ */
+final class DecodeErrorTable{
+
+    /** 2バイト目を持つことを示す生バイト値のフラグ。 */
+    static final int HAS2ND = 0x10000;
+
+    private static final int BYTE_MASK = 0xff;
+    private static final int BYTE_SHIFT = 8;
+    private static final int MIN_CAPACITY = 8;
+    private static final int[] EMPTY = {};
+
+
+    private int[] positions = EMPTY;
+    private int[] raws = EMPTY;
+    private int size;
+
+    private final List<DecodeErrorInfo> listView = new InfoList();
+
+
+    /**
+     * コンストラクタ。
+     */
+    DecodeErrorTable(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 要素数を返す。
+     *
+     * @return 要素数
+     */
+    int size(){
+        return this.size;
+    }
+
+    /**
+     * 空か判定する。
+     *
+     * @return 空ならtrue
+     */
+    boolean isEmpty(){
+        boolean result = this.size <= 0;
+        return result;
+    }
+
+    /**
+     * 全要素を削除する。
+     */
+    void clear(){
+        this.size = 0;
+        return;
+    }
+
+    /**
+     * 未使用の容量を解放する。
+     */
+    void trimToSize(){
+        if(this.positions.length == this.size) return;
+        this.positions = Arrays.copyOf(this.positions, this.size);
+        this.raws      = Arrays.copyOf(this.raws,      this.size);
+        return;
+    }
+
+    /**
+     * 容量を確保する。
+     *
+     * @param minCapacity 要素数
+     */
+    private void ensureCapacity(int minCapacity){
+        int oldCapacity = this.positions.length;
+        if(minCapacity <= oldCapacity) return;
+
+        int newCapacity = Math.max(MIN_CAPACITY, oldCapacity * 2);
+        newCapacity = Math.max(newCapacity, minCapacity);
+
+        this.positions = Arrays.copyOf(this.positions, newCapacity);
+        this.raws      = Arrays.copyOf(this.raws,      newCapacity);
+
+        return;
+    }
+
+    /**
+     * 末尾に要素を追加する。
+     *
+     * <p>呼び出し側は、出現位置が既存の要素より大きいことを
+     * 保証しなければならない。
+     *
+     * @param charPos 代替文字の出現位置
+     * @param raw 生バイト値
+     */
+    private void add(int charPos, int raw){
+        ensureCapacity(this.size + 1);
+        this.positions[this.size] = charPos;
+        this.raws[this.size] = raw;
+        this.size++;
+        return;
+    }
+
+    /**
+     * 1バイトからなるデコードエラーを末尾に追加する。
+     *
+     * @param charPos 代替文字の出現位置
+     * @param b1st エラー1バイト目の値
+     */
+    void add(int charPos, byte b1st){
+        int raw = b1st & BYTE_MASK;
+        add(charPos, raw);
+        return;
+    }
+
+    /**
+     * 2バイトからなるデコードエラーを末尾に追加する。
+     *
+     * @param charPos 代替文字の出現位置
+     * @param b1st エラー1バイト目の値
+     * @param b2nd エラー2バイト目の値
+     */
+    void add(int charPos, byte b1st, byte b2nd){
+        int raw = (b1st & BYTE_MASK) << BYTE_SHIFT;
+        raw |= b2nd & BYTE_MASK;
+        raw |= HAS2ND;
+        add(charPos, raw);
+        return;
+    }
+
+    /**
+     * デコードエラー情報を末尾に追加する。
+     *
+     * @param errorInfo デコードエラー情報
+     */
+    void add(DecodeErrorInfo errorInfo){
+        int charPos = errorInfo.getCharPosition();
+        byte b1st = errorInfo.getRawByte1st();
+        if(errorInfo.has2nd()){
+            add(charPos, b1st, errorInfo.getRawByte2nd());
+        }else{
+            add(charPos, b1st);
+        }
+        return;
+    }
+
+    /**
+     * 代替文字の出現位置を返す。
+     *
+     * @param index インデックス
+     * @return 出現位置
+     * @throws IndexOutOfBoundsException 不正なインデックス
+     */
+    int getCharPosition(int index) throws IndexOutOfBoundsException{
+        if(index < 0 || this.size <= index){
+            throw new IndexOutOfBoundsException();
+        }
+        return this.positions[index];
+    }
+
+    /**
+     * 生バイト値を返す。
+     *
+     * @param index インデックス
+     * @return 生バイト値
+     * @throws IndexOutOfBoundsException 不正なインデックス
+     */
+    int getRaw(int index) throws IndexOutOfBoundsException{
+        if(index < 0 || this.size <= index){
+            throw new IndexOutOfBoundsException();
+        }
+        return this.raws[index];
+    }
+
+    /**
+     * デコードエラー情報を生成する。
+     *
+     * @param index インデックス
+     * @return デコードエラー情報
+     * @throws IndexOutOfBoundsException 不正なインデックス
+     */
+    DecodeErrorInfo createInfo(int index) throws IndexOutOfBoundsException{
+        int charPos = getCharPosition(index);
+        int raw = this.raws[index];
+
+        DecodeErrorInfo result;
+        if((raw & HAS2ND) != 0){
+            byte b1st = (byte) (raw >>> BYTE_SHIFT);
+            byte b2nd = (byte) raw;
+            result = new DecodeErrorInfo(charPos, b1st, b2nd);
+        }else{
+            result = new DecodeErrorInfo(charPos, (byte) raw);
+        }
+
+        return result;
+    }
+
+    /**
+     * 与えられた文字位置を含むか、またはそれ以降で最も小さな位置情報を持つ
+     * デコードエラーのインデックス位置を返す。
+     *
+     * @param charPos 代替文字位置
+     * @return 0から始まる位置。
+     *     文字位置の一致するデコードエラーがなければ挿入ポイントが返る。
+     * @see DecodeErrorInfo#searchErrorIndex(List, int)
+     */
+    int searchIndex(int charPos){
+        int floorIdx = 0;
+        int roofIdx  = this.size - 1;
+
+        while(floorIdx <= roofIdx){
+            int midIdx = (floorIdx + roofIdx) >>> 1;
+            int errCharPos = this.positions[midIdx];
+
+            if     (errCharPos < charPos) floorIdx = midIdx + 1;
+            else if(errCharPos > charPos) roofIdx  = midIdx - 1;
+            else return midIdx;
+        }
+
+        return floorIdx;
+    }
+
+    /**
+     * 別の表の文字範囲内にあるデコードエラーを、
+     * 出現位置をずらして末尾に追加する。
+     *
+     * <p>自身を追加元に指定してもよい。
+     * 呼び出し側は、追加される出現位置が既存の要素より大きいことを
+     * 保証しなければならない。
+     *
+     * @param src 追加元
+     * @param startCharPt 範囲開始位置
+     * @param endCharPt 範囲終了位置
+     * @param gap 出現位置から引く値
+     */
+    void appendShifted(DecodeErrorTable src,
+                       int startCharPt, int endCharPt,
+                       int gap ){
+        if(startCharPt >= endCharPt) return;
+
+        int startIdx = src.searchIndex(startCharPt);
+        int endIdx   = src.searchIndex(endCharPt);
+        int count = endIdx - startIdx;
+        if(count <= 0) return;
+
+        ensureCapacity(this.size + count);
+
+        System.arraycopy(src.raws, startIdx, this.raws, this.size, count);
+
+        int[] srcPositions = src.positions;
+        int[] dstPositions = this.positions;
+        int dstIdx = this.size;
+        for(int idx = startIdx; idx < endIdx; idx++){
+            dstPositions[dstIdx++] = srcPositions[idx] - gap;
+        }
+
+        this.size += count;
+
+        return;
+    }
+
+    /**
+     * {@link DecodeErrorInfo}のリストとしてのビューを返す。
+     *
+     * <p>読み出し専用。表の変更は即座に反映される。
+     *
+     * @return ビュー
+     */
+    List<DecodeErrorInfo> asList(){
+        return this.listView;
+    }
+
+    /**
+     * リストがデコードエラー表のビューであれば、元の表を返す。
+     *
+     * @param errList デコードエラーのリスト
+     * @return 元の表。ビューでなければnull
+     */
+    static DecodeErrorTable tableOf(List<DecodeErrorInfo> errList){
+        if( ! (errList instanceof InfoList) ) return null;
+        DecodeErrorTable result = ((InfoList) errList).getTable();
+        return result;
+    }
+
+
+    /**
+     * 表を{@link DecodeErrorInfo}のリストとして見せるビュー。
+     */
+    private final class InfoList
+            extends AbstractList<DecodeErrorInfo>
+            implements RandomAccess {
+
+        /**
+         * コンストラクタ。
+         */
+        InfoList(){
+            super();
+            return;
+        }
+
+        /**
+         * 元の表を返す。
+         *
+         * @return 表
+         */
+        DecodeErrorTable getTable(){
+            return DecodeErrorTable.this;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param index {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public DecodeErrorInfo get(int index){
+            return createInfo(index);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return {@inheritDoc}
+         */
+        @Override
+        public int size(){
+            return DecodeErrorTable.this.size;
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * flight recorder events of decoder
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+/**
+ * 文書デコードの区間をJava Flight Recorderのイベントとして記録する。
+ *
+ * <p>区間の開始時に得たイベントを、終了時に属性と共に確定する。
+ * 記録が行われていなければ、開始時に得られるイベントはnullとなる。
+ *
+ * <p>Java 11以降の実行環境では、
+ * マルチリリースJARに同梱された別実装に置き換わる。
+ * この実装は何も記録しない。
+ */
+final class DecodeEvents{
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private DecodeEvents(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 文書デコードの区間を開始する。
+     *
+     * @return イベント。記録しないならnull。
+     */
+    static Object begin(){
+        return null;
+    }
+
+    /**
+     * 文書デコードの区間を確定する。
+     *
+     * @param event {@link #begin()}で得たイベント。nullも可能。
+     * @param byteCount バイト数
+     * @param content デコード結果
+     */
+    static void commit(Object event, long byteCount, DecodedContent content){
+        return;
+    }
+
+}
@@ -17,6 +17,11 @@
  *
  * <p>デコードエラーを起こした箇所は代替文字{@link #ALTCHAR}で置き換えられる。
  *
+ * <p>{@link #compact()}により、
+ * 読み出し専用の省メモリな形式へ変換できる。
+ * 変換後も{@link CharSequence}としてのアクセスは可能。
+ * 変換後に追記や変更を行うと元の形式へ戻る。
+ *
  * <p>マルチスレッドには非対応。
  */
 public class DecodedContent
@@ -43,8 +48,9 @@
     }
 
 
-    private final StringBuilder rawContent = new StringBuilder();
-    private List<DecodeErrorInfo> errList;
+    private StringBuilder rawContent = new StringBuilder();
+    private CompactText compactContent;
+    private DecodeErrorTable errTable;
 
 
     /**
@@ -70,7 +76,7 @@ public DecodedContent(){
     public DecodedContent(CharSequence seq){
         super();
         initImpl();
-        this.rawContent.append(seq);
+        builder().append(seq);
         return;
     }
 
@@ -90,7 +96,7 @@ public DecodedContent(int capacity) throws NegativeArraySizeException{
         super();
         if(capacity < 0) throw new NegativeArraySizeException();
         initImpl();
-        this.rawContent.ensureCapacity(capacity);
+        builder().ensureCapacity(capacity);
         return;
     }
 
@@ -229,15 +235,87 @@ public void init(){
      * <p>長さ0の文字列＆デコードエラー無しの状態になる。
      */
     private void initImpl(){
-        this.rawContent.setLength(0);
+        if(this.rawContent == null){
+            this.rawContent = new StringBuilder();
+            this.compactContent = null;
+        }else{
+            this.rawContent.setLength(0);
+        }
 
-        if(this.errList != null){
-            this.errList.clear();
+        if(this.errTable != null){
+            this.errTable.clear();
         }
 
         return;
     }
 
+    /**
+     * 追記可能な形式の文字列を返す。
+     *
+     * <p>省メモリな形式へ変換されていた場合は元の形式へ戻す。
+     *
+     * @return 追記可能な文字列
+     */
+    private StringBuilder builder(){
+        if(this.rawContent == null){
+            StringBuilder builder = new StringBuilder(this.compactContent);
+            this.rawContent = builder;
+            this.compactContent = null;
+        }
+        return this.rawContent;
+    }
+
+    /**
+     * デコードエラー表を返す。
+     *
+     * <p>未生成であれば生成する。
+     *
+     * @return デコードエラー表
+     */
+    private DecodeErrorTable errorTable(){
+        if(this.errTable == null){
+            this.errTable = new DecodeErrorTable();
+        }
+        return this.errTable;
+    }
+
+    /**
+     * 文字列を読み出し専用の省メモリな形式へ変換する。
+     *
+     * <p>Latin-1の範囲の文字は1文字1バイトで格納され、
+     * 未使用の容量も解放される。
+     * HTMLのマークアップが大半を占める文書を
+     * 長期間保持する場合に用いる。
+     *
+     * <p>変換後の文字の読み出しは変換前より遅くなる。
+     * 追記や変更を行うと元の形式へ戻る。
+     *
+     * <p>既に変換済みであればなにもしない。
+     */
+    public void compact(){
+        if(this.rawContent == null) return;
+
+        this.compactContent = new CompactText(this.rawContent);
+        this.rawContent = null;
+
+        if(this.errTable != null){
+            this.errTable.trimToSize();
+        }
+
+        return;
+    }
+
+    /**
+     * 省メモリな形式へ変換済みか判定する。
+     *
+     * @return 変換済みならtrue
+     * @see #compact()
+     */
+    public boolean isCompact(){
+        boolean result = this.rawContent == null;
+        return result;
+    }
+
     /**
      * 事前にキャパシティを確保する。
      *
@@ -246,18 +324,30 @@ private void initImpl(){
      * @param minimumCapacity キャラクタ単位のキャパシティ長。
      */
     public void ensureCapacity(int minimumCapacity){
-        this.rawContent.ensureCapacity(minimumCapacity);
+        builder().ensureCapacity(minimumCapacity);
         return;
     }
 
+    /**
+     * 再割り当てなしに格納可能な文字数を返す。
+     *
+     * <p>省メモリな形式へ変換済みの場合は文字列長を返す。
+     *
+     * @return 文字数の容量
+     */
+    public int capacity(){
+        if(this.rawContent == null) return this.compactContent.length();
+        return this.rawContent.capacity();
+    }
+
     /**
      * デコードエラーを含むか否か判定する。
      *
      * @return デコードエラーを含むならtrue
      */
     public boolean hasDecodeError(){
-        if(this.errList == null)   return false;
-        if(this.errList.isEmpty()) return false;
+        if(this.errTable == null)   return false;
+        if(this.errTable.isEmpty()) return false;
         return true;
     }
 
@@ -270,7 +360,7 @@ public List<DecodeErrorInfo> getDecodeErrorList(){
         if( ! hasDecodeError() ){
             return EMPTY_LIST;
         }
-        return Collections.unmodifiableList(this.errList);
+        return this.errTable.asList();
     }
 
     /**
@@ -280,12 +370,40 @@ public List<DecodeErrorInfo> getDecodeErrorList(){
      *
      * <p>高速なCharSequenceアクセス用途。
      *
+     * <p>省メモリな形式へ変換済みの場合、
+     * 変換後の文字列が返される。
+     *
      * @return 生の文字列。
      */
     public CharSequence getRawContent(){
+        if(this.rawContent == null) return this.compactContent;
         return this.rawContent;
     }
 
+    /**
+     * 指定範囲の文字を文字配列へ複写する。
+     *
+     * <p>デコードエラー情報は複写されない。
+     *
+     * @param startCharPt 開始位置
+     * @param endCharPt 終了位置
+     * @param dst 複写先
+     * @param dstBegin 複写先の開始位置
+     * @throws IndexOutOfBoundsException 不正な位置指定
+     * @see StringBuilder#getChars(int, int, char[], int)
+     */
+    public void getChars(int startCharPt, int endCharPt,
+                         char[] dst, int dstBegin)
+            throws IndexOutOfBoundsException{
+        if(this.rawContent == null){
+            this.compactContent.getChars(startCharPt, endCharPt,
+                                         dst, dstBegin);
+        }else{
+            this.rawContent.getChars(startCharPt, endCharPt, dst, dstBegin);
+        }
+        return;
+    }
+
     /**
      * 指定された位置の文字を変更する。
      *
@@ -297,7 +415,7 @@ public CharSequence getRawContent(){
      */
     public void setCharAt(int index, char ch)
             throws IndexOutOfBoundsException{
-        this.rawContent.setCharAt(index, ch);
+        builder().setCharAt(index, ch);
         return;
     }
 
@@ -309,6 +427,9 @@ public void setCharAt(int index, char ch)
      */
     @Override
     public char charAt(int index){
+        if(this.rawContent == null){
+            return this.compactContent.charAt(index);
+        }
         return this.rawContent.charAt(index);
     }
 
@@ -319,6 +440,7 @@ public char charAt(int index){
      */
     @Override
     public int length(){
+        if(this.rawContent == null) return this.compactContent.length();
         return this.rawContent.length();
     }
 
@@ -331,7 +453,7 @@ public int length(){
      */
     @Override
     public CharSequence subSequence(int startCharPt, int endCharPt){
-        return this.rawContent.subSequence(startCharPt, endCharPt);
+        return getRawContent().subSequence(startCharPt, endCharPt);
     }
 
     /**
@@ -363,7 +485,7 @@ public DecodedContent subContent(int startCharPt, int endCharPt)
      */
     @Override
     public DecodedContent append(char letter){
-        this.rawContent.append(letter);
+        builder().append(letter);
         return this;
     }
 
@@ -386,7 +508,7 @@ public DecodedContent append(CharSequence seq){
             int seqLen = seq.length();
             result = append(content, 0, seqLen);
         }else{
-            this.rawContent.append(seq);
+            builder().append(seq);
             result = this;
         }
 
@@ -421,7 +543,7 @@ public DecodedContent append(CharSequence seq,
         }else if(startCharPt == endCharPt){
             result = this;
         }else{
-            this.rawContent.append(seq, startCharPt, endCharPt);
+            builder().append(seq, startCharPt, endCharPt);
             result = this;
         }
 
@@ -440,7 +562,7 @@ public DecodedContent append(CharSequence seq,
      */
     public DecodedContent append(char[] str, int offset, int len)
             throws IndexOutOfBoundsException{
-        this.rawContent.append(str, offset, len);
+        builder().append(str, offset, len);
         return this;
     }
 
@@ -473,36 +595,18 @@ public DecodedContent append(DecodedContent source,
             return this;
         }
 
-        int oldLength = this.rawContent.length();
-
-        this.rawContent.append(source.rawContent, startCharPt, endCharPt);
+        StringBuilder builder = builder();
+        int oldLength = builder.length();
 
-        List<DecodeErrorInfo> srcErrList;
-        if(source.hasDecodeError()){
-            srcErrList = source.errList;
-        }else{
-            return this;
-        }
+        builder.append(source.getRawContent(), startCharPt, endCharPt);
 
-        List<DecodeErrorInfo> dstErrList;
-        if(source == this) dstErrList = null;
-        else               dstErrList = this.errList;
+        if( ! source.hasDecodeError() ) return this;
 
         int gap = startCharPt - oldLength;
 
-        dstErrList = appendGappedErrorInfo(srcErrList,
-                                           startCharPt, endCharPt,
-                                           dstErrList,
-                                           gap);
-
-        if(dstErrList == null)         return this;
-        if(dstErrList == this.errList) return this;
-
-        if(this.errList == null){
-            this.errList = dstErrList;
-        }else{
-            this.errList.addAll(dstErrList);
-        }
+        errorTable().appendShifted(source.errTable,
+                                   startCharPt, endCharPt,
+                                   gap);
 
         return this;
     }
@@ -516,11 +620,8 @@ public DecodedContent append(DecodedContent source,
      * @param errorInfo デコードエラー
      */
     void addDecodeError(DecodeErrorInfo errorInfo){
-        if(this.errList == null){
-            this.errList = createErrorList();
-        }
-        this.errList.add(errorInfo);
-        this.rawContent.append(ALTCHAR);
+        errorTable().add(errorInfo);
+        builder().append(ALTCHAR);
         return;
     }
 
@@ -530,9 +631,9 @@ void addDecodeError(DecodeErrorInfo errorInfo){
      * @param b1st エラー1バイト目の値
      */
     public void addDecodeError(byte b1st){
-        DecodeErrorInfo errInfo =
-                new DecodeErrorInfo(this.rawContent.length(), b1st);
-        addDecodeError(errInfo);
+        StringBuilder builder = builder();
+        errorTable().add(builder.length(), b1st);
+        builder.append(ALTCHAR);
         return;
     }
 
@@ -545,9 +646,9 @@ public void addDecodeError(byte b1st){
      * @param b2nd エラー2バイト目の値
      */
     public void addDecodeError(byte b1st, byte b2nd){
-        DecodeErrorInfo errInfo =
-                new DecodeErrorInfo(this.rawContent.length(), b1st, b2nd);
-        addDecodeError(errInfo);
+        StringBuilder builder = builder();
+        errorTable().add(builder.length(), b1st, b2nd);
+        builder.append(ALTCHAR);
         return;
     }
 
@@ -558,7 +659,7 @@ public void addDecodeError(byte b1st, byte b2nd){
      */
     @Override
     public String toString(){
-        return this.rawContent.toString();
+        return getRawContent().toString();
     }
 
 }
@@ -0,0 +1,95 @@
+/*
+ * memory-mapped file
+ *
+ * License : The MIT License
+ * Copyright(c) 2018 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ファイルをメモリマップし、ヒープ上のバッファを介さずにデコードする。
+ *
+ * <p>マップされたバッファはガベージコレクションされるまで解放されない。
+ */
+public final class MappedFile{
+
+    private static final String MSG_LARGE = "too large to map:";
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private MappedFile(){
+        super();
+        return;
+    }
+
+
+    /**
+     * ファイル全体を読み込み専用でメモリマップする。
+     *
+     * @param path ファイル
+     * @return マップされたバッファ
+     * @throws IOException 入力エラー。2GB以上のファイルも含む。
+     */
+    public static ByteBuffer map(Path path) throws IOException{
+        MappedByteBuffer result;
+
+        try(FileChannel channel =
+                FileChannel.open(path, StandardOpenOption.READ)){
+            long size = channel.size();
+            result = map(channel, 0L, size);
+        }
+
+        return result;
+    }
+
+    /**
+     * チャネルの一部を読み込み専用でメモリマップする。
+     *
+     * <p>マップはチャネルを閉じた後も有効である。
+     *
+     * @param channel チャネル
+     * @param position 開始位置
+     * @param size バイト長
+     * @return マップされたバッファ
+     * @throws IOException 入力エラー。2GB以上の範囲も含む。
+     */
+    static MappedByteBuffer map(FileChannel channel,
+                                long position,
+                                long size )
+            throws IOException{
+        if(size > Integer.MAX_VALUE){
+            throw new IOException(MSG_LARGE + size);
+        }
+
+        MappedByteBuffer result =
+                channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+
+        return result;
+    }
+
+    /**
+     * Shift_JIS符号化されたファイルをメモリマップしてデコードする。
+     *
+     * @param path ファイル
+     * @param decoder デコーダ
+     * @return デコード結果
+     * @throws IOException 入力エラー
+     */
+    public static DecodedContent decode(Path path, SjisDecoder decoder)
+            throws IOException{
+        ByteBuffer buffer = map(path);
+        DecodedContent result = decoder.decode(buffer);
+        return result;
+    }
+
+}
@@ -0,0 +1,457 @@
+/*
+ * memory-mapped ZIP archive
+ *
+ * License : The MIT License
+ * Copyright(c) 2018 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * ZIPアーカイブ内の無圧縮(STORED)エントリをメモリマップし、
+ * ヒープ上のバッファを介さずにデコードする。
+ *
+ * <p>2GB未満のアーカイブは開いた時点で全体を一度だけメモリマップし、
+ * 各エントリの内容はそのマップの部分ビューとして得られる。
+ * マップはガベージコレクションされるまで解放されないため、
+ * 小さなエントリごとにマップを作ると、
+ * 多数のアーカイブを続けて扱う際にマップ数の上限に達しうる。
+ * 2GB以上のアーカイブではエントリごとにメモリマップする。
+ *
+ * <p>圧縮されたエントリは{@link ZipFile}経由で展開しつつデコードする。
+ *
+ * <p>エントリ名は汎用フラグのビット11(EFS)が立っていればUTF-8、
+ * 立っていなければ指定された文字セットで復号される。
+ *
+ * <p>ZIP64形式のアーカイブには非対応。
+ *
+ * <p>マルチスレッドには非対応。
+ *
+ * @see <a href="https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT">
+ * ZIP File Format Specification</a>
+ */
+public class MappedZip implements Closeable{
+
+    private static final int SIG_EOCD  = 0x06054b50;
+    private static final int SIG_CEN   = 0x02014b50;
+    private static final int SIG_LOC   = 0x04034b50;
+
+    private static final int EOCD_LEN = 22;
+    private static final int CEN_LEN  = 46;
+    private static final int LOC_LEN  = 30;
+    private static final int MAX_COMMENT_LEN = 0xffff;
+
+    private static final int EOCD_CEN_SIZE   = 12;
+    private static final int EOCD_CEN_OFFSET = 16;
+
+    private static final int CEN_FLAG     = 8;
+    private static final int CEN_METHOD   = 10;
+    private static final int CEN_CSIZE    = 20;
+    private static final int CEN_SIZE     = 24;
+    private static final int CEN_NAMELEN  = 28;
+    private static final int CEN_EXTLEN   = 30;
+    private static final int CEN_COMLEN   = 32;
+    private static final int CEN_LOCOFF   = 42;
+
+    private static final int LOC_NAMELEN  = 26;
+    private static final int LOC_EXTLEN   = 28;
+
+    private static final int METHOD_STORED = 0;
+    private static final int FLAG_ENCRYPTED = 0x0001;
+    private static final int FLAG_EFS       = 0x0800;
+    private static final long ZIP64_MAGIC = 0xffffffffL;
+
+    private static final String MSG_NOEOCD = "end of central directory not found";
+    private static final String MSG_ZIP64  = "ZIP64 is not supported";
+    private static final String MSG_BADCEN = "invalid central directory";
+    private static final String MSG_BADLOC = "invalid local header";
+    private static final String MSG_NOENT  = "entry not found: ";
+
+
+    private final Path path;
+    private final Charset nameCharset;
+    private final FileChannel channel;
+    private final ByteBuffer archive;
+    private final List<Entry> entryList;
+    private final ByteBuffer locBuffer =
+            ByteBuffer.allocate(LOC_LEN).order(ByteOrder.LITTLE_ENDIAN);
+    private ZipFile zipFile;
+
+
+    /**
+     * コンストラクタ。
+     * アーカイブを開き、セントラルディレクトリを読み込む。
+     *
+     * <p>EFSフラグの立っていないエントリ名もUTF-8で復号される。
+     *
+     * @param path ZIPアーカイブ
+     * @throws IOException 入力エラー
+     */
+    public MappedZip(Path path) throws IOException{
+        this(path, StandardCharsets.UTF_8);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * アーカイブを開き、セントラルディレクトリを読み込む。
+     *
+     * @param path ZIPアーカイブ
+     * @param nameCharset EFSフラグの立っていないエントリ名の文字セット
+     * @throws IOException 入力エラー
+     */
+    public MappedZip(Path path, Charset nameCharset) throws IOException{
+        super();
+
+        this.path = path;
+        this.nameCharset = nameCharset;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        ByteBuffer whole;
+        List<Entry> list;
+        try{
+            whole = mapArchive(this.channel);
+            list = readCentralDirectory(this.channel, whole, nameCharset);
+        }catch(IOException e){
+            this.channel.close();
+            throw e;
+        }
+        this.archive = whole;
+        this.entryList = Collections.unmodifiableList(list);
+
+        return;
+    }
+
+
+    /**
+     * 2GB未満のアーカイブ全体をメモリマップする。
+     *
+     * @param channel チャネル
+     * @return マップされたバッファ。2GB以上ならnull。
+     * @throws IOException 入力エラー
+     */
+    private static ByteBuffer mapArchive(FileChannel channel)
+            throws IOException{
+        long fileSize = channel.size();
+        if(fileSize > Integer.MAX_VALUE) return null;
+
+        ByteBuffer result = MappedFile.map(channel, 0L, fileSize);
+
+        return result;
+    }
+
+    /**
+     * アーカイブの一部を読み込み専用のバッファとして得る。
+     *
+     * <p>アーカイブ全体のマップがあればその部分ビューを返す。
+     * 無ければ指定範囲をメモリマップする。
+     *
+     * @param channel チャネル
+     * @param archive アーカイブ全体のマップ。nullも可能。
+     * @param position 開始位置
+     * @param size バイト長
+     * @return バッファ。位置は0。
+     * @throws IOException 入力エラー
+     */
+    private static ByteBuffer mapRegion(FileChannel channel,
+                                        ByteBuffer archive,
+                                        long position,
+                                        long size )
+            throws IOException{
+        if(archive == null){
+            return MappedFile.map(channel, position, size);
+        }
+
+        ByteBuffer result = archive.duplicate();
+        result.limit((int) (position + size));
+        result.position((int) position);
+
+        return result.slice();
+    }
+
+    /**
+     * セントラルディレクトリ終端レコードを探す。
+     *
+     * @param channel チャネル
+     * @param archive アーカイブ全体のマップ。nullも可能。
+     * @return 終端レコード。位置は終端レコード先頭。
+     * @throws IOException 入力エラー
+     */
+    private static ByteBuffer findEndRecord(FileChannel channel,
+                                            ByteBuffer archive)
+            throws IOException{
+        long fileSize = channel.size();
+        long tailSize = Math.min(fileSize, (long) EOCD_LEN + MAX_COMMENT_LEN);
+        if(tailSize < EOCD_LEN) throw new ZipException(MSG_NOEOCD);
+
+        ByteBuffer tail =
+                mapRegion(channel, archive, fileSize - tailSize, tailSize);
+        tail.order(ByteOrder.LITTLE_ENDIAN);
+
+        for(int pos = (int) tailSize - EOCD_LEN; pos >= 0; pos--){
+            if(tail.getInt(pos) == SIG_EOCD){
+                tail.position(pos);
+                return tail.slice().order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        throw new ZipException(MSG_NOEOCD);
+    }
+
+    /**
+     * セントラルディレクトリを読み込む。
+     *
+     * @param channel チャネル
+     * @param archive アーカイブ全体のマップ。nullも可能。
+     * @param nameCharset EFSフラグの立っていないエントリ名の文字セット
+     * @return エントリのリスト
+     * @throws IOException 入力エラー
+     */
+    private static List<Entry> readCentralDirectory(FileChannel channel,
+                                                    ByteBuffer archive,
+                                                    Charset nameCharset)
+            throws IOException{
+        ByteBuffer eocd = findEndRecord(channel, archive);
+
+        long cenSize   = Integer.toUnsignedLong(eocd.getInt(EOCD_CEN_SIZE));
+        long cenOffset = Integer.toUnsignedLong(eocd.getInt(EOCD_CEN_OFFSET));
+        if(cenSize == ZIP64_MAGIC || cenOffset == ZIP64_MAGIC){
+            throw new ZipException(MSG_ZIP64);
+        }
+        if(cenOffset + cenSize > channel.size()){
+            throw new ZipException(MSG_BADCEN);
+        }
+
+        ByteBuffer cen = mapRegion(channel, archive, cenOffset, cenSize);
+        cen.order(ByteOrder.LITTLE_ENDIAN);
+
+        List<Entry> result = new ArrayList<>();
+
+        int pos = 0;
+        while(pos + CEN_LEN <= cenSize){
+            if(cen.getInt(pos) != SIG_CEN) throw new ZipException(MSG_BADCEN);
+
+            int flag    = cen.getShort(pos + CEN_FLAG) & 0xffff;
+            int method  = cen.getShort(pos + CEN_METHOD) & 0xffff;
+            long csize  = Integer.toUnsignedLong(cen.getInt(pos + CEN_CSIZE));
+            long size   = Integer.toUnsignedLong(cen.getInt(pos + CEN_SIZE));
+            int nameLen = cen.getShort(pos + CEN_NAMELEN) & 0xffff;
+            int extLen  = cen.getShort(pos + CEN_EXTLEN) & 0xffff;
+            int comLen  = cen.getShort(pos + CEN_COMLEN) & 0xffff;
+            long locOff = Integer.toUnsignedLong(cen.getInt(pos + CEN_LOCOFF));
+
+            if(   csize == ZIP64_MAGIC
+               || size == ZIP64_MAGIC
+               || locOff == ZIP64_MAGIC ){
+                throw new ZipException(MSG_ZIP64);
+            }
+
+            int nameStart = pos + CEN_LEN;
+            if(nameStart + nameLen > cenSize){
+                throw new ZipException(MSG_BADCEN);
+            }
+            byte[] nameBytes = new byte[nameLen];
+            cen.position(nameStart);
+            cen.get(nameBytes);
+            Charset charset;
+            if((flag & FLAG_EFS) != 0) charset = StandardCharsets.UTF_8;
+            else                       charset = nameCharset;
+            String name = new String(nameBytes, charset);
+
+            boolean mappable =
+                       method == METHOD_STORED
+                    && (flag & FLAG_ENCRYPTED) == 0
+                    && csize == size;
+
+            Entry entry = new Entry(name, mappable, size, locOff);
+            result.add(entry);
+
+            pos = nameStart + nameLen + extLen + comLen;
+        }
+
+        return result;
+    }
+
+    /**
+     * 全エントリをアーカイブ内の格納順に返す。
+     *
+     * @return エントリのリスト
+     */
+    public List<Entry> getEntries(){
+        return this.entryList;
+    }
+
+    /**
+     * 無圧縮エントリの内容をメモリマップする。
+     *
+     * <p>2GB未満のアーカイブでは、
+     * アーカイブ全体のマップの部分ビューが返される。
+     * 新たなマップは作られないが、
+     * 返されたバッファが参照される間はアーカイブ全体のマップが保持される。
+     *
+     * <p>マップはアーカイブを閉じた後も有効である。
+     *
+     * @param entry 無圧縮エントリ
+     * @return マップされたバッファ
+     * @throws IOException 入力エラー
+     * @throws IllegalArgumentException 無圧縮エントリではない
+     */
+    public ByteBuffer map(Entry entry)
+            throws IOException, IllegalArgumentException{
+        if( ! entry.isStored() ) throw new IllegalArgumentException();
+
+        long locOff = entry.localHeaderOffset;
+        ByteBuffer loc = this.locBuffer;
+        loc.clear();
+        while(loc.hasRemaining()){
+            int readLen = this.channel.read(loc, locOff + loc.position());
+            if(readLen < 0) throw new ZipException(MSG_BADLOC);
+        }
+        if(loc.getInt(0) != SIG_LOC) throw new ZipException(MSG_BADLOC);
+
+        int nameLen = loc.getShort(LOC_NAMELEN) & 0xffff;
+        int extLen  = loc.getShort(LOC_EXTLEN) & 0xffff;
+        long dataOff = locOff + LOC_LEN + nameLen + extLen;
+        if(dataOff + entry.size > this.channel.size()){
+            throw new ZipException(MSG_BADLOC);
+        }
+
+        ByteBuffer result =
+                mapRegion(this.channel, this.archive, dataOff, entry.size);
+
+        return result;
+    }
+
+    /**
+     * Shift_JIS符号化されたエントリの内容をデコードする。
+     *
+     * <p>無圧縮エントリはメモリマップされたバッファから直接デコードされる。
+     * 圧縮されたエントリは展開しつつデコードされる。
+     *
+     * @param entry エントリ
+     * @param decoder デコーダ
+     * @return デコード結果
+     * @throws IOException 入力エラー
+     * @throws ZipException 圧縮されたエントリがアーカイブ内に見つからない
+     */
+    public DecodedContent decode(Entry entry, SjisDecoder decoder)
+            throws IOException{
+        if(entry.isStored()){
+            ByteBuffer buffer = map(entry);
+            DecodedContent result = decoder.decode(buffer);
+            return result;
+        }
+
+        if(this.zipFile == null){
+            this.zipFile = new ZipFile(this.path.toFile(), this.nameCharset);
+        }
+
+        ZipEntry zipEntry = this.zipFile.getEntry(entry.getName());
+        if(zipEntry == null){
+            throw new ZipException(MSG_NOENT + entry.getName());
+        }
+
+        DecodedContent result;
+        try(InputStream istream = this.zipFile.getInputStream(zipEntry)){
+            result = decoder.decode(istream);
+        }
+
+        return result;
+    }
+
+    /**
+     * アーカイブを閉じる。
+     * 既にマップされたバッファは引き続き有効である。
+     *
+     * @throws IOException 入力エラー
+     */
+    @Override
+    public void close() throws IOException{
+        try{
+            this.channel.close();
+        }finally{
+            if(this.zipFile != null) this.zipFile.close();
+        }
+        return;
+    }
+
+
+    /**
+     * アーカイブ内のエントリ。
+     */
+    public static final class Entry{
+
+        private final String name;
+        private final boolean stored;
+        private final long size;
+        private final long localHeaderOffset;
+
+
+        /**
+         * コンストラクタ。
+         *
+         * @param name エントリ名
+         * @param stored メモリマップ可能な無圧縮エントリならtrue
+         * @param size 展開後のバイト長
+         * @param localHeaderOffset ローカルヘッダの位置
+         */
+        Entry(String name, boolean stored,
+              long size, long localHeaderOffset){
+            super();
+            this.name = name;
+            this.stored = stored;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+            return;
+        }
+
+
+        /**
+         * エントリ名を返す。
+         *
+         * @return エントリ名
+         */
+        public String getName(){
+            return this.name;
+        }
+
+        /**
+         * メモリマップ可能な無圧縮エントリか判定する。
+         *
+         * <p>暗号化されたエントリは無圧縮でもマップできない。
+         *
+         * @return メモリマップ可能ならtrue
+         */
+        public boolean isStored(){
+            return this.stored;
+        }
+
+        /**
+         * 展開後のバイト長を返す。
+         *
+         * @return バイト長
+         */
+        public long getSize(){
+            return this.size;
+        }
+
+    }
+
+}
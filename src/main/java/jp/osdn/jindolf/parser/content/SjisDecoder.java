@@ -0,0 +1,464 @@
+/*
+ * Shift_JIS direct decoder
+ *
+ * License : The MIT License
+ * Copyright(c) 2018 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * Shift_JISバイト列から{@link DecodedContent}を直接生成するデコーダ。
+ *
+ * <p>{@link SjisNotifier}と{@link ContentBuilderSJ}の組み合わせと
+ * 同じ文字列とデコードエラー情報を生成する。
+ * デコード通知を介さず、入力バイト列を中間バッファへ複写しないため、
+ * 既にメモリ上にあるバイト列のデコードに向く。
+ *
+ * <p>メモリ上のバイト列全体をデコードする場合、
+ * 生成される{@link DecodedContent}の容量は
+ * バイト列の走査で得た文字数で事前に確保され、
+ * デコード中の再割り当ても余剰な容量も生じない。
+ *
+ * <p>デコードには{@link ShiftJis#CHARSET}から事前に作成した
+ * 1バイト文字と2バイト文字の変換表を用いる。
+ * 文書の大半を占めるASCII文字の連続は表を引かずに変換される。
+ * デコードエラーは{@link CharsetDecoder}を介さずその場で検出され、
+ * 文字列へ直接追加される。
+ *
+ * <p>マルチスレッドには非対応。
+ */
+public class SjisDecoder{
+
+    private static final int CHARBUF_SZ = 4 * 1024;
+    private static final int BYTEBUF_SZ = 8 * 1024;
+
+    /** 変換表中で対応する文字が無いことを示す値。 */
+    private static final char NO_CHAR = '\uffff';
+
+    private static final int LEAD_NONE = -1;
+    private static final int TRAIL_MIN = 0x40;
+    private static final int TRAIL_MAX = 0xfc;
+    private static final int TRAIL_SPAN = TRAIL_MAX - TRAIL_MIN + 1;
+
+    /** 1バイト目の値から2バイト文字変換表の行頭位置を得る表。 */
+    private static final int[] LEAD_ROW = new int[256];
+    /** 1バイト文字変換表。 */
+    private static final char[] SINGLE_TABLE = new char[256];
+    /** 2バイト文字変換表。1バイト目ごとに2バイト目の取りうる値の行が並ぶ。 */
+    private static final char[] DOUBLE_TABLE;
+
+    static{
+        DOUBLE_TABLE = buildTables(LEAD_ROW, SINGLE_TABLE);
+    }
+
+
+    private final char[] charBuf;
+    private byte[] byteBuf;
+    private byte[] readBuf;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public SjisDecoder(){
+        super();
+
+        this.charBuf = new char[CHARBUF_SZ];
+
+        return;
+    }
+
+
+    /**
+     * {@link ShiftJis#CHARSET}を用いて変換表を作成する。
+     *
+     * <p>シフトJISの2バイト形式を満たすバイトの組は、
+     * 2バイトとして変換できなければ変換表に対応する文字を持たない。
+     * 1バイト目となりうる値は1バイト文字変換表に対応する文字を持たない。
+     *
+     * @param leadRow 1バイト目の値から行頭位置を得る表
+     * @param single 1バイト文字変換表
+     * @return 2バイト文字変換表
+     */
+    private static char[] buildTables(int[] leadRow, char[] single){
+        CharsetDecoder decoder = ShiftJis.CHARSET.newDecoder();
+        decoder.onMalformedInput(CodingErrorAction.REPORT);
+        decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        byte[] bytes = new byte[2];
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        CharBuffer out = CharBuffer.allocate(2);
+
+        int rows = 0;
+        for(int b1 = 0x00; b1 <= 0xff; b1++){
+            byte b1st = (byte) b1;
+            if(ShiftJis.isShiftJIS1stByte(b1st)){
+                leadRow[b1] = rows * TRAIL_SPAN;
+                single[b1] = NO_CHAR;
+                rows++;
+            }else{
+                leadRow[b1] = LEAD_NONE;
+                bytes[0] = b1st;
+                in.clear().limit(1);
+                single[b1] = decodeOne(decoder, in, out);
+            }
+        }
+
+        char[] result = new char[rows * TRAIL_SPAN];
+        Arrays.fill(result, NO_CHAR);
+
+        for(int b1 = 0x00; b1 <= 0xff; b1++){
+            int row = leadRow[b1];
+            if(row == LEAD_NONE) continue;
+            bytes[0] = (byte) b1;
+            for(int b2 = TRAIL_MIN; b2 <= TRAIL_MAX; b2++){
+                bytes[1] = (byte) b2;
+                if( ! ShiftJis.isShiftJIS2ndByte(bytes[1]) ) continue;
+                in.clear();
+                result[row + b2 - TRAIL_MIN] = decodeOne(decoder, in, out);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * バッファの残り全体を1文字としてデコードする。
+     *
+     * @param decoder デコーダ
+     * @param in 入力バッファ
+     * @param out 作業用文字バッファ
+     * @return デコード結果の文字。1文字にデコードできなければ{@link #NO_CHAR}
+     */
+    private static char decodeOne(CharsetDecoder decoder,
+                                  ByteBuffer in,
+                                  CharBuffer out ){
+        decoder.reset();
+        out.clear();
+
+        CoderResult cr = decoder.decode(in, out, true);
+        if(cr.isError() || in.hasRemaining()) return NO_CHAR;
+        if(out.position() != 1) return NO_CHAR;
+
+        char result = out.get(0);
+        return result;
+    }
+
+
+    /**
+     * バイト配列全体をデコードする。
+     *
+     * @param bytes バイト配列
+     * @return デコード結果
+     */
+    public DecodedContent decode(byte[] bytes){
+        DecodedContent result = decode(bytes, 0, bytes.length);
+        return result;
+    }
+
+    /**
+     * バイト配列の一部をデコードする。
+     *
+     * @param bytes バイト配列
+     * @param offset 開始位置
+     * @param length バイト長
+     * @return デコード結果
+     * @throws IndexOutOfBoundsException 範囲指定が不正
+     */
+    public DecodedContent decode(byte[] bytes, int offset, int length)
+            throws IndexOutOfBoundsException{
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        DecodedContent result = decode(buffer);
+        return result;
+    }
+
+    /**
+     * バッファの残り全体をデコードする。
+     *
+     * <p>バッファの位置は末尾まで進む。
+     *
+     * @param buffer バッファ
+     * @return デコード結果
+     */
+    public DecodedContent decode(ByteBuffer buffer){
+        Object event = DecodeEvents.begin();
+        int byteCount = buffer.remaining();
+
+        int capacity = countChars(buffer);
+        DecodedContent result = new DecodedContent(capacity);
+        decode(buffer, result, true);
+
+        DecodeEvents.commit(event, byteCount, result);
+
+        return result;
+    }
+
+    /**
+     * バッファの残りをデコードした際の文字数を数える。
+     *
+     * <p>シフトJISの2バイト形式を満たす箇所は、
+     * デコードエラーであっても1文字と数える。
+     * バッファの位置は変わらない。
+     *
+     * @param buffer バッファ
+     * @return 文字数
+     */
+    static int countChars(ByteBuffer buffer){
+        if(buffer.hasArray()){
+            int offset = buffer.arrayOffset();
+            int start = offset + buffer.position();
+            int end   = offset + buffer.limit();
+            int result = countChars(buffer.array(), start, end);
+            return result;
+        }
+
+        int result = 0;
+
+        int limit = buffer.limit();
+        int pos = buffer.position();
+        while(pos < limit){
+            byte bval = buffer.get(pos);
+            if(   ShiftJis.isShiftJIS1stByte(bval)
+               && pos + 1 < limit
+               && ShiftJis.isShiftJIS2ndByte(buffer.get(pos + 1)) ){
+                pos += 2;
+            }else{
+                pos++;
+            }
+            result++;
+        }
+
+        return result;
+    }
+
+    /**
+     * バイト配列の範囲をデコードした際の文字数を数える。
+     *
+     * @param bytes バイト配列
+     * @param start 開始位置
+     * @param end 終了位置
+     * @return 文字数
+     * @see #countChars(ByteBuffer)
+     */
+    private static int countChars(byte[] bytes, int start, int end){
+        int result = end - start;
+
+        int pos = start;
+        while(pos < end){
+            byte bval = bytes[pos++];
+            if(bval >= 0) continue;
+            if(LEAD_ROW[bval & 0xff] == LEAD_NONE) continue;
+            if(pos < end && ShiftJis.isShiftJIS2ndByte(bytes[pos])){
+                pos++;
+                result--;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 入力ストリームを終わりまで読み込みデコードする。
+     *
+     * <p>ストリームは閉じられない。
+     *
+     * @param istream 入力ストリーム
+     * @return デコード結果
+     * @throws IOException 入力エラー
+     */
+    public DecodedContent decode(InputStream istream) throws IOException{
+        DecodedContent result = new DecodedContent();
+        decode(istream, result);
+        return result;
+    }
+
+    /**
+     * 入力ストリームを終わりまで読み込みデコードし、文字列の末尾へ追加する。
+     *
+     * <p>読み込み用のバッファはデコーダ内で使い回される。
+     * ストリームは閉じられない。
+     *
+     * @param istream 入力ストリーム
+     * @param content 追加先文字列
+     * @throws IOException 入力エラー
+     */
+    public void decode(InputStream istream, DecodedContent content)
+            throws IOException{
+        Object event = DecodeEvents.begin();
+        long byteCount = 0L;
+
+        if(this.readBuf == null){
+            this.readBuf = new byte[BYTEBUF_SZ];
+        }
+        byte[] bytes = this.readBuf;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        for(;;){
+            int pos = buffer.position();
+            int readLen = istream.read(bytes, pos, bytes.length - pos);
+            if(readLen < 0) break;
+            buffer.position(pos + readLen);
+            byteCount += readLen;
+
+            buffer.flip();
+            decode(buffer, content, false);
+            buffer.compact();
+        }
+
+        buffer.flip();
+        decode(buffer, content, true);
+
+        DecodeEvents.commit(event, byteCount, content);
+
+        return;
+    }
+
+    /**
+     * バッファの残りをデコードし、文字列の末尾へ追加する。
+     *
+     * <p>入力が終わっていない場合、
+     * バッファ末尾にある2バイト文字の前半はデコードされず
+     * バッファに残される。
+     * 呼び出し側は続きのバイト列と共に改めてデコードしなければならない。
+     *
+     * <p>デコードエラーは{@link SjisNotifier}と同様に正規化され、
+     * シフトJISの2バイト形式を満たす箇所は2バイトのエラー、
+     * それ以外は1バイトずつのエラーとなる。
+     *
+     * @param buffer バッファ
+     * @param content 追加先文字列
+     * @param endOfInput 以降の入力が無ければtrue
+     */
+    public void decode(ByteBuffer buffer,
+                       DecodedContent content,
+                       boolean endOfInput ){
+        if(buffer.hasArray()){
+            byte[] bytes = buffer.array();
+            int offset = buffer.arrayOffset();
+            int start = offset + buffer.position();
+            int end   = offset + buffer.limit();
+            int pos = decodeArray(bytes, start, end, content, endOfInput);
+            buffer.position(pos - offset);
+            return;
+        }
+
+        if(this.byteBuf == null){
+            this.byteBuf = new byte[BYTEBUF_SZ];
+        }
+        byte[] bytes = this.byteBuf;
+
+        while(buffer.hasRemaining()){
+            int remaining = buffer.remaining();
+            int length = Math.min(remaining, bytes.length);
+            boolean lastChunk = length == remaining;
+
+            int start = buffer.position();
+            buffer.get(bytes, 0, length);
+
+            int consumed = decodeArray(bytes, 0, length, content,
+                                       lastChunk && endOfInput);
+            buffer.position(start + consumed);
+
+            if(lastChunk) break;
+        }
+
+        return;
+    }
+
+    /**
+     * バイト配列の範囲をデコードし、文字列の末尾へ追加する。
+     *
+     * <p>入力が終わっていない場合、
+     * 範囲末尾にある2バイト文字の前半はデコードされない。
+     *
+     * @param bytes バイト配列
+     * @param start 開始位置
+     * @param end 終了位置
+     * @param content 追加先文字列
+     * @param endOfInput 以降の入力が無ければtrue
+     * @return デコードを終えた位置
+     */
+    private int decodeArray(byte[] bytes, int start, int end,
+                            DecodedContent content,
+                            boolean endOfInput ){
+        char[] chars = this.charBuf;
+        int charLimit = chars.length;
+        int charPos = 0;
+
+        int pos = start;
+        while(pos < end){
+            if(charPos >= charLimit){
+                content.append(chars, 0, charPos);
+                charPos = 0;
+            }
+
+            int runEnd = Math.min(end, pos + charLimit - charPos);
+            byte b1st = bytes[pos];
+            while(b1st >= 0){
+                chars[charPos++] = (char) b1st;
+                if(++pos >= runEnd) break;
+                b1st = bytes[pos];
+            }
+            if(pos >= runEnd) continue;
+
+            int b1 = b1st & 0xff;
+            int row = LEAD_ROW[b1];
+
+            if(row == LEAD_NONE){
+                char ch = SINGLE_TABLE[b1];
+                if(ch == NO_CHAR){
+                    content.append(chars, 0, charPos);
+                    charPos = 0;
+                    content.addDecodeError(b1st);
+                }else{
+                    chars[charPos++] = ch;
+                }
+                pos++;
+                continue;
+            }
+
+            if(pos + 1 >= end){
+                if( ! endOfInput ) break;
+                content.append(chars, 0, charPos);
+                charPos = 0;
+                content.addDecodeError(b1st);
+                pos++;
+                continue;
+            }
+
+            byte b2nd = bytes[pos + 1];
+            if( ! ShiftJis.isShiftJIS2ndByte(b2nd) ){
+                content.append(chars, 0, charPos);
+                charPos = 0;
+                content.addDecodeError(b1st);
+                pos++;
+                continue;
+            }
+
+            char ch = DOUBLE_TABLE[row + (b2nd & 0xff) - TRAIL_MIN];
+            if(ch == NO_CHAR){
+                content.append(chars, 0, charPos);
+                charPos = 0;
+                content.addDecodeError(b1st, b2nd);
+            }else{
+                chars[charPos++] = ch;
+            }
+            pos += 2;
+        }
+
+        content.append(chars, 0, charPos);
+
+        return pos;
+    }
+
+}
@@ -0,0 +1,374 @@
+/*
+ * flight recorder events of parser (Java 11 or later)
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jp.sourceforge.jindolf.corelib.EventFamily;
+import jp.sourceforge.jindolf.corelib.SysEventType;
+
+/**
+ * パース処理の区間をJava Flight Recorderのイベントとして記録する。
+ *
+ * <p>区間の開始時に得たイベントを、終了時に属性と共に確定する。
+ * 記録が行われていなければ、開始時に得られるイベントはnullとなる。
+ *
+ * <p>Java 11以降向けの実装。
+ * イベント種別ごとに記録の有無を判定し、
+ * 記録しない場合はイベントを生成しない。
+ *
+ * <p>{@code jdk.jfr}モジュールを含まない実行環境では何も記録しない。
+ * その判定はクラスの初期化時に一度だけ行い、
+ * {@code jdk.jfr}を参照するクラスはモジュールが存在する場合に限り読み込む。
+ */
+final class ParseEvents{
+
+    private static final String CATEGORY = "JinParser";
+
+    private static final boolean JFR_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private ParseEvents(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 文書パースの区間を開始する。
+     *
+     * @return イベント。記録しないならnull。
+     */
+    static Object beginDocument(){
+        if( ! JFR_AVAILABLE ) return null;
+        return Recorder.beginDocument();
+    }
+
+    /**
+     * 文書パースの区間を確定する。
+     *
+     * @param event {@link #beginDocument()}で得たイベント。nullも可能。
+     * @param pageType ページ種別。nullも可能。
+     * @param charCount 文字数
+     */
+    static void commitDocument(Object event,
+                               PageType pageType,
+                               int charCount ){
+        if(event == null) return;
+        Recorder.commitDocument(event, pageType, charCount);
+        return;
+    }
+
+    /**
+     * 発言パースの区間を開始する。
+     *
+     * @return イベント。記録しないならnull。
+     */
+    static Object beginTalk(){
+        if( ! JFR_AVAILABLE ) return null;
+        return Recorder.beginTalk();
+    }
+
+    /**
+     * 発言パースの区間を確定する。
+     *
+     * @param event {@link #beginTalk()}で得たイベント。nullも可能。
+     * @param talkNo 白発言番号。無ければ負の値。
+     * @param charCount 文字数
+     */
+    static void commitTalk(Object event, int talkNo, int charCount){
+        if(event == null) return;
+        Recorder.commitTalk(event, talkNo, charCount);
+        return;
+    }
+
+    /**
+     * システムイベントパースの区間を開始する。
+     *
+     * @return イベント。記録しないならnull。
+     */
+    static Object beginSysEvent(){
+        if( ! JFR_AVAILABLE ) return null;
+        return Recorder.beginSysEvent();
+    }
+
+    /**
+     * システムイベントパースの区間を確定する。
+     *
+     * @param event {@link #beginSysEvent()}で得たイベント。nullも可能。
+     * @param family イベント種別
+     * @param type イベント詳細種別。nullも可能。
+     * @param charCount 文字数
+     */
+    static void commitSysEvent(Object event,
+                               EventFamily family,
+                               SysEventType type,
+                               int charCount ){
+        if(event == null) return;
+        Recorder.commitSysEvent(event, family, type, charCount);
+        return;
+    }
+
+    /**
+     * パース例外の送出を記録する。
+     *
+     * @param exception パース例外
+     */
+    static void parseError(HtmlParseException exception){
+        if( ! JFR_AVAILABLE ) return;
+        Recorder.parseError(exception);
+        return;
+    }
+
+
+    /**
+     * Flight Recorderを用いた記録の実体。
+     *
+     * <p>{@code jdk.jfr}モジュールが存在する場合に限り初期化される。
+     */
+    private static final class Recorder{
+
+        private static final EventType DOCUMENT_TYPE =
+                EventType.getEventType(DocumentEvent.class);
+        private static final EventType TALK_TYPE =
+                EventType.getEventType(TalkEvent.class);
+        private static final EventType SYSEVENT_TYPE =
+                EventType.getEventType(SysEventEvent.class);
+        private static final EventType ERROR_TYPE =
+                EventType.getEventType(ErrorEvent.class);
+
+
+        /**
+         * 隠しコンストラクタ。
+         */
+        private Recorder(){
+            super();
+            return;
+        }
+
+
+        /**
+         * 文書パースの区間を開始する。
+         *
+         * @return イベント。記録しないならnull。
+         */
+        static Object beginDocument(){
+            if( ! DOCUMENT_TYPE.isEnabled() ) return null;
+            DocumentEvent result = new DocumentEvent();
+            result.begin();
+            return result;
+        }
+
+        /**
+         * 文書パースの区間を確定する。
+         *
+         * @param event {@link #beginDocument()}で得たイベント。nullも可能。
+         * @param pageType ページ種別。nullも可能。
+         * @param charCount 文字数
+         */
+        static void commitDocument(Object event,
+                                   PageType pageType,
+                                   int charCount ){
+            if(event == null) return;
+
+            DocumentEvent documentEvent = (DocumentEvent) event;
+            documentEvent.end();
+            if( ! documentEvent.shouldCommit() ) return;
+
+            if(pageType != null) documentEvent.pageType = pageType.name();
+            documentEvent.chars = charCount;
+            documentEvent.commit();
+
+            return;
+        }
+
+        /**
+         * 発言パースの区間を開始する。
+         *
+         * @return イベント。記録しないならnull。
+         */
+        static Object beginTalk(){
+            if( ! TALK_TYPE.isEnabled() ) return null;
+            TalkEvent result = new TalkEvent();
+            result.begin();
+            return result;
+        }
+
+        /**
+         * 発言パースの区間を確定する。
+         *
+         * @param event {@link #beginTalk()}で得たイベント。nullも可能。
+         * @param talkNo 白発言番号。無ければ負の値。
+         * @param charCount 文字数
+         */
+        static void commitTalk(Object event, int talkNo, int charCount){
+            if(event == null) return;
+
+            TalkEvent talkEvent = (TalkEvent) event;
+            talkEvent.end();
+            if( ! talkEvent.shouldCommit() ) return;
+
+            talkEvent.talkNo = talkNo;
+            talkEvent.chars = charCount;
+            talkEvent.commit();
+
+            return;
+        }
+
+        /**
+         * システムイベントパースの区間を開始する。
+         *
+         * @return イベント。記録しないならnull。
+         */
+        static Object beginSysEvent(){
+            if( ! SYSEVENT_TYPE.isEnabled() ) return null;
+            SysEventEvent result = new SysEventEvent();
+            result.begin();
+            return result;
+        }
+
+        /**
+         * システムイベントパースの区間を確定する。
+         *
+         * @param event {@link #beginSysEvent()}で得たイベント。nullも可能。
+         * @param family イベント種別
+         * @param type イベント詳細種別。nullも可能。
+         * @param charCount 文字数
+         */
+        static void commitSysEvent(Object event,
+                                   EventFamily family,
+                                   SysEventType type,
+                                   int charCount ){
+            if(event == null) return;
+
+            SysEventEvent sysEvent = (SysEventEvent) event;
+            sysEvent.end();
+            if( ! sysEvent.shouldCommit() ) return;
+
+            sysEvent.family = family.name();
+            if(type != null) sysEvent.eventType = type.name();
+            sysEvent.chars = charCount;
+            sysEvent.commit();
+
+            return;
+        }
+
+        /**
+         * パース例外の送出を記録する。
+         *
+         * @param exception パース例外
+         */
+        static void parseError(HtmlParseException exception){
+            if( ! ERROR_TYPE.isEnabled() ) return;
+
+            ErrorEvent event = new ErrorEvent();
+            if( ! event.shouldCommit() ) return;
+
+            event.charPos = exception.getCharPos();
+            event.message = exception.getMessage();
+            event.commit();
+
+            return;
+        }
+
+    }
+
+
+    /**
+     * 文書1件のパース。
+     */
+    @Name("jp.osdn.jindolf.parser.Document")
+    @Label("Parse Document")
+    @Category(CATEGORY)
+    @Description("HtmlParserによる文書1件のパース")
+    @StackTrace(false)
+    static final class DocumentEvent extends Event{
+
+        /** ページ種別。 */
+        @Label("Page Type")
+        String pageType;
+
+        /** 文字数。 */
+        @Label("Chars")
+        int chars;
+
+    }
+
+    /**
+     * 発言1件のパース。
+     */
+    @Name("jp.osdn.jindolf.parser.Talk")
+    @Label("Parse Talk")
+    @Category(CATEGORY)
+    @Description("TalkParserによる発言1件のパース")
+    @StackTrace(false)
+    static final class TalkEvent extends Event{
+
+        /** 白発言番号。 */
+        @Label("Talk No")
+        int talkNo;
+
+        /** 文字数。 */
+        @Label("Chars")
+        int chars;
+
+    }
+
+    /**
+     * システムイベント1件のパース。
+     */
+    @Name("jp.osdn.jindolf.parser.SysEvent")
+    @Label("Parse System Event")
+    @Category(CATEGORY)
+    @Description("SysEventParserによるシステムイベント1件のパース")
+    @StackTrace(false)
+    static final class SysEventEvent extends Event{
+
+        /** イベント種別。 */
+        @Label("Family")
+        String family;
+
+        /** イベント詳細種別。 */
+        @Label("Event Type")
+        String eventType;
+
+        /** 文字数。 */
+        @Label("Chars")
+        int chars;
+
+    }
+
+    /**
+     * パース例外の送出。
+     */
+    @Name("jp.osdn.jindolf.parser.ParseError")
+    @Label("Parse Error")
+    @Category(CATEGORY)
+    @Description("HtmlParserからのパース例外の送出")
+    static final class ErrorEvent extends Event{
+
+        /** パース中断位置。 */
+        @Label("Char Position")
+        int charPos;
+
+        /** メッセージ。 */
+        @Label("Message")
+        String message;
+
+    }
+
+}
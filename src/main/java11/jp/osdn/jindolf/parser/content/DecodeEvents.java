@@ -0,0 +1,154 @@
+/*
+ * flight recorder events of decoder (Java 11 or later)
+ *
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 文書デコードの区間をJava Flight Recorderのイベントとして記録する。
+ *
+ * <p>区間の開始時に得たイベントを、終了時に属性と共に確定する。
+ * 記録が行われていなければ、開始時に得られるイベントはnullとなる。
+ *
+ * <p>Java 11以降向けの実装。
+ * 記録しない場合はイベントを生成しない。
+ *
+ * <p>{@code jdk.jfr}モジュールを含まない実行環境では何も記録しない。
+ * {@code jdk.jfr}を参照するクラスはモジュールが存在する場合に限り読み込む。
+ */
+final class DecodeEvents{
+
+    private static final boolean JFR_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private DecodeEvents(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 文書デコードの区間を開始する。
+     *
+     * @return イベント。記録しないならnull。
+     */
+    static Object begin(){
+        if( ! JFR_AVAILABLE ) return null;
+        return Recorder.begin();
+    }
+
+    /**
+     * 文書デコードの区間を確定する。
+     *
+     * @param event {@link #begin()}で得たイベント。nullも可能。
+     * @param byteCount バイト数
+     * @param content デコード結果
+     */
+    static void commit(Object event, long byteCount, DecodedContent content){
+        if(event == null) return;
+        Recorder.commit(event, byteCount, content);
+        return;
+    }
+
+
+    /**
+     * Flight Recorderを用いた記録の実体。
+     *
+     * <p>{@code jdk.jfr}モジュールが存在する場合に限り初期化される。
+     */
+    private static final class Recorder{
+
+        private static final EventType DECODE_TYPE =
+                EventType.getEventType(DecodeEvent.class);
+
+
+        /**
+         * 隠しコンストラクタ。
+         */
+        private Recorder(){
+            super();
+            return;
+        }
+
+
+        /**
+         * 文書デコードの区間を開始する。
+         *
+         * @return イベント。記録しないならnull。
+         */
+        static Object begin(){
+            if( ! DECODE_TYPE.isEnabled() ) return null;
+            DecodeEvent result = new DecodeEvent();
+            result.begin();
+            return result;
+        }
+
+        /**
+         * 文書デコードの区間を確定する。
+         *
+         * @param event {@link #begin()}で得たイベント。nullも可能。
+         * @param byteCount バイト数
+         * @param content デコード結果
+         */
+        static void commit(Object event,
+                           long byteCount,
+                           DecodedContent content ){
+            if(event == null) return;
+
+            DecodeEvent decodeEvent = (DecodeEvent) event;
+            decodeEvent.end();
+            if( ! decodeEvent.shouldCommit() ) return;
+
+            decodeEvent.bytes = byteCount;
+            decodeEvent.chars = content.length();
+            decodeEvent.errors = content.getDecodeErrorList().size();
+            decodeEvent.commit();
+
+            return;
+        }
+
+    }
+
+
+    /**
+     * 文書1件のデコード。
+     */
+    @Name("jp.osdn.jindolf.parser.Decode")
+    @Label("Decode Document")
+    @Category("JinParser")
+    @Description("Shift_JISバイト列から文字列への文書1件のデコード")
+    @StackTrace(false)
+    static final class DecodeEvent extends Event{
+
+        /** バイト数。 */
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        /** 文字数。 */
+        @Label("Chars")
+        int chars;
+
+        /** デコードエラー数。 */
+        @Label("Decode Errors")
+        int errors;
+
+    }
+
+}
@@ -0,0 +1,284 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class BatchParserTest {
+
+    private static final Charset SJIS = Charset.forName("Shift_JIS");
+
+    public BatchParserTest() {
+    }
+
+    /**
+     * Test of parseContents method, of class BatchParser.
+     * @throws InterruptedException
+     */
+    @Test
+    public void testParseContents() throws InterruptedException{
+        System.out.println("parseContents");
+
+        List<DecodedContent> contentList = new ArrayList<>();
+        for(int ct = 0; ct < 20; ct++){
+            contentList.add(new DecodedContent(TestPages.buildPage(ct)));
+        }
+        contentList.set(7, new DecodedContent("<html>"));
+
+        List<BatchResult> resultList;
+        try(BatchParser batch = new BatchParser(3)){
+            resultList = batch.parseContents(contentList,
+                    index -> new Counter() );
+        }
+
+        assertEquals(20, resultList.size());
+        for(int ct = 0; ct < 20; ct++){
+            BatchResult result = resultList.get(ct);
+            assertEquals(ct, result.getIndex());
+            assertNotNull(result.getHandler());
+            if(ct == 7){
+                assertFalse(result.isSuccess());
+                assertTrue(result.getFailure()
+                           instanceof HtmlParseException);
+            }else{
+                assertTrue(result.isSuccess());
+                assertNull(result.getFailure());
+                Counter counter = (Counter) result.getHandler();
+                assertEquals(ct, counter.talks);
+                assertEquals(ct * 2, counter.texts);
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of parseSources method, of class BatchParser.
+     * @throws InterruptedException
+     */
+    @Test
+    public void testParseSources() throws InterruptedException{
+        System.out.println("parseSources");
+
+        List<ByteSource> sourceList = new ArrayList<>();
+        for(int ct = 0; ct < 10; ct++){
+            byte[] bytes = TestPages.buildPage(ct).getBytes(SJIS);
+            sourceList.add(() -> new ByteArrayInputStream(bytes));
+        }
+        sourceList.set(3, () -> {
+            throw new IOException();
+        });
+
+        List<BatchResult> resultList;
+        try(BatchParser batch = new BatchParser(2)){
+            resultList = batch.parseSources(sourceList, index -> {
+                if(index == 5) throw new IllegalStateException();
+                return new Counter();
+            });
+        }
+
+        assertEquals(10, resultList.size());
+        for(int ct = 0; ct < 10; ct++){
+            BatchResult result = resultList.get(ct);
+            assertEquals(ct, result.getIndex());
+            if(ct == 3){
+                assertFalse(result.isSuccess());
+                assertNull(result.getHandler());
+                assertTrue(result.getFailure() instanceof IOException);
+            }else if(ct == 5){
+                assertFalse(result.isSuccess());
+                assertNull(result.getHandler());
+                assertTrue(result.getFailure()
+                           instanceof IllegalStateException);
+            }else{
+                assertTrue(result.isSuccess());
+                Counter counter = (Counter) result.getHandler();
+                assertEquals(ct, counter.talks);
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of stream closing in parseSources method, of class BatchParser.
+     * @throws InterruptedException
+     */
+    @Test
+    public void testSourceClosing() throws InterruptedException{
+        System.out.println("sourceClosing");
+
+        List<TracedStream> streamList = new ArrayList<>();
+        List<ByteSource> sourceList = new ArrayList<>();
+        for(int ct = 0; ct < 4; ct++){
+            byte[] bytes = TestPages.buildPage(ct).getBytes(SJIS);
+            TracedStream stream = new TracedStream(bytes);
+            streamList.add(stream);
+            sourceList.add(() -> stream);
+        }
+
+        List<BatchResult> resultList;
+        try(BatchParser batch = new BatchParser(2)){
+            resultList = batch.parseSources(sourceList, index -> {
+                // デコード後、パース前に閉じられている
+                if( ! streamList.get(index).closed ){
+                    throw new IllegalStateException();
+                }
+                return new Counter();
+            });
+        }
+
+        for(BatchResult result : resultList){
+            assertTrue(result.isSuccess());
+        }
+        for(TracedStream stream : streamList){
+            assertTrue(stream.closed);
+        }
+
+        return;
+    }
+
+    /**
+     * Test of setContentRecycling method, of class BatchParser.
+     * @throws InterruptedException
+     */
+    @Test
+    public void testContentRecycling() throws InterruptedException{
+        System.out.println("contentRecycling");
+
+        List<ByteSource> sourceList = new ArrayList<>();
+        for(int ct = 0; ct < 30; ct++){
+            byte[] bytes = TestPages.buildPage(30 - ct).getBytes(SJIS);
+            sourceList.add(() -> new ByteArrayInputStream(bytes));
+        }
+
+        try(BatchParser batch = new BatchParser(2)){
+            assertFalse(batch.isContentRecycling());
+            batch.setContentRecycling(true);
+            assertTrue(batch.isContentRecycling());
+
+            for(int round = 0; round < 2; round++){
+                List<BatchResult> resultList =
+                        batch.parseSources(sourceList, index -> new Counter());
+                assertEquals(30, resultList.size());
+                for(int ct = 0; ct < 30; ct++){
+                    BatchResult result = resultList.get(ct);
+                    assertTrue(result.isSuccess());
+                    Counter counter = (Counter) result.getHandler();
+                    assertEquals(30 - ct, counter.talks);
+                    assertEquals((30 - ct) * 2, counter.texts);
+                }
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of setMetrics method, of class BatchParser.
+     * @throws InterruptedException
+     */
+    @Test
+    public void testMetrics() throws InterruptedException{
+        System.out.println("metrics");
+
+        List<ByteSource> sourceList = new ArrayList<>();
+        long totalTalks = 0L;
+        for(int ct = 0; ct < 20; ct++){
+            byte[] bytes = TestPages.buildPage(ct).getBytes(SJIS);
+            sourceList.add(() -> new ByteArrayInputStream(bytes));
+            totalTalks += ct;
+        }
+
+        ParseMetrics metrics = new ParseMetrics();
+
+        try(BatchParser batch = new BatchParser(3)){
+            assertNull(batch.getMetrics());
+            batch.setMetrics(metrics);
+            assertSame(metrics, batch.getMetrics());
+
+            batch.parseSources(sourceList, index -> new Counter());
+        }
+
+        assertEquals(20L, metrics.getDocuments());
+        assertEquals(totalTalks,
+                     metrics.getMessages(MessageKind.TALK));
+        assertEquals(20L, metrics.getPhaseCount(ParseMetrics.Phase.HEAD));
+
+        return;
+    }
+
+    /**
+     * Test of constructor, of class BatchParser.
+     */
+    @Test
+    public void testConstructor(){
+        System.out.println("constructor");
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            new BatchParser(0);
+        });
+
+        return;
+    }
+
+
+    /**
+     * 閉じられたことを記録するストリーム。
+     */
+    private static class TracedStream extends ByteArrayInputStream{
+
+        volatile boolean closed;
+
+        TracedStream(byte[] bytes){
+            super(bytes);
+        }
+
+        @Override
+        public void close() throws IOException{
+            this.closed = true;
+            super.close();
+        }
+
+    }
+
+    /**
+     * 発言数を数える。
+     */
+    private static class Counter extends HtmlAdapter{
+
+        int talks;
+        int texts;
+
+        Counter(){
+            super();
+        }
+
+        @Override
+        public void talkText(DecodedContent content, SeqRange textRange){
+            this.texts++;
+        }
+
+        @Override
+        public void endTalk(){
+            this.talks++;
+        }
+
+    }
+
+}
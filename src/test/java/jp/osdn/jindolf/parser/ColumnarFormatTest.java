@@ -0,0 +1,239 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import jp.osdn.jindolf.parser.content.DecodeErrorInfo;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class ColumnarFormatTest {
+
+    public ColumnarFormatTest() {
+    }
+
+    private static DecodedContent buildContent(){
+        DecodedContent result = new DecodedContent();
+        result.append("<html>");
+        result.addDecodeError((byte)0xff);
+        result.append("ab");
+        result.addDecodeError((byte)0x81, (byte)0x40);
+        result.addDecodeError((byte)0x82);
+        result.setCharAt(result.length() - 1, 'X');
+        result.append("</html>");
+        return result;
+    }
+
+    private static ColumnarRecorder buildRecorder(DecodedContent content)
+            throws HtmlParseException{
+        ColumnarRecorder result = new ColumnarRecorder();
+        result.startParse(content);
+        result.pageTitle(content, new SeqRange(1, 5));
+        result.pageType(PageType.PERIOD_PAGE);
+        result.commitTime(1, 2, 3, 4);
+        result.startTalk();
+        result.talkNo(99);
+        result.talkText(content, new SeqRange(7, 9));
+        result.talkType(null);
+        result.endTalk();
+        result.sysEventPlayerList(content,
+                                  new SeqRange(0, 1),
+                                  new SeqRange(-1, -1),
+                                  new SeqRange(2, 4),
+                                  true,
+                                  null );
+        result.endParse();
+        return result;
+    }
+
+    private static void assertSameContent(DecodedContent expected,
+                                          DecodedContent result){
+        assertEquals(expected.toString(), result.toString());
+
+        List<DecodeErrorInfo> expList = expected.getDecodeErrorList();
+        List<DecodeErrorInfo> resList = result.getDecodeErrorList();
+        assertEquals(expList.size(), resList.size());
+        for(int idx = 0; idx < expList.size(); idx++){
+            DecodeErrorInfo expInfo = expList.get(idx);
+            DecodeErrorInfo resInfo = resList.get(idx);
+            assertEquals(expInfo.toString(), resInfo.toString());
+        }
+
+        return;
+    }
+
+    private static String replayLog(ColumnarRecorder recorder)
+            throws HtmlParseException{
+        ColumnarRecorder copy = new ColumnarRecorder();
+        recorder.replay(copy);
+        StringBuilder log = new StringBuilder();
+        for(int idx = 0; idx < copy.size(); idx++){
+            log.append(copy.getKinds()[idx]).append(' ');
+        }
+        log.append('/');
+        for(int idx = 0; idx < copy.getRangeCount(); idx++){
+            log.append(copy.getRangeStarts()[idx]).append('-')
+               .append(copy.getRangeEnds()[idx]).append(' ');
+        }
+        log.append('/');
+        for(int idx = 0; idx < copy.getValueCount(); idx++){
+            log.append(copy.getValues()[idx]).append(' ');
+        }
+        return log.toString();
+    }
+
+    /**
+     * Test of encode and decode method, of class ColumnarFormat.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testRoundTrip() throws HtmlParseException{
+        System.out.println("roundTrip");
+
+        DecodedContent content = buildContent();
+        ColumnarRecorder recorder = buildRecorder(content);
+
+        ByteBuffer buffer = ColumnarFormat.encode(recorder);
+        assertEquals(0, buffer.position());
+        assertEquals(ColumnarFormat.encodedLength(recorder),
+                     buffer.remaining());
+        assertEquals(ColumnarFormat.MAGIC, buffer.getInt(0));
+
+        ColumnarRecorder decoded = ColumnarFormat.decode(buffer);
+        assertFalse(buffer.hasRemaining());
+
+        assertEquals(recorder.size(), decoded.size());
+        assertSameContent(content, decoded.getContent());
+        assertEquals(replayLog(recorder), replayLog(decoded));
+
+        decoded.startParse(content);
+        decoded.endParse();
+        assertEquals(2, decoded.size());
+
+        return;
+    }
+
+    /**
+     * Test of encode and decode method, of class ColumnarFormat.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testOffset() throws HtmlParseException{
+        System.out.println("offset");
+
+        ColumnarRecorder recorder = buildRecorder(buildContent());
+        int length = ColumnarFormat.encodedLength(recorder);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length + 3);
+        buffer.put((byte)1);
+        ColumnarFormat.encode(recorder, buffer);
+        assertEquals(length + 1, buffer.position());
+
+        buffer.position(1);
+        ColumnarRecorder decoded = ColumnarFormat.decode(buffer);
+        assertEquals(length + 1, buffer.position());
+        assertEquals(replayLog(recorder), replayLog(decoded));
+
+        ColumnarRecorder empty = new ColumnarRecorder();
+        ColumnarRecorder emptyDecoded =
+                ColumnarFormat.decode(ColumnarFormat.encode(empty));
+        assertEquals(0, emptyDecoded.size());
+        assertEquals(0, emptyDecoded.getContent().length());
+
+        return;
+    }
+
+    /**
+     * Test of decode method, of class ColumnarFormat.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testBroken() throws HtmlParseException{
+        System.out.println("broken");
+
+        ColumnarRecorder recorder = buildRecorder(buildContent());
+        ByteBuffer buffer = ColumnarFormat.encode(recorder);
+
+        ByteBuffer badMagic = ColumnarFormat.encode(recorder);
+        badMagic.putInt(0, 0);
+        assertThrows(IllegalArgumentException.class, () -> {
+            ColumnarFormat.decode(badMagic);
+        });
+
+        ByteBuffer badVersion = ColumnarFormat.encode(recorder);
+        badVersion.putInt(4, ColumnarFormat.VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> {
+            ColumnarFormat.decode(badVersion);
+        });
+
+        ByteBuffer badEnum = ColumnarFormat.encode(recorder);
+        badEnum.putInt(12, badEnum.getInt(12) + 1);
+        assertThrows(IllegalArgumentException.class, () -> {
+            ColumnarFormat.decode(badEnum);
+        });
+
+        ByteBuffer truncated = ColumnarFormat.encode(recorder);
+        truncated.limit(truncated.limit() - 1);
+        assertThrows(IllegalArgumentException.class, () -> {
+            ColumnarFormat.decode(truncated);
+        });
+
+        ByteBuffer badKind = ColumnarFormat.encode(recorder);
+        badKind.put(badKind.limit() - 1, (byte)127);
+        assertThrows(IllegalArgumentException.class, () -> {
+            ColumnarFormat.decode(badKind);
+        });
+
+        assertEquals(0, buffer.position());
+
+        return;
+    }
+
+    /**
+     * Test of decode method, of class ColumnarFormat.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testReplayParse() throws HtmlParseException{
+        System.out.println("replayParse");
+
+        StringBuilder page = new StringBuilder();
+        page.append("<?xml version=\"1.0\" encoding=\"Shift_JIS\"?>\n");
+        page.append("<html xmlns=\"http://www.w3.org/1999/xhtml\">\n");
+        page.append("<head><title>人狼BBS</title></head>\n");
+        page.append("<body>\n");
+        page.append("<div class=\"main\">\n");
+        page.append("終了した村の記録\n");
+        page.append("<a href=\"index.rb?vid=1&amp;meslog=000_ready\">");
+        page.append("A1 村</a><br />");
+        page.append("</div>\n");
+        page.append("</body>\n");
+        page.append("</html>\n");
+        DecodedContent content = new DecodedContent(page);
+
+        ColumnarRecorder recorder = new ColumnarRecorder();
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+        parser.parseAutomatic(content);
+
+        ColumnarRecorder decoded =
+                ColumnarFormat.decode(ColumnarFormat.encode(recorder));
+        assertEquals(content.toString(), decoded.getContent().toString());
+        assertEquals(replayLog(recorder), replayLog(decoded));
+
+        return;
+    }
+
+}
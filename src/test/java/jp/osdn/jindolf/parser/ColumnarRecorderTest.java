@@ -0,0 +1,177 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class ColumnarRecorderTest {
+
+    public ColumnarRecorderTest() {
+    }
+
+    private static HtmlHandler buildLogger(StringBuilder log){
+        InvocationHandler ih = (proxy, method, args) -> {
+            log.append(method.getName());
+            if(args != null){
+                for(Object arg : args){
+                    log.append(' ');
+                    if(arg instanceof SeqRange){
+                        SeqRange range = (SeqRange) arg;
+                        log.append(range.getStartPos()).append('-')
+                           .append(range.getEndPos());
+                    }else if(arg instanceof DecodedContent){
+                        log.append("content@")
+                           .append(System.identityHashCode(arg));
+                    }else{
+                        log.append(arg);
+                    }
+                }
+            }
+            log.append('\n');
+            return null;
+        };
+        HtmlHandler result = (HtmlHandler) Proxy.newProxyInstance(
+                HtmlHandler.class.getClassLoader(),
+                new Class<?>[]{HtmlHandler.class},
+                ih );
+        return result;
+    }
+
+    private static Object[] buildArgs(Method method,
+                                      DecodedContent content,
+                                      int seed){
+        Class<?>[] types = method.getParameterTypes();
+        Object[] result = new Object[types.length];
+        for(int idx = 0; idx < types.length; idx++){
+            Class<?> type = types[idx];
+            int val = seed * 10 + idx;
+            if(type == DecodedContent.class){
+                result[idx] = content;
+            }else if(type == SeqRange.class){
+                if(val % 3 == 0) result[idx] = new SeqRange(-1, -1);
+                else             result[idx] = new SeqRange(val, val + 2);
+            }else if(type == int.class){
+                result[idx] = val - 5;
+            }else if(type == boolean.class){
+                result[idx] = val % 2 == 0;
+            }else if(type.isEnum()){
+                Object[] consts = type.getEnumConstants();
+                if(seed % 2 == 0) result[idx] = null;
+                else result[idx] = consts[seed % consts.length];
+            }else{
+                fail(type.toString());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Test of replay method, of class ColumnarRecorder.
+     * @throws Exception
+     */
+    @Test
+    public void testReplayAllEvents() throws Exception{
+        System.out.println("replayAllEvents");
+
+        DecodedContent content = new DecodedContent("content");
+        ColumnarRecorder recorder = new ColumnarRecorder();
+
+        StringBuilder expected = new StringBuilder();
+        HtmlHandler logger = buildLogger(expected);
+
+        Method startParse =
+                BasicHandler.class.getMethod("startParse",
+                                             DecodedContent.class);
+        startParse.invoke(recorder, content);
+        startParse.invoke(logger, content);
+
+        Method[] methods = HtmlHandler.class.getMethods();
+        for(int round = 0; round < 2; round++){
+            for(int seed = 0; seed < methods.length; seed++){
+                Method method = methods[seed];
+                if(method.getName().equals("startParse")) continue;
+                Object[] args = buildArgs(method, content, seed + round);
+                method.invoke(recorder, args);
+                method.invoke(logger, args);
+            }
+        }
+
+        assertEquals(methods.length * 2 - 1, recorder.size());
+        assertSame(content, recorder.getContent());
+
+        StringBuilder replayed = new StringBuilder();
+        recorder.replay(buildLogger(replayed));
+        assertEquals(expected.toString(), replayed.toString());
+
+        StringBuilder again = new StringBuilder();
+        recorder.replay(buildLogger(again));
+        assertEquals(expected.toString(), again.toString());
+
+        recorder.clear();
+        assertEquals(0, recorder.size());
+        assertNull(recorder.getContent());
+
+        return;
+    }
+
+    /**
+     * Test of replay method, of class ColumnarRecorder.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testReplayParse() throws HtmlParseException{
+        System.out.println("replayParse");
+
+        StringBuilder page = new StringBuilder();
+        page.append("<?xml version=\"1.0\" encoding=\"Shift_JIS\"?>\n");
+        page.append("<html xmlns=\"http://www.w3.org/1999/xhtml\">\n");
+        page.append("<head><title>人狼BBS</title></head>\n");
+        page.append("<body>\n");
+        page.append("<div class=\"main\">\n");
+        page.append("終了した村の記録\n");
+        page.append("<a href=\"index.rb?vid=1&amp;meslog=000_ready\">");
+        page.append("A1 村</a><br />");
+        page.append("<a href=\"index.rb?vid=2&amp;meslog=000_ready\">");
+        page.append("A2 村</a><br />");
+        page.append("</div>\n");
+        page.append("</body>\n");
+        page.append("</html>\n");
+        DecodedContent content = new DecodedContent(page);
+
+        HtmlParser parser = new HtmlParser();
+
+        StringBuilder expected = new StringBuilder();
+        HtmlHandler logger = buildLogger(expected);
+        parser.setBasicHandler(logger);
+        parser.setTalkHandler(logger);
+        parser.setSysEventHandler(logger);
+        parser.parseAutomatic(content);
+
+        ColumnarRecorder recorder = new ColumnarRecorder();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+        parser.parseAutomatic(content);
+
+        StringBuilder replayed = new StringBuilder();
+        recorder.replay(buildLogger(replayed));
+        assertEquals(expected.toString(), replayed.toString());
+        assertTrue(replayed.toString().contains("villageRecord"));
+
+        return;
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class DelimiterSeekerTest {
+
+    public DelimiterSeekerTest() {
+    }
+
+    /**
+     * Test of indexOfDelimiter method, of class DelimiterSeeker.
+     */
+    @Test
+    public void testIndexOfDelimiter() {
+        System.out.println("indexOfDelimiter");
+
+        CharSequence[] seqs = {
+            "あいう<br />え>お",
+            new StringBuilder("あいう<br />え>お"),
+            java.nio.CharBuffer.wrap("あいう<br />え>お"),
+        };
+
+        for(CharSequence seq : seqs){
+            assertEquals(3, DelimiterSeeker.indexOfDelimiter(seq, 0, 12));
+            assertEquals(3, DelimiterSeeker.indexOfDelimiter(seq, 3, 12));
+            assertEquals(8, DelimiterSeeker.indexOfDelimiter(seq, 4, 12));
+            assertEquals(10, DelimiterSeeker.indexOfDelimiter(seq, 9, 12));
+            assertEquals(12, DelimiterSeeker.indexOfDelimiter(seq, 11, 12));
+            assertEquals(2, DelimiterSeeker.indexOfDelimiter(seq, 0, 2));
+            assertEquals(10, DelimiterSeeker.indexOfDelimiter(seq, 9, 10));
+            assertEquals(10, DelimiterSeeker.indexOfDelimiter(seq, 10, 11));
+            assertEquals(5, DelimiterSeeker.indexOfDelimiter(seq, 5, 5));
+        }
+
+        return;
+    }
+
+    /**
+     * Test of indexOfOpen method, of class DelimiterSeeker.
+     */
+    @Test
+    public void testIndexOfOpen() {
+        System.out.println("indexOfOpen");
+
+        CharSequence[] seqs = {
+            "a>b<c>d<",
+            new StringBuilder("a>b<c>d<"),
+            java.nio.CharBuffer.wrap("a>b<c>d<"),
+        };
+
+        for(CharSequence seq : seqs){
+            assertEquals(3, DelimiterSeeker.indexOfOpen(seq, 0, 8));
+            assertEquals(3, DelimiterSeeker.indexOfOpen(seq, 3, 8));
+            assertEquals(7, DelimiterSeeker.indexOfOpen(seq, 4, 8));
+            assertEquals(7, DelimiterSeeker.indexOfOpen(seq, 4, 7));
+            assertEquals(2, DelimiterSeeker.indexOfOpen(seq, 0, 2));
+            assertEquals(8, DelimiterSeeker.indexOfOpen(seq, 8, 8));
+        }
+
+        return;
+    }
+
+    /**
+     * Test of search range, of class DelimiterSeeker.
+     */
+    @Test
+    public void testLongRange() {
+        System.out.println("longRange");
+
+        String text = "あいうえおかきくけこさしすせそたちつてと";
+        String tail = "なにぬねの";
+        String src = text + "<br />" + text + tail + ">" + text + "<";
+        int textEnd = text.length();
+        int secondEnd = textEnd + 6 + textEnd;
+
+        CharSequence[] seqs = {
+            src,
+            new StringBuilder(src),
+            java.nio.CharBuffer.wrap(src),
+        };
+
+        for(CharSequence seq : seqs){
+            int len = seq.length();
+
+            assertEquals(textEnd,
+                    DelimiterSeeker.indexOfDelimiter(seq, 0, len));
+            assertEquals(textEnd,
+                    DelimiterSeeker.indexOfOpen(seq, 0, len));
+            assertEquals(textEnd - 1,
+                    DelimiterSeeker.indexOfDelimiter(seq, 0, textEnd - 1));
+            assertEquals(textEnd - 1,
+                    DelimiterSeeker.indexOfOpen(seq, 0, textEnd - 1));
+
+            assertEquals(secondEnd,
+                    DelimiterSeeker.indexOfDelimiter(seq, textEnd + 6,
+                                                     secondEnd));
+            assertEquals(secondEnd + tail.length(),
+                    DelimiterSeeker.indexOfDelimiter(seq, textEnd + 6,
+                                                     len));
+            assertEquals(len - 1,
+                    DelimiterSeeker.indexOfOpen(seq, textEnd + 6, len));
+            assertEquals(secondEnd,
+                    DelimiterSeeker.indexOfOpen(seq, textEnd + 6,
+                                                secondEnd));
+            assertEquals(len - 2,
+                    DelimiterSeeker.indexOfOpen(seq, textEnd + 6,
+                                                len - 2));
+        }
+
+        return;
+    }
+
+}
@@ -136,6 +136,63 @@ public void testConvert(){
         return;
     }
 
+    /**
+     * Test of convert method, of class EntityConverter.
+     */
+    @Test
+    public void testConvertIncomplete(){
+        System.out.println("convertIncomplete");
+
+        EntityConverter converter = new EntityConverter();
+        EntityConverter repConverter = new EntityConverter(true);
+
+        DecodedContent from;
+        DecodedContent result;
+
+        from = new DecodedContent("&g&gt&quo&amp&");
+        result = converter.convert(from);
+        assertEquals("&g&gt&quo&amp&", result.toString());
+
+        from = new DecodedContent("&&lt;&&amp;;");
+        result = converter.convert(from);
+        assertEquals("&<&&;", result.toString());
+
+        from = new DecodedContent("a&gt;b");
+        result = converter.convert(from, 1, 4);
+        assertEquals("&gt", result.toString());
+
+        from = new DecodedContent("\\&quot;\\");
+        result = converter.convert(from);
+        assertEquals("\u00a5\"\u00a5", result.toString());
+
+        from = new DecodedContent("a\ud83db\udc11c\udc11\ud83d");
+        result = repConverter.convert(from);
+        assertEquals("a\ud83db\udc11c\udc11\ud83d", result.toString());
+
+        from = new DecodedContent("a\ud83d\udc11\ud83d\udc11b");
+        result = repConverter.convert(from);
+        assertEquals("a??b", result.toString());
+
+        from = new DecodedContent("a\ud83d\udc11b");
+        result = repConverter.convert(from, 0, 2);
+        assertEquals("a\ud83d", result.toString());
+
+        from = new DecodedContent();
+        from.append("&lt;");
+        from.addDecodeError((byte)0x81, (byte)0x40);
+        from.append("&gt;");
+        from.addDecodeError((byte)0xff);
+        result = converter.append(new DecodedContent("xy"), from);
+        assertEquals("xy<?>?", result.toString());
+        List<DecodeErrorInfo> list = result.getDecodeErrorList();
+        assertEquals(2, list.size());
+        assertEquals(3, list.get(0).getCharPosition());
+        assertEquals((byte)0x40, list.get(0).getRawByte2nd());
+        assertEquals(5, list.get(1).getCharPosition());
+
+        return;
+    }
+
     /**
      * Test of append method, of class EntityConverter.
      */
@@ -184,4 +241,65 @@ public void testAppend(){
         return;
     }
 
+    /**
+     * Test of convert method to char array, of class EntityConverter.
+     */
+    @Test
+    public void testConvertArray(){
+        System.out.println("convertArray");
+
+        EntityConverter converter = new EntityConverter();
+        EntityConverter repConverter = new EntityConverter(true);
+
+        DecodedContent from;
+        char[] dst = new char[32];
+        int length;
+
+        from = new DecodedContent("a&gt;b&lt;c&quot;d&amp;e\\");
+        length = converter.convert(from, 0, from.length(), dst, 0);
+        assertEquals("a>b<c\"d&e\u00a5", new String(dst, 0, length));
+
+        from = new DecodedContent("12&gt;45");
+        length = converter.convert(from, new SeqRange(1, 7), dst, 3);
+        assertEquals(3, length);
+        assertEquals("2>4", new String(dst, 3, length));
+
+        from = new DecodedContent("a\ud83d\udc11b");
+        length = repConverter.convert(from, 0, from.length(), dst, 0);
+        assertEquals("a?b", new String(dst, 0, length));
+        length = converter.convert(from, 0, from.length(), dst, 0);
+        assertEquals("a\ud83d\udc11b", new String(dst, 0, length));
+
+        from = new DecodedContent("a");
+        from.addDecodeError((byte)0xff);
+        from.append("&amp;");
+        length = converter.convert(from, 0, from.length(), dst, 0);
+        assertEquals("a?&", new String(dst, 0, length));
+
+        length = converter.convert(from, 2, 2, dst, 32);
+        assertEquals(0, length);
+
+        DecodedContent src = new DecodedContent("abc");
+        try{
+            converter.convert(src, 0, 3, dst, 30);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // OK
+        }
+        try{
+            converter.convert(src, 0, 3, dst, -1);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // OK
+        }
+        try{
+            converter.convert(src, 2, 4, dst, 0);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // OK
+        }
+
+        return;
+    }
+
 }
@@ -0,0 +1,661 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.EnumSet;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.osdn.jindolf.parser.content.SjisDecoder;
+import jp.sourceforge.jindolf.corelib.PeriodType;
+import jp.sourceforge.jindolf.corelib.SysEventType;
+import jp.sourceforge.jindolf.corelib.TalkType;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class HtmlParserTest {
+
+    private static final Charset SJIS = Charset.forName("Shift_JIS");
+
+    public HtmlParserTest() {
+    }
+
+    private static String buildHostilePage(int spaces){
+        StringBuilder page = new StringBuilder();
+
+        page.append(TestPages.DOCUMENT_HEAD);
+        page.append("F1 テスト村");
+        for(int ct = 0; ct < spaces; ct++){
+            page.append(' ');
+        }
+        page.append("x");
+
+        return page.toString();
+    }
+
+    private static String parseAutomatic(byte[] bytes){
+        DecodedContent content = new SjisDecoder().decode(bytes);
+
+        Recorder recorder = new Recorder();
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+
+        try{
+            parser.parseAutomatic(content);
+        }catch(HtmlParseException e){
+            recorder.log.append("error ").append(e.getMessage());
+        }
+
+        return recorder.log.toString();
+    }
+
+    private static String parseStream(byte[] bytes, int chunk)
+            throws IOException{
+        return parseStream(new ChunkedChannel(bytes, chunk));
+    }
+
+    private static String parseStream(ReadableByteChannel channel)
+            throws IOException{
+        Recorder recorder = new Recorder();
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+
+        try{
+            parser.parseStream(channel);
+        }catch(HtmlParseException e){
+            recorder.log.append("error ").append(e.getMessage());
+        }
+
+        return recorder.log.toString();
+    }
+
+    /**
+     * Test of parseStream method, of class HtmlParser.
+     * @throws IOException
+     */
+    @Test
+    public void testParseStream() throws IOException{
+        System.out.println("parseStream");
+
+        byte[] bytes = TestPages.buildPage(2000).getBytes(SJIS);
+        String expected = parseAutomatic(bytes);
+        assertTrue(expected.contains("talkText 発言1999"));
+        assertFalse(expected.contains("error"));
+
+        assertEquals(expected, parseStream(bytes, 7));
+        assertEquals(expected, parseStream(bytes, 4096));
+        assertEquals(expected, parseStream(bytes, bytes.length));
+
+        Recorder recorder = new Recorder();
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+        try{
+            parser.parseStream(new ByteArrayInputStream(bytes));
+        }catch(HtmlParseException e){
+            fail();
+        }
+        assertEquals(expected, recorder.log.toString());
+
+        return;
+    }
+
+    /**
+     * Test of parseStream method, of class HtmlParser.
+     * @throws IOException
+     */
+    @Test
+    public void testParseStreamEmptyRead() throws IOException{
+        System.out.println("parseStreamEmptyRead");
+
+        byte[] bytes = TestPages.buildPage(200).getBytes(SJIS);
+        String expected = parseAutomatic(bytes);
+
+        assertEquals(expected,
+                     parseStream(new ChunkedChannel(bytes, 100, 3)));
+
+        try{
+            parseStream(new ChunkedChannel(bytes, 100, 5000));
+            fail();
+        }catch(IOException e){
+            assertNotNull(e.getMessage());
+        }
+
+        Pipe pipe = Pipe.open();
+        try{
+            pipe.source().configureBlocking(false);
+            assertThrows(IllegalArgumentException.class, () -> {
+                parseStream(pipe.source());
+            });
+        }finally{
+            pipe.source().close();
+            pipe.sink().close();
+        }
+
+        return;
+    }
+
+    /**
+     * Test of parseStream method, of class HtmlParser.
+     * @throws IOException
+     */
+    @Test
+    public void testParseStreamNoMessage() throws IOException{
+        System.out.println("parseStreamNoMessage");
+
+        byte[] bytes = TestPages.buildPage(0).getBytes(SJIS);
+        String expected = parseAutomatic(bytes);
+        assertFalse(expected.contains("error"));
+
+        assertEquals(expected, parseStream(bytes, 5));
+
+        return;
+    }
+
+    /**
+     * Test of parseStream method, of class HtmlParser.
+     * @throws IOException
+     */
+    @Test
+    public void testParseStreamError() throws IOException{
+        System.out.println("parseStreamError");
+
+        String page = TestPages.buildPage(1000);
+        int[] cuts = {
+            100,
+            page.indexOf("<div class=\"message") + 10,
+            page.length() / 2,
+            page.length() - 30,
+        };
+
+        for(int cut : cuts){
+            byte[] bytes = page.substring(0, cut).getBytes(SJIS);
+            String expected = parseAutomatic(bytes);
+            assertTrue(expected.contains("error"));
+            assertEquals(expected, parseStream(bytes, 11));
+        }
+
+        return;
+    }
+
+    /**
+     * Test of setScanLimit method, of class HtmlParser.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testScanLimit() throws HtmlParseException{
+        System.out.println("setScanLimit");
+
+        HtmlParser parser = new HtmlParser();
+        HtmlAdapter handler = new HtmlAdapter(){};
+        parser.setBasicHandler(handler);
+        parser.setTalkHandler(handler);
+        parser.setSysEventHandler(handler);
+
+        assertEquals(0L, parser.getScanLimit());
+        assertEquals(0L, parser.getTimeLimit());
+
+        String hostile = buildHostilePage(20000);
+        DecodedContent content = new DecodedContent(hostile);
+
+        parser.setScanLimit(100L * hostile.length());
+        assertEquals(100L * hostile.length(), parser.getScanLimit());
+
+        try{
+            parser.parseAutomatic(content);
+            fail();
+        }catch(ParseLimitException e){
+            assertFalse(e.isTimeout());
+            assertTrue(e.getCharPos() >= 0);
+            assertTrue(e.getCharPos() < hostile.length());
+        }
+
+        byte[] bytes = TestPages.buildPage(100).getBytes(SJIS);
+        String expected = parseAutomatic(bytes);
+        assertFalse(expected.contains("error"));
+
+        Recorder recorder = new Recorder();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+        parser.parseAutomatic(new SjisDecoder().decode(bytes));
+        assertEquals(expected, recorder.log.toString());
+
+        parser.setScanLimit(0L);
+        recorder.log.setLength(0);
+        parser.parseAutomatic(new SjisDecoder().decode(bytes));
+        assertEquals(expected, recorder.log.toString());
+
+        return;
+    }
+
+    /**
+     * Test of setTimeLimit method, of class HtmlParser.
+     */
+    @Test
+    public void testTimeLimit(){
+        System.out.println("setTimeLimit");
+
+        HtmlParser parser = new HtmlParser();
+        HtmlAdapter handler = new HtmlAdapter(){};
+        parser.setBasicHandler(handler);
+        parser.setTalkHandler(handler);
+        parser.setSysEventHandler(handler);
+
+        parser.setTimeLimit(50L);
+        assertEquals(50L, parser.getTimeLimit());
+
+        DecodedContent content = new DecodedContent(buildHostilePage(200000));
+
+        try{
+            parser.parseAutomatic(content);
+            fail();
+        }catch(ParseLimitException e){
+            assertTrue(e.isTimeout());
+        }catch(HtmlParseException e){
+            fail();
+        }
+
+        return;
+    }
+
+    /**
+     * Test of setScanLimit method, of class HtmlParser.
+     * @throws IOException
+     */
+    @Test
+    public void testScanLimitStream() throws IOException{
+        System.out.println("setScanLimit(stream)");
+
+        byte[] bytes = TestPages.buildPage(2000).getBytes(SJIS);
+        String expected = parseAutomatic(bytes);
+
+        Recorder recorder = new Recorder();
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+        parser.setScanLimit(100L * bytes.length);
+
+        try{
+            parser.parseStream(new ChunkedChannel(bytes, 4096));
+        }catch(HtmlParseException e){
+            fail();
+        }
+        assertEquals(expected, recorder.log.toString());
+
+        byte[] hostile = buildHostilePage(20000).getBytes(SJIS);
+        parser.setScanLimit(100L * hostile.length);
+
+        try{
+            parser.parseStream(new ChunkedChannel(hostile, 4096));
+            fail();
+        }catch(ParseLimitException e){
+            assertFalse(e.isTimeout());
+            assertTrue(e.getCharPos() < hostile.length);
+        }catch(HtmlParseException e){
+            fail();
+        }
+
+        return;
+    }
+
+    /**
+     * Test of resumeParse method, of class HtmlParser.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testResumeParse() throws HtmlParseException{
+        System.out.println("resumeParse");
+
+        Recorder recorder = new Recorder();
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+
+        assertNull(parser.getCheckpoint());
+
+        parser.parseAutomatic(new DecodedContent(TestPages.buildPage(100)));
+        ParseCheckpoint checkpoint = parser.getCheckpoint();
+        assertNotNull(checkpoint);
+        assertEquals(-1, checkpoint.getTalkNo());
+        String page100 = TestPages.buildPage(100);
+        assertEquals(page100.lastIndexOf("</div>\n</div>\n</body>") + 6,
+                     checkpoint.getCharPos());
+
+        recorder.log.setLength(0);
+        DecodedContent grown = new DecodedContent(TestPages.buildPage(130));
+        assertTrue(checkpoint.isResumable(grown));
+        assertTrue(parser.resumeParse(grown, checkpoint));
+
+        String log = recorder.log.toString();
+        assertFalse(log.contains("pageType"));
+        assertFalse(log.contains("talkText 発言99<"));
+        assertTrue(log.startsWith("talkAvatar 楽天家 ゲルト\n"
+                                + "talkType PUBLIC\n"
+                                + "talkText 発言100\n"));
+        assertTrue(log.endsWith("talkText 発言129\n"
+                              + "talkBreak\n"
+                              + "talkText おわり\n"
+                              + "endTalk\n"
+                              + "endParse\n"));
+        assertEquals(30, log.split("endTalk", -1).length - 1);
+
+        ParseCheckpoint next = parser.getCheckpoint();
+        assertNotNull(next);
+        assertTrue(next.getCharPos() > checkpoint.getCharPos());
+
+        recorder.log.setLength(0);
+        assertTrue(parser.resumeParse(grown, next));
+        assertEquals("endParse\n", recorder.log.toString());
+
+        return;
+    }
+
+    /**
+     * Test of resumeParse method, of class HtmlParser.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testResumeParseMismatch() throws HtmlParseException{
+        System.out.println("resumeParseMismatch");
+
+        Recorder recorder = new Recorder();
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+
+        parser.parseAutomatic(new DecodedContent(TestPages.buildPage(10)));
+        ParseCheckpoint checkpoint = parser.getCheckpoint();
+
+        String changed = TestPages.buildPage(12).replace("テスト村", "別の村");
+        DecodedContent content = new DecodedContent(changed);
+        assertFalse(checkpoint.isResumable(content));
+
+        recorder.log.setLength(0);
+        assertFalse(parser.resumeParse(content, checkpoint));
+        String log = recorder.log.toString();
+        assertTrue(log.startsWith("villageName F1 別の村\n"
+                                + "pageType PERIOD_PAGE\n") ||
+                   log.startsWith("pageType PERIOD_PAGE\n"
+                                + "villageName F1 別の村\n"));
+        assertEquals(12, log.split("endTalk", -1).length - 1);
+
+        assertFalse(checkpoint.isResumable(new DecodedContent("<html>")));
+
+        parser.parseAutomatic(new DecodedContent(TestPages.buildPage(0)));
+        assertNull(parser.getCheckpoint());
+
+        return;
+    }
+
+    /**
+     * Test of scanHead method, of class HtmlParser.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testScanHead() throws HtmlParseException{
+        System.out.println("scanHead");
+
+        String page = TestPages.buildPage(500);
+        String full = parseAutomatic(page.getBytes(SJIS));
+        String expected =
+                full.substring(0, full.indexOf("talkAvatar")) + "endParse\n";
+        assertEquals("pageType PERIOD_PAGE\n"
+                   + "villageName F1 テスト村\n"
+                   + "commitTime 7/12 2:0\n"
+                   + "periodLink PROGRESS 1\n"
+                   + "endParse\n",
+                     expected);
+
+        Recorder recorder = new Recorder();
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+
+        parser.scanHead(new DecodedContent(page));
+        assertEquals(expected, recorder.log.toString());
+        assertNull(parser.getCheckpoint());
+
+        int headEnd = page.indexOf("</p>") + 4;
+        byte[] prefix = page.substring(0, headEnd).getBytes(SJIS);
+        recorder.log.setLength(0);
+        parser.scanHead(new SjisDecoder().decode(prefix));
+        assertEquals(expected, recorder.log.toString());
+
+        recorder.log.setLength(0);
+        parser.scanHead(new DecodedContent(page.substring(0, 2000)));
+        assertEquals(expected, recorder.log.toString());
+
+        try{
+            parser.scanHead(new DecodedContent(page.substring(0, 100)));
+            fail();
+        }catch(HtmlParseException e){
+            assertTrue(e.getCharPos() >= 0);
+        }
+
+        recorder.log.setLength(0);
+        parser.parseAutomatic(new DecodedContent(page));
+        assertEquals(full, recorder.log.toString());
+        assertNotNull(parser.getCheckpoint());
+
+        return;
+    }
+
+    /**
+     * Test of setInterest method, of class HtmlParser.
+     * @throws IOException
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testSetInterest() throws IOException, HtmlParseException{
+        System.out.println("setInterest");
+
+        String page = TestPages.buildPage(50,
+                "今日は犠牲者がいないようだ。人狼は襲撃に失敗したのだろうか。");
+        byte[] bytes = page.getBytes(SJIS);
+
+        String full = parseAutomatic(bytes);
+        assertTrue(full.contains("talkText 発言49"));
+
+        int[] sysEvents = new int[1];
+        Recorder recorder = new Recorder(){
+            @Override
+            public void sysEventType(SysEventType type){
+                sysEvents[0]++;
+            }
+        };
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+
+        assertEquals(EnumSet.allOf(MessageKind.class), parser.getInterest());
+
+        parser.parseAutomatic(new SjisDecoder().decode(bytes));
+        assertEquals(full, recorder.log.toString());
+        assertEquals(1, sysEvents[0]);
+        ParseCheckpoint expected = parser.getCheckpoint();
+
+        parser.setInterest(EnumSet.of(MessageKind.TALK));
+        assertEquals(EnumSet.of(MessageKind.TALK), parser.getInterest());
+        recorder.log.setLength(0);
+        sysEvents[0] = 0;
+        parser.parseAutomatic(new SjisDecoder().decode(bytes));
+        assertEquals(full, recorder.log.toString());
+        assertEquals(0, sysEvents[0]);
+
+        parser.setInterest(EnumSet.of(MessageKind.ANNOUNCE));
+        recorder.log.setLength(0);
+        parser.parseAutomatic(new SjisDecoder().decode(bytes));
+        String log = recorder.log.toString();
+        assertFalse(log.contains("talk"));
+        assertTrue(log.startsWith("pageType PERIOD_PAGE\n"));
+        assertTrue(log.endsWith("endParse\n"));
+        assertEquals(1, sysEvents[0]);
+        ParseCheckpoint skipped = parser.getCheckpoint();
+        assertEquals(expected.getCharPos(), skipped.getCharPos());
+        assertEquals(expected.getTalkNo(), skipped.getTalkNo());
+
+        recorder.log.setLength(0);
+        sysEvents[0] = 0;
+        parser.parseStream(new ChunkedChannel(bytes, 97));
+        assertEquals(log, recorder.log.toString());
+        assertEquals(1, sysEvents[0]);
+
+        parser.setInterest(EnumSet.noneOf(MessageKind.class));
+        recorder.log.setLength(0);
+        String broken = page.substring(0, page.lastIndexOf("</table>"));
+        try{
+            parser.parseAutomatic(new DecodedContent(broken));
+            fail();
+        }catch(HtmlParseException e){
+            assertTrue(e.getCharPos() > 0);
+        }
+
+        return;
+    }
+
+
+    /**
+     * 少しずつ読み込まれるチャネル。
+     */
+    private static class ChunkedChannel implements ReadableByteChannel{
+
+        private final byte[] bytes;
+        private final int chunk;
+        private final int emptyReads;
+        private int pos;
+        private int emptyCount;
+
+        ChunkedChannel(byte[] bytes, int chunk){
+            this(bytes, chunk, 0);
+        }
+
+        /**
+         * 各チャンクの前に空の読み込みを挟むチャネル。
+         */
+        ChunkedChannel(byte[] bytes, int chunk, int emptyReads){
+            super();
+            this.bytes = bytes;
+            this.chunk = chunk;
+            this.emptyReads = emptyReads;
+        }
+
+        @Override
+        public int read(ByteBuffer dst){
+            int rest = this.bytes.length - this.pos;
+            if(rest <= 0) return -1;
+            if(this.emptyCount < this.emptyReads){
+                this.emptyCount++;
+                return 0;
+            }
+            this.emptyCount = 0;
+            int length = Math.min(rest, Math.min(this.chunk, dst.remaining()));
+            dst.put(this.bytes, this.pos, length);
+            this.pos += length;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen(){
+            return true;
+        }
+
+        @Override
+        public void close(){
+        }
+
+    }
+
+    /**
+     * 通知内容を記録する。
+     */
+    private static class Recorder extends HtmlAdapter{
+
+        final StringBuilder log = new StringBuilder();
+
+        Recorder(){
+            super();
+        }
+
+        @Override
+        public void pageType(PageType type){
+            this.log.append("pageType ").append(type).append('\n');
+        }
+
+        @Override
+        public void villageName(DecodedContent content, SeqRange range){
+            this.log.append("villageName ")
+                    .append(range.sliceSequence(content)).append('\n');
+        }
+
+        @Override
+        public void commitTime(int month, int day, int hour, int minute){
+            this.log.append("commitTime ")
+                    .append(month).append('/').append(day).append(' ')
+                    .append(hour).append(':').append(minute).append('\n');
+        }
+
+        @Override
+        public void periodLink(DecodedContent content, SeqRange range,
+                               PeriodType type, int day){
+            this.log.append("periodLink ")
+                    .append(type).append(' ').append(day).append('\n');
+        }
+
+        @Override
+        public void talkAvatar(DecodedContent content, SeqRange range){
+            this.log.append("talkAvatar ")
+                    .append(range.sliceSequence(content)).append('\n');
+        }
+
+        @Override
+        public void talkType(TalkType type){
+            this.log.append("talkType ").append(type).append('\n');
+        }
+
+        @Override
+        public void talkText(DecodedContent content, SeqRange range){
+            this.log.append("talkText ")
+                    .append(range.sliceSequence(content)).append('\n');
+        }
+
+        @Override
+        public void talkBreak(){
+            this.log.append("talkBreak\n");
+        }
+
+        @Override
+        public void endTalk(){
+            this.log.append("endTalk\n");
+        }
+
+        @Override
+        public void endParse(){
+            this.log.append("endParse\n");
+        }
+
+    }
+
+}
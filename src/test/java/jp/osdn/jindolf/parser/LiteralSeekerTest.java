@@ -0,0 +1,142 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class LiteralSeekerTest {
+
+    public LiteralSeekerTest() {
+    }
+
+    /**
+     * Test of toLiteral method, of class LiteralSeeker.
+     */
+    @Test
+    public void testToLiteral(){
+        System.out.println("toLiteral");
+
+        assertEquals("<body>", LiteralSeeker.toLiteral("<body>"));
+        assertEquals("<div class=\"main\">",
+                LiteralSeeker.toLiteral("<div class=\"main\">"));
+        assertEquals("<?xml ", LiteralSeeker.toLiteral("<\\?xml "));
+        assertEquals("\\", LiteralSeeker.toLiteral("\\\\"));
+        assertEquals("……。", LiteralSeeker.toLiteral("……。"));
+
+        assertNull(LiteralSeeker.toLiteral(""));
+        assertNull(LiteralSeeker.toLiteral("a*"));
+        assertNull(LiteralSeeker.toLiteral("(a)"));
+        assertNull(LiteralSeeker.toLiteral("a|b"));
+        assertNull(LiteralSeeker.toLiteral("[ab]"));
+        assertNull(LiteralSeeker.toLiteral("a."));
+        assertNull(LiteralSeeker.toLiteral("\\d"));
+        assertNull(LiteralSeeker.toLiteral("\\u0020"));
+        assertNull(LiteralSeeker.toLiteral("a\\"));
+
+        return;
+    }
+
+    /**
+     * Test of getSeeker method, of class LiteralSeeker.
+     */
+    @Test
+    public void testGetSeeker(){
+        System.out.println("getSeeker");
+
+        Pattern pattern;
+        LiteralSeeker seeker;
+
+        pattern = AbstractParser.compile("</div>");
+        seeker = LiteralSeeker.getSeeker(pattern);
+        assertNotNull(seeker);
+        assertEquals("</div>", seeker.getLiteral());
+        assertEquals(6, seeker.length());
+
+        pattern = AbstractParser.compile("</div>[0-9]");
+        assertNull(LiteralSeeker.getSeeker(pattern));
+
+        pattern = Pattern.compile("</div>");
+        assertNull(LiteralSeeker.getSeeker(pattern));
+
+        return;
+    }
+
+    /**
+     * Test of indexOf method, of class LiteralSeeker.
+     */
+    @Test
+    public void testIndexOf(){
+        System.out.println("indexOf");
+
+        LiteralSeeker seeker = new LiteralSeeker("</body>");
+
+        String text = "<body>abc</body></html>";
+        assertEquals(9, seeker.indexOf(text, 0, text.length()));
+        assertEquals(9, seeker.indexOf(text, 9, text.length()));
+        assertEquals(-1, seeker.indexOf(text, 10, text.length()));
+        assertEquals(9, seeker.indexOf(text, 0, 16));
+        assertEquals(-1, seeker.indexOf(text, 0, 15));
+        assertEquals(-1, seeker.indexOf("", 0, 0));
+
+        seeker = new LiteralSeeker("aab");
+        assertEquals(3, seeker.indexOf("aaaaab", 0, 6));
+        assertEquals(-1, seeker.indexOf("aaaaaa", 0, 6));
+
+        seeker = new LiteralSeeker("x");
+        assertEquals(0, seeker.indexOf("xyx", 0, 3));
+        assertEquals(2, seeker.indexOf("xyx", 1, 3));
+
+        // 下位8bitが同じ文字
+        seeker = new LiteralSeeker("Łb");
+        assertEquals(3, seeker.indexOf("AbŁŁb", 0, 5));
+
+        String longText;
+        StringBuilder buf = new StringBuilder();
+        for(int ct = 0; ct < 1000; ct++){
+            buf.append("<div>abc</dix>");
+        }
+        buf.append("</div>");
+        longText = buf.toString();
+        seeker = new LiteralSeeker("</div>");
+        assertEquals(longText.indexOf("</div>"),
+                     seeker.indexOf(longText, 0, longText.length()));
+
+        return;
+    }
+
+    /**
+     * Test of startsWith method, of class LiteralSeeker.
+     */
+    @Test
+    public void testStartsWith(){
+        System.out.println("startsWith");
+
+        LiteralSeeker seeker = new LiteralSeeker("<p>");
+
+        assertTrue(seeker.startsWith("<p>", 0, 3));
+        assertTrue(seeker.startsWith("x<p>", 1, 4));
+        assertFalse(seeker.startsWith("x<p>", 0, 4));
+        assertFalse(seeker.startsWith("<p>", 0, 2));
+        assertFalse(seeker.startsWith("<P>", 0, 3));
+        assertFalse(seeker.startsWith("", 0, 0));
+
+        assertTrue(LiteralSeeker.startsWith("x<br />", 1, 7, "<br />"));
+        assertFalse(LiteralSeeker.startsWith("x<br />", 1, 6, "<br />"));
+        assertFalse(LiteralSeeker.startsWith("x<br>", 1, 5, "<br />"));
+        assertFalse(LiteralSeeker.startsWith("x<BR />", 1, 7, "<br />"));
+        assertTrue(LiteralSeeker.startsWith("", 0, 0, ""));
+
+        return;
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class ParseCheckpointTest {
+
+    public ParseCheckpointTest() {
+    }
+
+    /**
+     * Test of isResumable method, of class ParseCheckpoint.
+     */
+    @Test
+    public void testIsResumable(){
+        System.out.println("isResumable");
+
+        String head = "<head>";
+        String doc = head + "<p>1</p><p>Aa</p>";
+        int blockStart = doc.lastIndexOf("<p>");
+        ParseCheckpoint checkpoint =
+                new ParseCheckpoint(doc,
+                                    head.length(),
+                                    blockStart, doc.length(),
+                                    -1 );
+
+        assertEquals(doc.length(), checkpoint.getCharPos());
+        assertEquals(-1, checkpoint.getTalkNo());
+
+        assertTrue(checkpoint.isResumable(doc));
+        assertTrue(checkpoint.isResumable(doc + "<p>2</p>"));
+        assertFalse(checkpoint.isResumable(doc.substring(1)));
+        assertFalse(checkpoint.isResumable("<HEAD>" + "<p>1</p><p>Aa</p>"));
+        assertFalse(checkpoint.isResumable(head + "<p>1</p><p>Ab</p>"));
+
+        return;
+    }
+
+    /**
+     * Test of isResumable method with hash collision,
+     * of class ParseCheckpoint.
+     */
+    @Test
+    public void testIsResumableCollision(){
+        System.out.println("isResumableCollision");
+
+        // "Aa"と"BB"は同じハッシュ値を持つ
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        String doc = "Aa" + "<p>Aa</p>";
+        ParseCheckpoint checkpoint =
+                new ParseCheckpoint(doc, 2, 2, doc.length(), 1);
+
+        assertTrue(checkpoint.isResumable(doc));
+        assertFalse(checkpoint.isResumable("Aa" + "<p>BB</p>"));
+        assertFalse(checkpoint.isResumable("BB" + "<p>Aa</p>"));
+
+        return;
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.regex.Pattern;
+import jp.osdn.jindolf.parser.ParseMetrics.Phase;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class ParseMetricsTest {
+
+    private static final Charset SJIS = Charset.forName("Shift_JIS");
+
+    private static final String NOMURDER =
+            "今日は犠牲者がいないようだ。人狼は襲撃に失敗したのだろうか。";
+    private static final String OPENROLE =
+            "どうやらこの中には、村人が8名、人狼が3名いるようだ。";
+
+    public ParseMetricsTest() {
+    }
+
+    private static String buildPage(int talks){
+        return TestPages.buildPage(talks, NOMURDER, OPENROLE);
+    }
+
+    private static HtmlParser buildParser(){
+        HtmlAdapter handler = new HtmlAdapter(){};
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(handler);
+        parser.setTalkHandler(handler);
+        parser.setSysEventHandler(handler);
+        return parser;
+    }
+
+    private static Pattern findPattern(ParseMetrics metrics, String regex){
+        for(Pattern pattern : metrics.getPatterns()){
+            if(pattern.pattern().equals(regex)) return pattern;
+        }
+        return null;
+    }
+
+    /**
+     * Test of parseAutomatic method, of class HtmlParser.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testParseAutomatic() throws HtmlParseException{
+        System.out.println("parseAutomatic");
+
+        String page = buildPage(10);
+        ParseMetrics metrics = new ParseMetrics();
+        HtmlParser parser = buildParser();
+        parser.setMetrics(metrics);
+        assertSame(metrics, parser.getMetrics());
+
+        parser.parseAutomatic(new DecodedContent(page));
+
+        assertEquals(1L, metrics.getDocuments());
+        assertEquals(page.length(), metrics.getChars());
+
+        assertEquals(2L, metrics.getMessages(MessageKind.ANNOUNCE));
+        assertEquals(0L, metrics.getMessages(MessageKind.ORDER));
+        assertEquals(0L, metrics.getMessages(MessageKind.EXTRA));
+        assertEquals(10L, metrics.getMessages(MessageKind.TALK));
+
+        assertEquals(1L, metrics.getPhaseCount(Phase.HEAD));
+        assertEquals(1L, metrics.getPhaseCount(Phase.MESSAGE));
+        assertEquals(10L, metrics.getPhaseCount(Phase.TALK));
+        assertEquals(2L, metrics.getPhaseCount(Phase.ANNOUNCE));
+        assertTrue(metrics.getPhaseNanos(Phase.MESSAGE)
+                >= metrics.getPhaseNanos(Phase.TALK));
+
+        assertEquals(1L, metrics.getSimpleAnnounceMisses());
+
+        Pattern nomurder = findPattern(metrics, NOMURDER);
+        assertNotNull(nomurder);
+        assertEquals(1L, metrics.getMatchAttempts(nomurder));
+        assertEquals(0L, metrics.getMatchFailures(nomurder));
+
+        parser.parseAutomatic(new DecodedContent(page));
+        assertEquals(2L, metrics.getDocuments());
+        assertEquals(page.length() * 2L, metrics.getChars());
+        assertEquals(20L, metrics.getMessages(MessageKind.TALK));
+        assertEquals(2L, metrics.getMatchAttempts(nomurder));
+
+        return;
+    }
+
+    /**
+     * Test of parseStream method, of class HtmlParser.
+     * @throws IOException
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testParseStream() throws IOException, HtmlParseException{
+        System.out.println("parseStream");
+
+        String page = buildPage(300);
+        byte[] bytes = page.getBytes(SJIS);
+        ParseMetrics metrics = new ParseMetrics();
+        HtmlParser parser = buildParser();
+        parser.setMetrics(metrics);
+
+        parser.parseStream(new ByteArrayInputStream(bytes));
+
+        assertEquals(1L, metrics.getDocuments());
+        assertEquals(page.length(), metrics.getChars());
+        assertEquals(300L, metrics.getMessages(MessageKind.TALK));
+        assertEquals(1L, metrics.getPhaseCount(Phase.MESSAGE));
+
+        return;
+    }
+
+    /**
+     * Test of resumeParse method, of class HtmlParser.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testResumeParse() throws HtmlParseException{
+        System.out.println("resumeParse");
+
+        ParseMetrics metrics = new ParseMetrics();
+        HtmlParser parser = buildParser();
+        parser.parseAutomatic(new DecodedContent(buildPage(10)));
+        ParseCheckpoint checkpoint = parser.getCheckpoint();
+
+        parser.setMetrics(metrics);
+        String grown = buildPage(15);
+        assertTrue(parser.resumeParse(new DecodedContent(grown), checkpoint));
+
+        assertEquals(1L, metrics.getDocuments());
+        assertEquals(grown.length() - checkpoint.getCharPos(),
+                     metrics.getChars());
+        assertEquals(5L, metrics.getMessages(MessageKind.TALK));
+        assertEquals(0L, metrics.getMessages(MessageKind.ANNOUNCE));
+        assertEquals(0L, metrics.getPhaseCount(Phase.HEAD));
+        assertEquals(1L, metrics.getPhaseCount(Phase.MESSAGE));
+
+        return;
+    }
+
+    /**
+     * Test of setMetrics method, of class AbstractParser.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testDisabled() throws HtmlParseException{
+        System.out.println("disabled");
+
+        ParseMetrics metrics = new ParseMetrics();
+        HtmlParser parser = buildParser();
+        assertNull(parser.getMetrics());
+
+        parser.setMetrics(metrics);
+        parser.setMetrics(null);
+        assertNull(parser.getMetrics());
+
+        parser.parseAutomatic(new DecodedContent(buildPage(3)));
+
+        assertEquals(0L, metrics.getDocuments());
+        assertEquals(0L, metrics.getMessages(MessageKind.TALK));
+        assertEquals(0L, metrics.getPhaseCount(Phase.HEAD));
+        assertTrue(metrics.getPatterns().isEmpty());
+
+        return;
+    }
+
+    /**
+     * Test of reset method, of class ParseMetrics.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testReset() throws HtmlParseException{
+        System.out.println("reset");
+
+        ParseMetrics metrics = new ParseMetrics();
+        HtmlParser parser = buildParser();
+        parser.setMetrics(metrics);
+        parser.parseAutomatic(new DecodedContent(buildPage(3)));
+
+        Pattern nomurder = findPattern(metrics, NOMURDER);
+        assertNotNull(nomurder);
+
+        metrics.reset();
+
+        assertEquals(0L, metrics.getDocuments());
+        assertEquals(0L, metrics.getChars());
+        for(MessageKind kind : MessageKind.values()){
+            assertEquals(0L, metrics.getMessages(kind));
+        }
+        for(Phase phase : Phase.values()){
+            assertEquals(0L, metrics.getPhaseCount(phase));
+            assertEquals(0L, metrics.getPhaseNanos(phase));
+        }
+        assertEquals(0L, metrics.getSimpleAnnounceMisses());
+        assertTrue(metrics.getPatterns().isEmpty());
+        assertEquals(0L, metrics.getMatchAttempts(nomurder));
+        assertEquals(0L, metrics.getMatchFailures(nomurder));
+
+        return;
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class SeqRangeTest {
+
+    public SeqRangeTest() {
+    }
+
+    /**
+     * Test of contentHashCode method, of class SeqRange.
+     */
+    @Test
+    public void testContentHashCode() {
+        System.out.println("contentHashCode");
+
+        DecodedContent content = new DecodedContent("[ゲルト]ABC");
+
+        SeqRange range = new SeqRange(1, 4);
+        assertEquals("ゲルト".hashCode(), range.contentHashCode(content));
+
+        range.setRange(5, 5);
+        assertEquals("".hashCode(), range.contentHashCode(content));
+
+        range.setRange(0, content.length());
+        assertEquals(content.toString().hashCode(),
+                     range.contentHashCode(content));
+
+        SeqRange invalid = new SeqRange();
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            invalid.contentHashCode(content);
+        });
+
+        SeqRange over = new SeqRange(5, 9);
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            over.contentHashCode(content);
+        });
+
+        return;
+    }
+
+    /**
+     * Test of contentEquals method, of class SeqRange.
+     */
+    @Test
+    public void testContentEquals() {
+        System.out.println("contentEquals");
+
+        DecodedContent content = new DecodedContent("ゲルト/ゲルト/ゲルダ");
+
+        SeqRange range1 = new SeqRange(0, 3);
+        SeqRange range2 = new SeqRange(4, 7);
+        SeqRange range3 = new SeqRange(8, 11);
+        SeqRange range4 = new SeqRange(8, 10);
+
+        assertTrue(range1.contentEquals(content, "ゲルト"));
+        assertTrue(range1.contentEquals(content, new StringBuilder("ゲルト")));
+        assertFalse(range1.contentEquals(content, "ゲル"));
+        assertFalse(range1.contentEquals(content, "ゲルトA"));
+        assertFalse(range3.contentEquals(content, "ゲルト"));
+
+        assertTrue(range1.contentEquals(content, range1));
+        assertTrue(range1.contentEquals(content, range2));
+        assertFalse(range1.contentEquals(content, range3));
+        assertFalse(range1.contentEquals(content, range4));
+
+        SeqRange empty1 = new SeqRange(3, 3);
+        SeqRange empty2 = new SeqRange(5, 5);
+        assertTrue(empty1.contentEquals(content, ""));
+        assertTrue(empty1.contentEquals(content, empty2));
+
+        SeqRange invalid = new SeqRange();
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            invalid.contentEquals(content, "");
+        });
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            range1.contentEquals(content, invalid);
+        });
+
+        return;
+    }
+
+    /**
+     * Test of compareContent method, of class SeqRange.
+     */
+    @Test
+    public void testCompareContent() {
+        System.out.println("compareContent");
+
+        DecodedContent content = new DecodedContent("xabcx");
+        SeqRange range = new SeqRange(1, 4);
+
+        String[] others = {"abc", "abd", "abb", "ab", "abcd", "", "b", "a"};
+        for(String other : others){
+            int expected = Integer.signum("abc".compareTo(other));
+            int result = Integer.signum(range.compareContent(content, other));
+            assertEquals(expected, result, other);
+        }
+
+        SeqRange empty = new SeqRange(2, 2);
+        assertEquals(0, empty.compareContent(content, ""));
+        assertTrue(empty.compareContent(content, "a") < 0);
+
+        SeqRange invalid = new SeqRange(3, 2);
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            invalid.compareContent(content, "");
+        });
+
+        return;
+    }
+
+    /**
+     * Test of regionMatches method, of class SeqRange.
+     */
+    @Test
+    public void testRegionMatches() {
+        System.out.println("regionMatches");
+
+        DecodedContent content = new DecodedContent("xxabcdexx");
+        SeqRange range = new SeqRange(2, 7);
+
+        assertTrue(range.regionMatches(content, 0, "abc", 0, 3));
+        assertTrue(range.regionMatches(content, 2, "zcde", 1, 3));
+        assertTrue(range.regionMatches(content, 0, "abcde", 0, 5));
+        assertTrue(range.regionMatches(content, 5, "", 0, 0));
+        assertFalse(range.regionMatches(content, 0, "abd", 0, 3));
+
+        // 範囲外へはみ出す比較はしない
+        assertFalse(range.regionMatches(content, 3, "dex", 0, 3));
+        assertFalse(range.regionMatches(content, -1, "xab", 0, 3));
+        assertFalse(range.regionMatches(content, 0, "ab", 0, 3));
+        assertFalse(range.regionMatches(content, 0, "abc", -1, 3));
+
+        SeqRange invalid = new SeqRange();
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            invalid.regionMatches(content, 0, "", 0, 0);
+        });
+
+        return;
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class StringInternerTest {
+
+    public StringInternerTest() {
+    }
+
+    /**
+     * Test of constructor, of class StringInterner.
+     */
+    @Test
+    public void testConstructor() {
+        System.out.println("constructor");
+
+        StringInterner interner;
+
+        interner = new StringInterner();
+        assertEquals(StringInterner.DEFAULT_CAPACITY, interner.getCapacity());
+        assertEquals(StringInterner.DEFAULT_MAX_LENGTH,
+                     interner.getMaxLength());
+
+        interner = new StringInterner(2, 0);
+        assertEquals(2, interner.getCapacity());
+
+        interner = new StringInterner(100, 10);
+        assertEquals(128, interner.getCapacity());
+        assertEquals(10, interner.getMaxLength());
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            new StringInterner(1, 10);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new StringInterner(Integer.MAX_VALUE, 10);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new StringInterner(16, -1);
+        });
+
+        return;
+    }
+
+    /**
+     * Test of intern method, of class StringInterner.
+     */
+    @Test
+    public void testIntern() {
+        System.out.println("intern");
+
+        DecodedContent content =
+                new DecodedContent("ゲルト/ゲルト/ヨアヒム/ゲルト/");
+        SeqRange range1 = new SeqRange(0, 3);
+        SeqRange range2 = new SeqRange(4, 7);
+        SeqRange range3 = new SeqRange(8, 12);
+        SeqRange range4 = new SeqRange(13, 16);
+
+        StringInterner interner = new StringInterner();
+
+        String name1 = interner.intern(content, range1);
+        assertEquals("ゲルト", name1);
+
+        assertSame(name1, interner.intern(content, range2));
+        assertSame(name1, interner.intern(content, range4));
+
+        String name3 = interner.intern(content, range3);
+        assertEquals("ヨアヒム", name3);
+        assertSame(name3, interner.intern(content, range3));
+
+        assertSame(name1, interner.intern(new StringBuilder("ゲルト"),
+                                          new SeqRange(0, 3)));
+
+        assertEquals("", interner.intern(content, new SeqRange(3, 3)));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            interner.intern(content, new SeqRange());
+        });
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            interner.intern(content, new SeqRange(10, 100));
+        });
+
+        interner.clear();
+        String again = interner.intern(content, range2);
+        assertEquals("ゲルト", again);
+        assertNotSame(name1, again);
+
+        return;
+    }
+
+    /**
+     * Test of intern method, of class StringInterner.
+     */
+    @Test
+    public void testMaxLength() {
+        System.out.println("maxLength");
+
+        DecodedContent content = new DecodedContent("abcdef");
+        SeqRange shortRange = new SeqRange(0, 3);
+        SeqRange longRange = new SeqRange(0, 4);
+
+        StringInterner interner = new StringInterner(16, 3);
+
+        String short1 = interner.intern(content, shortRange);
+        assertSame(short1, interner.intern(content, shortRange));
+
+        String long1 = interner.intern(content, longRange);
+        String long2 = interner.intern(content, longRange);
+        assertEquals("abcd", long1);
+        assertEquals("abcd", long2);
+        assertNotSame(long1, long2);
+
+        return;
+    }
+
+    /**
+     * Test of intern method, of class StringInterner.
+     */
+    @Test
+    public void testEviction() {
+        System.out.println("eviction");
+
+        StringBuilder text = new StringBuilder();
+        for(int idx = 0; idx < 100; idx++){
+            text.append((char)('0' + idx));
+        }
+
+        StringInterner interner = new StringInterner(2, 10);
+
+        List<String> firsts = new ArrayList<>();
+        for(int idx = 0; idx < 100; idx++){
+            SeqRange range = new SeqRange(idx, idx + 1);
+            firsts.add(interner.intern(text, range));
+        }
+
+        int hits = 0;
+        for(int idx = 0; idx < 100; idx++){
+            SeqRange range = new SeqRange(idx, idx + 1);
+            String result = interner.intern(text, range);
+            assertEquals(firsts.get(idx), result);
+            if(result == firsts.get(idx)) hits++;
+        }
+        assertTrue(hits <= 2);
+
+        return;
+    }
+
+    /**
+     * Test of intern method, of class StringInterner.
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrent() throws Exception {
+        System.out.println("concurrent");
+
+        StringBuilder text = new StringBuilder();
+        for(int idx = 0; idx < 50; idx++){
+            text.append("name").append(idx % 10).append('/');
+        }
+        DecodedContent content = new DecodedContent(text);
+
+        StringInterner interner = new StringInterner(8, 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try{
+            List<Future<?>> futures = new ArrayList<>();
+            for(int task = 0; task < 4; task++){
+                futures.add(executor.submit(() -> {
+                    for(int round = 0; round < 1000; round++){
+                        for(int idx = 0; idx < 50; idx++){
+                            SeqRange range =
+                                    new SeqRange(idx * 6, idx * 6 + 5);
+                            String name = interner.intern(content, range);
+                            assertEquals("name" + (idx % 10), name);
+                        }
+                    }
+                }));
+            }
+            for(Future<?> future : futures){
+                future.get();
+            }
+        }finally{
+            executor.shutdown();
+        }
+
+        return;
+    }
+
+}
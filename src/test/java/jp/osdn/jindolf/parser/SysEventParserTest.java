@@ -0,0 +1,121 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.sourceforge.jindolf.corelib.SysEventType;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class SysEventParserTest {
+
+    public SysEventParserTest() {
+    }
+
+    private static List<SysEventType> parseAnnounce(String... texts)
+            throws HtmlParseException{
+        DecodedContent content =
+                new DecodedContent(TestPages.buildPage(0, texts));
+
+        List<SysEventType> result = new ArrayList<>();
+        HtmlAdapter handler = new HtmlAdapter(){
+            @Override
+            public void sysEventType(SysEventType type){
+                result.add(type);
+            }
+        };
+
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(handler);
+        parser.setTalkHandler(handler);
+        parser.setSysEventHandler(handler);
+
+        parser.parseAutomatic(content);
+
+        return result;
+    }
+
+    /**
+     * Test of parseAnnounce method, of class SysEventParser.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testSimpleAnnounce() throws HtmlParseException{
+        System.out.println("simpleAnnounce");
+
+        List<SysEventType> types = parseAnnounce(
+              "昼間は人間のふりをして、夜に正体を現すという人狼。<br />"
+            + "その人狼が、"
+            + "この村に紛れ込んでいるという噂が広がった。<br /><br />"
+            + "村人達は半信半疑ながらも、"
+            + "村はずれの宿に集められることになった。<br />",
+              "さあ、自らの姿を鏡に映してみよう。<br />"
+            + "そこに映るのはただの村人か、"
+            + "それとも血に飢えた人狼か。<br /><br />"
+            + "例え人狼でも、多人数で立ち向かえば怖くはない。<br />"
+            + "問題は、だれが人狼なのかという事だ。<br />"
+            + "占い師の能力を持つ人間ならば、それを見破れるだろう。",
+              "ついに犠牲者が出た。人狼はこの村人達のなかにいる。<br />"
+            + "しかし、それを見分ける手段はない。<br /><br />"
+            + "村人達は、疑わしい者を排除するため、"
+            + "投票を行う事にした。<br />"
+            + "無実の犠牲者が出るのもやむをえない。"
+            + "村が全滅するよりは……。<br /><br />"
+            + "最後まで残るのは村人か、それとも人狼か。<br />",
+            "今日は犠牲者がいないようだ。人狼は襲撃に失敗したのだろうか。",
+            "全ての人狼を退治した……。人狼に怯える日々は去ったのだ！",
+              "もう人狼に抵抗できるほど村人は残っていない……。<br />"
+            + "人狼は残った村人を全て食らい、"
+            + "別の獲物を求めてこの村を去っていった。",
+              "全ては終わったかのように見えた。<br />"
+            + "だが、奴が生き残っていた……。",
+            "……。",
+            "まだ村人達は揃っていないようだ。<br />",
+            "どうやらこの中には、村人が8名、人狼が3名いるようだ。"
+        );
+
+        SysEventType[] expected = {
+            SysEventType.STARTENTRY,
+            SysEventType.STARTMIRROR,
+            SysEventType.STARTASSAULT,
+            SysEventType.NOMURDER,
+            SysEventType.WINVILLAGE,
+            SysEventType.WINWOLF,
+            SysEventType.WINHAMSTER,
+            SysEventType.PANIC,
+            SysEventType.SHORTMEMBER,
+            SysEventType.OPENROLE,
+        };
+        assertArrayEquals(expected, types.toArray());
+
+        return;
+    }
+
+    /**
+     * Test of parseAnnounce method, of class SysEventParser.
+     */
+    @Test
+    public void testUnknownAnnounce(){
+        System.out.println("unknownAnnounce");
+
+        try{
+            parseAnnounce("全く知らないアナウンス。");
+            fail();
+        }catch(HtmlParseException e){
+            assertNotNull(e.getMessage());
+        }
+
+        return;
+    }
+
+}
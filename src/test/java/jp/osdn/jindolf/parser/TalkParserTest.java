@@ -0,0 +1,169 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class TalkParserTest {
+
+    public TalkParserTest() {
+    }
+
+    private static String parse(String text, boolean regex)
+            throws HtmlParseException{
+        DecodedContent content = new DecodedContent();
+        content.append(TestPages.PAGE_HEAD);
+        content.append(TestPages.talk(1, text));
+        content.append(TestPages.PAGE_TAIL);
+
+        Recorder recorder = new Recorder();
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(recorder);
+        parser.setTalkHandler(recorder);
+        parser.setSysEventHandler(recorder);
+        parser.setRegexTextScan(regex);
+
+        parser.parseAutomatic(content);
+
+        return recorder.log.toString();
+    }
+
+    private static void assertSameResult(String expected, String text)
+            throws HtmlParseException{
+        assertEquals(expected, parse(text, false));
+        assertEquals(expected, parse(text, true));
+        return;
+    }
+
+    private static void assertSameFailure(String text){
+        HtmlParseException scanEx = assertThrows(HtmlParseException.class,
+                () -> parse(text, false) );
+        HtmlParseException regexEx = assertThrows(HtmlParseException.class,
+                () -> parse(text, true) );
+        assertEquals(regexEx.getCharPos(), scanEx.getCharPos());
+        assertEquals(regexEx.getMessage(), scanEx.getMessage());
+        return;
+    }
+
+    /**
+     * Test of setRegexTextScan method, of class TalkParser.
+     */
+    @Test
+    public void testSetRegexTextScan(){
+        System.out.println("setRegexTextScan");
+
+        TalkParser parser = new TalkParser(new HtmlParser());
+        assertFalse(parser.isRegexTextScan());
+
+        parser.setRegexTextScan(true);
+        assertTrue(parser.isRegexTextScan());
+
+        parser.setRegexTextScan(false);
+        assertFalse(parser.isRegexTextScan());
+
+        return;
+    }
+
+    /**
+     * Test of parseTalk method, of class TalkParser.
+     * @throws HtmlParseException
+     */
+    @Test
+    public void testParseText() throws HtmlParseException{
+        System.out.println("parseText");
+
+        assertSameResult("[]", "");
+        assertSameResult("[abc]", "abc");
+        assertSameResult("[abc|B|def]", "abc<br />def");
+        assertSameResult("[B|B|B]", "<br /><br /><br />");
+        assertSameResult("[ a |B| b ]", " a <br /> b ");
+        assertSameResult("[&gt;&gt;1|x]",
+                "<a href=\"#mes1\">&gt;&gt;1</a>x");
+        assertSameResult("[a|b]", "a<a href=\"\"></a>b");
+        assertSameResult("[a|b]", "a<a href=\"<br />\">b");
+        assertSameResult("[a\nb]", "a\nb");
+
+        StringBuilder text = new StringBuilder();
+        StringBuilder expected = new StringBuilder("[");
+        for(int ct = 0; ct < 300; ct++){
+            if(ct > 0){
+                text.append("<br />");
+                expected.append("|B|");
+            }
+            text.append("line").append(ct);
+            expected.append("line").append(ct);
+        }
+        expected.append(']');
+        assertSameResult(expected.toString(), text.toString());
+
+        return;
+    }
+
+    /**
+     * Test of parseTalk method, of class TalkParser.
+     */
+    @Test
+    public void testParseTextFailure(){
+        System.out.println("parseText failure");
+
+        assertSameFailure("a>b");
+        assertSameFailure("a<b>b");
+        assertSameFailure("a<br/>b");
+        assertSameFailure("a<a href=\"x\"b");
+        assertSameFailure("a<a href=\"x");
+        assertSameFailure("a</a");
+
+        return;
+    }
+
+
+    /**
+     * 発言テキストの通知を記録する。
+     */
+    private static class Recorder extends HtmlAdapter{
+
+        private final StringBuilder log = new StringBuilder();
+
+        Recorder(){
+            super();
+        }
+
+        @Override
+        public void startTalk(){
+            this.log.append('[');
+        }
+
+        @Override
+        public void talkText(DecodedContent content, SeqRange textRange){
+            if(this.log.charAt(this.log.length() - 1) != '['){
+                this.log.append('|');
+            }
+            this.log.append(textRange.sliceSequence(content));
+        }
+
+        @Override
+        public void talkBreak(){
+            if(this.log.charAt(this.log.length() - 1) != '['){
+                this.log.append('|');
+            }
+            this.log.append('B');
+        }
+
+        @Override
+        public void endTalk(){
+            this.log.append(']');
+        }
+
+    }
+
+}
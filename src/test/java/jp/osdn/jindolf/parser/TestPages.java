@@ -0,0 +1,112 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+/**
+ * テスト用の人狼BBS(F国)形式Periodページ。
+ */
+final class TestPages {
+
+    /** ログインフォームまでの文書先頭部分。 */
+    static final String DOCUMENT_HEAD =
+              "<?xml version=\"1.0\" encoding=\"Shift_JIS\"?>\n"
+            + "<html xmlns=\"http://www.w3.org/1999/xhtml\">\n"
+            + "<head><title>人狼BBS:F F1 テスト村</title></head>\n"
+            + "<body>\n"
+            + "<div class=\"main\">\n"
+            + "<form action=\"index.rb\" method=\"post\" class=\"login_form\">"
+            + "<input type=\"hidden\" name=\"user_id\" value=\"\" />"
+            + "</form>\n";
+
+    /** Period間リンクまでのページ先頭部分。 */
+    static final String PAGE_HEAD =
+              DOCUMENT_HEAD
+            + "F1 テスト村 <strong>（7/12 午前 2時 0分 に更新）</strong>\n"
+            + "<p><span class=\"time\">1日目</span></p>\n";
+
+    /** ページ末尾部分。 */
+    static final String PAGE_TAIL =
+              "</div>\n"
+            + "</body>\n"
+            + "</html>\n";
+
+    private TestPages() {
+    }
+
+    /**
+     * 発言メッセージ1件を生成する。
+     * @param talkNo アンカー名に付ける番号
+     * @param text 発言テキスト
+     * @return 発言メッセージ
+     */
+    static String talk(int talkNo, String text){
+        StringBuilder block = new StringBuilder();
+
+        block.append("<div class=\"message ch1\">\n");
+        block.append("<a name=\"mes").append(talkNo).append("\" ");
+        block.append("class=\"ch_name\">楽天家 ゲルト</a>\n");
+        block.append("<span class=\"time\">午前 2時 3分 </span>\n");
+        block.append("<table class=\"message_box\">\n");
+        block.append("<tr>\n");
+        block.append("<td width=\"50\"><img src=\"face01.jpg\"></td>\n");
+        block.append("<td width=\"16\"><img src=\"say00.jpg\"></td>\n");
+        block.append("<td>\n");
+        block.append("<div class=\"mes_say_body0\">\n");
+        block.append("<div class=\"mes_say_body1\">");
+        block.append(text);
+        block.append("</div>\n");
+        block.append("</div>\n");
+        block.append("</td>\n");
+        block.append("</tr>\n");
+        block.append("</table>\n");
+        block.append("</div>\n");
+
+        return block.toString();
+    }
+
+    /**
+     * Announceメッセージ1件を生成する。
+     * @param text Announce本文
+     * @return Announceメッセージ
+     */
+    static String announce(String text){
+        StringBuilder block = new StringBuilder();
+
+        block.append("<div class=\"message\">\n");
+        block.append("<div class=\"announce\">\n");
+        block.append(text).append("\n");
+        block.append("</div>\n");
+        block.append("</div>\n");
+
+        return block.toString();
+    }
+
+    /**
+     * Announceメッセージに続けて発言を並べたPeriodページを生成する。
+     * n番目の発言のテキストは「発言n<br />おわり」となる。
+     * @param talks 発言数
+     * @param announces 各Announceメッセージの本文
+     * @return Periodページ
+     */
+    static String buildPage(int talks, String... announces){
+        StringBuilder page = new StringBuilder();
+
+        page.append(PAGE_HEAD);
+
+        for(String text : announces){
+            page.append(announce(text));
+        }
+
+        for(int ct = 0; ct < talks; ct++){
+            page.append(talk(ct, "発言" + ct + "<br />おわり"));
+        }
+
+        page.append(PAGE_TAIL);
+
+        return page.toString();
+    }
+
+}
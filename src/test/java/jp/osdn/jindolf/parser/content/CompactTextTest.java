@@ -0,0 +1,98 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class CompactTextTest {
+
+    public CompactTextTest() {
+    }
+
+    /**
+     * Test of charAt method, of class CompactText.
+     */
+    @Test
+    public void testCharAt() {
+        System.out.println("charAt");
+
+        Random random = new Random(1L);
+        char[] alphabet = {'<', 'a', 'é', 'ÿ', 'Ā', 'あ', '狼'};
+
+        for(int length : new int[]{0, 1, 63, 64, 65, 200, 1000}){
+            StringBuilder text = new StringBuilder();
+            for(int idx = 0; idx < length; idx++){
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+
+            CompactText compact = new CompactText(text);
+            assertEquals(length, compact.length());
+            for(int idx = 0; idx < length; idx++){
+                assertEquals(text.charAt(idx), compact.charAt(idx));
+            }
+            assertEquals(text.toString(), compact.toString());
+
+            assertThrows(IndexOutOfBoundsException.class, () -> {
+                compact.charAt(-1);
+            });
+            assertThrows(IndexOutOfBoundsException.class, () -> {
+                compact.charAt(length);
+            });
+        }
+
+        return;
+    }
+
+    /**
+     * Test of subSequence method, of class CompactText.
+     */
+    @Test
+    public void testSubSequence() {
+        System.out.println("subSequence");
+
+        StringBuilder text = new StringBuilder();
+        for(int idx = 0; idx < 50; idx++){
+            text.append("<td>人狼</td>");
+        }
+        String expected = text.toString();
+        CompactText compact = new CompactText(text);
+
+        for(int start = 0; start < 200; start += 7){
+            for(int end = start; end < 200; end += 13){
+                assertEquals(expected.substring(start, end),
+                             compact.subSequence(start, end).toString());
+            }
+        }
+        assertEquals("", compact.subSequence(550, 550).toString());
+
+        char[] dst = new char[4];
+        compact.getChars(63, 66, dst, 1);
+        assertArrayEquals(
+                new char[]{'\u0000', expected.charAt(63),
+                           expected.charAt(64), expected.charAt(65)},
+                dst);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            compact.subSequence(3, 2);
+        });
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            compact.subSequence(0, 551);
+        });
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            compact.getChars(0, 5, dst, 0);
+        });
+
+        return;
+    }
+
+}
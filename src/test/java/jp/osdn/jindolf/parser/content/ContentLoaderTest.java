@@ -0,0 +1,182 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class ContentLoaderTest {
+
+    public ContentLoaderTest() {
+    }
+
+    /**
+     * Test of constructor, of class ContentLoader.
+     */
+    @Test
+    public void testConstructor() {
+        System.out.println("constructor");
+
+        ContentLoader loader = new ContentLoader();
+        assertEquals(ContentLoader.DEFAULT_MAX_RETAINED,
+                     loader.getMaxRetained());
+        assertEquals(0, loader.getPooledCount());
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            new ContentLoader(0, 100);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new ContentLoader(1, -1);
+        });
+
+        return;
+    }
+
+    /**
+     * Test of load method, of class ContentLoader.
+     * @throws IOException
+     */
+    @Test
+    public void testLoad() throws IOException {
+        System.out.println("load");
+
+        ContentLoader loader = new ContentLoader(2, 1000);
+        byte[] bdata = Bseq.byteArray("41:82A0:ff:8540:42");
+
+        DecodedContent content;
+
+        content = loader.load(bdata);
+        assertEquals("Aあ??B", content.toString());
+        assertEquals(2, content.getDecodeErrorList().size());
+
+        content = loader.load(ByteBuffer.wrap(bdata));
+        assertEquals("Aあ??B", content.toString());
+
+        content = loader.load(new ByteArrayInputStream(bdata));
+        assertEquals("Aあ??B", content.toString());
+        assertEquals(2, content.getDecodeErrorList().size());
+
+        return;
+    }
+
+    /**
+     * Test of release method, of class ContentLoader.
+     * @throws IOException
+     */
+    @Test
+    public void testRelease() throws IOException {
+        System.out.println("release");
+
+        ContentLoader loader = new ContentLoader(2, 1000);
+
+        StringBuilder text = new StringBuilder();
+        for(int ct = 0; ct < 50; ct++){
+            text.append("人狼BBS").append(ct);
+        }
+        byte[] bdata = text.toString().getBytes(ShiftJis.CHARSET);
+
+        DecodedContent content1 = loader.load(bdata);
+        content1.addDecodeError((byte)0xff);
+        int capacity = content1.capacity();
+        loader.release(content1);
+        assertEquals(1, loader.getPooledCount());
+        assertEquals(0, content1.length());
+        assertFalse(content1.hasDecodeError());
+
+        DecodedContent content2 = loader.load(new ByteArrayInputStream(bdata));
+        assertSame(content1, content2);
+        assertEquals(text.toString(), content2.toString());
+        assertFalse(content2.hasDecodeError());
+        assertTrue(content2.capacity() >= capacity);
+        assertEquals(0, loader.getPooledCount());
+
+        loader.release(new DecodedContent());
+        loader.release(new DecodedContent());
+        loader.release(new DecodedContent());
+        assertEquals(2, loader.getPooledCount());
+
+        loader.release(null);
+        assertEquals(2, loader.getPooledCount());
+
+        ContentLoader small = new ContentLoader(2, 100);
+        DecodedContent large = small.load(bdata);
+        assertTrue(large.capacity() > 100);
+        small.release(large);
+        assertEquals(0, small.getPooledCount());
+        assertEquals(text.toString(), large.toString());
+
+        DecodedContent compacted = new DecodedContent("abc");
+        compacted.compact();
+        small.release(compacted);
+        assertEquals(1, small.getPooledCount());
+        assertFalse(compacted.isCompact());
+        assertEquals(0, compacted.length());
+
+        return;
+    }
+
+    /**
+     * Test of load method, of class ContentLoader.
+     */
+    @Test
+    public void testLoadFailure() {
+        System.out.println("load failure");
+
+        ContentLoader loader = new ContentLoader(2, 1000);
+        InputStream istream = new InputStream(){
+            @Override
+            public int read() throws IOException {
+                throw new IOException();
+            }
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                throw new IOException();
+            }
+        };
+
+        assertThrows(IOException.class, () -> {
+            loader.load(istream);
+        });
+        assertEquals(1, loader.getPooledCount());
+
+        InputStream brokenStream = new InputStream(){
+            @Override
+            public int read() {
+                throw new IllegalStateException();
+            }
+            @Override
+            public int read(byte[] b, int off, int len) {
+                throw new IllegalStateException();
+            }
+        };
+
+        assertThrows(IllegalStateException.class, () -> {
+            loader.load(brokenStream);
+        });
+        assertEquals(1, loader.getPooledCount());
+
+        assertThrows(NullPointerException.class, () -> {
+            loader.load((ByteBuffer) null);
+        });
+        assertEquals(1, loader.getPooledCount());
+
+        DecodedContent content = loader.load(new byte[]{0x41});
+        assertEquals("A", content.toString());
+        assertEquals(0, loader.getPooledCount());
+
+        return;
+    }
+
+}
@@ -197,6 +197,50 @@ public void testCreateGappedClone(){
         return;
     }
 
+    /**
+     * Test of equals and hashCode method, of class DecodeErrorInfo.
+     */
+    @Test
+    public void testEquals(){
+        System.out.println("equals");
+
+        DecodeErrorInfo info1;
+        DecodeErrorInfo info2;
+
+        info1 = new DecodeErrorInfo(99, (byte)0xfe);
+        assertEquals(info1, info1);
+        assertNotEquals(info1, null);
+        assertNotEquals(info1, "start:99 fe");
+
+        info2 = new DecodeErrorInfo(99, (byte)0xfe);
+        assertNotSame(info1, info2);
+        assertEquals(info1, info2);
+        assertEquals(info2, info1);
+        assertEquals(info1.hashCode(), info2.hashCode());
+
+        info2 = new DecodeErrorInfo(98, (byte)0xfe);
+        assertNotEquals(info1, info2);
+        info2 = new DecodeErrorInfo(99, (byte)0xfd);
+        assertNotEquals(info1, info2);
+        info2 = new DecodeErrorInfo(99, (byte)0xfe, B0);
+        assertNotEquals(info1, info2);
+        assertNotEquals(info2, info1);
+
+        info1 = new DecodeErrorInfo(999, (byte)0x87, (byte)0x40);
+        info2 = new DecodeErrorInfo(999, (byte)0x87, (byte)0x40);
+        assertEquals(info1, info2);
+        assertEquals(info1.hashCode(), info2.hashCode());
+        info2 = new DecodeErrorInfo(999, (byte)0x87, (byte)0x41);
+        assertNotEquals(info1, info2);
+
+        info1 = new DecodeErrorInfo(101, (byte)0x87, (byte)0x40);
+        info2 = info1.createGappedClone(2).createGappedClone(-2);
+        assertEquals(info1, info2);
+        assertEquals(info1.hashCode(), info2.hashCode());
+
+        return;
+    }
+
     /**
      * Test of toString method, of class DecodeErrorInfo.
      */
@@ -0,0 +1,178 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class DecodeErrorTableTest {
+
+    public DecodeErrorTableTest() {
+    }
+
+    /**
+     * Test of add method, of class DecodeErrorTable.
+     */
+    @Test
+    public void testAdd() {
+        System.out.println("add");
+
+        DecodeErrorTable table = new DecodeErrorTable();
+        assertTrue(table.isEmpty());
+        assertEquals(0, table.size());
+
+        table.add(3, (byte)0xff);
+        table.add(5, (byte)0x85, (byte)0x40);
+        table.add(new DecodeErrorInfo(9, (byte)0x81, (byte)0x7f));
+        assertFalse(table.isEmpty());
+        assertEquals(3, table.size());
+
+        assertEquals(3, table.getCharPosition(0));
+        assertEquals(0xff, table.getRaw(0));
+        assertEquals(0x18540, table.getRaw(1));
+
+        DecodeErrorInfo info;
+        info = table.createInfo(0);
+        assertEquals(3, info.getCharPosition());
+        assertFalse(info.has2nd());
+        assertEquals((byte)0xff, info.getRawByte1st());
+
+        info = table.createInfo(2);
+        assertEquals(9, info.getCharPosition());
+        assertTrue(info.has2nd());
+        assertEquals((byte)0x81, info.getRawByte1st());
+        assertEquals((byte)0x7f, info.getRawByte2nd());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            table.getCharPosition(3);
+        });
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            table.createInfo(-1);
+        });
+
+        table.trimToSize();
+        assertEquals(3, table.size());
+        table.add(20, (byte)0x00);
+        assertEquals(20, table.getCharPosition(3));
+
+        table.clear();
+        assertTrue(table.isEmpty());
+
+        return;
+    }
+
+    /**
+     * Test of searchIndex method, of class DecodeErrorTable.
+     */
+    @Test
+    public void testSearchIndex() {
+        System.out.println("searchIndex");
+
+        DecodeErrorTable table = new DecodeErrorTable();
+        assertEquals(0, table.searchIndex(10));
+
+        for(int pos = 0; pos <= 50; pos += 10){
+            table.add(pos, (byte)0x00);
+        }
+
+        assertEquals(0, table.searchIndex(-1));
+        assertEquals(0, table.searchIndex(0));
+        assertEquals(1, table.searchIndex(1));
+        assertEquals(1, table.searchIndex(10));
+        assertEquals(5, table.searchIndex(50));
+        assertEquals(6, table.searchIndex(51));
+
+        List<DecodeErrorInfo> list = table.asList();
+        for(int pos = -1; pos <= 51; pos++){
+            assertEquals(DecodeErrorInfo.lsearchErrorIndex(list, pos),
+                         DecodeErrorInfo.searchErrorIndex(list, pos));
+        }
+
+        return;
+    }
+
+    /**
+     * Test of appendShifted method, of class DecodeErrorTable.
+     */
+    @Test
+    public void testAppendShifted() {
+        System.out.println("appendShifted");
+
+        DecodeErrorTable src = new DecodeErrorTable();
+        for(int pos = 0; pos <= 50; pos += 10){
+            src.add(pos, (byte)pos);
+        }
+
+        DecodeErrorTable dst = new DecodeErrorTable();
+        dst.appendShifted(src, 15, 35, -100);
+        assertEquals(2, dst.size());
+        assertEquals(120, dst.getCharPosition(0));
+        assertEquals(130, dst.getCharPosition(1));
+        assertEquals(20, dst.getRaw(0));
+
+        dst.appendShifted(src, 10, 41, -200);
+        assertEquals(6, dst.size());
+        assertEquals(210, dst.getCharPosition(2));
+        assertEquals(240, dst.getCharPosition(5));
+
+        dst.appendShifted(src, 15, 16, -300);
+        dst.appendShifted(src, 20, 20, -300);
+        dst.appendShifted(src, 60, 70, -300);
+        assertEquals(6, dst.size());
+
+        src.appendShifted(src, 0, 51, -51);
+        assertEquals(12, src.size());
+        assertEquals(51, src.getCharPosition(6));
+        assertEquals(101, src.getCharPosition(11));
+        assertEquals(50, src.getRaw(11));
+
+        return;
+    }
+
+    /**
+     * Test of asList method, of class DecodeErrorTable.
+     */
+    @Test
+    public void testAsList() {
+        System.out.println("asList");
+
+        DecodeErrorTable table = new DecodeErrorTable();
+        List<DecodeErrorInfo> list = table.asList();
+        assertTrue(list.isEmpty());
+
+        table.add(1, (byte)0x41);
+        table.add(2, (byte)0x82, (byte)0xa0);
+        assertEquals(2, list.size());
+        assertEquals(2, list.get(1).getCharPosition());
+        assertEquals((byte)0xa0, list.get(1).getRawByte2nd());
+        assertEquals(list.get(1), list.get(1));
+        assertEquals(new DecodeErrorInfo(2, (byte)0x82, (byte)0xa0),
+                     list.get(1));
+        assertEquals(list.get(0).hashCode(), list.get(0).hashCode());
+        assertEquals(-1, list.indexOf(new DecodeErrorInfo(2, (byte)0x82)));
+        assertEquals(1,
+                list.indexOf(new DecodeErrorInfo(2, (byte)0x82, (byte)0xa0)));
+
+        assertSame(table, DecodeErrorTable.tableOf(list));
+        assertNull(DecodeErrorTable.tableOf(new java.util.ArrayList<>()));
+
+        assertThrows(UnsupportedOperationException.class, () -> {
+            list.add(new DecodeErrorInfo(3, (byte)0x00));
+        });
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            list.get(2);
+        });
+
+        return;
+    }
+
+}
@@ -901,6 +901,15 @@ public void testEnsureCapacity(){
         content.append("abc");
         assertEquals("abc", content.toString());
 
+        content = new DecodedContent(100);
+        assertTrue(content.capacity() >= 100);
+        content.append("abc");
+        content.init();
+        assertTrue(content.capacity() >= 100);
+        content.append("abc");
+        content.compact();
+        assertEquals(3, content.capacity());
+
         return;
     }
 
@@ -944,4 +953,94 @@ public void testSetCharAt(){
         return;
     }
 
+    /**
+     * Test of getChars method, of class DecodedContent.
+     */
+    @Test
+    public void testGetChars(){
+        System.out.println("getChars");
+
+        DecodedContent content = new DecodedContent("ab");
+        content.addDecodeError((byte)0xff);
+        content.append("de");
+
+        char[] dst = {'x', 'x', 'x', 'x', 'x'};
+        content.getChars(1, 4, dst, 1);
+        assertArrayEquals(new char[]{'x', 'b', '?', 'd', 'x'}, dst);
+
+        content.getChars(2, 2, dst, 5);
+
+        try{
+            content.getChars(3, 6, dst, 0);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // NOTHING
+        }
+        try{
+            content.getChars(0, 3, dst, 3);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // NOTHING
+        }
+
+        return;
+    }
+
+    /**
+     * Test of compact method, of class DecodedContent.
+     */
+    @Test
+    public void testCompact(){
+        System.out.println("compact");
+
+        DecodedContent content = new DecodedContent("<a>ゲルト");
+        content.addDecodeError((byte)0x85, (byte)0x40);
+        content.append("</a>");
+        String text = content.toString();
+
+        assertFalse(content.isCompact());
+        content.compact();
+        assertTrue(content.isCompact());
+        content.compact();
+        assertTrue(content.isCompact());
+
+        assertEquals(text, content.toString());
+        assertEquals(text.length(), content.length());
+        assertEquals('ゲ', content.charAt(3));
+        assertEquals('>', content.charAt(2));
+        assertEquals("ルト?", content.subSequence(4, 7).toString());
+        assertEquals(text, content.getRawContent().toString());
+        assertEquals(1, content.getDecodeErrorList().size());
+        assertEquals(6, content.getDecodeErrorList().get(0).getCharPosition());
+
+        char[] dst = new char[3];
+        content.getChars(2, 5, dst, 0);
+        assertArrayEquals(new char[]{'>', 'ゲ', 'ル'}, dst);
+
+        DecodedContent sub = content.subContent(5, 8);
+        assertEquals("ト?<", sub.toString());
+        assertEquals(1, sub.getDecodeErrorList().get(0).getCharPosition());
+
+        content.append('X');
+        assertFalse(content.isCompact());
+        assertEquals(text + "X", content.toString());
+
+        content.compact();
+        content.setCharAt(0, '[');
+        assertFalse(content.isCompact());
+        assertEquals("[a>", content.subSequence(0, 3).toString());
+
+        content.compact();
+        content.addDecodeError((byte)0xff);
+        assertFalse(content.isCompact());
+        assertEquals(2, content.getDecodeErrorList().size());
+
+        content.compact();
+        content.init();
+        assertFalse(content.isCompact());
+        assertEquals("", content.toString());
+
+        return;
+    }
+
 }
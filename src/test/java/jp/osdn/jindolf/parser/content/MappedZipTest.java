@@ -0,0 +1,259 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class MappedZipTest {
+
+    private static final byte[] SJIS_BYTES = {
+        (byte)0x41,
+        (byte)0x82, (byte)0xa0,
+        (byte)0x81, (byte)0x40,
+        (byte)0xff,
+        (byte)0x88, (byte)0x9f,
+        (byte)0x42,
+    };
+
+    private Path tempDir;
+
+    public MappedZipTest() {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException{
+        this.tempDir = Files.createTempDirectory("mappedzip");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException{
+        // マップ中のファイルを削除できない環境もある
+        this.tempDir.toFile().deleteOnExit();
+        try(Stream<Path> stream = Files.list(this.tempDir)){
+            stream.forEach(path -> path.toFile().deleteOnExit());
+        }
+    }
+
+    private static void putEntry(ZipOutputStream zos,
+                                 String name,
+                                 byte[] data,
+                                 boolean stored) throws IOException{
+        ZipEntry entry = new ZipEntry(name);
+        if(stored){
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }else{
+            entry.setMethod(ZipEntry.DEFLATED);
+        }
+        entry.setExtra(new byte[]{0x55, 0x54, 0x01, 0x00, 0x00});
+        zos.putNextEntry(entry);
+        zos.write(data);
+        zos.closeEntry();
+        return;
+    }
+
+    private static byte[] repeat(byte[] data, int times){
+        byte[] result = new byte[data.length * times];
+        for(int ct = 0; ct < times; ct++){
+            System.arraycopy(data, 0, result, data.length * ct, data.length);
+        }
+        return result;
+    }
+
+    private static void assertSameContent(DecodedContent expected,
+                                          DecodedContent result){
+        assertEquals(expected.toString(), result.toString());
+
+        List<DecodeErrorInfo> expList = expected.getDecodeErrorList();
+        List<DecodeErrorInfo> resList = result.getDecodeErrorList();
+        assertEquals(expList.size(), resList.size());
+        for(int idx = 0; idx < expList.size(); idx++){
+            DecodeErrorInfo expInfo = expList.get(idx);
+            DecodeErrorInfo resInfo = resList.get(idx);
+            assertEquals(expInfo.getCharPosition(),
+                         resInfo.getCharPosition());
+            assertEquals(expInfo.getRawByte1st(), resInfo.getRawByte1st());
+        }
+
+        return;
+    }
+
+    /**
+     * Test of decode method, of class MappedZip.
+     * @throws IOException
+     */
+    @Test
+    public void testDecode() throws IOException{
+        System.out.println("decode");
+
+        byte[] big = repeat(SJIS_BYTES, 10000);
+
+        Path zipPath = this.tempDir.resolve("test.zip");
+        try(OutputStream os = Files.newOutputStream(zipPath);
+            ZipOutputStream zos = new ZipOutputStream(os)){
+            zos.setComment("comment");
+            putEntry(zos, "stored.html", SJIS_BYTES, true);
+            putEntry(zos, "deflated.html", big, false);
+            putEntry(zos, "big.html", big, true);
+            putEntry(zos, "empty.html", new byte[0], true);
+        }
+
+        SjisDecoder decoder = new SjisDecoder();
+
+        try(MappedZip zip = new MappedZip(zipPath)){
+            List<MappedZip.Entry> entries = zip.getEntries();
+            assertEquals(4, entries.size());
+
+            MappedZip.Entry stored = entries.get(0);
+            assertEquals("stored.html", stored.getName());
+            assertTrue(stored.isStored());
+            assertEquals(SJIS_BYTES.length, stored.getSize());
+
+            ByteBuffer buffer = zip.map(stored);
+            assertTrue(buffer.isReadOnly());
+            assertEquals(0, buffer.position());
+            assertEquals(SJIS_BYTES.length, buffer.remaining());
+            assertEquals(SJIS_BYTES.length, buffer.capacity());
+            for(int idx = 0; idx < SJIS_BYTES.length; idx++){
+                assertEquals(SJIS_BYTES[idx], buffer.get(idx));
+            }
+
+            assertSameContent(decoder.decode(SJIS_BYTES),
+                              zip.decode(stored, decoder));
+
+            MappedZip.Entry deflated = entries.get(1);
+            assertEquals("deflated.html", deflated.getName());
+            assertFalse(deflated.isStored());
+            assertSameContent(decoder.decode(big),
+                              zip.decode(deflated, decoder));
+            assertThrows(IllegalArgumentException.class, () -> {
+                zip.map(deflated);
+            });
+
+            MappedZip.Entry bigEntry = entries.get(2);
+            assertTrue(bigEntry.isStored());
+            assertSameContent(decoder.decode(big),
+                              zip.decode(bigEntry, decoder));
+
+            MappedZip.Entry empty = entries.get(3);
+            assertTrue(empty.isStored());
+            assertEquals(0, zip.decode(empty, decoder).length());
+        }
+
+        return;
+    }
+
+    /**
+     * Test of entry name, of class MappedZip.
+     * @throws IOException
+     */
+    @Test
+    public void testNameCharset() throws IOException{
+        System.out.println("nameCharset");
+
+        Charset cp932 = Charset.forName("windows-31j");
+        String storedName = "村ログ/1日目.html";
+        String deflatedName = "村ログ/2日目.html";
+
+        Path zipPath = this.tempDir.resolve("cp932.zip");
+        try(OutputStream os = Files.newOutputStream(zipPath);
+            ZipOutputStream zos = new ZipOutputStream(os, cp932)){
+            putEntry(zos, storedName, SJIS_BYTES, true);
+            putEntry(zos, deflatedName, SJIS_BYTES, false);
+        }
+
+        SjisDecoder decoder = new SjisDecoder();
+        DecodedContent expected = decoder.decode(SJIS_BYTES);
+
+        try(MappedZip zip = new MappedZip(zipPath, cp932)){
+            List<MappedZip.Entry> entries = zip.getEntries();
+            assertEquals(2, entries.size());
+
+            MappedZip.Entry stored = entries.get(0);
+            assertEquals(storedName, stored.getName());
+            assertSameContent(expected, zip.decode(stored, decoder));
+
+            MappedZip.Entry deflated = entries.get(1);
+            assertEquals(deflatedName, deflated.getName());
+            assertSameContent(expected, zip.decode(deflated, decoder));
+        }
+
+        try(MappedZip zip = new MappedZip(zipPath)){
+            MappedZip.Entry deflated = zip.getEntries().get(1);
+            assertNotEquals(deflatedName, deflated.getName());
+            assertThrows(ZipException.class, () -> {
+                zip.decode(deflated, decoder);
+            });
+        }
+
+        return;
+    }
+
+    /**
+     * Test of constructor, of class MappedZip.
+     * @throws IOException
+     */
+    @Test
+    public void testNotZip() throws IOException{
+        System.out.println("notZip");
+
+        Path path = this.tempDir.resolve("bad.zip");
+        Files.write(path, SJIS_BYTES);
+
+        assertThrows(ZipException.class, () -> {
+            new MappedZip(path);
+        });
+
+        return;
+    }
+
+    /**
+     * Test of decode method, of class MappedFile.
+     * @throws IOException
+     */
+    @Test
+    public void testMappedFile() throws IOException{
+        System.out.println("mappedFile");
+
+        byte[] big = repeat(SJIS_BYTES, 1000);
+        Path path = this.tempDir.resolve("test.html");
+        Files.write(path, big);
+
+        SjisDecoder decoder = new SjisDecoder();
+        assertSameContent(decoder.decode(big),
+                          MappedFile.decode(path, decoder));
+
+        ByteBuffer buffer = MappedFile.map(path);
+        assertEquals(big.length, buffer.remaining());
+
+        return;
+    }
+
+}
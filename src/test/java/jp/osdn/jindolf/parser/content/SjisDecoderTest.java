@@ -0,0 +1,234 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser.content;
+
+import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ */
+public class SjisDecoderTest {
+
+    public SjisDecoderTest() {
+    }
+
+    private static DecodedContent notifierDecode(byte[] bdata)
+            throws IOException, DecodeBreakException{
+        SjisNotifier notifier = new SjisNotifier();
+        ContentBuilderSJ builder = new ContentBuilderSJ();
+        notifier.setCharDecodeListener(builder);
+        InputStream istream = new ByteArrayInputStream(bdata);
+        notifier.decode(istream);
+        return builder.getContent();
+    }
+
+    private static void assertSameContent(DecodedContent expected,
+                                          DecodedContent result){
+        assertEquals(expected.toString(), result.toString());
+
+        List<DecodeErrorInfo> expList = expected.getDecodeErrorList();
+        List<DecodeErrorInfo> resList = result.getDecodeErrorList();
+        assertEquals(expList.size(), resList.size());
+        for(int idx = 0; idx < expList.size(); idx++){
+            DecodeErrorInfo expInfo = expList.get(idx);
+            DecodeErrorInfo resInfo = resList.get(idx);
+            assertEquals(expInfo.getCharPosition(),
+                         resInfo.getCharPosition());
+            assertEquals(expInfo.has2nd(), resInfo.has2nd());
+            assertEquals(expInfo.getRawByte1st(), resInfo.getRawByte1st());
+            if(expInfo.has2nd()){
+                assertEquals(expInfo.getRawByte2nd(),
+                             resInfo.getRawByte2nd());
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of decode method, of class SjisDecoder.
+     */
+    @Test
+    public void testDecode(){
+        System.out.println("decode");
+
+        SjisDecoder decoder = new SjisDecoder();
+        DecodedContent content;
+        DecodeErrorInfo einfo;
+
+        content = decoder.decode(Bseq.byteArray("20:41:42:43:7e"));
+        assertEquals(" ABC~", content.toString());
+        assertFalse(content.hasDecodeError());
+
+        content = decoder.decode(Bseq.byteArray(""));
+        assertEquals("", content.toString());
+        assertFalse(content.hasDecodeError());
+
+        content = decoder.decode(Bseq.byteArray("A1:B1:B2:B3:DF"));
+        assertEquals("｡ｱｲｳﾟ", content.toString());
+        assertFalse(content.hasDecodeError());
+
+        content = decoder.decode(
+                Bseq.byteArray("8140:82A0:82A2:82A4:889F:EAA4"));
+        assertEquals("　あいう亜熙", content.toString());
+        assertFalse(content.hasDecodeError());
+
+        content = decoder.decode(Bseq.byteArray("5c:8d5c"));
+        assertEquals("\\構", content.toString());
+        assertFalse(content.hasDecodeError());
+
+        content = decoder.decode(Bseq.byteArray("41:8540:42"));
+        assertEquals("A?B", content.toString());
+        assertEquals(1, content.getDecodeErrorList().size());
+        einfo = content.getDecodeErrorList().get(0);
+        assertEquals(1, einfo.getCharPosition());
+        assertTrue(einfo.has2nd());
+        assertEquals((byte)0x85, einfo.getRawByte1st());
+        assertEquals((byte)0x40, einfo.getRawByte2nd());
+
+        content = decoder.decode(Bseq.byteArray("41:ff:42"));
+        assertEquals("A?B", content.toString());
+        assertEquals(1, content.getDecodeErrorList().size());
+        einfo = content.getDecodeErrorList().get(0);
+        assertEquals(1, einfo.getCharPosition());
+        assertFalse(einfo.has2nd());
+        assertEquals((byte)0xff, einfo.getRawByte1st());
+
+        content = decoder.decode(Bseq.byteArray("41:82"));
+        assertEquals("A?", content.toString());
+        assertEquals(1, content.getDecodeErrorList().size());
+        einfo = content.getDecodeErrorList().get(0);
+        assertFalse(einfo.has2nd());
+        assertEquals((byte)0x82, einfo.getRawByte1st());
+
+        byte[] bdata = Bseq.byteArray("00:41:82A0:42:43");
+        content = decoder.decode(bdata, 1, 3);
+        assertEquals("Aあ", content.toString());
+
+        return;
+    }
+
+    /**
+     * Test of decode method, of class SjisDecoder.
+     * 全ての2バイトの組み合わせについて
+     * SjisNotifierとContentBuilderSJの組み合わせと比較する。
+     * @throws IOException
+     * @throws DecodeBreakException
+     */
+    @Test
+    public void testDecodeCompat() throws IOException, DecodeBreakException{
+        System.out.println("decode compat");
+
+        SjisDecoder decoder = new SjisDecoder();
+        byte[] bdata = new byte[4];
+        byte[] tail = new byte[2];
+        bdata[0] = 0x41;
+        bdata[3] = 0x42;
+        tail[0] = 0x41;
+
+        for(int b1 = 0x00; b1 <= 0xff; b1++){
+            tail[1] = (byte) b1;
+            assertSameContent(notifierDecode(tail), decoder.decode(tail));
+
+            for(int b2 = 0x00; b2 <= 0xff; b2++){
+                bdata[1] = (byte) b1;
+                bdata[2] = (byte) b2;
+                assertSameContent(notifierDecode(bdata),
+                                  decoder.decode(bdata));
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of countChars method, of class SjisDecoder.
+     */
+    @Test
+    public void testCountChars(){
+        System.out.println("countChars");
+
+        byte[] bdata;
+        ByteBuffer buffer;
+
+        bdata = Bseq.byteArray("41:82A0:ff:8540:A1:82:42:889F:82");
+        buffer = ByteBuffer.wrap(bdata);
+        assertEquals(8, SjisDecoder.countChars(buffer));
+        assertEquals(0, buffer.position());
+        assertEquals(8, new SjisDecoder().decode(bdata).length());
+
+        buffer = ByteBuffer.wrap(Bseq.byteArray(""));
+        assertEquals(0, SjisDecoder.countChars(buffer));
+
+        return;
+    }
+
+    /**
+     * Test of decode method, of class SjisDecoder.
+     * 入力を分割した場合。
+     */
+    @Test
+    public void testDecodeIncremental(){
+        System.out.println("decode incremental");
+
+        SjisDecoder decoder = new SjisDecoder();
+        byte[] bdata = Bseq.byteArray("41:82A0:ff:8540:A1:82:42:889F:82");
+        DecodedContent expected = decoder.decode(bdata);
+
+        for(int split = 0; split <= bdata.length; split++){
+            DecodedContent content = new DecodedContent();
+            ByteBuffer buffer = ByteBuffer.allocate(bdata.length);
+
+            buffer.put(bdata, 0, split);
+            buffer.flip();
+            decoder.decode(buffer, content, false);
+            buffer.compact();
+
+            buffer.put(bdata, split, bdata.length - split);
+            buffer.flip();
+            decoder.decode(buffer, content, true);
+
+            assertFalse(buffer.hasRemaining());
+            assertSameContent(expected, content);
+        }
+
+        return;
+    }
+
+    /**
+     * Test of decode method, of class SjisDecoder.
+     * @throws IOException
+     */
+    @Test
+    public void testDecodeStream() throws IOException{
+        System.out.println("decode stream");
+
+        SjisDecoder decoder = new SjisDecoder();
+
+        StringBuilder text = new StringBuilder();
+        for(int ct = 0; ct < 5000; ct++){
+            text.append("人狼BBS").append(ct).append('\n');
+        }
+        byte[] bdata = text.toString().getBytes(ShiftJis.CHARSET);
+
+        DecodedContent content;
+        content = decoder.decode(new ByteArrayInputStream(bdata));
+        assertEquals(text.toString(), content.toString());
+        assertFalse(content.hasDecodeError());
+
+        return;
+    }
+
+}
@@ -9,19 +9,20 @@
 
 import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
 import io.bitbucket.olyutorskii.jiocema.DecodeNotifier;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
-import java.util.Enumeration;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import jp.osdn.jindolf.parser.HtmlHandler;
 import jp.osdn.jindolf.parser.HtmlParseException;
 import jp.osdn.jindolf.parser.HtmlParser;
 import jp.osdn.jindolf.parser.content.ContentBuilder;
 import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.osdn.jindolf.parser.content.MappedFile;
+import jp.osdn.jindolf.parser.content.MappedZip;
+import jp.osdn.jindolf.parser.content.SjisDecoder;
 
 /**
  * サンプルのパーサ。
@@ -89,23 +90,23 @@ private static void modeStdin()
     }
 
     private static void modeZip(String zipFileName)
-            throws IOException,DecodeBreakException,HtmlParseException{
+            throws IOException,HtmlParseException{
         System.out.println(
                  "ZIPアーカイブ内の*.htmlファイルから"
                 +"人狼BBSのXHTML文書の読み取りを開始します...");
 
-        try(ZipFile zipFile = new ZipFile(zipFileName)){
-            Enumeration<? extends ZipEntry> list = zipFile.entries();
-            while(list.hasMoreElements()){
-                ZipEntry entry = list.nextElement();
+        SjisDecoder decoder = new SjisDecoder();
+
+        Path zipPath = Paths.get(zipFileName);
+        try(MappedZip zipFile = new MappedZip(zipPath)){
+            for(MappedZip.Entry entry : zipFile.getEntries()){
                 String name = entry.getName();
                 if( ! name.endsWith(".html") ) continue;
 
                 System.out.println(name + "のパースを開始...");
 
-                try(InputStream istream = zipFile.getInputStream(entry)){
-                    parseStream(istream);
-                }
+                DecodedContent content = zipFile.decode(entry, decoder);
+                parseContent(content);
             }
         }
 
@@ -113,12 +114,12 @@ private static void modeZip(String zipFileName)
     }
 
     private static void modeFile(String fileName)
-            throws IOException,DecodeBreakException,HtmlParseException{
+            throws IOException,HtmlParseException{
         System.out.println(fileName + "のパースを開始...");
 
-        try(InputStream istream = new FileInputStream(fileName)){
-            parseStream(istream);
-        }
+        Path path = Paths.get(fileName);
+        DecodedContent content = MappedFile.decode(path, new SjisDecoder());
+        parseContent(content);
 
         return;
     }
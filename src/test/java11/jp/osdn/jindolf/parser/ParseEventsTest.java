@@ -0,0 +1,143 @@
+/*
+ * License : The MIT License
+ * Copyright(c) 2009 olyutorskii
+ */
+
+package jp.osdn.jindolf.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jp.osdn.jindolf.parser.content.ContentLoader;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Flight Recorderイベントの記録を検査する。
+ * Java 11以降向けのクラス群を対象とする。
+ */
+public class ParseEventsTest {
+
+    private static final Charset SJIS = Charset.forName("Shift_JIS");
+
+    private static final String EV_PFX = "jp.osdn.jindolf.parser.";
+    private static final String EV_DOCUMENT = EV_PFX + "Document";
+    private static final String EV_TALK     = EV_PFX + "Talk";
+    private static final String EV_SYSEVENT = EV_PFX + "SysEvent";
+    private static final String EV_ERROR    = EV_PFX + "ParseError";
+    private static final String EV_DECODE   = EV_PFX + "Decode";
+
+    public ParseEventsTest() {
+    }
+
+    private static List<RecordedEvent> select(List<RecordedEvent> events,
+                                              String name){
+        List<RecordedEvent> result = events.stream()
+                .filter(event -> name.equals(event.getEventType().getName()))
+                .collect(Collectors.toList());
+        return result;
+    }
+
+    /**
+     * Test of Flight Recorder events.
+     * @throws IOException
+     */
+    @Test
+    public void testRecording() throws IOException{
+        System.out.println("recording");
+
+        String announce =
+                "今日は犠牲者がいないようだ。人狼は襲撃に失敗したのだろうか。";
+        byte[] bytes = TestPages.buildPage(3, announce).getBytes(SJIS);
+        String broken = TestPages.DOCUMENT_HEAD + "F1 テスト村";
+
+        HtmlAdapter handler = new HtmlAdapter(){};
+        HtmlParser parser = new HtmlParser();
+        parser.setBasicHandler(handler);
+        parser.setTalkHandler(handler);
+        parser.setSysEventHandler(handler);
+
+        ContentLoader loader = new ContentLoader();
+
+        Path file = Files.createTempFile("jinparser", ".jfr");
+        List<RecordedEvent> events;
+        try(Recording recording = new Recording()){
+            recording.enable(EV_DOCUMENT).withoutThreshold();
+            recording.enable(EV_TALK).withoutThreshold();
+            recording.enable(EV_SYSEVENT).withoutThreshold();
+            recording.enable(EV_ERROR);
+            recording.enable(EV_DECODE).withoutThreshold();
+            recording.start();
+
+            DecodedContent content = loader.load(bytes);
+            parser.parseAutomatic(content);
+            loader.release(content);
+
+            content = loader.load(new ByteArrayInputStream(bytes));
+            loader.release(content);
+
+            try{
+                parser.parseAutomatic(new DecodedContent(broken));
+                fail();
+            }catch(HtmlParseException e){
+                assertNotNull(e.getMessage());
+            }
+
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }catch(HtmlParseException e){
+            fail();
+            return;
+        }finally{
+            Files.deleteIfExists(file);
+        }
+
+        List<RecordedEvent> decodes = select(events, EV_DECODE);
+        assertEquals(2, decodes.size());
+        for(RecordedEvent event : decodes){
+            assertEquals(bytes.length, event.getLong("bytes"));
+            assertEquals(0, event.getInt("errors"));
+        }
+
+        List<RecordedEvent> documents = select(events, EV_DOCUMENT);
+        assertEquals(1, documents.size());
+        RecordedEvent document = documents.get(0);
+        assertEquals("PERIOD_PAGE", document.getString("pageType"));
+        int chars = decodes.get(0).getInt("chars");
+        assertEquals(chars, document.getInt("chars"));
+
+        List<RecordedEvent> talks = select(events, EV_TALK);
+        assertEquals(3, talks.size());
+        for(RecordedEvent talk : talks){
+            // 番号の無い発言
+            assertEquals(-1, talk.getInt("talkNo"));
+            assertTrue(talk.getInt("chars") > 0);
+        }
+
+        List<RecordedEvent> sysEvents = select(events, EV_SYSEVENT);
+        assertEquals(1, sysEvents.size());
+        assertEquals("NOMURDER", sysEvents.get(0).getString("eventType"));
+
+        List<RecordedEvent> errors = select(events, EV_ERROR);
+        assertEquals(1, errors.size());
+        RecordedEvent error = errors.get(0);
+        assertNotNull(error.getString("message"));
+        assertTrue(error.getInt("charPos") >= 0);
+        assertTrue(error.getInt("charPos") <= broken.length());
+
+        return;
+    }
+
+}